@@ -0,0 +1,99 @@
+package com.resources.benchmark;
+
+import com.resources.arsc.ArscParser;
+import com.resources.arsc.ArscReplacer;
+import com.resources.arsc.ArscWriter;
+import com.resources.arsc.ResStringPool;
+import com.resources.mapping.WhitelistFilter;
+import com.resources.model.ClassMapping;
+import com.resources.model.MappingIndex;
+import com.resources.model.PackageMapping;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * resources.arsc解析/替换/写回基准
+ *
+ * 规模通过-p stringCount=N调整（全局字符串数，同时也是entry数）
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArscBenchmark {
+
+    @Param({"1000", "20000"})
+    public int stringCount;
+
+    private byte[] arscData;
+    private byte[] poolData;
+    private ArscParser parsed;
+    private ResStringPool parsedPool;
+    private ByteBuffer poolOutput;
+    private WhitelistFilter whitelistFilter;
+    private MappingIndex mappingIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        arscData = Fixtures.arsc(stringCount);
+        poolData = Fixtures.stringPool(Fixtures.strings(stringCount));
+
+        parsed = new ArscParser();
+        parsed.parse(arscData);
+
+        parsedPool = parsePool();
+        poolOutput = ByteBuffer.allocate(poolData.length * 2 + 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+        whitelistFilter = new WhitelistFilter();
+        whitelistFilter.addOwnPackage(Fixtures.OWN_PACKAGE);
+
+        PackageMapping packageMapping = new PackageMapping();
+        packageMapping.addPrefixMapping(Fixtures.OWN_PACKAGE, Fixtures.NEW_PACKAGE);
+        mappingIndex = MappingIndex.compile(new ClassMapping(), packageMapping);
+    }
+
+    @Benchmark
+    public ArscParser parseArsc() {
+        ArscParser parser = new ArscParser();
+        parser.parse(arscData);
+        return parser;
+    }
+
+    @Benchmark
+    public byte[] writeArsc() {
+        return new ArscWriter().toByteArray(parsed);
+    }
+
+    @Benchmark
+    public ResStringPool parseStringPool() {
+        return parsePool();
+    }
+
+    @Benchmark
+    public int writeStringPool() {
+        poolOutput.clear();
+        return parsedPool.write(poolOutput);
+    }
+
+    /**
+     * 每次替换都在新解析的字符串池上进行，结果包含解析开销（可与parseStringPool对照扣除）
+     */
+    @Benchmark
+    public int replaceStringPool() {
+        return new ArscReplacer(whitelistFilter).replaceStringPool(parsePool(), mappingIndex);
+    }
+
+    private ResStringPool parsePool() {
+        ResStringPool pool = new ResStringPool();
+        pool.parse(ByteBuffer.wrap(poolData).order(ByteOrder.LITTLE_ENDIAN));
+        return pool;
+    }
+}
@@ -0,0 +1,66 @@
+package com.resources.benchmark;
+
+import com.resources.axml.AxmlReader;
+import com.resources.axml.AxmlReplacer;
+import com.resources.axml.AxmlVisitor;
+import com.resources.axml.AxmlWriter;
+import com.resources.mapping.WhitelistFilter;
+import com.resources.model.ClassMapping;
+import com.resources.model.PackageMapping;
+import com.resources.validator.SemanticValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AXML读写与替换基准
+ *
+ * 规模通过-p viewCount=N调整（布局中的子View数量）
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AxmlBenchmark {
+
+    @Param({"50", "1000"})
+    public int viewCount;
+
+    private byte[] layoutData;
+    private AxmlReplacer replacer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        layoutData = Fixtures.layout(viewCount);
+
+        WhitelistFilter whitelistFilter = new WhitelistFilter();
+        whitelistFilter.addOwnPackage(Fixtures.OWN_PACKAGE);
+        PackageMapping packageMapping = new PackageMapping();
+        packageMapping.addPrefixMapping(Fixtures.OWN_PACKAGE, Fixtures.NEW_PACKAGE);
+        replacer = new AxmlReplacer(new SemanticValidator(whitelistFilter),
+                                    new ClassMapping(), packageMapping, false);
+    }
+
+    /**
+     * AxmlReader.accept + AxmlWriter.toByteArray（不修改内容的往返）
+     */
+    @Benchmark
+    public byte[] readWrite() throws IOException {
+        AxmlReader reader = new AxmlReader(layoutData);
+        AxmlWriter writer = new AxmlWriter();
+        reader.accept(new AxmlVisitor(writer));
+        writer.setStringPoolFlags(reader.getStringPoolFlags());
+        return writer.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] replaceLayout() throws IOException {
+        return replacer.replaceAxml("res/layout/bench.xml", layoutData);
+    }
+}
@@ -0,0 +1,310 @@
+package com.resources.benchmark;
+
+import com.resources.arsc.ModifiedUTF8;
+import com.resources.axml.AxmlWriter;
+import com.resources.axml.NodeVisitor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 基准测试用的合成数据
+ *
+ * 生成规模可配置、内容确定（固定随机种子）的resources.arsc、AXML和APK，
+ * 字符串混合自有类名、系统/三方类名、资源路径和普通文案，接近真实应用的分布。
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+final class Fixtures {
+
+    static final String OWN_PACKAGE = "com.example.app";
+    static final String NEW_PACKAGE = "com.renamed.app";
+
+    private static final String[] FOREIGN_CLASSES = {
+        "androidx.constraintlayout.widget.ConstraintLayout",
+        "androidx.recyclerview.widget.RecyclerView",
+        "android.widget.TextView",
+        "com.google.android.material.button.MaterialButton",
+        "com.squareup.picasso.Picasso",
+        "kotlin.jvm.internal.Intrinsics"
+    };
+
+    private static final int RES_TABLE_TYPE = 0x0002;
+    private static final int RES_STRING_POOL_TYPE = 0x0001;
+    private static final int RES_TABLE_PACKAGE_TYPE = 0x0200;
+    private static final int RES_TABLE_TYPE_TYPE = 0x0201;
+    private static final int RES_TABLE_TYPE_SPEC_TYPE = 0x0202;
+
+    private static final int UTF8_FLAG = 0x00000100;
+    private static final int PACKAGE_HEADER_SIZE = 288;
+    private static final int TYPE_HEADER_SIZE = 84;
+    private static final int CONFIG_SIZE = 64;
+
+    private Fixtures() {
+    }
+
+    /**
+     * 生成混合内容的字符串
+     *
+     * @param count 字符串数量
+     * @return 字符串列表（无重复）
+     */
+    static List<String> strings(int count) {
+        Random random = new Random(42);
+        List<String> strings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            switch (i % 5) {
+                case 0:
+                    strings.add(OWN_PACKAGE + ".ui.feature" + (i % 97) + ".View" + i);
+                    break;
+                case 1:
+                    strings.add(FOREIGN_CLASSES[random.nextInt(FOREIGN_CLASSES.length)] + "$" + i);
+                    break;
+                case 2:
+                    strings.add("res/layout/layout_" + i + ".xml");
+                    break;
+                case 3:
+                    strings.add("Text value " + i + " " + Long.toHexString(random.nextLong()));
+                    break;
+                default:
+                    strings.add(OWN_PACKAGE + ".data.Model" + i);
+                    break;
+            }
+        }
+        return strings;
+    }
+
+    /**
+     * 编码UTF-8字符串池chunk
+     */
+    static byte[] stringPool(List<String> strings) {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int[] offsets = new int[strings.size()];
+        for (int i = 0; i < strings.size(); i++) {
+            offsets[i] = data.size();
+            byte[] bytes = encode(strings.get(i));
+            writeLength8(data, ModifiedUTF8.countCharacters(bytes));
+            writeLength8(data, bytes.length);
+            data.write(bytes, 0, bytes.length);
+            data.write(0);
+        }
+        while (data.size() % 4 != 0) {
+            data.write(0);
+        }
+
+        int headerSize = 28;
+        int stringsStart = headerSize + strings.size() * 4;
+        int chunkSize = stringsStart + data.size();
+
+        ByteBuffer buffer = ByteBuffer.allocate(chunkSize).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putShort((short) RES_STRING_POOL_TYPE);
+        buffer.putShort((short) headerSize);
+        buffer.putInt(chunkSize);
+        buffer.putInt(strings.size());
+        buffer.putInt(0);            // styleCount
+        buffer.putInt(UTF8_FLAG);
+        buffer.putInt(stringsStart);
+        buffer.putInt(0);            // stylesStart
+        for (int offset : offsets) {
+            buffer.putInt(offset);
+        }
+        buffer.put(data.toByteArray());
+        return buffer.array();
+    }
+
+    /**
+     * 生成resources.arsc
+     *
+     * 结构：ResTable头 + 全局字符串池 + 一个0x7f资源包
+     * （类型池、键池、一个typeSpec和一个默认配置的type，每个entry引用一个全局字符串）
+     *
+     * @param stringCount 全局字符串数量
+     * @return ARSC字节数据
+     */
+    static byte[] arsc(int stringCount) {
+        byte[] globalPool = stringPool(strings(stringCount));
+        byte[] pkg = resourcePackage(OWN_PACKAGE, stringCount);
+
+        int size = 12 + globalPool.length + pkg.length;
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putShort((short) RES_TABLE_TYPE);
+        buffer.putShort((short) 12);
+        buffer.putInt(size);
+        buffer.putInt(1);  // packageCount
+        buffer.put(globalPool);
+        buffer.put(pkg);
+        return buffer.array();
+    }
+
+    private static byte[] resourcePackage(String name, int entryCount) {
+        byte[] typeStrings = stringPool(List.of("string"));
+        List<String> keys = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            keys.add("key_" + i);
+        }
+        byte[] keyStrings = stringPool(keys);
+
+        // typeSpec
+        int specSize = 16 + entryCount * 4;
+        ByteBuffer spec = ByteBuffer.allocate(specSize).order(ByteOrder.LITTLE_ENDIAN);
+        spec.putShort((short) RES_TABLE_TYPE_SPEC_TYPE);
+        spec.putShort((short) 16);
+        spec.putInt(specSize);
+        spec.put((byte) 1);          // id
+        spec.put((byte) 0);
+        spec.putShort((short) 0);
+        spec.putInt(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            spec.putInt(0);
+        }
+
+        // type：offsets + (ResTable_entry 8字节 + Res_value 8字节) * entryCount
+        int entriesStart = TYPE_HEADER_SIZE + entryCount * 4;
+        int typeSize = entriesStart + entryCount * 16;
+        ByteBuffer type = ByteBuffer.allocate(typeSize).order(ByteOrder.LITTLE_ENDIAN);
+        type.putShort((short) RES_TABLE_TYPE_TYPE);
+        type.putShort((short) TYPE_HEADER_SIZE);
+        type.putInt(typeSize);
+        type.put((byte) 1);          // id
+        type.put((byte) 0);          // flags
+        type.putShort((short) 0);
+        type.putInt(entryCount);
+        type.putInt(entriesStart);
+        type.putInt(CONFIG_SIZE);
+        type.put(new byte[CONFIG_SIZE - 4]);
+        for (int i = 0; i < entryCount; i++) {
+            type.putInt(i * 16);
+        }
+        for (int i = 0; i < entryCount; i++) {
+            type.putShort((short) 8);    // entry size
+            type.putShort((short) 0);    // entry flags
+            type.putInt(i);              // key index
+            type.putShort((short) 8);    // value size
+            type.put((byte) 0);
+            type.put((byte) 0x03);       // TYPE_STRING
+            type.putInt(i);              // global string index
+        }
+
+        int typeStringsOffset = PACKAGE_HEADER_SIZE;
+        int keyStringsOffset = typeStringsOffset + typeStrings.length;
+        int size = keyStringsOffset + keyStrings.length + specSize + typeSize;
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putShort((short) RES_TABLE_PACKAGE_TYPE);
+        buffer.putShort((short) PACKAGE_HEADER_SIZE);
+        buffer.putInt(size);
+        buffer.putInt(0x7f);
+        for (int i = 0; i < 128; i++) {
+            buffer.putChar(i < name.length() ? name.charAt(i) : '\0');
+        }
+        buffer.putInt(typeStringsOffset);
+        buffer.putInt(1);            // lastPublicType
+        buffer.putInt(keyStringsOffset);
+        buffer.putInt(entryCount);   // lastPublicKey
+        buffer.putInt(0);            // typeIdOffset
+        buffer.put(typeStrings);
+        buffer.put(keyStrings);
+        buffer.put(spec.array());
+        buffer.put(type.array());
+        return buffer.array();
+    }
+
+    /**
+     * 生成布局AXML：LinearLayout下交替排列自有View和系统View
+     *
+     * @param viewCount 子View数量
+     */
+    static byte[] layout(int viewCount) {
+        try {
+            AxmlWriter writer = new AxmlWriter();
+            NodeVisitor root = writer.child(null, "LinearLayout");
+            for (int i = 0; i < viewCount; i++) {
+                String tag = i % 2 == 0
+                    ? OWN_PACKAGE + ".widget.CustomView" + (i % 50)
+                    : FOREIGN_CLASSES[i % FOREIGN_CLASSES.length];
+                NodeVisitor child = root.child(null, tag);
+                child.end();
+            }
+            root.end();
+            writer.end();
+            return writer.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("生成布局失败", e);
+        }
+    }
+
+    /**
+     * 生成APK：resources.arsc + 布局 + 若干STORED/DEFLATED文件
+     *
+     * @param dir 输出目录
+     * @param fileCount 除resources.arsc外的文件数量
+     * @param fileSize 每个文件的大小
+     * @return APK路径
+     */
+    static Path apk(Path dir, int fileCount, int fileSize) throws IOException {
+        Path apk = dir.resolve("fixture-" + fileCount + "-" + fileSize + ".apk");
+        Random random = new Random(7);
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(apk))) {
+            zos.putNextEntry(new ZipEntry("resources.arsc"));
+            zos.write(arsc(2000));
+            zos.closeEntry();
+
+            for (int i = 0; i < fileCount; i++) {
+                byte[] data;
+                String name;
+                if (i % 4 == 0) {
+                    name = "res/layout/layout_" + i + ".xml";
+                    data = layout(20);
+                } else {
+                    name = "assets/data_" + i + ".bin";
+                    data = new byte[fileSize];
+                    // 一半内容可压缩
+                    for (int j = 0; j < data.length; j++) {
+                        data[j] = j % 2 == 0 ? (byte) random.nextInt() : (byte) (j & 0x0F);
+                    }
+                }
+
+                ZipEntry entry = new ZipEntry(name);
+                if (i % 8 == 1) {
+                    CRC32 crc = new CRC32();
+                    crc.update(data);
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(data.length);
+                    entry.setCrc(crc.getValue());
+                }
+                zos.putNextEntry(entry);
+                zos.write(data);
+                zos.closeEntry();
+            }
+            zos.putNextEntry(new ZipEntry("AndroidManifest.xml"));
+            zos.write("manifest".getBytes(StandardCharsets.UTF_8));
+            zos.closeEntry();
+        }
+        return apk;
+    }
+
+    private static byte[] encode(String value) {
+        try {
+            return ModifiedUTF8.encode(value);
+        } catch (IOException e) {
+            throw new IllegalStateException("字符串编码失败: " + value, e);
+        }
+    }
+
+    private static void writeLength8(ByteArrayOutputStream out, int length) {
+        if (length >= 0x80) {
+            out.write(0x80 | ((length >> 8) & 0x7F));
+        }
+        out.write(length & 0xFF);
+    }
+}
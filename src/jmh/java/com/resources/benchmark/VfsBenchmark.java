@@ -0,0 +1,78 @@
+package com.resources.benchmark;
+
+import com.resources.util.VirtualFileSystem;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * VFS加载/导出基准
+ *
+ * 规模通过-p fileCount=N -p fileSize=M调整
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VfsBenchmark {
+
+    @Param({"500"})
+    public int fileCount;
+
+    @Param({"16384"})
+    public int fileSize;
+
+    @Param({"PASSTHROUGH", "RECOMPRESS"})
+    public VirtualFileSystem.ExportMode exportMode;
+
+    private Path workDir;
+    private Path apk;
+    private Path output;
+    private VirtualFileSystem loaded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("vfs-bench");
+        apk = Fixtures.apk(workDir, fileCount, fileSize);
+        output = workDir.resolve("out.apk");
+
+        loaded = new VirtualFileSystem();
+        loaded.loadFromApk(apk.toString());
+        loaded.setExportMode(exportMode);
+        // 修改一个文件，使导出路径与真实处理一致
+        loaded.writeFile("AndroidManifest.xml", "modified".getBytes());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int load() throws IOException {
+        return new VirtualFileSystem().loadFromApk(apk.toString());
+    }
+
+    @Benchmark
+    public int loadLazy() throws IOException {
+        return new VirtualFileSystem().loadFromApkLazy(apk.toString());
+    }
+
+    @Benchmark
+    public long save() throws IOException {
+        loaded.saveToApk(output.toString());
+        return Files.size(output);
+    }
+}
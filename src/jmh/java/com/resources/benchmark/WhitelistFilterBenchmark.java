@@ -0,0 +1,63 @@
+package com.resources.benchmark;
+
+import com.resources.mapping.WhitelistFilter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 白名单判定基准
+ *
+ * cacheSize=0时测量纯前缀树判定，其余为带决策缓存的判定
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WhitelistFilterBenchmark {
+
+    @Param({"10000"})
+    public int stringCount;
+
+    @Param({"0", "1024"})
+    public int cacheSize;
+
+    private String[] values;
+    private WhitelistFilter filter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> strings = Fixtures.strings(stringCount);
+        values = strings.toArray(new String[0]);
+
+        filter = new WhitelistFilter(cacheSize);
+        filter.addOwnPackage(Fixtures.OWN_PACKAGE);
+        filter.addExcludePrefix(Fixtures.OWN_PACKAGE + ".vendor");
+    }
+
+    @Benchmark
+    public void shouldReplace(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(filter.shouldReplace(value));
+        }
+    }
+
+    /**
+     * 重复值场景（同一控件类名在大量布局中反复出现）
+     */
+    @Benchmark
+    public void shouldReplaceRepeated(Blackhole blackhole) {
+        for (int i = 0; i < values.length; i++) {
+            blackhole.consume(filter.shouldReplace(
+                i % 2 == 0 ? "androidx.constraintlayout.widget.ConstraintLayout"
+                           : "com.example.app.widget.CustomView"));
+        }
+    }
+}
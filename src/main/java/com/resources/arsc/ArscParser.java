@@ -3,339 +3,691 @@ package com.resources.arsc;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
 
 /**
  * resources.arsc 完整解析器
- * 
+ *
  * 解析AAPT2生成的完整resources.arsc文件，包括：
  * - ResTable header
  * - 全局字符串池
  * - 资源包（一个或多个）
- * 
+ *
+ * 两种入口：
+ * - {@link #parse(byte[])}：堆内数据，立即解析所有chunk
+ * - {@link #parseMapped(Path)} / {@link #parseMapped(FileChannel)} / {@link #parseLazy(ByteBuffer)}：
+ *   内存映射（或任意ByteBuffer），只扫描chunk头部，全局字符串池和资源包在首次访问时
+ *   才解析；未访问的chunk不进入堆，写回时直接从映射拼接
+ *
+ * 构造时指定执行器后，多资源包的表（共享库、feature、overlay）按包并行解析、
+ * 重映射和序列化，结果按文件中的顺序组装。
+ *
  * @author Resources Processor Team
  * @version 1.0.0
  */
 public class ArscParser {
-    
+
     private static final Logger log = LoggerFactory.getLogger(ArscParser.class);
-    
+
     // Chunk类型常量
     public static final int RES_TABLE_TYPE = 0x0002;
-    
+
+    // ResTable头部大小
+    private static final int RES_TABLE_HEADER_SIZE = 12;
+
+    // 资源包头部中包名的偏移和长度（char16_t[128]）
+    private static final int PACKAGE_NAME_OFFSET = 12;
+    private static final int PACKAGE_NAME_LENGTH = 128;
+
     // 数据成员
     private int packageCount;                    // 包数量
-    private ResStringPool globalStringPool;      // 全局字符串池
-    private List<ResTablePackage> packages;      // 资源包列表
-    
+    private ResStringPool globalStringPool;      // 全局字符串池（延迟模式下首次访问时解析）
+
     // 原始数据
-    private byte[] originalData;
-    
+    private byte[] originalData;                 // parse(byte[])传入的数组
+    private volatile ByteBuffer source;          // 原始数据的只读视图（堆数组或内存映射）
+
+    // 顶层chunk在原始数据中的位置（按文件顺序，用于增量写回）
+    private final List<ChunkSpan> chunkSpans = new ArrayList<>();
+    private ChunkSpan globalPoolSpan;
+
+    // 多资源包并行处理的执行器（null=串行）
+    private final ExecutorService executor;
+
+    /**
+     * 顶层chunk位置
+     *
+     * owner为对应的ResStringPool或ResTablePackage；跳过的chunk和尚未解析的chunk为null，
+     * 写回时原样拷贝
+     */
+    static final class ChunkSpan {
+        final int type;
+        final int offset;
+        final int size;
+        volatile Object owner;
+
+        ChunkSpan(int type, int offset, int size) {
+            this.type = type;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        boolean isPackage() {
+            return type == ResTablePackage.RES_TABLE_PACKAGE_TYPE;
+        }
+    }
+
     public ArscParser() {
-        this.packages = new ArrayList<>();
+        this(null);
+    }
+
+    /**
+     * @param executor 多资源包并行解析和写回使用的执行器，为null时串行处理；
+     *                 执行器的生命周期由调用方管理
+     */
+    public ArscParser(ExecutorService executor) {
+        this.executor = executor;
     }
-    
+
     /**
      * 解析resources.arsc文件
-     * 
+     *
      * @param data resources.arsc文件的完整字节数据
      * @throws IllegalArgumentException 解析失败
      */
     public void parse(byte[] data) throws IllegalArgumentException {
         Objects.requireNonNull(data, "data不能为null");
-        
+
         if (data.length == 0) {
             throw new IllegalArgumentException("ARSC数据为空");
         }
-        
-        if (data.length < 12) {
+
+        if (data.length < RES_TABLE_HEADER_SIZE) {
             throw new IllegalArgumentException(
-                String.format("ARSC数据太小: 至少需要12字节（ResTable头部），实际%d字节", 
+                String.format("ARSC数据太小: 至少需要12字节（ResTable头部），实际%d字节",
                             data.length));
         }
-        
+
+        parseSource(ByteBuffer.wrap(data), true);
         this.originalData = data;
-        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
-        
+    }
+
+    /**
+     * 以内存映射方式解析resources.arsc文件
+     *
+     * 映射在文件关闭后仍然有效；解析器存活期间文件不得被修改。
+     *
+     * @param path 文件路径
+     * @throws IOException 读取或映射失败
+     * @throws IllegalArgumentException 格式错误
+     */
+    public void parseMapped(Path path) throws IOException {
+        Objects.requireNonNull(path, "path不能为null");
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            parseMapped(channel);
+        }
+    }
+
+    /**
+     * 以内存映射方式解析整个通道
+     *
+     * @param channel 文件通道（调用方负责关闭，映射在关闭后仍然有效）
+     * @throws IOException 映射失败
+     * @throws IllegalArgumentException 格式错误
+     */
+    public void parseMapped(FileChannel channel) throws IOException {
+        Objects.requireNonNull(channel, "channel不能为null");
+        parseMapped(channel, 0, channel.size());
+    }
+
+    /**
+     * 以内存映射方式解析通道中的一段区域（如APK中STORED的resources.arsc）
+     *
+     * @param channel 文件通道（调用方负责关闭，映射在关闭后仍然有效）
+     * @param position 起始偏移
+     * @param length 长度
+     * @throws IOException 映射失败
+     * @throws IllegalArgumentException 格式错误或超过2GB
+     */
+    public void parseMapped(FileChannel channel, long position, long length) throws IOException {
+        Objects.requireNonNull(channel, "channel不能为null");
+
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("ARSC超过2GB，无法解析: " + length);
+        }
+        if (position < 0 || position + length > channel.size()) {
+            throw new IllegalArgumentException(
+                String.format("映射区域越界: position=%d, length=%d, size=%d",
+                            position, length, channel.size()));
+        }
+
+        parseLazy(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+    }
+
+    /**
+     * 延迟解析ByteBuffer中的resources.arsc（position..limit）
+     *
+     * 只扫描顶层chunk头部；全局字符串池和资源包在首次访问时解析。
+     * 解析器持有该buffer的只读视图，调用方不得再修改其内容。
+     *
+     * @param data ARSC数据
+     * @throws IllegalArgumentException 格式错误
+     */
+    public void parseLazy(ByteBuffer data) throws IllegalArgumentException {
+        Objects.requireNonNull(data, "data不能为null");
+
+        if (data.remaining() < RES_TABLE_HEADER_SIZE) {
+            throw new IllegalArgumentException(
+                String.format("ARSC数据太小: 至少需要12字节（ResTable头部），实际%d字节",
+                            data.remaining()));
+        }
+
+        parseSource(data.slice(), false);
+        this.originalData = null;
+    }
+
+    /**
+     * 扫描顶层chunk，eager=true时立即解析全局字符串池和所有资源包
+     */
+    private void parseSource(ByteBuffer data, boolean eager) {
+        ByteBuffer buffer = data.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        int limit = buffer.limit();
+
+        synchronized (this) {
+            this.source = buffer;
+            this.globalStringPool = null;
+            this.globalPoolSpan = null;
+            this.chunkSpans.clear();
+        }
+
         try {
-            log.info("开始解析resources.arsc: {} 字节", data.length);
-            
-            // 1. 读取ResTable头部（添加边界检查）
-            if (buffer.remaining() < 12) {
-                throw new IllegalArgumentException(
-                    String.format("无法读取ResTable头部: 需要12字节，剩余%d字节", 
-                                buffer.remaining()));
-            }
-            
-            int type = buffer.getShort() & 0xFFFF;
-            int headerSize = buffer.getShort() & 0xFFFF;
-            int fileSize = buffer.getInt();
-            
+            log.info("开始解析resources.arsc: {} 字节 (延迟={})", limit, !eager);
+
+            // 1. 读取ResTable头部
+            int type = buffer.getShort(0) & 0xFFFF;
+            int headerSize = buffer.getShort(2) & 0xFFFF;
+            int fileSize = buffer.getInt(4);
+
             if (type != RES_TABLE_TYPE) {
                 throw new IllegalArgumentException(
-                    String.format("无效的文件类型: 期望0x%04X，实际0x%04X", 
+                    String.format("无效的文件类型: 期望0x%04X，实际0x%04X",
                                  RES_TABLE_TYPE, type));
             }
-            
-            if (fileSize != data.length) {
-                log.warn("文件大小不匹配: header={}, actual={}", fileSize, data.length);
+
+            if (fileSize != limit) {
+                log.warn("文件大小不匹配: header={}, actual={}", fileSize, limit);
             }
-            
+
             // 2. 读取包数量
-            this.packageCount = buffer.getInt();
-            
-            log.debug("ResTable: headerSize={}, fileSize={}, packageCount={}", 
+            this.packageCount = buffer.getInt(8);
+
+            log.debug("ResTable: headerSize={}, fileSize={}, packageCount={}",
                      headerSize, fileSize, packageCount);
-            
-            // 3. 解析所有chunk
-            while (buffer.position() < fileSize) {
-                // 防御#1: 检查是否有足够字节读取chunk头部
-                if (buffer.remaining() < 2) {
-                    log.warn("剩余字节不足2，停止解析。位置: {}, 文件大小: {}", 
-                            buffer.position(), fileSize);
+
+            // 3. 扫描所有chunk头部
+            int position = RES_TABLE_HEADER_SIZE;
+            int packageSpans = 0;
+            while (position < fileSize && position < limit) {
+                if (limit - position < 8) {
+                    log.warn("剩余字节不足8，停止解析。位置: {}, 文件大小: {}",
+                            position, fileSize);
                     break;
                 }
-                
-                int chunkStartPos = buffer.position();
-                
-                // 读取chunk类型（但不移动position）
-                buffer.mark();
-                int chunkType = buffer.getShort() & 0xFFFF;
-                buffer.reset();
-                
-                log.debug("发现chunk: type=0x{}, position={}", 
-                         Integer.toHexString(chunkType), chunkStartPos);
-                
-                switch (chunkType) {
-                    case ResStringPool.RES_STRING_POOL_TYPE:
-                        // 全局字符串池
-                        if (globalStringPool == null) {
-                            globalStringPool = new ResStringPool();
-                            globalStringPool.parse(buffer);
-                            log.info("全局字符串池解析完成: {} 个字符串", 
-                                    globalStringPool.getStringCount());
-                        } else {
-                            // 跳过其他字符串池（可能是包内的）
-                            skipChunk(buffer);
-                        }
-                        break;
-                        
-                    case ResTablePackage.RES_TABLE_PACKAGE_TYPE:
-                        // 资源包
-                        ResTablePackage pkg = new ResTablePackage();
-                        pkg.parse(buffer);
-                        packages.add(pkg);
-                        log.info("资源包解析完成: {}", pkg);
-                        break;
-                        
-                    default:
-                        // 未知chunk，跳过
-                        log.debug("跳过未知chunk: type=0x{}", Integer.toHexString(chunkType));
-                        skipChunk(buffer);
-                        break;
+
+                int chunkType = buffer.getShort(position) & 0xFFFF;
+                int chunkSize = buffer.getInt(position + 4);
+
+                if (chunkSize < 8) {
+                    throw new IllegalArgumentException(
+                        String.format("无效的chunk大小: type=0x%04X, size=%d（至少需要8字节）",
+                                    chunkType, chunkSize));
+                }
+                if (chunkSize > limit - position) {
+                    throw new IllegalArgumentException(
+                        String.format("chunk超出边界: type=0x%04X, size=%d, position=%d, limit=%d",
+                                    chunkType, chunkSize, position, limit));
                 }
+
+                log.debug("发现chunk: type=0x{}, position={}, size={}",
+                         Integer.toHexString(chunkType), position, chunkSize);
+
+                ChunkSpan span = new ChunkSpan(chunkType, position, chunkSize);
+                chunkSpans.add(span);
+
+                if (chunkType == ResStringPool.RES_STRING_POOL_TYPE && globalPoolSpan == null) {
+                    // 第一个字符串池为全局字符串池，其他字符串池原样保留
+                    globalPoolSpan = span;
+                } else if (span.isPackage()) {
+                    packageSpans++;
+                } else {
+                    log.debug("跳过chunk: type=0x{}", Integer.toHexString(chunkType));
+                }
+
+                position += chunkSize;
+            }
+
+            // 4. 立即模式：解析所有chunk
+            if (eager) {
+                getGlobalStringPool();
+                getPackages();
             }
-            
-            log.info("resources.arsc解析完成: {} 个包, 全局字符串池={}", 
-                    packages.size(), 
-                    globalStringPool != null ? globalStringPool.getStringCount() : 0);
-            
-            // 4. 验证
-            if (packages.size() != packageCount) {
-                log.warn("包数量不匹配: header={}, actual={}", packageCount, packages.size());
+
+            log.info("resources.arsc解析完成: {} 个包, 全局字符串池={}",
+                    packageSpans, globalPoolSpan != null ? peekStringCount(globalPoolSpan) : 0);
+
+            // 5. 验证
+            if (packageSpans != packageCount) {
+                log.warn("包数量不匹配: header={}, actual={}", packageCount, packageSpans);
             }
-            
+
         } catch (Exception e) {
             log.error("resources.arsc解析失败", e);
             throw new IllegalArgumentException("resources.arsc解析失败: " + e.getMessage(), e);
         }
     }
-    
+
     /**
-     * 跳过当前chunk
+     * chunk的独立视图（position指向chunk开始，limit为chunk结束）
      */
-    private void skipChunk(ByteBuffer buffer) {
-        int currentPos = buffer.position();
-        
-        // 边界检查：至少需要8字节读取chunk头部
-        if (buffer.remaining() < 8) {
-            throw new IllegalArgumentException(
-                String.format("无法读取chunk头部: position=%d, remaining=%d, 需要8字节",
-                            currentPos, buffer.remaining()));
+    private ByteBuffer view(ChunkSpan span) {
+        ByteBuffer view = source.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        view.limit(span.offset + span.size).position(span.offset);
+        return view;
+    }
+
+    /**
+     * 解析资源包chunk（已解析时直接返回）
+     *
+     * 按chunk加锁，不同资源包可在多个线程中同时解析。
+     */
+    private ResTablePackage materializePackage(ChunkSpan span) {
+        Object owner = span.owner;
+        if (owner != null) {
+            return (ResTablePackage) owner;
         }
-        
-        int type = buffer.getShort() & 0xFFFF;
-        buffer.getShort(); // headerSize (未使用)
-        int chunkSize = buffer.getInt();
-        
-        // 验证chunk大小合理性
-        if (chunkSize < 8) {
-            throw new IllegalArgumentException(
-                String.format("无效的chunk大小: type=0x%04X, size=%d（至少需要8字节）",
-                            type, chunkSize));
+        synchronized (span) {
+            owner = span.owner;
+            if (owner == null) {
+                ResTablePackage pkg = new ResTablePackage();
+                pkg.parse(view(span));
+                span.owner = pkg;
+                log.info("资源包解析完成: {}", pkg);
+                return pkg;
+            }
+            return (ResTablePackage) owner;
         }
-        
-        // 计算目标位置
-        int targetPos = currentPos + chunkSize;
-        
-        // 边界检查：目标位置不能超过buffer容量
-        if (targetPos > buffer.limit()) {
-            throw new IllegalArgumentException(
-                String.format("chunk超出边界: type=0x%04X, size=%d, position=%d, limit=%d",
-                            type, chunkSize, currentPos, buffer.limit()));
+    }
+
+    /**
+     * 对每个资源包执行任务（尚未解析的包在任务中解析）
+     *
+     * 有执行器且包数大于1时并行执行；结果总是按包在文件中的顺序返回。
+     */
+    private <T> List<T> forEachPackage(Function<ResTablePackage, T> task) {
+        List<Callable<T>> tasks = new ArrayList<>();
+        for (ChunkSpan span : chunkSpans) {
+            if (span.isPackage()) {
+                tasks.add(() -> task.apply(materializePackage(span)));
+            }
         }
-        
-        // 移动到chunk末尾
-        buffer.position(targetPos);
-        
-        log.trace("跳过chunk: type=0x{}, size={}", Integer.toHexString(type), chunkSize);
+        return invokeOrdered(executor, tasks);
     }
-    
+
+    /**
+     * 执行一组任务并按提交顺序收集结果
+     *
+     * executor为null或只有一个任务时在当前线程串行执行。任一任务失败时取消其余任务，
+     * 并原样抛出其RuntimeException。
+     *
+     * @throws IllegalStateException 等待时被中断
+     */
+    static <T> List<T> invokeOrdered(ExecutorService executor, List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (executor == null || tasks.size() <= 1) {
+            for (Callable<T> task : tasks) {
+                try {
+                    results.add(task.call());
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+            }
+            return results;
+        }
+
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(executor.submit(task));
+        }
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("资源包并行处理被中断", e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("资源包并行处理失败: " + cause, cause);
+        }
+        return results;
+    }
+
+    /**
+     * 从包头部读取packageId（不解析整个包）
+     */
+    private int peekPackageId(ChunkSpan span) {
+        return span.size >= 12 ? source.getInt(span.offset + 8) : -1;
+    }
+
+    /**
+     * 从包头部读取包名（不解析整个包）
+     */
+    private String peekPackageName(ChunkSpan span) {
+        if (span.size < PACKAGE_NAME_OFFSET + PACKAGE_NAME_LENGTH * 2) {
+            return null;
+        }
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < PACKAGE_NAME_LENGTH; i++) {
+            char c = source.getChar(span.offset + PACKAGE_NAME_OFFSET + i * 2);
+            if (c == 0) {
+                break;
+            }
+            name.append(c);
+        }
+        return name.toString();
+    }
+
+    /**
+     * 从字符串池头部读取字符串数量（不解析字符串池）
+     */
+    private int peekStringCount(ChunkSpan span) {
+        return span.size >= 12 ? source.getInt(span.offset + 8) : 0;
+    }
+
     /**
      * 查找包含指定模式的字符串索引
-     * 
+     *
      * @param pattern 搜索模式（可以是简单字符串或正则表达式）
      * @return 字符串索引列表
      */
     public List<Integer> findStringIndices(String pattern) {
         Objects.requireNonNull(pattern, "pattern不能为null");
-        
+
         List<Integer> indices = new ArrayList<>();
-        
-        if (globalStringPool != null) {
-            for (int i = 0; i < globalStringPool.getStringCount(); i++) {
-                String str = globalStringPool.getString(i);
+
+        ResStringPool pool = getGlobalStringPool();
+        if (pool != null) {
+            for (int i = 0; i < pool.getStringCount(); i++) {
+                String str = pool.getString(i);
                 if (str.contains(pattern) || str.matches(pattern)) {
                     indices.add(i);
                 }
             }
         }
-        
+
         log.debug("找到 {} 个匹配字符串: pattern='{}'", indices.size(), pattern);
         return indices;
     }
-    
+
     /**
      * 查找包含指定前缀的字符串
-     * 
+     *
      * @param prefix 前缀
      * @return 匹配的字符串及其索引
      */
     public Map<Integer, String> findStringsByPrefix(String prefix) {
         Objects.requireNonNull(prefix, "prefix不能为null");
-        
+
         Map<Integer, String> results = new LinkedHashMap<>();
-        
-        if (globalStringPool != null) {
-            for (int i = 0; i < globalStringPool.getStringCount(); i++) {
-                String str = globalStringPool.getString(i);
+
+        ResStringPool pool = getGlobalStringPool();
+        if (pool != null) {
+            for (int i = 0; i < pool.getStringCount(); i++) {
+                String str = pool.getString(i);
                 if (str.startsWith(prefix)) {
                     results.put(i, str);
                 }
             }
         }
-        
+
         log.debug("找到 {} 个前缀匹配字符串: prefix='{}'", results.size(), prefix);
         return results;
     }
-    
+
+    /**
+     * 收集所有资源包entry引用的全局字符串索引（会解析所有包）
+     *
+     * @return 被引用的字符串索引
+     */
+    public BitSet collectStringReferences() {
+        BitSet references = new BitSet();
+        for (BitSet packageReferences : forEachPackage(pkg -> {
+                BitSet bits = new BitSet();
+                pkg.collectStringReferences(bits);
+                return bits;
+            })) {
+            references.or(packageReferences);
+        }
+        return references;
+    }
+
+    /**
+     * 重映射所有资源包entry中的全局字符串引用（会解析所有包，按包并行）
+     *
+     * @param mapping 旧索引 -> 新索引（会被多个线程同时调用）
+     * @return 改写的值数量
+     */
+    public int remapStringReferences(IntUnaryOperator mapping) {
+        Objects.requireNonNull(mapping, "mapping不能为null");
+
+        int changed = 0;
+        for (int count : forEachPackage(pkg -> pkg.remapStringReferences(mapping))) {
+            changed += count;
+        }
+        return changed;
+    }
+
     /**
      * 获取主资源包（通常是packageId=0x7f的包）
-     * 
+     *
+     * 延迟模式下只解析被选中的包。
+     *
      * @return 主资源包，如果没有则返回null
      */
     public ResTablePackage getMainPackage() {
-        for (ResTablePackage pkg : packages) {
-            if (pkg.getId() == 0x7f) {
-                return pkg;
+        ChunkSpan first = null;
+        for (ChunkSpan span : chunkSpans) {
+            if (!span.isPackage()) {
+                continue;
+            }
+            if (first == null) {
+                first = span;
+            }
+            if (peekPackageId(span) == 0x7f) {
+                return materializePackage(span);
             }
         }
-        
+
         // 如果没有0x7f，返回第一个包
-        return packages.isEmpty() ? null : packages.get(0);
+        return first != null ? materializePackage(first) : null;
     }
-    
+
     /**
      * 根据packageId获取资源包
-     * 
+     *
      * @param packageId 包ID
      * @return 资源包，如果没有则返回null
      */
     public ResTablePackage getPackageById(int packageId) {
-        for (ResTablePackage pkg : packages) {
-            if (pkg.getId() == packageId) {
-                return pkg;
+        for (ChunkSpan span : chunkSpans) {
+            if (span.isPackage() && peekPackageId(span) == packageId) {
+                return materializePackage(span);
             }
         }
         return null;
     }
-    
+
     /**
      * 根据包名获取资源包
-     * 
+     *
      * @param packageName 包名
      * @return 资源包，如果没有则返回null
      */
     public ResTablePackage getPackageByName(String packageName) {
         Objects.requireNonNull(packageName, "packageName不能为null");
-        
-        for (ResTablePackage pkg : packages) {
-            if (packageName.equals(pkg.getName())) {
-                return pkg;
+
+        for (ChunkSpan span : chunkSpans) {
+            if (!span.isPackage()) {
+                continue;
+            }
+            // 已解析的包可能被改名，以解析结果为准
+            Object owner = span.owner;
+            String name = owner != null ? ((ResTablePackage) owner).getName() : peekPackageName(span);
+            if (packageName.equals(name)) {
+                return materializePackage(span);
             }
         }
         return null;
     }
-    
+
     /**
-     * 验证ARSC完整性
-     * 
+     * 验证ARSC完整性（会解析所有chunk）
+     *
      * @return true=有效, false=无效
      */
     public boolean validate() {
         try {
             // 1. 检查全局字符串池
-            if (globalStringPool != null && !globalStringPool.validate()) {
+            ResStringPool pool = getGlobalStringPool();
+            if (pool != null && !pool.validate()) {
                 log.error("全局字符串池验证失败");
                 return false;
             }
-            
-            // 2. 检查所有包
-            for (ResTablePackage pkg : packages) {
-                if (!pkg.validate()) {
+
+            // 2. 检查所有包（按包并行）
+            List<Boolean> packageResults = forEachPackage(pkg -> {
+                boolean valid = pkg.validate();
+                if (!valid) {
                     log.error("资源包验证失败: {}", pkg);
-                    return false;
                 }
+                return valid;
+            });
+            if (packageResults.contains(Boolean.FALSE)) {
+                return false;
             }
-            
+
             // 3. 检查包数量
-            if (packages.size() != packageCount) {
-                log.error("包数量不匹配: header={}, actual={}", packageCount, packages.size());
+            if (packageResults.size() != packageCount) {
+                log.error("包数量不匹配: header={}, actual={}", packageCount, packageResults.size());
                 return false;
             }
-            
+
             log.debug("ARSC验证通过");
             return true;
-            
+
         } catch (Exception e) {
             log.error("ARSC验证失败", e);
             return false;
         }
     }
-    
+
+    /**
+     * 获取全局字符串池（延迟模式下首次调用时解析）
+     */
+    public synchronized ResStringPool getGlobalStringPool() {
+        if (globalStringPool == null && globalPoolSpan != null) {
+            ResStringPool pool = new ResStringPool();
+            pool.parse(view(globalPoolSpan));
+            globalPoolSpan.owner = pool;
+            globalStringPool = pool;
+            log.info("全局字符串池解析完成: {} 个字符串", pool.getStringCount());
+        }
+        return globalStringPool;
+    }
+
+    /**
+     * 获取所有资源包（延迟模式下会解析全部包，有执行器时并行解析）
+     */
+    public List<ResTablePackage> getPackages() {
+        return forEachPackage(pkg -> pkg);
+    }
+
+    /**
+     * 获取已解析的资源包数量（延迟模式下反映实际访问量）
+     */
+    public int getMaterializedPackageCount() {
+        int count = 0;
+        for (ChunkSpan span : chunkSpans) {
+            if (span.isPackage() && span.owner != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     // Getters
-    public ResStringPool getGlobalStringPool() { return globalStringPool; }
-    public List<ResTablePackage> getPackages() { return new ArrayList<>(packages); }
     public int getPackageCount() { return packageCount; }
-    public byte[] getOriginalData() { return originalData != null ? originalData.clone() : null; }
-    
+
+    /**
+     * 获取原始数据副本（内存映射模式下会把整个表复制到堆上）
+     */
+    public byte[] getOriginalData() {
+        if (originalData != null) {
+            return originalData.clone();
+        }
+        if (source == null) {
+            return null;
+        }
+        byte[] copy = new byte[source.limit()];
+        source.duplicate().position(0).get(copy);
+        return copy;
+    }
+
+    /**
+     * 原始数据的只读视图（不复制，仅供同包的写入器拼接使用）
+     */
+    ByteBuffer source() { return source != null ? source.duplicate().order(ByteOrder.LITTLE_ENDIAN) : null; }
+
+    List<ChunkSpan> getChunkSpans() { return Collections.unmodifiableList(chunkSpans); }
+
+    /**
+     * 多资源包并行处理的执行器（null=串行），写入器序列化时共用
+     */
+    ExecutorService executor() { return executor; }
+
     @Override
     public String toString() {
-        return String.format("ArscParser{packages=%d, globalStrings=%d}", 
-                           packages.size(), 
-                           globalStringPool != null ? globalStringPool.getStringCount() : 0);
+        int packages = 0;
+        for (ChunkSpan span : chunkSpans) {
+            if (span.isPackage()) {
+                packages++;
+            }
+        }
+        return String.format("ArscParser{packages=%d, globalStrings=%d}",
+                           packages,
+                           globalPoolSpan != null ? peekStringCount(globalPoolSpan) : 0);
     }
 }
-
@@ -1,6 +1,7 @@
 package com.resources.arsc;
 
 import com.resources.mapping.WhitelistFilter;
+import com.resources.model.MappingIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -71,13 +72,28 @@ public class ArscReplacer {
             return 0;
         }
         
-        // ✅ 性能优化：预排序，只执行一次（移到循环外）
-        // 按前缀长度倒序排列，优先匹配最长前缀（避免com.example.ui被com.example误匹配）
-        List<Map.Entry<String, String>> sortedReplacements = new ArrayList<>(replacements.entrySet());
-        sortedReplacements.sort((a, b) -> Integer.compare(
-            b.getKey().length(), a.getKey().length()));
+        // 每个键既可精确匹配也可作为前缀，编译为索引后按最长前缀匹配
+        return replaceStringPool(pool, MappingIndex.fromReplacements(replacements));
+    }
+    
+    /**
+     * 使用已编译的映射索引替换字符串池中的类名/包名
+     * 
+     * 先按类名精确匹配，再按包名映射（精确或最长前缀）匹配；
+     * 索引可与AXML处理器共享，不再对每个字符串遍历全部映射。
+     * 
+     * @param pool 字符串池
+     * @param mappingIndex 编译后的映射索引
+     * @return 替换数量
+     */
+    public int replaceStringPool(ResStringPool pool, MappingIndex mappingIndex) {
+        Objects.requireNonNull(pool, "pool不能为null");
+        Objects.requireNonNull(mappingIndex, "mappingIndex不能为null");
         
-        log.debug("替换映射表已排序: {} 个映射", sortedReplacements.size());
+        if (mappingIndex.isEmpty()) {
+            log.debug("映射索引为空，跳过");
+            return 0;
+        }
         
         int replaceCount = 0;
         
@@ -96,7 +112,7 @@ public class ArscReplacer {
             }
             
             // 3. 查找精确匹配
-            String replacement = replacements.get(original);
+            String replacement = mappingIndex.getNewClass(original);
             if (replacement != null) {
                 pool.setString(i, replacement);
                 replaceCount++;
@@ -105,26 +121,14 @@ public class ArscReplacer {
                 continue;
             }
             
-            // 4. 前缀匹配（使用预排序的列表）
-            for (Map.Entry<String, String> entry : sortedReplacements) {
-                String oldPrefix = entry.getKey();
-                String newPrefix = entry.getValue();
+            // 4. 包名映射（最长前缀）
+            String newValue = mappingIndex.findPackageReplacement(original);
+            if (newValue != null) {
+                pool.setString(i, newValue);
+                replaceCount++;
                 
-                if (original.startsWith(oldPrefix)) {
-                    // 确保是完整的包名分隔
-                    int prefixLen = oldPrefix.length();
-                    if (original.length() == prefixLen || 
-                        original.charAt(prefixLen) == '.') {
-                        
-                        String newValue = newPrefix + original.substring(prefixLen);
-                        pool.setString(i, newValue);
-                        replaceCount++;
-                        
-                        log.info("替换字符串[{}]（前缀）: '{}' -> '{}'", 
-                                i, original, newValue);
-                        break;  // 找到匹配后立即退出
-                    }
-                }
+                log.info("替换字符串[{}]（前缀）: '{}' -> '{}'", 
+                        i, original, newValue);
             }
         }
         
@@ -302,6 +306,19 @@ public class ArscReplacer {
      * @return 报告内容
      */
     public String generateReplaceReport(ResStringPool pool, Map<String, String> replacements) {
+        return generateReplaceReport(pool, replacements, null);
+    }
+    
+    /**
+     * 生成替换报告，列出每个被替换字符串所影响的资源
+     * 
+     * @param pool 字符串池
+     * @param replacements 替换映射表
+     * @param index 资源索引（可为null，为null时不列出资源）
+     * @return 报告内容
+     */
+    public String generateReplaceReport(ResStringPool pool, Map<String, String> replacements,
+                                        ResourceTableIndex index) {
         StringBuilder report = new StringBuilder();
         report.append("════════════════════════════════════════\n");
         report.append("  ARSC字符串替换报告\n");
@@ -319,6 +336,12 @@ public class ArscReplacer {
                 String replacement = replacements.get(str);
                 if (replacement != null) {
                     report.append(String.format("[%d] '%s' -> '%s'\n", i, str, replacement));
+                    if (index != null) {
+                        for (int resourceId : index.getReferencingResources(i)) {
+                            report.append(String.format("    0x%08X %s\n", 
+                                                        resourceId, index.getResourceName(resourceId)));
+                        }
+                    }
                     replaceCount++;
                 }
             }
@@ -0,0 +1,151 @@
+package com.resources.arsc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 全局字符串池压缩器
+ *
+ * 在{@link ArscReplacer#replaceStringPool}之后可选执行：
+ * - 合并内容相同的字符串（前缀替换后多个旧类名可能映射到同一个新类名）
+ * - 删除没有任何entry引用的字符串
+ * - 同步重映射所有ResTableType中的字符串引用
+ *
+ * 带样式的字符串与样式按位置对应，保持原索引且不参与合并；
+ * 样式span名称引用的字符串视为被引用。保留下来的字符串维持原有相对顺序，
+ * 因此已排序的字符串池压缩后仍然有序。
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class ArscStringPoolCompactor {
+
+    private static final Logger log = LoggerFactory.getLogger(ArscStringPoolCompactor.class);
+
+    /**
+     * 压缩全局字符串池
+     *
+     * 会解析全部资源包以收集字符串引用。存在越界引用（数据损坏）时不做任何修改。
+     *
+     * @param parser 已解析的ARSC
+     * @return 压缩结果
+     * @throws IllegalArgumentException 资源数据损坏
+     */
+    public CompactionResult compact(ArscParser parser) {
+        Objects.requireNonNull(parser, "parser不能为null");
+
+        ResStringPool pool = parser.getGlobalStringPool();
+        if (pool == null) {
+            return CompactionResult.unchanged(0, 0);
+        }
+
+        int stringCount = pool.getStringCount();
+        int sizeBefore = pool.calculateSize();
+
+        BitSet references = parser.collectStringReferences();
+        if (references.length() > stringCount) {
+            log.warn("存在越界的全局字符串引用: index={}, 字符串数量={}，跳过压缩",
+                    references.length() - 1, stringCount);
+            return CompactionResult.unchanged(stringCount, sizeBefore);
+        }
+        pool.collectStyleReferences(references);
+
+        // 旧索引 -> 新索引（-1=删除）
+        int[] mapping = new int[stringCount];
+        Map<String, Integer> firstIndex = new HashMap<>();
+        int next = 0;
+        int merged = 0;
+        int removed = 0;
+        for (int i = 0; i < stringCount; i++) {
+            if (i < pool.getStyleCount()) {
+                mapping[i] = next++;
+            } else if (!references.get(i)) {
+                mapping[i] = -1;
+                removed++;
+            } else {
+                Integer existing = firstIndex.putIfAbsent(pool.getString(i), next);
+                if (existing != null) {
+                    mapping[i] = existing;
+                    merged++;
+                } else {
+                    mapping[i] = next++;
+                }
+            }
+        }
+
+        if (next == stringCount) {
+            log.info("全局字符串池无需压缩: {} 个字符串", stringCount);
+            return CompactionResult.unchanged(stringCount, sizeBefore);
+        }
+
+        int remapped = parser.remapStringReferences(index -> mapping[index]);
+        pool.compact(mapping, next);
+
+        CompactionResult result = new CompactionResult(
+            stringCount, next, merged, removed, remapped, sizeBefore, pool.calculateSize());
+        log.info("全局字符串池压缩完成: {}", result);
+        return result;
+    }
+
+    /**
+     * 压缩结果
+     */
+    public static final class CompactionResult {
+
+        private final int stringCountBefore;
+        private final int stringCountAfter;
+        private final int duplicatesMerged;
+        private final int unreferencedRemoved;
+        private final int referencesRemapped;
+        private final int sizeBefore;
+        private final int sizeAfter;
+
+        CompactionResult(int stringCountBefore, int stringCountAfter, int duplicatesMerged,
+                         int unreferencedRemoved, int referencesRemapped,
+                         int sizeBefore, int sizeAfter) {
+            this.stringCountBefore = stringCountBefore;
+            this.stringCountAfter = stringCountAfter;
+            this.duplicatesMerged = duplicatesMerged;
+            this.unreferencedRemoved = unreferencedRemoved;
+            this.referencesRemapped = referencesRemapped;
+            this.sizeBefore = sizeBefore;
+            this.sizeAfter = sizeAfter;
+        }
+
+        static CompactionResult unchanged(int stringCount, int size) {
+            return new CompactionResult(stringCount, stringCount, 0, 0, 0, size, size);
+        }
+
+        public int getStringCountBefore() { return stringCountBefore; }
+        public int getStringCountAfter() { return stringCountAfter; }
+        public int getDuplicatesMerged() { return duplicatesMerged; }
+        public int getUnreferencedRemoved() { return unreferencedRemoved; }
+        public int getReferencesRemapped() { return referencesRemapped; }
+        public int getSizeBefore() { return sizeBefore; }
+        public int getSizeAfter() { return sizeAfter; }
+
+        /**
+         * 字符串池chunk节省的字节数
+         */
+        public int getBytesSaved() { return sizeBefore - sizeAfter; }
+
+        /**
+         * 是否修改了字符串池
+         */
+        public boolean isCompacted() { return stringCountAfter != stringCountBefore; }
+
+        @Override
+        public String toString() {
+            return String.format("字符串 %d -> %d（合并重复=%d, 删除未引用=%d, 重映射引用=%d），" +
+                               "大小 %d -> %d 字节（节省 %d）",
+                               stringCountBefore, stringCountAfter, duplicatesMerged,
+                               unreferencedRemoved, referencesRemapped,
+                               sizeBefore, sizeAfter, getBytesSaved());
+        }
+    }
+}
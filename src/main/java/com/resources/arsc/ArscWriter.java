@@ -4,17 +4,27 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Callable;
 
 /**
  * ARSC写入器 - 生成修改后的resources.arsc文件
  * 
  * 功能：
- * - 将ArscParser生成的结构写入字节数组
+ * - 以ArscParser的原始数据为底稿增量写回：只重新序列化修改过的chunk
+ *   （全局字符串池、包名或字符串池被修改的资源包），其余chunk按原始字节拼接
+ * - 原始数据可以是内存映射的文件：从未被访问的资源包直接从映射写出
+ * - 两遍写出：先精确计算每个chunk的大小，再按顺序直接写入目标
+ *   （字节数组、OutputStream或WritableByteChannel），流式写出时不持有第二份完整数据
+ * - 解析器带执行器时，多个修改过的chunk（如多个资源包）并行序列化，按原始顺序组装
  * - 严格按照AAPT2二进制格式规范
  * - 写入后立即验证
  * - 支持写入文件
@@ -26,28 +36,18 @@ public class ArscWriter {
     
     private static final Logger log = LoggerFactory.getLogger(ArscWriter.class);
     
-    // Chunk类型常量
-    private static final int RES_TABLE_TYPE = 0x0002;
-    
-    // 自适应安全边界（防止大小计算误差）
-    // 小文件10%，大文件5%，超大文件2%
-    private static double getSafetyMargin(int calculatedSize) {
-        if (calculatedSize < 1024 * 1024) { // < 1MB
-            return 0.10; // 10%
-        } else if (calculatedSize < 10 * 1024 * 1024) { // < 10MB
-            return 0.05; // 5%
-        } else {
-            return 0.02; // 2%
-        }
-    }
+    // ResTable头部大小
+    private static final int RES_TABLE_HEADER_SIZE = 12;
     
     // ✅ 工业级标准：严格大小验证始终启用，不可关闭
-    // 注意：移除了setStrictSizeValidation()方法，严格验证始终启用
+    // 输出按精确大小写出，写入字节数与计算结果不一致立即失败
     
     /**
      * 将ArscParser转换为字节数组
      * 
-     * @param parser ARSC解析器
+     * 典型场景只修改全局字符串池，写入开销约为字符串池大小加一次整体拷贝。
+     * 
+     * @param parser ARSC解析器（必须已解析）
      * @return 完整的resources.arsc字节数据
      * @throws IllegalStateException 写入失败
      */
@@ -57,93 +57,24 @@ public class ArscWriter {
         try {
             log.info("开始生成resources.arsc字节数据");
             
-            // 1. 计算总大小（精确计算）
-            int calculatedSize = calculateTotalSize(parser);
-            
-            // 2. 添加自适应安全边界（防止大小计算误差）
-            double safetyMargin = getSafetyMargin(calculatedSize);
-            int safetyBytes = (int) (calculatedSize * safetyMargin);
-            int bufferSize = calculatedSize + safetyBytes;
+            int totalSize = calculateSize(parser);
+            List<ByteBuffer> segments = toSegments(parser, totalSize);
             
-            log.debug("预计总大小: {} 字节, 安全边界: {} 字节 ({}%), Buffer: {} 字节", 
-                    calculatedSize, safetyBytes, String.format("%.1f", safetyMargin * 100), bufferSize);
-            
-            // 3. 创建ByteBuffer（添加边界保护）
-            ByteBuffer buffer;
+            byte[] result;
             try {
-                buffer = ByteBuffer.allocate(bufferSize);
-                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                result = new byte[totalSize];
             } catch (OutOfMemoryError e) {
                 throw new IllegalStateException(
-                    String.format("无法分配ByteBuffer: 需要%d MB内存", 
-                                bufferSize / 1024 / 1024), e);
+                    String.format("无法分配输出缓冲区: 需要%d MB内存", 
+                                totalSize / 1024 / 1024), e);
             }
-            
-            // 4. 写入ResTable头部（占位符，稍后更新实际大小）
-            int headerPosition = buffer.position();
-            writeResTableHeader(buffer, parser, calculatedSize); // 先写预计大小
-            
-            // 5. 写入全局字符串池
-            if (parser.getGlobalStringPool() != null) {
-                int poolBefore = buffer.position();
-                try {
-                    parser.getGlobalStringPool().write(buffer);
-                } catch (Exception e) {
-                    throw new IllegalStateException(
-                        String.format("写入全局字符串池失败 at position=%d", poolBefore), e);
-                }
-            }
-            
-            // 6. 写入所有资源包
-            for (int i = 0; i < parser.getPackages().size(); i++) {
-                ResTablePackage pkg = parser.getPackages().get(i);
-                int pkgBefore = buffer.position();
-                try {
-                    pkg.write(buffer);
-                } catch (Exception e) {
-                    throw new IllegalStateException(
-                        String.format("写入资源包%d失败 at position=%d: %s", 
-                                    i, pkgBefore, pkg), e);
-                }
-            }
-            
-            // 7. 验证实际大小
-            int actualSize = buffer.position();
-            int sizeDiff = actualSize - calculatedSize;
-            
-            if (sizeDiff != 0) {
-                String level = Math.abs(sizeDiff) > safetyBytes ? "ERROR" : "WARN";
-                String msg = String.format(
-                    "[%s] ARSC大小不匹配: 预计=%d, 实际=%d, 差异=%+d (%.2f%%)",
-                    level, calculatedSize, actualSize, sizeDiff, 
-                    (sizeDiff * 100.0 / calculatedSize));
-                
-                if (Math.abs(sizeDiff) > safetyBytes) {
-                    // ✅ 工业级标准：大小差异超限立即失败
-                    log.error(msg);
-                    throw new IllegalStateException(
-                        "ARSC大小差异超过安全边界: 预计=" + calculatedSize + 
-                        ", 实际=" + actualSize + ", 差异=" + sizeDiff + 
-                        ", 安全边界=" + safetyBytes + ". 这表明size计算存在严重错误");
-                } else {
-                    // 轻微差异在安全边界内，记录警告
-                    log.warn("ARSC大小轻微不匹配: 预计={}, 实际={}, 差异={} (在安全边界内)",
-                            calculatedSize, actualSize, sizeDiff);
-                }
+            ByteBuffer buffer = ByteBuffer.wrap(result);
+            for (ByteBuffer segment : segments) {
+                buffer.put(segment);
             }
             
-            // 8. 返回实际大小的字节数组（去除多余的安全边界）
-            byte[] result = new byte[actualSize];
-            buffer.position(0);
-            buffer.get(result);
-            
-            // 9. 更新ResTable头部的实际大小
-            ByteBuffer resultBuffer = ByteBuffer.wrap(result).order(ByteOrder.LITTLE_ENDIAN);
-            resultBuffer.position(headerPosition + 4); // 跳到size字段
-            resultBuffer.putInt(actualSize);
-            
-            log.info("resources.arsc生成完成: {} 字节 (预计={}, 差异={})", 
-                    actualSize, calculatedSize, actualSize - calculatedSize);
+            checkSize(totalSize, buffer.position());
+            log.info("resources.arsc生成完成: {} 字节", totalSize);
             
             return result;
             
@@ -155,94 +86,194 @@ public class ArscWriter {
         }
     }
     
-    // ✅ 工业级标准：移除危险的验证开关API
-    // 严格大小验证始终启用，确保数据完整性
-    
     /**
-     * 写入ResTable头部
+     * 流式写出到WritableByteChannel（如导出APK时resources.arsc的ZIP entry）
+     * 
+     * 未修改的chunk直接从原始数据写出，只有修改过的chunk会被重新序列化，
+     * 不会在内存中再组装一份完整的表。
+     * 
+     * @param parser ARSC解析器（必须已解析）
+     * @param channel 目标通道（不会被关闭）
+     * @return 写入的字节数（等于{@link #calculateSize(ArscParser)}）
+     * @throws IOException 写入失败
+     * @throws IllegalStateException 序列化失败
      */
-    private void writeResTableHeader(ByteBuffer buffer, ArscParser parser, int totalSize) {
-        // ResTable_header结构：
-        // - type (2 bytes): 0x0002
-        // - headerSize (2 bytes): 12
-        // - size (4 bytes): totalSize
-        // - packageCount (4 bytes): 包数量
+    public long write(ArscParser parser, WritableByteChannel channel) throws IOException {
+        Objects.requireNonNull(parser, "parser不能为null");
+        Objects.requireNonNull(channel, "channel不能为null");
         
-        buffer.putShort((short) RES_TABLE_TYPE);
-        buffer.putShort((short) 12); // header size
-        buffer.putInt(totalSize);
-        buffer.putInt(parser.getPackageCount());
+        int totalSize = calculateSize(parser);
+        long written = 0;
+        for (ByteBuffer segment : toSegments(parser, totalSize)) {
+            while (segment.hasRemaining()) {
+                written += channel.write(segment);
+            }
+        }
         
-        log.debug("写入ResTable头部: size={}, packageCount={}", 
-                 totalSize, parser.getPackageCount());
+        checkSize(totalSize, written);
+        log.info("resources.arsc流式写出完成: {} 字节", written);
+        return written;
     }
     
     /**
-     * 计算总大小
+     * 流式写出到OutputStream
+     * 
+     * @param parser ARSC解析器（必须已解析）
+     * @param out 输出流（不会被关闭）
+     * @return 写入的字节数
+     * @throws IOException 写入失败
      */
-    private int calculateTotalSize(ArscParser parser) {
-        int size = 12; // ResTable_header
+    public long write(ArscParser parser, OutputStream out) throws IOException {
+        Objects.requireNonNull(out, "out不能为null");
         
-        // 全局字符串池（精确计算，无临时buffer）
-        if (parser.getGlobalStringPool() != null) {
-            size += calculateStringPoolSize(parser.getGlobalStringPool());
+        return write(parser, new WritableByteChannel() {
+            private final byte[] chunk = new byte[64 * 1024];
+            
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                int n = src.remaining();
+                if (src.hasArray()) {
+                    out.write(src.array(), src.arrayOffset() + src.position(), n);
+                    src.position(src.limit());
+                } else {
+                    while (src.hasRemaining()) {
+                        int len = Math.min(chunk.length, src.remaining());
+                        src.get(chunk, 0, len);
+                        out.write(chunk, 0, len);
+                    }
+                }
+                return n;
+            }
+            
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+            
+            @Override
+            public void close() {
+                // 由调用方关闭输出流
+            }
+        });
+    }
+    
+    /**
+     * 计算写回后的总大小（第一遍：只计算大小，不序列化）
+     * 
+     * @param parser ARSC解析器（必须已解析）
+     * @return 字节大小
+     * @throws IllegalStateException 未解析或超出上限
+     */
+    public int calculateSize(ArscParser parser) {
+        Objects.requireNonNull(parser, "parser不能为null");
+        if (parser.source() == null) {
+            throw new IllegalStateException("ArscParser尚未解析，无法写入");
         }
         
-        // 所有资源包（使用原始数据大小）
-        for (ResTablePackage pkg : parser.getPackages()) {
-            size += estimatePackageSize(pkg);
+        long size = RES_TABLE_HEADER_SIZE;
+        for (ArscParser.ChunkSpan span : parser.getChunkSpans()) {
+            Object owner = span.owner;
+            if (owner instanceof ResStringPool) {
+                // 字符串池（未修改时即原始大小）
+                size += ((ResStringPool) owner).calculateSize();
+            } else if (owner instanceof ResTablePackage) {
+                size += estimatePackageSize((ResTablePackage) owner);
+            } else {
+                // 跳过或尚未解析的chunk按原样写出
+                size += span.size;
+            }
         }
         
-        return size;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("ARSC大小超出上限: " + size);
+        }
+        return (int) size;
     }
     
     /**
-     * 精确计算字符串池大小（不使用临时buffer）
+     * 按原始顺序生成各chunk的分段数据（第二遍）
+     * 
+     * 未修改的chunk是原始数据的视图，修改过的chunk在此重新序列化
+     * （解析器带执行器时并行序列化）。
      */
-    private int calculateStringPoolSize(ResStringPool pool) {
-        int headerSize = 28;
-        int offsetsSize = pool.getStringCount() * 4;
-        int stylesOffsetsSize = pool.getStyleCount() * 4;
+    private List<ByteBuffer> toSegments(ArscParser parser, int totalSize) {
+        ByteBuffer original = parser.source();
+        List<ArscParser.ChunkSpan> spans = parser.getChunkSpans();
+        List<ByteBuffer> segments = new ArrayList<>(spans.size() + 4);
+        
+        // ResTable头部：原样拷贝后修正大小
+        ByteBuffer header = ByteBuffer.allocate(RES_TABLE_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(original.slice(0, RES_TABLE_HEADER_SIZE));
+        header.flip();
+        header.putInt(4, totalSize);
+        segments.add(header);
         
-        int stringsDataSize = 0;
-        for (int i = 0; i < pool.getStringCount(); i++) {
-            String str = pool.getString(i);
-            stringsDataSize += calculateStringSize(str, pool.isUtf8());
+        // 需要重新序列化的chunk作为任务执行，其余chunk直接取原始数据视图
+        List<List<ByteBuffer>> parts = new ArrayList<>(spans.size());
+        List<Integer> rewrittenSlots = new ArrayList<>();
+        List<Callable<List<ByteBuffer>>> rewrites = new ArrayList<>();
+        int splicedBytes = 0;
+        for (ArscParser.ChunkSpan span : spans) {
+            Object owner = span.owner;
+            Callable<List<ByteBuffer>> rewrite = null;
+            if (owner instanceof ResStringPool
+                    && !((ResStringPool) owner).canWriteOriginalChunk()) {
+                rewrite = () -> List.of(((ResStringPool) owner).toBuffer());
+            } else if (owner instanceof ResTablePackage
+                    && !((ResTablePackage) owner).isUnchanged()) {
+                rewrite = ((ResTablePackage) owner)::toSegments;
+            }
+            
+            if (rewrite != null) {
+                Callable<List<ByteBuffer>> task = rewrite;
+                rewrittenSlots.add(parts.size());
+                rewrites.add(() -> serializeChunk(span, owner, task));
+                parts.add(null);
+            } else {
+                // 未修改或从未解析的chunk（内存映射时不经过堆）
+                parts.add(List.of(original.slice(span.offset, span.size)));
+                splicedBytes += span.size;
+            }
         }
         
-        int padding = (stringsDataSize % 4 == 0) ? 0 : (4 - stringsDataSize % 4);
+        List<List<ByteBuffer>> rewritten = ArscParser.invokeOrdered(parser.executor(), rewrites);
+        for (int i = 0; i < rewritten.size(); i++) {
+            parts.set(rewrittenSlots.get(i), rewritten.get(i));
+        }
+        for (List<ByteBuffer> part : parts) {
+            segments.addAll(part);
+        }
         
-        return headerSize + offsetsSize + stylesOffsetsSize + stringsDataSize + padding;
+        log.debug("resources.arsc分段: 重新序列化{}个chunk, 原样拼接{}字节", 
+                 rewrites.size(), splicedBytes);
+        return segments;
     }
     
     /**
-     * 计算单个字符串编码后的大小
+     * 序列化单个修改过的chunk（可能在执行器线程中运行）
      */
-    private int calculateStringSize(String str, boolean utf8) {
-        if (utf8) {
-            try {
-                byte[] bytes = ModifiedUTF8.encode(str);
-                int byteLen = bytes.length;
-                int utf8CharLen = ModifiedUTF8.countCharacters(bytes);
-                
-                int size = 0;
-                size += (utf8CharLen >= 0x80) ? 2 : 1;  // UTF-8字符数编码
-                size += (byteLen >= 0x80) ? 2 : 1;      // 字节长度编码
-                size += byteLen;                         // 数据
-                size += 1;                               // 终止符
-                return size;
-            } catch (IOException e) {
-                throw new IllegalStateException("MUTF-8编码失败: " + str, e);
-            }
-        } else {
-            // UTF-16
-            int charLen = str.length();
-            
-            int size = 0;
-            size += (charLen >= 0x8000) ? 4 : 2;  // charLen编码
-            size += charLen * 2;                   // 数据（UTF-16）
-            size += 2;                             // 终止符
-            return size;
+    private static List<ByteBuffer> serializeChunk(ArscParser.ChunkSpan span, Object owner,
+                                                   Callable<List<ByteBuffer>> rewrite) {
+        try {
+            return rewrite.call();
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(
+                String.format("写入chunk失败 (原始offset=%d): %s", span.offset, owner), e);
+        }
+    }
+    
+    /**
+     * 验证实际写入大小与计算结果一致
+     */
+    private static void checkSize(long expected, long actual) {
+        if (actual != expected) {
+            String msg = String.format(
+                "ARSC大小不匹配: 预计=%d, 实际=%d, 差异=%+d. 这表明size计算存在严重错误",
+                expected, actual, actual - expected);
+            log.error(msg);
+            throw new IllegalStateException(msg);
         }
     }
     
@@ -251,14 +282,13 @@ public class ArscWriter {
      */
     private int estimatePackageSize(ResTablePackage pkg) {
         if (pkg.needsRebuild()) {
-            // 重建模式：使用calculateRebuildSize()精确计算
+            // 重建模式：只有字符串池大小变化
             int rebuildSize = pkg.calculateRebuildSize();
             log.debug("Package需要重建: packageId=0x{}, 大小={}", 
                      Integer.toHexString(pkg.getId()), rebuildSize);
             return rebuildSize;
         } else {
             // 原始模式：使用解析时保存的原始大小
-            // 这与writeWithOriginalData()的行为完全匹配
             return pkg.getOriginalSize();
         }
     }
@@ -18,6 +18,10 @@ import java.util.*;
  * - 重新计算偏移
  * - 验证完整性
  * 
+ * 默认延迟解码（DecodeMode.LAZY）：解析时只读取头部和偏移表，并保留原始字符串数据区，
+ * 字符串在首次getString时才解码；写回时未经setString修改的字符串按原始字节拷贝，
+ * 没有任何修改时整个chunk原样输出。样式数据区总是原样保留。
+ * 
  * @author Resources Processor Team
  * @version 1.0.0
  */
@@ -33,6 +37,20 @@ public class ResStringPool {
     // 头部大小（固定28字节）
     private static final int HEADER_SIZE = 28;
     
+    // ResStringPool_span: name + firstChar + lastChar，以0xFFFFFFFF结束
+    private static final int SPAN_SIZE = 12;
+    private static final int SPAN_END = 0xFFFFFFFF;
+    
+    /**
+     * 解码模式枚举
+     */
+    public enum DecodeMode {
+        /** 解析时解码全部字符串（解析阶段即发现损坏的字符串） */
+        EAGER,
+        /** 首次访问时解码（默认） */
+        LAZY
+    }
+    
     /**
      * 验证模式枚举
      */
@@ -51,18 +69,40 @@ public class ResStringPool {
     private int flags;            // 标志位（UTF8_FLAG, SORTED_FLAG）
     private int stringsStart;     // 字符串数据起始偏移（相对于chunk开始）
     
-    private List<String> strings;      // 字符串列表
-    private int[] stringOffsets;       // 字符串偏移数组
+    private String[] strings;          // 已解码或已替换的字符串（null=尚未解码）
+    private final BitSet modified = new BitSet();  // setString修改过的索引
+    private boolean compacted;         // 是否经compact重排（重排后不能原样输出chunk）
+    private int[] stringOffsets;       // 原始字符串偏移数组（相对于原始字符串数据区）
     private int[] styleOffsets;        // 样式偏移数组（可选）
     
+    private ByteBuffer rawChunk;       // 原始chunk（只读视图）
+    private ByteBuffer rawStrings;     // 原始字符串数据区（只读视图）
+    private ByteBuffer rawStyles;      // 原始样式数据区（只读视图，无样式时为null）
+    
     private boolean isUtf8;            // 是否UTF-8编码
     private boolean isSorted;          // 是否排序
     
     // 验证模式（默认STRICT以确保数据完整性）
     private ValidationMode validationMode = ValidationMode.WARN;
     
+    private DecodeMode decodeMode = DecodeMode.LAZY;
+    
     public ResStringPool() {
-        this.strings = new ArrayList<>();
+        this.strings = new String[0];
+        this.stringOffsets = new int[0];
+    }
+    
+    /**
+     * 设置解码模式（需在parse之前调用）
+     * 
+     * @param mode 解码模式
+     */
+    public void setDecodeMode(DecodeMode mode) {
+        this.decodeMode = Objects.requireNonNull(mode, "DecodeMode不能为null");
+    }
+    
+    public DecodeMode getDecodeMode() {
+        return decodeMode;
     }
     
     /**
@@ -141,16 +181,21 @@ public class ResStringPool {
             this.styleCount = buffer.getInt();
             this.flags = buffer.getInt();
             this.stringsStart = buffer.getInt();
-            buffer.getInt(); // stylesStart (未使用)
+            int stylesStart = buffer.getInt();
             
-            // 验证字符串数量合理性
+            // 验证字符串数量合理性：偏移表必须能放进chunk
             if (stringCount < 0) {
                 throw new IllegalArgumentException("字符串数量为负数: " + stringCount);
             }
             
-            if (stringCount > 1000000) { // 1M字符串 = 不合理
+            if (styleCount < 0) {
+                throw new IllegalArgumentException("样式数量为负数: " + styleCount);
+            }
+            
+            if (((long) stringCount + styleCount) * 4 > chunkSize - HEADER_SIZE) {
                 throw new IllegalArgumentException(
-                    String.format("字符串数量异常: %d（超过100万，可能数据损坏）", stringCount));
+                    String.format("字符串数量异常: strings=%d, styles=%d，偏移表超出chunk（size=%d），可能数据损坏",
+                                stringCount, styleCount, chunkSize));
             }
             
             this.isUtf8 = (flags & UTF8_FLAG) != 0;
@@ -194,49 +239,54 @@ public class ResStringPool {
                 }
             }
             
-            // 5. 读取字符串数据（边界检查）
-            this.strings = new ArrayList<>(stringCount);
-            int stringsDataPosition = startPosition + stringsStart;
-            
+            // 5. 定位字符串数据区（边界检查）
             // 验证stringsStart合理性
             if (stringsStart < HEADER_SIZE) {
                 throw new IllegalArgumentException(
                     String.format("stringsStart太小: %d（应该>=%d）", stringsStart, HEADER_SIZE));
             }
             
-            if (stringsDataPosition >= buffer.limit()) {
+            if (stringsStart >= chunkSize && stringCount > 0) {
                 throw new IllegalArgumentException(
-                    String.format("stringsStart超出buffer: position=%d, limit=%d",
-                                stringsDataPosition, buffer.limit()));
+                    String.format("stringsStart超出chunk: stringsStart=%d, chunkSize=%d",
+                                stringsStart, chunkSize));
             }
             
+            // 字符串数据区到样式数据区（或chunk末尾）为止
+            boolean hasStyleData = styleCount > 0 && stylesStart >= stringsStart && stylesStart <= chunkSize;
+            int stringsEnd = hasStyleData ? stylesStart : chunkSize;
+            
+            this.rawChunk = slice(buffer, startPosition, chunkSize);
+            this.rawStrings = slice(buffer, startPosition + Math.min(stringsStart, chunkSize),
+                                    Math.max(0, stringsEnd - stringsStart));
+            this.rawStyles = hasStyleData
+                ? slice(buffer, startPosition + stylesStart, chunkSize - stylesStart)
+                : null;
+            this.strings = new String[stringCount];
+            this.modified.clear();
+            this.compacted = false;
+            
             for (int i = 0; i < stringCount; i++) {
-                int stringPosition = stringsDataPosition + stringOffsets[i];
-                
-                // 验证字符串位置在buffer范围内
-                if (stringPosition < 0 || stringPosition >= buffer.limit()) {
+                // 验证字符串位置在数据区范围内
+                if (stringOffsets[i] >= rawStrings.limit()) {
                     throw new IllegalArgumentException(
-                        String.format("字符串[%d]位置越界: position=%d, limit=%d",
-                                    i, stringPosition, buffer.limit()));
+                        String.format("字符串[%d]位置越界: offset=%d, 数据区大小=%d",
+                                    i, stringOffsets[i], rawStrings.limit()));
                 }
-                
-                buffer.position(stringPosition);
-                
-                try {
-                    String str = isUtf8 ? readUtf8String(buffer) : readUtf16String(buffer);
-                    strings.add(str);
-                    log.trace("字符串[{}]: '{}' (offset={})", i, str, stringOffsets[i]);
-                } catch (Exception e) {
-                    throw new IllegalArgumentException(
-                        String.format("读取字符串[%d]失败 at position=%d: %s",
-                                    i, stringPosition, e.getMessage()), e);
+            }
+            
+            if (decodeMode == DecodeMode.EAGER) {
+                for (int i = 0; i < stringCount; i++) {
+                    strings[i] = decodeString(i);
+                    log.trace("字符串[{}]: '{}' (offset={})", i, strings[i], stringOffsets[i]);
                 }
             }
             
             // 6. 移动position到chunk末尾
             buffer.position(startPosition + chunkSize);
             
-            log.info("字符串池解析完成: {} 个字符串, {} 个样式", stringCount, styleCount);
+            log.info("字符串池解析完成: {} 个字符串, {} 个样式 (解码模式: {})", 
+                    stringCount, styleCount, decodeMode);
             
         } catch (Exception e) {
             log.error("字符串池解析失败", e);
@@ -244,6 +294,27 @@ public class ResStringPool {
         }
     }
     
+    private static ByteBuffer slice(ByteBuffer buffer, int position, int length) {
+        return buffer.slice(position, length).asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+    
+    /**
+     * 从原始数据区解码字符串
+     * 
+     * 使用独立的视图读取，多个线程可同时解码不同字符串
+     */
+    private String decodeString(int index) {
+        ByteBuffer view = rawStrings.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        view.position(stringOffsets[index]);
+        try {
+            return isUtf8 ? readUtf8String(view) : readUtf16String(view);
+        } catch (Exception e) {
+            throw new IllegalArgumentException(
+                String.format("读取字符串[%d]失败 at offset=%d: %s",
+                            index, stringOffsets[index], e.getMessage()), e);
+        }
+    }
+    
     /**
      * 读取UTF-8字符串
      * 格式：
@@ -478,28 +549,70 @@ public class ResStringPool {
                 String.format("索引越界: index=%d, size=%d", index, stringCount));
         }
         
-        String oldValue = strings.get(index);
-        strings.set(index, value);
+        String oldValue = getString(index);
+        if (oldValue.equals(value)) {
+            return;
+        }
+        strings[index] = value;
+        modified.set(index);
         
         log.debug("替换字符串[{}]: '{}' -> '{}'", index, oldValue, value);
     }
     
     /**
-     * 获取字符串
+     * 获取字符串（延迟模式下首次访问时解码）
+     * 
+     * @throws IllegalArgumentException 原始数据损坏，无法解码
      */
     public String getString(int index) {
         if (index < 0 || index >= stringCount) {
             throw new IndexOutOfBoundsException(
                 String.format("索引越界: index=%d, size=%d", index, stringCount));
         }
-        return strings.get(index);
+        String value = strings[index];
+        if (value == null) {
+            value = decodeString(index);
+            strings[index] = value;
+        }
+        return value;
     }
     
     /**
-     * 获取所有字符串
+     * 获取所有字符串（解码全部字符串）
      */
     public List<String> getStrings() {
-        return new ArrayList<>(strings);
+        List<String> result = new ArrayList<>(stringCount);
+        for (int i = 0; i < stringCount; i++) {
+            result.add(getString(i));
+        }
+        return result;
+    }
+    
+    /**
+     * 字符串是否经setString修改过
+     */
+    public boolean isModified(int index) {
+        return modified.get(index);
+    }
+    
+    /**
+     * 获取修改过的字符串数量
+     */
+    public int getModifiedCount() {
+        return modified.cardinality();
+    }
+    
+    /**
+     * 获取已解码的字符串数量（延迟模式下反映实际访问量）
+     */
+    public int getDecodedCount() {
+        int count = 0;
+        for (String value : strings) {
+            if (value != null) {
+                count++;
+            }
+        }
+        return count;
     }
     
     /**
@@ -517,24 +630,241 @@ public class ResStringPool {
     }
     
     /**
-     * 重新计算所有偏移
-     * 当字符串长度变化时调用
+     * 收集样式span引用的字符串索引
+     * 
+     * span名称（如"b"、"i"、"font"）也存放在本字符串池中，压缩时必须保留。
+     * 
+     * @param references 输出：被span引用的索引
+     * @throws IllegalArgumentException 样式数据损坏
+     */
+    void collectStyleReferences(BitSet references) {
+        Objects.requireNonNull(references, "references不能为null");
+        if (rawStyles == null || styleOffsets == null) {
+            return;
+        }
+        for (int style = 0; style < styleCount; style++) {
+            for (int pos = styleOffsets[style]; ; pos += SPAN_SIZE) {
+                int name = readSpanName(rawStyles, style, pos);
+                if (name == SPAN_END) {
+                    break;
+                }
+                references.set(name);
+            }
+        }
+    }
+    
+    /**
+     * 按映射表重排字符串池（删除和合并字符串）
+     * 
+     * 每个新索引取映射到它的第一个旧索引的内容：未修改的字符串仍按原始字节拷贝，
+     * 样式span中的名称索引同步重映射。带样式的字符串（索引小于样式数量）与样式
+     * 按位置对应，必须映射到自身。调用方负责同步重映射ResTableType中的引用。
+     * 
+     * @param mapping 旧索引 -> 新索引（-1表示删除）
+     * @param newCount 重排后的字符串数量
+     * @throws IllegalArgumentException 映射表不完整或移动了带样式的字符串
      */
-    public void recalculateOffsets() {
-        log.debug("重新计算字符串偏移...");
+    void compact(int[] mapping, int newCount) {
+        Objects.requireNonNull(mapping, "mapping不能为null");
+        if (mapping.length != stringCount) {
+            throw new IllegalArgumentException(
+                String.format("映射表长度不匹配: mapping=%d, strings=%d", mapping.length, stringCount));
+        }
+        if (newCount < styleCount || newCount > stringCount) {
+            throw new IllegalArgumentException(
+                String.format("重排后的字符串数量无效: %d（样式=%d，原数量=%d）", 
+                            newCount, styleCount, stringCount));
+        }
         
-        int currentOffset = 0;
+        int[] source = new int[newCount];
+        Arrays.fill(source, -1);
         for (int i = 0; i < stringCount; i++) {
-            stringOffsets[i] = currentOffset;
-            
-            String str = strings.get(i);
-            int strSize = calculateStringSize(str, isUtf8);
-            currentOffset += strSize;
-            
-            log.trace("字符串[{}] offset={}, size={}", i, stringOffsets[i], strSize);
+            int target = mapping[i];
+            if (i < styleCount && target != i) {
+                throw new IllegalArgumentException(
+                    String.format("带样式的字符串不能移动: index=%d -> %d", i, target));
+            }
+            if (target < -1 || target >= newCount) {
+                throw new IllegalArgumentException(
+                    String.format("映射目标越界: index=%d -> %d, newCount=%d", i, target, newCount));
+            }
+            if (target >= 0 && source[target] < 0) {
+                source[target] = i;
+            }
         }
         
-        log.info("偏移重新计算完成: 总大小={}", currentOffset);
+        String[] newStrings = new String[newCount];
+        int[] newOffsets = new int[newCount];
+        BitSet newModified = new BitSet();
+        for (int j = 0; j < newCount; j++) {
+            int from = source[j];
+            if (from < 0) {
+                throw new IllegalArgumentException("映射表不完整: 没有字符串映射到新索引" + j);
+            }
+            newStrings[j] = strings[from];
+            newOffsets[j] = stringOffsets[from];
+            if (modified.get(from)) {
+                newModified.set(j);
+            }
+        }
+        
+        this.rawStyles = remapStyleNames(mapping);
+        this.strings = newStrings;
+        this.stringOffsets = newOffsets;
+        this.modified.clear();
+        this.modified.or(newModified);
+        this.stringCount = newCount;
+        this.compacted = true;
+        
+        log.debug("字符串池重排: {} -> {} 个字符串", mapping.length, newCount);
+    }
+    
+    /**
+     * 复制样式数据区并按映射表改写span名称索引
+     */
+    private ByteBuffer remapStyleNames(int[] mapping) {
+        if (rawStyles == null || styleOffsets == null) {
+            return rawStyles;
+        }
+        ByteBuffer copy = ByteBuffer.allocate(rawStyles.limit()).order(ByteOrder.LITTLE_ENDIAN);
+        copy.put(rawStyles.duplicate());
+        for (int style = 0; style < styleCount; style++) {
+            for (int pos = styleOffsets[style]; ; pos += SPAN_SIZE) {
+                int name = readSpanName(copy, style, pos);
+                if (name == SPAN_END) {
+                    break;
+                }
+                if (name >= mapping.length || mapping[name] < 0) {
+                    throw new IllegalArgumentException(
+                        String.format("样式[%d]引用的span名称被删除: index=%d", style, name));
+                }
+                copy.putInt(pos, mapping[name]);
+            }
+        }
+        return copy.clear().asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+    
+    private static int readSpanName(ByteBuffer styles, int style, int pos) {
+        if (pos < 0 || pos + 4 > styles.limit()) {
+            throw new IllegalArgumentException(
+                String.format("样式[%d]数据越界: offset=%d, 样式区大小=%d", style, pos, styles.limit()));
+        }
+        return styles.getInt(pos);
+    }
+    
+    /**
+     * 是否可原样拷贝原始字符串
+     * 
+     * 未修改且有原始数据时拷贝原始字节；LENIENT模式下字符数与头部不一致的
+     * UTF-8字符串需要重新编码以修正头部。
+     */
+    private boolean isVerbatim(int index) {
+        if (rawStrings == null || modified.get(index)) {
+            return false;
+        }
+        if (validationMode == ValidationMode.LENIENT && isUtf8) {
+            return hasConsistentCharCount(index);
+        }
+        return true;
+    }
+    
+    private boolean hasConsistentCharCount(int index) {
+        ByteBuffer view = rawStrings.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        view.position(stringOffsets[index]);
+        int charLen = readLength(view);
+        int byteLen = readLength(view);
+        byte[] data = new byte[byteLen];
+        view.get(data);
+        return ModifiedUTF8.countCharacters(data) == charLen;
+    }
+    
+    /**
+     * 原始字符串（含长度前缀和终止符）的字节数，不解码
+     */
+    private int rawStringSize(int index) {
+        int offset = stringOffsets[index];
+        int limit = rawStrings.limit();
+        int size;
+        try {
+            if (isUtf8) {
+                int charLenSize = (rawStrings.get(offset) & 0x80) != 0 ? 2 : 1;
+                int first = rawStrings.get(offset + charLenSize) & 0xFF;
+                int byteLen = first;
+                int byteLenSize = 1;
+                if ((first & 0x80) != 0) {
+                    byteLen = ((first & 0x7F) << 8) | (rawStrings.get(offset + charLenSize + 1) & 0xFF);
+                    byteLenSize = 2;
+                }
+                size = charLenSize + byteLenSize + byteLen + 1;
+            } else {
+                int first = rawStrings.getChar(offset);
+                int charLen = first;
+                int lenSize = 2;
+                if ((first & 0x8000) != 0) {
+                    charLen = ((first & 0x7FFF) << 16) | rawStrings.getChar(offset + 2);
+                    lenSize = 4;
+                }
+                size = lenSize + charLen * 2 + 2;
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(
+                String.format("字符串[%d]长度前缀越界: offset=%d", index, offset), e);
+        }
+        if (size < 0 || offset + size > limit) {
+            throw new IllegalArgumentException(
+                String.format("字符串[%d]数据越界: offset=%d, size=%d, 数据区大小=%d",
+                            index, offset, size, limit));
+        }
+        return size;
+    }
+    
+    /**
+     * 计算每个字符串写回时的字节数
+     */
+    private int[] calculateStringSizes() {
+        int[] sizes = new int[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            sizes[i] = isVerbatim(i)
+                ? rawStringSize(i)
+                : calculateStringSize(getString(i), isUtf8);
+        }
+        return sizes;
+    }
+    
+    /**
+     * 没有任何修改时整个chunk原样输出
+     */
+    boolean canWriteOriginalChunk() {
+        return rawChunk != null && modified.isEmpty() && !compacted
+            && validationMode != ValidationMode.LENIENT;
+    }
+    
+    /**
+     * 获取解析时的原始chunk大小（未解析时为0）
+     */
+    int getOriginalSize() {
+        return rawChunk != null ? rawChunk.limit() : 0;
+    }
+    
+    /**
+     * 计算写回后的chunk大小（与write()写入的字节数一致）
+     * 
+     * @return 字节大小
+     */
+    public int calculateSize() {
+        if (canWriteOriginalChunk()) {
+            return rawChunk.limit();
+        }
+        
+        int stringsDataSize = 0;
+        for (int size : calculateStringSizes()) {
+            stringsDataSize += size;
+        }
+        int padding = (stringsDataSize % 4 == 0) ? 0 : (4 - stringsDataSize % 4);
+        int stylesDataSize = rawStyles != null ? rawStyles.limit() : 0;
+        
+        return HEADER_SIZE + stringCount * 4 + styleCount * 4 
+            + stringsDataSize + padding + stylesDataSize;
     }
     
     /**
@@ -582,9 +912,27 @@ public class ResStringPool {
         }
     }
     
+    /**
+     * 序列化为独立的ByteBuffer（未修改时直接返回原始chunk的只读视图，不复制）
+     * 
+     * @return position=0、limit=chunk大小的ByteBuffer
+     */
+    ByteBuffer toBuffer() {
+        if (canWriteOriginalChunk()) {
+            return rawChunk.duplicate();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(calculateSize()).order(ByteOrder.LITTLE_ENDIAN);
+        write(buffer);
+        buffer.flip();
+        return buffer;
+    }
+    
     /**
      * 写入字符串池到ByteBuffer
      * 
+     * 未修改的字符串拷贝原始字节，修改过的字符串重新编码；
+     * 没有任何修改时原样输出整个chunk。
+     * 
      * @param buffer ByteBuffer
      * @return 写入的字节数
      */
@@ -594,26 +942,35 @@ public class ResStringPool {
         
         int startPosition = buffer.position();
         
-        // 1. 重新计算偏移
-        recalculateOffsets();
+        if (canWriteOriginalChunk()) {
+            buffer.put(rawChunk.duplicate());
+            log.debug("字符串池未修改，原样写入: {} 字节", rawChunk.limit());
+            return rawChunk.limit();
+        }
+        
+        // 1. 计算每个字符串的大小和新偏移
+        int[] sizes = calculateStringSizes();
+        int[] offsets = new int[stringCount];
+        int stringsDataSize = 0;
+        for (int i = 0; i < stringCount; i++) {
+            offsets[i] = stringsDataSize;
+            stringsDataSize += sizes[i];
+        }
         
         // 2. 计算chunk大小
         int headerSize = HEADER_SIZE;
         int offsetsSize = stringCount * 4;
         int stylesOffsetsSize = styleCount * 4;
-        
-        int stringsDataSize = 0;
-        for (int i = 0; i < stringCount; i++) {
-            stringsDataSize += calculateStringSize(strings.get(i), isUtf8);
-        }
+        int stylesDataSize = rawStyles != null ? rawStyles.limit() : 0;
         
         // 对齐到4字节
         int padding = (stringsDataSize % 4 == 0) ? 0 : (4 - stringsDataSize % 4);
         
-        int chunkSize = headerSize + offsetsSize + stylesOffsetsSize + stringsDataSize + padding;
+        int chunkSize = headerSize + offsetsSize + stylesOffsetsSize + stringsDataSize + padding
+            + stylesDataSize;
         
-        log.debug("写入字符串池: chunkSize={}, strings={}, padding={}", 
-                 chunkSize, stringsDataSize, padding);
+        log.debug("写入字符串池: chunkSize={}, strings={}, padding={}, 修改={}", 
+                 chunkSize, stringsDataSize, padding, modified.cardinality());
         
         // 3. 写入头部
         buffer.putShort((short) RES_STRING_POOL_TYPE);
@@ -626,7 +983,7 @@ public class ResStringPool {
         buffer.putInt(styleCount > 0 ? (headerSize + offsetsSize + stylesOffsetsSize + stringsDataSize + padding) : 0); // stylesStart
         
         // 4. 写入字符串偏移
-        for (int offset : stringOffsets) {
+        for (int offset : offsets) {
             buffer.putInt(offset);
         }
         
@@ -638,11 +995,16 @@ public class ResStringPool {
         }
         
         // 6. 写入字符串数据
-        for (String str : strings) {
-            if (isUtf8) {
-                writeUtf8String(buffer, str);
+        for (int i = 0; i < stringCount; i++) {
+            if (isVerbatim(i)) {
+                ByteBuffer raw = rawStrings.duplicate();
+                raw.limit(stringOffsets[i] + sizes[i]);
+                raw.position(stringOffsets[i]);
+                buffer.put(raw);
+            } else if (isUtf8) {
+                writeUtf8String(buffer, getString(i));
             } else {
-                writeUtf16String(buffer, str);
+                writeUtf16String(buffer, getString(i));
             }
         }
         
@@ -651,6 +1013,11 @@ public class ResStringPool {
             buffer.put((byte) 0);
         }
         
+        // 8. 原样写入样式数据（样式偏移相对于stylesStart，无需调整）
+        if (rawStyles != null) {
+            buffer.put(rawStyles.duplicate());
+        }
+        
         int bytesWritten = buffer.position() - startPosition;
         log.info("字符串池写入完成: {} 字节", bytesWritten);
         
@@ -747,8 +1114,8 @@ public class ResStringPool {
     public boolean validate() {
         try {
             // 1. 检查字符串数量
-            if (stringCount < 0 || stringCount != strings.size()) {
-                log.error("字符串数量不匹配: count={}, actual={}", stringCount, strings.size());
+            if (stringCount < 0 || stringCount != strings.length) {
+                log.error("字符串数量不匹配: count={}, actual={}", stringCount, strings.length);
                 return false;
             }
             
@@ -759,9 +1126,9 @@ public class ResStringPool {
                 return false;
             }
             
-            // 3. 检查所有字符串非null
+            // 3. 检查所有字符串可解码且非null
             for (int i = 0; i < stringCount; i++) {
-                if (strings.get(i) == null) {
+                if (getString(i) == null) {
                     log.error("字符串[{}]为null", i);
                     return false;
                 }
@@ -0,0 +1,111 @@
+package com.resources.arsc;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * ResTable_config - 设备配置（不可变）
+ *
+ * 只解码常用字段，完整原始字节保留在{@link #getRawData()}中。
+ * 字段按偏移读取，结构比当前版本短的旧配置中缺少的字段视为0。
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public final class ResTableConfig {
+
+    // 字段偏移（相对于config起始）
+    private static final int MCC_OFFSET = 4;
+    private static final int MNC_OFFSET = 6;
+    private static final int LANGUAGE_OFFSET = 8;
+    private static final int COUNTRY_OFFSET = 10;
+    private static final int ORIENTATION_OFFSET = 12;
+    private static final int DENSITY_OFFSET = 14;
+    private static final int SDK_VERSION_OFFSET = 24;
+
+    private final byte[] rawData;
+
+    ResTableConfig(byte[] rawData) {
+        this.rawData = rawData;
+    }
+
+    /** config结构大小（含size字段） */
+    public int getSize() { return rawData.length; }
+
+    public int getMcc() { return u16(MCC_OFFSET); }
+    public int getMnc() { return u16(MNC_OFFSET); }
+    public int getOrientation() { return u8(ORIENTATION_OFFSET); }
+    public int getDensity() { return u16(DENSITY_OFFSET); }
+    public int getSdkVersion() { return u16(SDK_VERSION_OFFSET); }
+
+    /**
+     * 语言代码（2或3个字母，未设置时为空字符串）
+     */
+    public String getLanguage() { return unpackCode(LANGUAGE_OFFSET, 'a'); }
+
+    /**
+     * 地区代码（未设置时为空字符串）
+     */
+    public String getCountry() { return unpackCode(COUNTRY_OFFSET, '0'); }
+
+    /**
+     * 是否为默认配置（size之后的字段全部为0）
+     */
+    public boolean isDefault() {
+        for (int i = 4; i < rawData.length; i++) {
+            if (rawData[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public byte[] getRawData() { return rawData.clone(); }
+
+    private int u8(int offset) {
+        return offset < rawData.length ? rawData[offset] & 0xFF : 0;
+    }
+
+    private int u16(int offset) {
+        if (offset + 2 > rawData.length) {
+            return 0;
+        }
+        return ByteBuffer.wrap(rawData).order(ByteOrder.LITTLE_ENDIAN).getShort(offset) & 0xFFFF;
+    }
+
+    /**
+     * 解码语言/地区代码：两个ASCII字符，或最高位为1时的3字母压缩编码
+     */
+    private String unpackCode(int offset, char base) {
+        int in0 = u8(offset);
+        int in1 = u8(offset + 1);
+        if (in0 == 0 && in1 == 0) {
+            return "";
+        }
+        if ((in0 & 0x80) != 0) {
+            int first = in1 & 0x1F;
+            int second = ((in1 & 0xE0) >> 5) + ((in0 & 0x03) << 3);
+            int third = (in0 & 0x7C) >> 2;
+            return new String(new char[] {
+                (char) (base + first), (char) (base + second), (char) (base + third)
+            });
+        }
+        return new String(new char[] {(char) in0, (char) in1});
+    }
+
+    @Override
+    public String toString() {
+        if (isDefault()) {
+            return "ResTableConfig{default}";
+        }
+        StringBuilder sb = new StringBuilder("ResTableConfig{");
+        if (getMcc() != 0) sb.append("mcc").append(getMcc()).append(' ');
+        if (getMnc() != 0) sb.append("mnc").append(getMnc()).append(' ');
+        if (!getLanguage().isEmpty()) sb.append(getLanguage()).append(' ');
+        if (!getCountry().isEmpty()) sb.append('r').append(getCountry()).append(' ');
+        if (getDensity() != 0) sb.append(getDensity()).append("dpi ");
+        if (getSdkVersion() != 0) sb.append('v').append(getSdkVersion()).append(' ');
+        sb.append("size=").append(rawData.length).append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,140 @@
+package com.resources.arsc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ResTable_entry - 资源条目（不可变的解码结果）
+ *
+ * 三种编码：
+ * - simple: ResTable_entry(8字节) + Res_value
+ * - complex（FLAG_COMPLEX）: ResTable_map_entry(16字节，含parent和count)
+ *   + count个ResTable_map(name + Res_value)，用于style、attr、plurals等
+ * - compact（FLAG_COMPACT）: 8字节，key为16位，dataType在flags高8位，data内联
+ *
+ * 由{@link ResTableType}按需解码，修改需通过ResTableType完成。
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public final class ResTableEntry {
+
+    public static final int FLAG_COMPLEX = 0x0001;
+    public static final int FLAG_PUBLIC = 0x0002;
+    public static final int FLAG_WEAK = 0x0004;
+    public static final int FLAG_COMPACT = 0x0008;
+
+    private final int entryId;
+    private final int keyIndex;
+    private final int flags;
+    private final ResValue value;             // simple/compact
+    private final int parent;                 // complex
+    private final List<MapEntry> mapEntries;  // complex
+
+    // 值在type chunk中的偏移（Res_value起始；compact为entry起始，布局一致）
+    final int valueOffset;
+
+    /**
+     * ResTable_map - complex entry中的一项
+     */
+    public static final class MapEntry {
+        private final int name;
+        private final ResValue value;
+        final int valueOffset;
+
+        MapEntry(int name, ResValue value, int valueOffset) {
+            this.name = name;
+            this.value = value;
+            this.valueOffset = valueOffset;
+        }
+
+        /** 属性资源ID（或plurals/array的特殊key） */
+        public int getName() { return name; }
+        public ResValue getValue() { return value; }
+
+        @Override
+        public String toString() {
+            return String.format("MapEntry{name=0x%08X, %s}", name, value);
+        }
+    }
+
+    ResTableEntry(int entryId, int keyIndex, int flags, ResValue value, int valueOffset) {
+        this.entryId = entryId;
+        this.keyIndex = keyIndex;
+        this.flags = flags;
+        this.value = value;
+        this.valueOffset = valueOffset;
+        this.parent = 0;
+        this.mapEntries = Collections.emptyList();
+    }
+
+    ResTableEntry(int entryId, int keyIndex, int flags, int parent, List<MapEntry> mapEntries) {
+        this.entryId = entryId;
+        this.keyIndex = keyIndex;
+        this.flags = flags;
+        this.value = null;
+        this.valueOffset = -1;
+        this.parent = parent;
+        this.mapEntries = Collections.unmodifiableList(mapEntries);
+    }
+
+    /** entry ID（资源ID的低16位） */
+    public int getEntryId() { return entryId; }
+    /** 资源名在包keyStrings中的索引 */
+    public int getKeyIndex() { return keyIndex; }
+    public int getFlags() { return flags; }
+    public boolean isComplex() { return (flags & FLAG_COMPLEX) != 0; }
+    public boolean isPublic() { return (flags & FLAG_PUBLIC) != 0; }
+    public boolean isCompact() { return (flags & FLAG_COMPACT) != 0; }
+
+    /** simple/compact entry的值，complex entry返回null */
+    public ResValue getValue() { return value; }
+
+    /** complex entry的父资源ID（无父资源时为0） */
+    public int getParent() { return parent; }
+
+    /** complex entry的各项，simple entry返回空列表 */
+    public List<MapEntry> getMapEntries() { return mapEntries; }
+
+    /**
+     * 获取所有值（simple为单个值，complex为各项的值）
+     */
+    public List<ResValue> getValues() {
+        if (value != null) {
+            return Collections.singletonList(value);
+        }
+        List<ResValue> values = new ArrayList<>(mapEntries.size());
+        for (MapEntry entry : mapEntries) {
+            values.add(entry.value);
+        }
+        return values;
+    }
+
+    /**
+     * 是否引用指定的全局字符串
+     *
+     * @param stringIndex 全局字符串索引
+     * @return true=引用
+     */
+    public boolean referencesString(int stringIndex) {
+        if (value != null) {
+            return value.isString() && value.getData() == stringIndex;
+        }
+        for (MapEntry entry : mapEntries) {
+            if (entry.value.isString() && entry.value.getData() == stringIndex) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        if (isComplex()) {
+            return String.format("ResTableEntry{id=%d, key=%d, parent=0x%08X, entries=%d}",
+                               entryId, keyIndex, parent, mapEntries.size());
+        }
+        return String.format("ResTableEntry{id=%d, key=%d, %s}", entryId, keyIndex, value);
+    }
+}
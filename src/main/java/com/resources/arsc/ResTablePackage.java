@@ -3,12 +3,14 @@ package com.resources.arsc;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.IntUnaryOperator;
 
 /**
  * ResTable_package - 资源包结构
@@ -36,6 +38,11 @@ public class ResTablePackage {
     // 头部大小
     private static final int HEADER_SIZE = 288; // 12 + 4 + 256 + 16
     
+    // 头部字段偏移（相对于chunk开始）
+    private static final int NAME_OFFSET = 12;
+    private static final int TYPE_STRINGS_FIELD = 268;
+    private static final int KEY_STRINGS_FIELD = 276;
+    
     // 数据成员
     private int id;                          // packageId（0x7f）
     private String name;                     // 包名
@@ -48,14 +55,16 @@ public class ResTablePackage {
     // typeSpec和type chunks（用于完整重建）
     private List<ResTableTypeSpec> typeSpecs = new ArrayList<>();
     private List<ResTableType> types = new ArrayList<>();
+    private List<Integer> typeOffsets = new ArrayList<>();  // type chunk在package中的偏移
     
     // 修改标志
     private boolean nameModified = false;
     private boolean typeStringsModified = false;
     private boolean keyStringsModified = false;
     
-    // 原始数据（用于写回时保持其他chunk不变）
-    private byte[] originalData;
+    // 原始数据（只读视图，用于写回时保持其他chunk不变）
+    private ByteBuffer originalChunk;
+    private int originalHeaderSize;
     private int originalSize;
     
     public ResTablePackage() {
@@ -90,8 +99,8 @@ public class ResTablePackage {
             
             // 2. 读取包ID
             this.id = buffer.getInt();
-            if (this.id != 0x7f && this.id != 0x01) {
-                log.warn("非标准packageId: 0x{} (期望0x7f或0x01)", 
+            if (!isValidPackageId(this.id)) {
+                log.warn("非标准packageId: 0x{} (期望0x00-0xff)", 
                         Integer.toHexString(this.id));
             }
             
@@ -171,6 +180,7 @@ public class ResTablePackage {
                         ResTableType typeChunk = new ResTableType();
                         typeChunk.parse(buffer);
                         types.add(typeChunk);
+                        typeOffsets.add(chunkPos - startPosition);
                         log.debug("解析type: {}", typeChunk);
                     } catch (Exception e) {
                         log.warn("解析type失败，停止解析: {}", e.getMessage());
@@ -186,11 +196,12 @@ public class ResTablePackage {
             log.info("typeSpec/type解析完成: typeSpecs={}, types={}", 
                     typeSpecs.size(), types.size());
             
-            // 8. 保存原始数据（用于写回）
+            // 8. 保存原始数据视图（用于写回，不复制）
             this.originalSize = chunkSize;
-            buffer.position(startPosition);
-            this.originalData = new byte[chunkSize];
-            buffer.get(this.originalData);
+            this.originalHeaderSize = headerSize;
+            this.originalChunk = buffer.slice(startPosition, chunkSize)
+                .asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+            buffer.position(startPosition + chunkSize);
             
             log.info("资源包解析完成: id=0x{}, name='{}', typeStrings={}, keyStrings={}, typeSpecs={}, types={}", 
                     Integer.toHexString(id), name, 
@@ -286,53 +297,157 @@ public class ResTablePackage {
         
         int startPosition = buffer.position();
         
-        // 策略判断：
-        // 1. 如果修改了typeStrings或keyStrings，需要完整重建
-        // 2. 否则使用原始数据并只更新包名部分
-        
-        if (typeStringsModified || keyStringsModified) {
-            return writeWithFullRebuild(buffer);
-        } else {
-            if (originalData != null && typeStrings != null && keyStrings != null) {
-                writeWithOriginalData(buffer);
-            } else {
+        if (originalChunk == null) {
+            // 没有原始数据时完整重建
+            if (!needsRebuild()) {
                 throw new IllegalStateException(
                     "ResTablePackage缺少原始数据，无法写入。" +
                     "这通常意味着解析失败或数据损坏。");
             }
+            return writeWithFullRebuild(buffer);
+        }
+        
+        for (ByteBuffer segment : toSegments()) {
+            buffer.put(segment);
         }
         
         int bytesWritten = buffer.position() - startPosition;
-        log.info("资源包写入完成: {} 字节 (重建模式={})", 
-                bytesWritten, typeStringsModified || keyStringsModified);
+        log.info("资源包写入完成: {} 字节 (重建模式={})", bytesWritten, needsRebuild());
         
         return bytesWritten;
     }
     
     /**
-     * 使用原始数据写入（仅修改包名）
+     * 生成写回用的分段数据，按顺序拼接即为完整的package chunk
+     * 
+     * 策略：
+     * 1. 未修改：原始chunk视图
+     * 2. 仅修改包名：修正后的头部副本 + 原始数据视图
+     * 3. 修改了typeStrings或keyStrings：只重新序列化字符串池，
+     *    头部、typeSpec/type以及其他未识别的chunk都引用原始数据，
+     *    头部副本中修正chunk大小、包名和两个字符串池的偏移
+     * 
+     * 除头部副本和修改过的字符串池外，分段都是原始数据的只读视图（不复制）。
+     * 
+     * @return 分段列表（position=0）
      */
-    private void writeWithOriginalData(ByteBuffer buffer) {
-        // 复制原始数据
-        byte[] modifiedData = originalData.clone();
-        ByteBuffer modBuffer = ByteBuffer.wrap(modifiedData).order(ByteOrder.LITTLE_ENDIAN);
+    List<ByteBuffer> toSegments() {
+        if (originalChunk == null) {
+            ByteBuffer rebuilt = ByteBuffer.allocate(calculateRebuildSize()).order(ByteOrder.LITTLE_ENDIAN);
+            writeWithFullRebuild(rebuilt);
+            rebuilt.flip();
+            return List.of(rebuilt);
+        }
+        
+        if (!needsRebuild()) {
+            if (isUnchanged()) {
+                return List.of(originalChunk.duplicate());
+            }
+            log.debug("使用原始数据写入，仅修改包名或entry值");
+            List<ByteBuffer> segments = new ArrayList<>();
+            segments.add(copyHeader(originalSize));
+            addOriginalRange(segments, originalHeaderSize, originalSize);
+            return segments;
+        }
         
-        // 跳过chunk头部（8字节）和packageId（4字节）
-        modBuffer.position(12);
+        // 按原始偏移排序的字符串池（通常typeStrings在前）
+        List<Integer> offsets = new ArrayList<>(2);
+        List<ResStringPool> pools = new ArrayList<>(2);
+        if (typeStringsOffset > 0 && typeStrings != null) {
+            offsets.add(typeStringsOffset);
+            pools.add(typeStrings);
+        }
+        if (keyStringsOffset > 0 && keyStrings != null) {
+            int at = offsets.isEmpty() || keyStringsOffset > offsets.get(0) ? offsets.size() : 0;
+            offsets.add(at, keyStringsOffset);
+            pools.add(at, keyStrings);
+        }
         
-        // 写入新包名（char16_t[128]）
-        for (int i = 0; i < PACKAGE_NAME_MAX_LENGTH; i++) {
-            if (i < name.length()) {
-                modBuffer.putChar(name.charAt(i));
-            } else {
-                modBuffer.putChar((char) 0); // 填充null
+        int newSize = calculateRebuildSize();
+        ByteBuffer header = copyHeader(newSize);
+        List<ByteBuffer> segments = new ArrayList<>(2 * pools.size() + 2);
+        segments.add(header);
+        
+        // 字符串池及其间隙
+        int cursor = originalHeaderSize;
+        int written = originalHeaderSize;
+        for (int i = 0; i < pools.size(); i++) {
+            int offset = offsets.get(i);
+            ResStringPool pool = pools.get(i);
+            if (offset < cursor || offset + pool.getOriginalSize() > originalSize) {
+                throw new IllegalStateException(
+                    String.format("字符串池位置异常，无法拼接写入: offset=%d, cursor=%d, chunkSize=%d",
+                                offset, cursor, originalSize));
             }
+            
+            if (offset > cursor) {
+                addOriginalRange(segments, cursor, offset);
+                written += offset - cursor;
+            }
+            header.putInt(pool == typeStrings ? TYPE_STRINGS_FIELD : KEY_STRINGS_FIELD, written);
+            
+            ByteBuffer poolData = pool.toBuffer();
+            segments.add(poolData);
+            written += poolData.remaining();
+            cursor = offset + pool.getOriginalSize();
         }
         
-        // 写入修改后的数据
-        buffer.put(modifiedData);
+        // 剩余的typeSpec/type等chunk
+        addOriginalRange(segments, cursor, originalSize);
+        written += originalSize - cursor;
         
-        log.debug("使用原始数据写入，仅修改包名 (nameModified={})", nameModified);
+        if (written != newSize) {
+            String msg = String.format("Package拼接写入size不匹配: 预计=%d, 实际=%d", newSize, written);
+            log.error(msg);
+            throw new IllegalStateException(msg);
+        }
+        
+        log.debug("拼接写入: {} 字节 (原始={})", written, originalSize);
+        return segments;
+    }
+    
+    /**
+     * 按原始数据添加[from, to)区间的分段，其中修改过的type chunk替换为修改后的数据
+     * （type只做原位修改，大小不变）
+     */
+    private void addOriginalRange(List<ByteBuffer> segments, int from, int to) {
+        int cursor = from;
+        for (int i = 0; i < types.size(); i++) {
+            ResTableType typeChunk = types.get(i);
+            int offset = typeOffsets.get(i);
+            if (!typeChunk.isModified() || offset < cursor || offset >= to) {
+                continue;
+            }
+            if (offset > cursor) {
+                segments.add(originalChunk.slice(cursor, offset - cursor));
+            }
+            segments.add(typeChunk.toBuffer());
+            cursor = offset + typeChunk.getChunkSize();
+        }
+        if (to > cursor) {
+            segments.add(originalChunk.slice(cursor, to - cursor));
+        }
+    }
+    
+    /**
+     * 复制原始头部，修正chunk大小和包名
+     */
+    private ByteBuffer copyHeader(int chunkSize) {
+        ByteBuffer header = ByteBuffer.allocate(originalHeaderSize).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(originalChunk.slice(0, originalHeaderSize));
+        header.flip();
+        header.putInt(4, chunkSize);
+        putName(header, NAME_OFFSET);
+        return header;
+    }
+    
+    /**
+     * 在绝对位置写入包名（char16_t[128]，不足部分填充null）
+     */
+    private void putName(ByteBuffer buffer, int position) {
+        for (int i = 0; i < PACKAGE_NAME_MAX_LENGTH; i++) {
+            buffer.putChar(position + i * 2, i < name.length() ? name.charAt(i) : (char) 0);
+        }
     }
     
     /**
@@ -431,68 +546,72 @@ public class ResTablePackage {
      * @return 字节大小
      */
     private int calculateStringPoolSize(ResStringPool pool) {
-        if (pool == null) {
-            return 0;
-        }
-        
-        int headerSize = 28;
-        int offsetsSize = pool.getStringCount() * 4;
-        int stylesOffsetsSize = pool.getStyleCount() * 4;
-        
-        int stringsDataSize = 0;
-        for (int i = 0; i < pool.getStringCount(); i++) {
-            String str = pool.getString(i);
-            stringsDataSize += calculateStringSize(str, pool.isUtf8());
-        }
-        
-        // 4字节对齐
-        int padding = (stringsDataSize % 4 == 0) ? 0 : (4 - stringsDataSize % 4);
-        
-        return headerSize + offsetsSize + stylesOffsetsSize + stringsDataSize + padding;
+        return pool != null ? pool.calculateSize() : 0;
     }
     
     /**
-     * 计算单个字符串编码后的大小
+     * 判断是否需要完整重建
      * 
-     * @param str 字符串
-     * @param utf8 是否UTF-8编码
-     * @return 字节大小
+     * @return true=需要重建
      */
-    private int calculateStringSize(String str, boolean utf8) {
-        if (utf8) {
-            try {
-                byte[] bytes = ModifiedUTF8.encode(str);
-                int byteLen = bytes.length;
-                int utf8CharLen = ModifiedUTF8.countCharacters(bytes);
-                
-                int size = 0;
-                size += (utf8CharLen >= 0x80) ? 2 : 1;  // UTF-8字符数编码
-                size += (byteLen >= 0x80) ? 2 : 1;      // 字节长度编码
-                size += byteLen;                         // 数据
-                size += 1;                               // 终止符
-                return size;
-            } catch (IOException e) {
-                throw new IllegalStateException("MUTF-8编码失败: " + str, e);
+    public boolean needsRebuild() {
+        return typeStringsModified || keyStringsModified
+            || isPoolChanged(typeStrings) || isPoolChanged(keyStrings);
+    }
+    
+    /**
+     * 字符串池是否无法原样输出（例如直接通过getKeyStrings().setString()修改）
+     */
+    private static boolean isPoolChanged(ResStringPool pool) {
+        return pool != null && pool.getOriginalSize() > 0 && !pool.canWriteOriginalChunk();
+    }
+    
+    /**
+     * 是否有type chunk的entry值被修改（原位修改，不影响大小）
+     * 
+     * @return true=有修改
+     */
+    public boolean isTypesModified() {
+        for (ResTableType typeChunk : types) {
+            if (typeChunk.isModified()) {
+                return true;
             }
-        } else {
-            // UTF-16
-            int charLen = str.length();
-            
-            int size = 0;
-            size += (charLen >= 0x8000) ? 4 : 2;  // charLen编码
-            size += charLen * 2;                   // 数据（UTF-16）
-            size += 2;                             // 终止符
-            return size;
         }
+        return false;
     }
     
     /**
-     * 判断是否需要完整重建
+     * 是否与原始数据完全一致（包名、字符串池和entry值均未修改）
      * 
-     * @return true=需要重建
+     * @return true=可以直接拷贝原始chunk
      */
-    public boolean needsRebuild() {
-        return typeStringsModified || keyStringsModified;
+    public boolean isUnchanged() {
+        return originalChunk != null && !nameModified && !needsRebuild() && !isTypesModified();
+    }
+    
+    /**
+     * 收集本包所有entry引用的全局字符串索引
+     * 
+     * @param references 输出：被引用的字符串索引
+     */
+    public void collectStringReferences(BitSet references) {
+        for (ResTableType typeChunk : types) {
+            typeChunk.collectStringReferences(references);
+        }
+    }
+    
+    /**
+     * 按映射重写本包所有entry引用的全局字符串索引
+     * 
+     * @param mapping 旧索引 -> 新索引
+     * @return 被修改的值数量
+     */
+    public int remapStringReferences(IntUnaryOperator mapping) {
+        int changed = 0;
+        for (ResTableType typeChunk : types) {
+            changed += typeChunk.remapStringReferences(mapping);
+        }
+        return changed;
     }
     
     /**
@@ -505,6 +624,18 @@ public class ResTablePackage {
             return originalSize;
         }
         
+        if (originalChunk != null) {
+            // 拼接模式：只有字符串池的大小会变化
+            int size = originalSize;
+            if (typeStringsOffset > 0 && typeStrings != null) {
+                size += typeStrings.calculateSize() - typeStrings.getOriginalSize();
+            }
+            if (keyStringsOffset > 0 && keyStrings != null) {
+                size += keyStrings.calculateSize() - keyStrings.getOriginalSize();
+            }
+            return size;
+        }
+        
         int headerSize = HEADER_SIZE;
         int typeStringsSize = calculateStringPoolSize(typeStrings);
         int keyStringsSize = calculateStringPoolSize(keyStrings);
@@ -525,8 +656,8 @@ public class ResTablePackage {
      */
     public boolean validate() {
         try {
-            // 1. 检查packageId
-            if (id != 0x7f && id != 0x01) {
+            // 1. 检查packageId（共享库为0x00，feature/overlay包可以是0x7f以外的值）
+            if (!isValidPackageId(id)) {
                 log.error("无效的packageId: 0x{}", Integer.toHexString(id));
                 return false;
             }
@@ -557,6 +688,10 @@ public class ResTablePackage {
         }
     }
     
+    private static boolean isValidPackageId(int id) {
+        return id >= 0 && id <= 0xFF;
+    }
+    
     // Getters
     public int getId() { return id; }
     public String getName() { return name; }
@@ -565,6 +700,8 @@ public class ResTablePackage {
     public int getTypeStringsOffset() { return typeStringsOffset; }
     public int getKeyStringsOffset() { return keyStringsOffset; }
     public int getOriginalSize() { return originalSize; }
+    public List<ResTableTypeSpec> getTypeSpecs() { return Collections.unmodifiableList(typeSpecs); }
+    public List<ResTableType> getTypes() { return Collections.unmodifiableList(types); }
     
     @Override
     public String toString() {
@@ -1,60 +1,90 @@
 package com.resources.arsc;
 
+import com.resources.util.TypedValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
 
 /**
  * ResTable_type - 资源类型数据结构
- * 
- * 最小化实现：
- * - 只解析chunk头部获取id和chunkSize
- * - 保留完整原始字节数据，不解析具体entry内容
- * - 写入时直接使用原始数据
- * 
- * 设计原因：
- * ResTable_type结构极其复杂，包含：
- * - ResTable_config（设备配置，48+字节）
- * - entry offsets数组
- * - ResTable_entry（simple或complex，可变长度）
- * - Res_value或ResTable_map_entry
- * 
- * 完整解析需要实现几十个类，且当前场景只需要修改字符串池，
- * 不需要修改entry内容，因此保留原始数据是最安全的方案。
- * 
+ *
+ * 延迟解码：
+ * - 解析时只读取chunk头部的id和chunkSize，保留原始数据的只读视图
+ * - 头部（flags、entryCount、ResTable_config）和entry在首次访问时才解码，
+ *   解码结果缓存在本实例中
+ * - 支持三种entry偏移表：uint32（默认）、uint16（FLAG_OFFSET16）、
+ *   稀疏的(entryId, offset)对（FLAG_SPARSE）
+ * - 支持simple、complex（ResTable_map_entry）和compact三种entry
+ *
+ * 修改：
+ * - 只支持原位修改Res_value（{@link #setValue}、{@link #remapStringReferences}），
+ *   chunk大小不变
+ * - 首次修改时复制一份原始数据，未修改时写回原始字节
+ *
  * @author Resources Processor Team
  * @version 1.0.0
  */
 public class ResTableType {
-    
+
     private static final Logger log = LoggerFactory.getLogger(ResTableType.class);
-    
+
     public static final int RES_TABLE_TYPE_TYPE = 0x0201;
-    
-    private byte[] originalData;  // 保留完整原始数据
+
+    // 头部flags
+    public static final int FLAG_SPARSE = 0x01;
+    public static final int FLAG_OFFSET16 = 0x02;
+
+    // 头部字段偏移（相对于chunk开始）
+    private static final int FLAGS_OFFSET = 9;
+    private static final int ENTRY_COUNT_OFFSET = 12;
+    private static final int ENTRIES_START_OFFSET = 16;
+    private static final int CONFIG_OFFSET = 20;
+
+    private static final int NO_ENTRY = 0xFFFFFFFF;
+    private static final int NO_ENTRY16 = 0xFFFF;
+
+    private ByteBuffer originalData;  // 完整原始数据（只读视图，不复制）
+    private ByteBuffer modifiedData;  // 修改后的数据（首次修改时复制）
     private int chunkSize;        // chunk总大小
     private int id;               // type ID (1-based)
-    
+
+    // 延迟解码的头部
+    private boolean headerDecoded;
+    private int headerSize;
+    private int flags;
+    private int entryCount;
+    private int entriesStart;
+    private ResTableConfig config;
+
+    // 已解码的entry（按偏移表槽位）
+    private ResTableEntry[] entryCache;
+    private int decodedCount;
+
     public ResTableType() {
     }
-    
+
     /**
      * 解析ResTable_type chunk
-     * 
+     *
      * 只解析头部获取id和size，其余内容保留原始字节
-     * 
+     *
      * @param buffer ByteBuffer（position指向chunk开始）
      * @throws IllegalArgumentException 解析失败
      */
     public void parse(ByteBuffer buffer) throws IllegalArgumentException {
         Objects.requireNonNull(buffer, "buffer不能为null");
         buffer.order(ByteOrder.LITTLE_ENDIAN);
-        
+
         int startPos = buffer.position();
-        
+
         try {
             // 边界检查：至少需要8字节读取type和size
             if (buffer.remaining() < 8) {
@@ -62,92 +92,253 @@ public class ResTableType {
                     String.format("无法读取type chunk头部: 需要8字节，剩余%d字节",
                                 buffer.remaining()));
             }
-            
+
             // 1. 读取chunk类型和大小
             int type = buffer.getShort() & 0xFFFF;
-            buffer.getShort();  // headerSize (不需要)
+            buffer.getShort();  // headerSize (延迟解码)
             chunkSize = buffer.getInt();
-            
+
             if (type != RES_TABLE_TYPE_TYPE) {
                 throw new IllegalArgumentException(
                     String.format("无效的chunk类型: 期望0x%04X，实际0x%04X",
                                 RES_TABLE_TYPE_TYPE, type));
             }
-            
+
             // 验证chunk大小
             if (chunkSize < 8) {
                 throw new IllegalArgumentException(
                     String.format("type chunk大小太小: size=%d, 至少需要8", chunkSize));
             }
-            
+
             if (chunkSize > buffer.limit() - startPos) {
                 throw new IllegalArgumentException(
                     String.format("type chunk超出buffer: chunkSize=%d, available=%d",
                                 chunkSize, buffer.limit() - startPos));
             }
-            
+
             // 验证大小合理性（type chunk通常不超过10MB）
             if (chunkSize > 10 * 1024 * 1024) {
                 log.warn("type chunk异常大: {} MB", chunkSize / 1024 / 1024);
             }
-            
+
             // 2. 读取id（在offset 8）
             id = buffer.get() & 0xFF;
-            
+
             // 3. 回退到chunk开始，保存完整原始数据
             buffer.position(startPos);
-            
+
             // 边界检查：确保有足够的字节读取整个chunk
             if (buffer.remaining() < chunkSize) {
                 throw new IllegalArgumentException(
                     String.format("无法读取type chunk完整数据: 需要%d字节，剩余%d字节",
                                 chunkSize, buffer.remaining()));
             }
-            
-            originalData = new byte[chunkSize];
-            buffer.get(originalData);
-            
+
+            originalData = buffer.slice(startPos, chunkSize)
+                .asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+            modifiedData = null;
+            headerDecoded = false;
+            entryCache = null;
+            decodedCount = 0;
+            buffer.position(startPos + chunkSize);
+
             log.debug("type解析完成: id={}, chunkSize={}", id, chunkSize);
-            
+
         } catch (Exception e) {
             log.error("type解析失败 at position={}", startPos, e);
             throw new IllegalArgumentException("type解析失败: " + e.getMessage(), e);
         }
     }
-    
+
     /**
      * 写入ResTable_type chunk
-     * 
-     * 直接写入原始数据，不做任何修改
-     * 
+     *
+     * 未修改时直接写入原始数据
+     *
      * @param buffer ByteBuffer
      * @return 写入的字节数
      */
     public int write(ByteBuffer buffer) {
         Objects.requireNonNull(buffer, "buffer不能为null");
-        
+
         // 验证数据完整性
         if (originalData == null) {
             throw new IllegalStateException("originalData为null，无法写入");
         }
-        
-        if (originalData.length != chunkSize) {
+
+        if (originalData.limit() != chunkSize) {
             throw new IllegalStateException(
                 String.format("originalData大小不匹配: 期望%d, 实际%d",
-                            chunkSize, originalData.length));
+                            chunkSize, originalData.limit()));
+        }
+
+        buffer.put(toBuffer());
+
+        log.trace("type写入: id={}, {} 字节, modified={}", id, chunkSize, isModified());
+
+        return chunkSize;
+    }
+
+    /**
+     * 当前数据的只读视图（未修改时为原始数据）
+     */
+    synchronized ByteBuffer toBuffer() {
+        ByteBuffer data = modifiedData != null ? modifiedData : originalData;
+        return data.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN).position(0);
+    }
+
+    /**
+     * 获取指定entry（首次访问时解码）
+     *
+     * @param entryId entry ID（资源ID的低16位）
+     * @return entry，该配置下不存在时返回null
+     * @throws IllegalArgumentException entry数据损坏
+     */
+    public synchronized ResTableEntry getEntry(int entryId) {
+        decodeHeader();
+
+        int slot = slotOf(entryId);
+        if (slot < 0) {
+            return null;
+        }
+        return entryAt(slot);
+    }
+
+    /**
+     * 获取所有存在的entry（按entry ID升序）
+     *
+     * @return entry列表
+     * @throws IllegalArgumentException entry数据损坏
+     */
+    public synchronized List<ResTableEntry> getEntries() {
+        decodeHeader();
+
+        List<ResTableEntry> entries = new ArrayList<>();
+        for (int slot = 0; slot < entryCount; slot++) {
+            ResTableEntry entry = entryAt(slot);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 查找引用指定全局字符串的entry
+     *
+     * @param stringIndex 全局字符串索引
+     * @return entry列表
+     */
+    public synchronized List<ResTableEntry> findEntriesReferencingString(int stringIndex) {
+        List<ResTableEntry> result = new ArrayList<>();
+        for (ResTableEntry entry : getEntries()) {
+            if (entry.referencesString(stringIndex)) {
+                result.add(entry);
+            }
         }
-        
-        // 直接写入原始数据
-        buffer.put(originalData);
-        
-        log.trace("type写入: id={}, {} 字节", id, originalData.length);
-        
-        return originalData.length;
+        return result;
     }
-    
+
+    /**
+     * 收集所有TYPE_STRING值引用的全局字符串索引
+     *
+     * 直接扫描值的位置，不缓存entry对象。
+     *
+     * @param references 输出：被引用的字符串索引
+     */
+    public synchronized void collectStringReferences(BitSet references) {
+        Objects.requireNonNull(references, "references不能为null");
+        ByteBuffer data = current();
+        forEachValueOffset(offset -> {
+            if ((data.get(offset + 3) & 0xFF) == TypedValue.TYPE_STRING) {
+                int index = data.getInt(offset + 4);
+                if (index >= 0) {
+                    references.set(index);
+                }
+            }
+        });
+    }
+
+    /**
+     * 按映射重写所有TYPE_STRING值的全局字符串索引（原位修改，chunk大小不变）
+     *
+     * 用于全局字符串池去重或删除未引用字符串后修正引用。
+     *
+     * @param mapping 旧索引 -> 新索引
+     * @return 被修改的值数量
+     */
+    public synchronized int remapStringReferences(IntUnaryOperator mapping) {
+        Objects.requireNonNull(mapping, "mapping不能为null");
+
+        ByteBuffer data = current();
+        List<int[]> patches = new ArrayList<>();
+        forEachValueOffset(offset -> {
+            if ((data.get(offset + 3) & 0xFF) == TypedValue.TYPE_STRING) {
+                int oldIndex = data.getInt(offset + 4);
+                int newIndex = mapping.applyAsInt(oldIndex);
+                if (newIndex != oldIndex) {
+                    patches.add(new int[] {offset, newIndex});
+                }
+            }
+        });
+
+        if (!patches.isEmpty()) {
+            ByteBuffer writable = writableData();
+            for (int[] patch : patches) {
+                writable.putInt(patch[0] + 4, patch[1]);
+            }
+            invalidateEntries();
+            log.debug("type字符串引用重映射: id={}, {} 个值", id, patches.size());
+        }
+        return patches.size();
+    }
+
+    /**
+     * 修改simple或compact entry的值（原位修改）
+     *
+     * @param entryId entry ID
+     * @param value 新值
+     * @throws IllegalArgumentException entry不存在
+     * @throws IllegalStateException complex entry不支持
+     */
+    public synchronized void setValue(int entryId, ResValue value) {
+        Objects.requireNonNull(value, "value不能为null");
+
+        ResTableEntry entry = getEntry(entryId);
+        if (entry == null) {
+            throw new IllegalArgumentException(
+                String.format("entry不存在: type=%d, entryId=%d", id, entryId));
+        }
+        if (entry.isComplex()) {
+            throw new IllegalStateException("complex entry不支持setValue: entryId=" + entryId);
+        }
+        if (entry.getValue().equals(value)) {
+            return;
+        }
+
+        ByteBuffer writable = writableData();
+        writable.put(entry.valueOffset + 3, (byte) value.getDataType());
+        writable.putInt(entry.valueOffset + 4, value.getData());
+        invalidateEntries();
+    }
+
+    /**
+     * 是否有修改
+     */
+    public synchronized boolean isModified() {
+        return modifiedData != null;
+    }
+
+    /**
+     * 已解码的entry数量（用于观察延迟解码）
+     */
+    public synchronized int getDecodedEntryCount() {
+        return decodedCount;
+    }
+
     /**
      * 验证type完整性
-     * 
+     *
      * @return true=有效, false=无效
      */
     public boolean validate() {
@@ -155,29 +346,336 @@ public class ResTableType {
             log.error("无效的type ID: {}", id);
             return false;
         }
-        
+
         if (chunkSize <= 0) {
             log.error("无效的chunkSize: {}", chunkSize);
             return false;
         }
-        
-        if (originalData == null || originalData.length != chunkSize) {
+
+        if (originalData == null || originalData.limit() != chunkSize) {
             log.error("originalData大小不匹配");
             return false;
         }
-        
+
         return true;
     }
-    
+
+    // ========== 延迟解码 ==========
+
+    private ByteBuffer current() {
+        return modifiedData != null ? modifiedData : originalData;
+    }
+
+    private ByteBuffer writableData() {
+        if (modifiedData == null) {
+            ByteBuffer copy = ByteBuffer.allocate(chunkSize).order(ByteOrder.LITTLE_ENDIAN);
+            copy.put(originalData.duplicate().position(0));
+            modifiedData = copy;
+        }
+        return modifiedData;
+    }
+
+    private void invalidateEntries() {
+        if (entryCache != null) {
+            entryCache = new ResTableEntry[entryCount];
+            decodedCount = 0;
+        }
+    }
+
+    private void decodeHeader() {
+        if (headerDecoded) {
+            return;
+        }
+        if (originalData == null) {
+            throw new IllegalStateException("type尚未解析");
+        }
+
+        ByteBuffer data = originalData;
+        if (chunkSize < CONFIG_OFFSET + 4) {
+            throw new IllegalArgumentException(
+                String.format("type chunk头部不完整: chunkSize=%d", chunkSize));
+        }
+
+        headerSize = data.getShort(2) & 0xFFFF;
+        flags = data.get(FLAGS_OFFSET) & 0xFF;
+        entryCount = data.getInt(ENTRY_COUNT_OFFSET);
+        entriesStart = data.getInt(ENTRIES_START_OFFSET);
+        int configSize = data.getInt(CONFIG_OFFSET);
+
+        if (headerSize < CONFIG_OFFSET + 4 || headerSize > chunkSize) {
+            throw new IllegalArgumentException(
+                String.format("无效的type headerSize: %d (chunkSize=%d)", headerSize, chunkSize));
+        }
+        if (configSize < 4 || CONFIG_OFFSET + configSize > headerSize) {
+            throw new IllegalArgumentException(
+                String.format("无效的config大小: %d (headerSize=%d)", configSize, headerSize));
+        }
+        long offsetsEnd = headerSize + (long) entryCount * offsetWidth();
+        if (entryCount < 0 || offsetsEnd > chunkSize) {
+            throw new IllegalArgumentException(
+                String.format("entry偏移表越界: entryCount=%d, chunkSize=%d", entryCount, chunkSize));
+        }
+        if (entriesStart < offsetsEnd || entriesStart > chunkSize) {
+            throw new IllegalArgumentException(
+                String.format("无效的entriesStart: %d (chunkSize=%d)", entriesStart, chunkSize));
+        }
+
+        byte[] configData = new byte[configSize];
+        data.get(CONFIG_OFFSET, configData);
+        config = new ResTableConfig(configData);
+        entryCache = new ResTableEntry[entryCount];
+        headerDecoded = true;
+
+        log.trace("type头部解码: id={}, flags=0x{}, entryCount={}, config={}",
+                 id, Integer.toHexString(flags), entryCount, config);
+    }
+
+    private int offsetWidth() {
+        return (flags & FLAG_OFFSET16) != 0 && (flags & FLAG_SPARSE) == 0 ? 2 : 4;
+    }
+
+    /**
+     * entry ID -> 偏移表槽位（不存在时返回-1）
+     */
+    private int slotOf(int entryId) {
+        if ((flags & FLAG_SPARSE) == 0) {
+            return entryId >= 0 && entryId < entryCount ? entryId : -1;
+        }
+        // 稀疏表按entry ID升序排列
+        int low = 0;
+        int high = entryCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = originalData.getShort(headerSize + mid * 4) & 0xFFFF;
+            if (midId < entryId) {
+                low = mid + 1;
+            } else if (midId > entryId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int entryIdAt(int slot) {
+        return (flags & FLAG_SPARSE) != 0 ? originalData.getShort(headerSize + slot * 4) & 0xFFFF : slot;
+    }
+
+    /**
+     * 槽位对应的entry在chunk中的偏移（不存在时返回-1）
+     */
+    private int entryOffsetAt(int slot) {
+        int offset;
+        if ((flags & FLAG_SPARSE) != 0) {
+            offset = (originalData.getShort(headerSize + slot * 4 + 2) & 0xFFFF) * 4;
+        } else if ((flags & FLAG_OFFSET16) != 0) {
+            int raw = originalData.getShort(headerSize + slot * 2) & 0xFFFF;
+            if (raw == NO_ENTRY16) {
+                return -1;
+            }
+            offset = raw * 4;
+        } else {
+            offset = originalData.getInt(headerSize + slot * 4);
+            if (offset == NO_ENTRY) {
+                return -1;
+            }
+        }
+
+        long position = (long) entriesStart + (offset & 0xFFFFFFFFL);
+        if (position + 8 > chunkSize) {
+            throw new IllegalArgumentException(
+                String.format("entry越界: type=%d, slot=%d, offset=%d, chunkSize=%d",
+                            id, slot, position, chunkSize));
+        }
+        return (int) position;
+    }
+
+    private ResTableEntry entryAt(int slot) {
+        ResTableEntry entry = entryCache[slot];
+        if (entry == null) {
+            int offset = entryOffsetAt(slot);
+            if (offset < 0) {
+                return null;
+            }
+            entry = decodeEntry(current(), entryIdAt(slot), offset);
+            entryCache[slot] = entry;
+            decodedCount++;
+        }
+        return entry;
+    }
+
+    private ResTableEntry decodeEntry(ByteBuffer data, int entryId, int offset) {
+        int size = data.getShort(offset) & 0xFFFF;
+        int entryFlags = data.getShort(offset + 2) & 0xFFFF;
+
+        if ((entryFlags & ResTableEntry.FLAG_COMPACT) != 0) {
+            // compact: key(16) + flags(低8位) + dataType(高8位) + data
+            ResValue value = new ResValue(entryFlags >>> 8, data.getInt(offset + 4));
+            return new ResTableEntry(entryId, size, entryFlags & 0xFF, value, offset);
+        }
+
+        int keyIndex = data.getInt(offset + 4);
+
+        if ((entryFlags & ResTableEntry.FLAG_COMPLEX) == 0) {
+            int valueOffset = checkValue(offset, size, entryId);
+            ResValue value = new ResValue(data.get(valueOffset + 3) & 0xFF, data.getInt(valueOffset + 4));
+            return new ResTableEntry(entryId, keyIndex, entryFlags, value, valueOffset);
+        }
+
+        // complex: ResTable_map_entry + count个ResTable_map
+        if (size < 16 || offset + 16 > chunkSize) {
+            throw new IllegalArgumentException(
+                String.format("无效的complex entry: type=%d, entryId=%d, size=%d", id, entryId, size));
+        }
+        int parent = data.getInt(offset + 8);
+        int count = data.getInt(offset + 12);
+        long mapEnd = (long) offset + size + (long) count * (4 + ResValue.SIZE);
+        if (count < 0 || mapEnd > chunkSize) {
+            throw new IllegalArgumentException(
+                String.format("complex entry越界: type=%d, entryId=%d, count=%d", id, entryId, count));
+        }
+
+        List<ResTableEntry.MapEntry> maps = new ArrayList<>(count);
+        int mapOffset = offset + size;
+        for (int i = 0; i < count; i++) {
+            int valueOffset = mapOffset + 4;
+            ResValue value = new ResValue(data.get(valueOffset + 3) & 0xFF, data.getInt(valueOffset + 4));
+            maps.add(new ResTableEntry.MapEntry(data.getInt(mapOffset), value, valueOffset));
+            mapOffset += 4 + ResValue.SIZE;
+        }
+        return new ResTableEntry(entryId, keyIndex, entryFlags, parent, maps);
+    }
+
+    private int checkValue(int offset, int size, int entryId) {
+        if (size < 8 || (long) offset + size + ResValue.SIZE > chunkSize) {
+            throw new IllegalArgumentException(
+                String.format("entry值越界: type=%d, entryId=%d, size=%d", id, entryId, size));
+        }
+        return offset + size;
+    }
+
+    /**
+     * entry遍历回调（用于一次遍历建立索引）
+     */
+    interface EntryVisitor {
+        /** 存在的entry */
+        void entry(int entryId, int keyIndex);
+
+        /** entry的一个值（complex entry每项调用一次） */
+        void value(int entryId, int dataType, int data);
+    }
+
+    /**
+     * 按entry ID升序遍历所有存在的entry及其值（不缓存entry对象）
+     *
+     * @param visitor 回调
+     * @throws IllegalArgumentException entry数据损坏
+     */
+    synchronized void visitEntries(EntryVisitor visitor) {
+        ByteBuffer data = current();
+        scanEntries(new ScanVisitor() {
+            @Override
+            public void entry(int entryId, int keyIndex) {
+                visitor.entry(entryId, keyIndex);
+            }
+
+            @Override
+            public void valueAt(int entryId, int offset) {
+                visitor.value(entryId, data.get(offset + 3) & 0xFF, data.getInt(offset + 4));
+            }
+        });
+    }
+
+    /**
+     * 遍历所有值的偏移（不创建entry对象）
+     */
+    private void forEachValueOffset(IntConsumer action) {
+        scanEntries(new ScanVisitor() {
+            @Override
+            public void entry(int entryId, int keyIndex) {
+            }
+
+            @Override
+            public void valueAt(int entryId, int offset) {
+                action.accept(offset);
+            }
+        });
+    }
+
+    private interface ScanVisitor {
+        void entry(int entryId, int keyIndex);
+
+        void valueAt(int entryId, int offset);
+    }
+
+    private void scanEntries(ScanVisitor visitor) {
+        decodeHeader();
+        ByteBuffer data = current();
+
+        for (int slot = 0; slot < entryCount; slot++) {
+            int offset = entryOffsetAt(slot);
+            if (offset < 0) {
+                continue;
+            }
+            int entryId = entryIdAt(slot);
+            int size = data.getShort(offset) & 0xFFFF;
+            int entryFlags = data.getShort(offset + 2) & 0xFFFF;
+
+            if ((entryFlags & ResTableEntry.FLAG_COMPACT) != 0) {
+                visitor.entry(entryId, size);
+                visitor.valueAt(entryId, offset);
+            } else if ((entryFlags & ResTableEntry.FLAG_COMPLEX) == 0) {
+                visitor.entry(entryId, data.getInt(offset + 4));
+                visitor.valueAt(entryId, checkValue(offset, size, entryId));
+            } else {
+                ResTableEntry entry = decodeEntry(data, entryId, offset);
+                visitor.entry(entryId, entry.getKeyIndex());
+                for (ResTableEntry.MapEntry map : entry.getMapEntries()) {
+                    visitor.valueAt(entryId, map.valueOffset);
+                }
+            }
+        }
+    }
+
     // Getters
     public int getChunkSize() { return chunkSize; }
     public int getId() { return id; }
-    public byte[] getOriginalData() { return originalData != null ? originalData.clone() : null; }
-    
+
+    public synchronized int getFlags() {
+        decodeHeader();
+        return flags;
+    }
+
+    public synchronized boolean isSparse() {
+        return (getFlags() & FLAG_SPARSE) != 0;
+    }
+
+    /**
+     * 偏移表槽位数量（稀疏表为实际存在的entry数量）
+     */
+    public synchronized int getEntryCount() {
+        decodeHeader();
+        return entryCount;
+    }
+
+    public synchronized ResTableConfig getConfig() {
+        decodeHeader();
+        return config;
+    }
+
+    public byte[] getOriginalData() {
+        if (originalData == null) {
+            return null;
+        }
+        byte[] copy = new byte[chunkSize];
+        originalData.duplicate().position(0).get(copy);
+        return copy;
+    }
+
     @Override
     public String toString() {
         return String.format("ResTableType{id=%d, chunkSize=%d}",
                            id, chunkSize);
     }
 }
-
@@ -0,0 +1,69 @@
+package com.resources.arsc;
+
+import com.resources.util.TypedValue;
+
+/**
+ * Res_value - 资源值（不可变）
+ *
+ * 结构（8字节）:
+ * - size (2 bytes): 固定为8
+ * - res0 (1 byte): 保留
+ * - dataType (1 byte): 值类型（见{@link TypedValue}）
+ * - data (4 bytes): 值数据（TYPE_STRING时为全局字符串池索引）
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public final class ResValue {
+
+    public static final int SIZE = 8;
+
+    private final int dataType;
+    private final int data;
+
+    public ResValue(int dataType, int data) {
+        if (dataType < 0 || dataType > 0xFF) {
+            throw new IllegalArgumentException("无效的dataType: " + dataType);
+        }
+        this.dataType = dataType;
+        this.data = data;
+    }
+
+    /**
+     * 引用全局字符串池的值
+     *
+     * @param stringIndex 全局字符串索引
+     * @return 资源值
+     */
+    public static ResValue string(int stringIndex) {
+        return new ResValue(TypedValue.TYPE_STRING, stringIndex);
+    }
+
+    public int getDataType() { return dataType; }
+    public int getData() { return data; }
+
+    /**
+     * 是否引用全局字符串池
+     */
+    public boolean isString() {
+        return dataType == TypedValue.TYPE_STRING;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ResValue)) return false;
+        ResValue other = (ResValue) o;
+        return dataType == other.dataType && data == other.data;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * dataType + data;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ResValue{type=0x%02X, data=0x%08X}", dataType, data);
+    }
+}
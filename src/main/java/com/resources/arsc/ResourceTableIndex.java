@@ -0,0 +1,479 @@
+package com.resources.arsc;
+
+import com.resources.util.TypedValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 资源ID与全局字符串引用索引（不可变）
+ *
+ * 一次遍历所有资源包的type chunk建立：
+ * - 资源ID（0xPPTTEEEE）-> 各配置下的entry：按包/类型直接寻址，查询O(1)
+ * - 全局字符串索引 -> 引用它的资源ID（升序、去重）
+ *
+ * 全部数据以int数组（CSR格式）存储，不使用装箱集合；entry本身不缓存，
+ * 需要值时由{@link ResTableType}按需解码。
+ *
+ * 索引反映建立时的状态，之后对ARSC的修改不会同步。
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public final class ResourceTableIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceTableIndex.class);
+
+    private static final int[] EMPTY = new int[0];
+
+    // packageId -> 包槽位（-1=不存在）
+    private final int[] packageSlots;
+    private final List<ResTablePackage> packages;
+
+    // (包槽位 * 256 + typeId) -> 资源槽位起点/数量
+    private final int[] typeBase;
+    private final int[] typeSize;
+
+    // 资源槽位 -> keyIndex（-1=不存在），以及在rowTypes中的区间
+    private final int[] slotKeys;
+    private final int[] slotRowStart;
+
+    // 每个资源在各配置下的type chunk（typeChunks下标）
+    private final int[] rowTypes;
+    private final List<ResTableType> typeChunks;
+
+    // 全局字符串索引 -> 引用它的资源ID
+    private final int[] refStart;
+    private final int[] refIds;
+
+    private final int resourceCount;
+
+    private ResourceTableIndex(Builder b) {
+        this.packageSlots = b.packageSlots;
+        this.packages = Collections.unmodifiableList(b.packages);
+        this.typeBase = b.typeBase;
+        this.typeSize = b.typeSize;
+        this.slotKeys = b.slotKeys;
+        this.slotRowStart = b.slotRowStart;
+        this.rowTypes = b.rowTypes;
+        this.typeChunks = Collections.unmodifiableList(b.typeChunks);
+        this.refStart = b.refStart;
+        this.refIds = b.refIds;
+        this.resourceCount = b.resourceCount;
+    }
+
+    /**
+     * 为已解析的ARSC建立索引（会解析所有资源包）
+     *
+     * @param parser ARSC解析器
+     * @return 索引
+     * @throws IllegalArgumentException entry数据损坏
+     */
+    public static ResourceTableIndex build(ArscParser parser) {
+        Objects.requireNonNull(parser, "parser不能为null");
+
+        ResStringPool pool = parser.getGlobalStringPool();
+        return build(parser.getPackages(), pool != null ? pool.getStringCount() : 0);
+    }
+
+    /**
+     * 为资源包建立索引
+     *
+     * @param packages 资源包
+     * @param stringCount 全局字符串数量（超出范围的引用被忽略）
+     * @return 索引
+     */
+    public static ResourceTableIndex build(List<ResTablePackage> packages, int stringCount) {
+        Objects.requireNonNull(packages, "packages不能为null");
+
+        long start = System.nanoTime();
+        ResourceTableIndex index = new Builder(stringCount).build(packages);
+        log.info("资源索引建立完成: {} 个资源, {} 个配置项, {} 条字符串引用, 耗时{}ms",
+                index.resourceCount, index.rowTypes.length, index.refIds.length,
+                (System.nanoTime() - start) / 1_000_000);
+        return index;
+    }
+
+    // ========== 资源ID查询 ==========
+
+    /**
+     * 资源ID对应的槽位（O(1)，不存在时返回-1）
+     */
+    private int slotOf(int resourceId) {
+        int pkgSlot = packageSlots[resourceId >>> 24];
+        if (pkgSlot < 0) {
+            return -1;
+        }
+        int type = pkgSlot * 256 + ((resourceId >>> 16) & 0xFF);
+        int entry = resourceId & 0xFFFF;
+        if (entry >= typeSize[type]) {
+            return -1;
+        }
+        int slot = typeBase[type] + entry;
+        return slotKeys[slot] >= 0 ? slot : -1;
+    }
+
+    /**
+     * 资源是否存在（至少在一个配置下有entry）
+     */
+    public boolean contains(int resourceId) {
+        return slotOf(resourceId) >= 0;
+    }
+
+    /**
+     * 资源的配置数量（不存在时为0）
+     */
+    public int getConfigCount(int resourceId) {
+        int slot = slotOf(resourceId);
+        return slot < 0 ? 0 : slotRowStart[slot + 1] - slotRowStart[slot];
+    }
+
+    /**
+     * 资源存在的配置
+     *
+     * @param resourceId 资源ID
+     * @return 配置列表（按type chunk在文件中的顺序）
+     */
+    public List<ResTableConfig> getConfigs(int resourceId) {
+        int slot = slotOf(resourceId);
+        if (slot < 0) {
+            return Collections.emptyList();
+        }
+        List<ResTableConfig> configs = new ArrayList<>(slotRowStart[slot + 1] - slotRowStart[slot]);
+        for (int row = slotRowStart[slot]; row < slotRowStart[slot + 1]; row++) {
+            configs.add(typeChunks.get(rowTypes[row]).getConfig());
+        }
+        return configs;
+    }
+
+    /**
+     * 资源在各配置下的entry（按需解码，顺序与{@link #getConfigs}一致）
+     *
+     * @param resourceId 资源ID
+     * @return entry列表
+     */
+    public List<ResTableEntry> getEntries(int resourceId) {
+        int slot = slotOf(resourceId);
+        if (slot < 0) {
+            return Collections.emptyList();
+        }
+        int entryId = resourceId & 0xFFFF;
+        List<ResTableEntry> entries = new ArrayList<>(slotRowStart[slot + 1] - slotRowStart[slot]);
+        for (int row = slotRowStart[slot]; row < slotRowStart[slot + 1]; row++) {
+            entries.add(typeChunks.get(rowTypes[row]).getEntry(entryId));
+        }
+        return entries;
+    }
+
+    /**
+     * 资源名（如"string/app_name"），不存在时返回null
+     */
+    public String getResourceName(int resourceId) {
+        int slot = slotOf(resourceId);
+        if (slot < 0) {
+            return null;
+        }
+        ResTablePackage pkg = packages.get(packageSlots[resourceId >>> 24]);
+        int typeId = (resourceId >>> 16) & 0xFF;
+        String type = pkg.getTypeStrings() != null && typeId - 1 < pkg.getTypeStrings().getStringCount()
+            ? pkg.getTypeStrings().getString(typeId - 1) : "type" + typeId;
+        String key = pkg.getKeyStrings() != null && slotKeys[slot] < pkg.getKeyStrings().getStringCount()
+            ? pkg.getKeyStrings().getString(slotKeys[slot]) : "key" + slotKeys[slot];
+        return type + "/" + key;
+    }
+
+    /**
+     * 所有资源ID（升序）
+     */
+    public int[] getResourceIds() {
+        int[] ids = new int[resourceCount];
+        int n = 0;
+        for (int pkgId = 0; pkgId < packageSlots.length; pkgId++) {
+            int pkgSlot = packageSlots[pkgId];
+            if (pkgSlot < 0) {
+                continue;
+            }
+            for (int typeId = 0; typeId < 256; typeId++) {
+                int type = pkgSlot * 256 + typeId;
+                for (int entry = 0; entry < typeSize[type]; entry++) {
+                    if (slotKeys[typeBase[type] + entry] >= 0) {
+                        ids[n++] = (pkgId << 24) | (typeId << 16) | entry;
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    public int getResourceCount() { return resourceCount; }
+
+    // ========== 字符串引用查询 ==========
+
+    /**
+     * 全局字符串数量（索引覆盖的范围）
+     */
+    public int getStringCount() { return refStart.length - 1; }
+
+    /**
+     * 字符串是否被任何entry引用
+     */
+    public boolean isStringReferenced(int stringIndex) {
+        return getReferenceCount(stringIndex) > 0;
+    }
+
+    /**
+     * 引用指定字符串的资源数量
+     */
+    public int getReferenceCount(int stringIndex) {
+        if (stringIndex < 0 || stringIndex >= getStringCount()) {
+            return 0;
+        }
+        return refStart[stringIndex + 1] - refStart[stringIndex];
+    }
+
+    /**
+     * 引用指定字符串的资源ID（升序、去重）
+     *
+     * @param stringIndex 全局字符串索引
+     * @return 资源ID数组（副本）
+     */
+    public int[] getReferencingResources(int stringIndex) {
+        if (getReferenceCount(stringIndex) == 0) {
+            return EMPTY;
+        }
+        return Arrays.copyOfRange(refIds, refStart[stringIndex], refStart[stringIndex + 1]);
+    }
+
+    /**
+     * 引用任一指定字符串的资源ID（升序、去重），用于统计替换影响的资源
+     *
+     * @param stringIndices 全局字符串索引
+     * @return 资源ID数组
+     */
+    public int[] getReferencingResources(BitSet stringIndices) {
+        Objects.requireNonNull(stringIndices, "stringIndices不能为null");
+
+        int total = 0;
+        for (int i = stringIndices.nextSetBit(0); i >= 0; i = stringIndices.nextSetBit(i + 1)) {
+            total += getReferenceCount(i);
+        }
+        int[] ids = new int[total];
+        int n = 0;
+        for (int i = stringIndices.nextSetBit(0); i >= 0; i = stringIndices.nextSetBit(i + 1)) {
+            int count = getReferenceCount(i);
+            if (count > 0) {
+                System.arraycopy(refIds, refStart[i], ids, n, count);
+                n += count;
+            }
+        }
+        return sortUnique(ids, 0, n);
+    }
+
+    /**
+     * 字符串池中被修改的字符串所影响的资源ID
+     *
+     * @param pool 全局字符串池（与建立索引时为同一个池）
+     * @return 资源ID数组（升序、去重）
+     */
+    public int[] getChangedResources(ResStringPool pool) {
+        Objects.requireNonNull(pool, "pool不能为null");
+
+        BitSet modified = new BitSet();
+        for (int i = 0; i < pool.getStringCount(); i++) {
+            if (pool.isModified(i)) {
+                modified.set(i);
+            }
+        }
+        return getReferencingResources(modified);
+    }
+
+    private static int[] sortUnique(int[] values, int from, int to) {
+        Arrays.sort(values, from, to);
+        int n = from;
+        for (int i = from; i < to; i++) {
+            if (n == from || values[n - 1] != values[i]) {
+                values[n++] = values[i];
+            }
+        }
+        return from == 0 && n == values.length ? values : Arrays.copyOfRange(values, from, n);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ResourceTableIndex{resources=%d, configRows=%d, stringRefs=%d}",
+                           resourceCount, rowTypes.length, refIds.length);
+    }
+
+    /**
+     * 一次遍历建立索引
+     */
+    private static final class Builder {
+
+        private final int stringCount;
+
+        private final int[] packageSlots = new int[256];
+        private final List<ResTablePackage> packages = new ArrayList<>();
+        private final List<ResTableType> typeChunks = new ArrayList<>();
+
+        private int[] typeBase;
+        private int[] typeSize;
+        private int[] slotKeys;
+        private int[] slotRowStart;
+        private int[] rowTypes;
+        private int[] refStart;
+        private int[] refIds;
+        private int resourceCount;
+
+        // 遍历时收集的原始数据
+        private final IntList rowResources = new IntList();   // 资源ID
+        private final IntList rowTypeList = new IntList();    // typeChunks下标
+        private final IntList rowKeys = new IntList();        // keyIndex
+        private final IntList refStrings = new IntList();     // 字符串索引
+        private final IntList refResources = new IntList();   // 资源ID
+
+        Builder(int stringCount) {
+            this.stringCount = Math.max(0, stringCount);
+            Arrays.fill(packageSlots, -1);
+        }
+
+        ResourceTableIndex build(List<ResTablePackage> source) {
+            // 1. 遍历所有entry
+            for (ResTablePackage pkg : source) {
+                int pkgId = pkg.getId() & 0xFF;
+                if (packageSlots[pkgId] >= 0) {
+                    log.warn("重复的packageId，忽略: 0x{}", Integer.toHexString(pkgId));
+                    continue;
+                }
+                packageSlots[pkgId] = packages.size();
+                packages.add(pkg);
+
+                for (ResTableType typeChunk : pkg.getTypes()) {
+                    int typeIndex = typeChunks.size();
+                    typeChunks.add(typeChunk);
+                    int prefix = (pkgId << 24) | ((typeChunk.getId() & 0xFF) << 16);
+
+                    typeChunk.visitEntries(new ResTableType.EntryVisitor() {
+                        @Override
+                        public void entry(int entryId, int keyIndex) {
+                            rowResources.add(prefix | entryId);
+                            rowTypeList.add(typeIndex);
+                            rowKeys.add(keyIndex);
+                        }
+
+                        @Override
+                        public void value(int entryId, int dataType, int data) {
+                            if (dataType == TypedValue.TYPE_STRING && data >= 0 && data < stringCount) {
+                                refStrings.add(data);
+                                refResources.add(prefix | entryId);
+                            }
+                        }
+                    });
+                }
+            }
+
+            buildSlots();
+            buildReferences();
+            return new ResourceTableIndex(this);
+        }
+
+        /**
+         * 按包/类型分配直接寻址的槽位，并按槽位对配置项做计数排序
+         */
+        private void buildSlots() {
+            typeSize = new int[packages.size() * 256];
+            for (int i = 0; i < rowResources.size; i++) {
+                int type = typeKey(rowResources.data[i]);
+                typeSize[type] = Math.max(typeSize[type], (rowResources.data[i] & 0xFFFF) + 1);
+            }
+
+            typeBase = new int[typeSize.length];
+            int slots = 0;
+            for (int type = 0; type < typeSize.length; type++) {
+                typeBase[type] = slots;
+                slots += typeSize[type];
+            }
+
+            slotKeys = new int[slots];
+            Arrays.fill(slotKeys, -1);
+            slotRowStart = new int[slots + 1];
+            int[] rowSlots = new int[rowResources.size];
+            for (int i = 0; i < rowResources.size; i++) {
+                int slot = typeBase[typeKey(rowResources.data[i])] + (rowResources.data[i] & 0xFFFF);
+                rowSlots[i] = slot;
+                if (slotKeys[slot] < 0) {
+                    slotKeys[slot] = rowKeys.data[i];
+                    resourceCount++;
+                }
+                slotRowStart[slot + 1]++;
+            }
+            for (int slot = 0; slot < slots; slot++) {
+                slotRowStart[slot + 1] += slotRowStart[slot];
+            }
+
+            rowTypes = new int[rowResources.size];
+            int[] cursor = Arrays.copyOf(slotRowStart, slots);
+            for (int i = 0; i < rowResources.size; i++) {
+                rowTypes[cursor[rowSlots[i]]++] = rowTypeList.data[i];
+            }
+        }
+
+        /**
+         * 按字符串索引对(字符串, 资源)做计数排序，每个字符串内的资源ID排序去重
+         */
+        private void buildReferences() {
+            int[] counts = new int[stringCount + 1];
+            for (int i = 0; i < refStrings.size; i++) {
+                counts[refStrings.data[i] + 1]++;
+            }
+            for (int i = 0; i < stringCount; i++) {
+                counts[i + 1] += counts[i];
+            }
+
+            int[] sorted = new int[refStrings.size];
+            int[] cursor = Arrays.copyOf(counts, stringCount);
+            for (int i = 0; i < refStrings.size; i++) {
+                sorted[cursor[refStrings.data[i]]++] = refResources.data[i];
+            }
+
+            // 压缩：同一资源在多个配置或多个值中引用同一字符串只记一次
+            refStart = new int[stringCount + 1];
+            int n = 0;
+            for (int s = 0; s < stringCount; s++) {
+                refStart[s] = n;
+                Arrays.sort(sorted, counts[s], counts[s + 1]);
+                for (int i = counts[s]; i < counts[s + 1]; i++) {
+                    if (n == refStart[s] || sorted[n - 1] != sorted[i]) {
+                        sorted[n++] = sorted[i];
+                    }
+                }
+            }
+            refStart[stringCount] = n;
+            refIds = n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+        }
+
+        private int typeKey(int resourceId) {
+            return packageSlots[resourceId >>> 24] * 256 + ((resourceId >>> 16) & 0xFF);
+        }
+    }
+
+    /**
+     * 可增长的int数组
+     */
+    private static final class IntList {
+        int[] data = new int[64];
+        int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.resources.axml;
 
 import com.resources.model.BatchReplaceResult;
 import com.resources.model.ClassMapping;
+import com.resources.model.MappingIndex;
 import com.resources.model.PackageMapping;
 import com.resources.util.AxmlValidator;
 import com.resources.validator.SemanticValidator;
@@ -10,6 +11,9 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 
 
@@ -25,6 +29,8 @@ import java.util.*;
  * 
  * 根据文件路径自动选择合适的处理器
  * 
+ * 处理器均无状态，批量处理可在并行执行器上进行（见{@link #replaceAxmlBatch}）
+ * 
  * @author Resources Processor Team
  * @version 1.0.0
  */
@@ -38,32 +44,64 @@ public class AxmlReplacer {
     private final XmlConfigProcessor xmlConfigProcessor;
     private final DataBindingProcessor dataBindingProcessor;
     
+    // 批量处理执行器（null=串行）
+    private final ExecutorService executor;
+    
     public AxmlReplacer(SemanticValidator semanticValidator,
                        ClassMapping classMapping,
                        PackageMapping packageMapping,
                        boolean processToolsContext) {
+        this(semanticValidator, classMapping, packageMapping, processToolsContext, null);
+    }
+    
+    /**
+     * @param executor 批量处理使用的执行器，为null时串行处理；
+     *                 执行器的生命周期由调用方管理
+     */
+    public AxmlReplacer(SemanticValidator semanticValidator,
+                       ClassMapping classMapping,
+                       PackageMapping packageMapping,
+                       boolean processToolsContext,
+                       ExecutorService executor) {
+        this(semanticValidator, MappingIndex.compile(classMapping, packageMapping),
+             processToolsContext, executor);
+    }
+    
+    /**
+     * 使用已编译的映射索引构造，所有处理器共享同一索引
+     * 
+     * @param mappingIndex 编译后的映射索引
+     * @param executor 批量处理使用的执行器，为null时串行处理；
+     *                 执行器的生命周期由调用方管理
+     */
+    public AxmlReplacer(SemanticValidator semanticValidator,
+                       MappingIndex mappingIndex,
+                       boolean processToolsContext,
+                       ExecutorService executor) {
         
         Objects.requireNonNull(semanticValidator, "semanticValidator不能为null");
-        Objects.requireNonNull(classMapping, "classMapping不能为null");
-        Objects.requireNonNull(packageMapping, "packageMapping不能为null");
+        Objects.requireNonNull(mappingIndex, "mappingIndex不能为null");
         
         // 初始化所有处理器
         this.layoutProcessor = new LayoutProcessor(
-            semanticValidator, classMapping, packageMapping, processToolsContext);
+            semanticValidator, mappingIndex, processToolsContext);
         
         this.menuProcessor = new MenuProcessor(
-            semanticValidator, classMapping, packageMapping);
+            semanticValidator, mappingIndex);
         
         this.navigationProcessor = new NavigationProcessor(
-            semanticValidator, classMapping, packageMapping);
+            semanticValidator, mappingIndex);
         
         this.xmlConfigProcessor = new XmlConfigProcessor(
-            semanticValidator, classMapping, packageMapping);
+            semanticValidator, mappingIndex);
         
         this.dataBindingProcessor = new DataBindingProcessor(
-            semanticValidator, classMapping, packageMapping);
+            semanticValidator, mappingIndex);
         
-        log.info("AxmlReplacer初始化完成");
+        this.executor = executor;
+        
+        log.info("AxmlReplacer初始化完成（{}，{}）",
+                executor != null ? "并行" : "串行", mappingIndex);
     }
     
     /**
@@ -190,6 +228,9 @@ public class AxmlReplacer {
     /**
      * 批量处理AXML文件
      * 
+     * 配置了执行器时每个文件作为独立任务并行处理；结果按输入顺序
+     * 组装，与串行处理的输出完全一致（顺序、字节、统计）。
+     * 
      * @param files 文件路径到数据的映射
      * @return 批量处理结果（包含统计信息和结果数据）
      * @throws IOException 处理失败
@@ -197,7 +238,12 @@ public class AxmlReplacer {
     public BatchReplaceResult replaceAxmlBatch(Map<String, byte[]> files) throws IOException {
         Objects.requireNonNull(files, "files不能为null");
         
-        log.info("批量处理AXML: {} 个文件", files.size());
+        boolean parallel = executor != null && files.size() > 1;
+        log.info("批量处理AXML: {} 个文件（{}）", files.size(), parallel ? "并行" : "串行");
+        
+        List<FileOutcome> outcomes = parallel
+            ? processParallel(files)
+            : processSerial(files);
         
         Map<String, byte[]> results = new LinkedHashMap<>();
         int successCount = 0;
@@ -205,28 +251,20 @@ public class AxmlReplacer {
         int errorCount = 0;
         List<String> errorFiles = new ArrayList<>();
         
-        for (Map.Entry<String, byte[]> entry : files.entrySet()) {
-            String filePath = entry.getKey();
-            byte[] xmlData = entry.getValue();
+        for (FileOutcome outcome : outcomes) {
+            results.put(outcome.filePath, outcome.data);
             
-            try {
-                byte[] modifiedData = replaceAxml(filePath, xmlData);
-                results.put(filePath, modifiedData);
-                
-                // 精确判断是否真的修改了
-                if (modifiedData == xmlData) {
-                    skippedCount++;  // 返回原数据=跳过（包括非AXML和replaceCount==0）
-                } else {
-                    successCount++;  // 生成了新数据=成功
-                }
-                
-            } catch (Exception e) {
-                log.error("处理文件失败: {}", filePath, e);
-                errorCount++;
-                errorFiles.add(filePath);
-                
-                // 失败时保留原始数据（宽松模式）
-                results.put(filePath, xmlData);
+            switch (outcome.status) {
+                case SUCCESS:
+                    successCount++;
+                    break;
+                case SKIPPED:
+                    skippedCount++;
+                    break;
+                default:
+                    errorCount++;
+                    errorFiles.add(outcome.filePath);
+                    break;
             }
         }
         
@@ -238,7 +276,7 @@ public class AxmlReplacer {
             throw new IOException(
                 String.format("批量处理全部失败: %d个文件", errorCount));
         }
-        // 部分失败时不抛异常，只记录警告（已在catch块中log.error）
+        // 部分失败时不抛异常，只记录警告（已在processFile中log.error）
         
         return new BatchReplaceResult.Builder()
             .results(results)
@@ -249,6 +287,72 @@ public class AxmlReplacer {
             .build();
     }
     
+    private List<FileOutcome> processSerial(Map<String, byte[]> files) {
+        List<FileOutcome> outcomes = new ArrayList<>(files.size());
+        for (Map.Entry<String, byte[]> entry : files.entrySet()) {
+            outcomes.add(processFile(entry.getKey(), entry.getValue()));
+        }
+        return outcomes;
+    }
+    
+    private List<FileOutcome> processParallel(Map<String, byte[]> files) throws IOException {
+        List<Future<FileOutcome>> futures = new ArrayList<>(files.size());
+        for (Map.Entry<String, byte[]> entry : files.entrySet()) {
+            String filePath = entry.getKey();
+            byte[] xmlData = entry.getValue();
+            futures.add(executor.submit(() -> processFile(filePath, xmlData)));
+        }
+        
+        // 按提交顺序收集，保证结果顺序确定
+        List<FileOutcome> outcomes = new ArrayList<>(futures.size());
+        try {
+            for (Future<FileOutcome> future : futures) {
+                outcomes.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IOException("批量处理被中断", e);
+        } catch (ExecutionException e) {
+            // processFile自身捕获所有异常，这里只会是Error
+            futures.forEach(f -> f.cancel(true));
+            throw new IOException("批量处理任务异常: " + e.getCause(), e.getCause());
+        }
+        return outcomes;
+    }
+    
+    /**
+     * 处理单个文件（不抛异常，失败时保留原始数据）
+     */
+    private FileOutcome processFile(String filePath, byte[] xmlData) {
+        try {
+            byte[] modifiedData = replaceAxml(filePath, xmlData);
+            
+            // 精确判断是否真的修改了：返回原数据=跳过（包括非AXML和replaceCount==0）
+            return new FileOutcome(filePath, modifiedData,
+                modifiedData == xmlData ? FileStatus.SKIPPED : FileStatus.SUCCESS);
+            
+        } catch (Exception e) {
+            log.error("处理文件失败: {}", filePath, e);
+            // 失败时保留原始数据（宽松模式）
+            return new FileOutcome(filePath, xmlData, FileStatus.ERROR);
+        }
+    }
+    
+    private enum FileStatus { SUCCESS, SKIPPED, ERROR }
+    
+    private static final class FileOutcome {
+        final String filePath;
+        final byte[] data;
+        final FileStatus status;
+        
+        FileOutcome(String filePath, byte[] data, FileStatus status) {
+            this.filePath = filePath;
+            this.data = data;
+            this.status = status;
+        }
+    }
+    
     /**
      * 检测文件类型
      * 
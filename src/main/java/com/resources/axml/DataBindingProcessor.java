@@ -1,6 +1,7 @@
 package com.resources.axml;
 
 import com.resources.model.ClassMapping;
+import com.resources.model.MappingIndex;
 import com.resources.model.PackageMapping;
 import com.resources.validator.SemanticValidator;
 import org.slf4j.Logger;
@@ -27,15 +28,21 @@ public class DataBindingProcessor {
     private static final Logger log = LoggerFactory.getLogger(DataBindingProcessor.class);
     
     private final SemanticValidator semanticValidator;
-    private final ClassMapping classMapping;
-    private final PackageMapping packageMapping;
+    private final MappingIndex mappingIndex;
     
     public DataBindingProcessor(SemanticValidator semanticValidator,
                                 ClassMapping classMapping,
                                 PackageMapping packageMapping) {
+        this(semanticValidator, MappingIndex.compile(classMapping, packageMapping));
+    }
+    
+    /**
+     * 使用已编译的映射索引构造（多个处理器共享同一索引）
+     */
+    public DataBindingProcessor(SemanticValidator semanticValidator,
+                                MappingIndex mappingIndex) {
         this.semanticValidator = Objects.requireNonNull(semanticValidator);
-        this.classMapping = Objects.requireNonNull(classMapping);
-        this.packageMapping = Objects.requireNonNull(packageMapping);
+        this.mappingIndex = Objects.requireNonNull(mappingIndex, "mappingIndex不能为null");
     }
     
     /**
@@ -70,8 +77,8 @@ public class DataBindingProcessor {
                 @Override
                 public NodeVisitor child(String ns, String name) {
                     NodeVisitor child = super.child(ns, name);
-                    return new DataBindingVisitor(child, semanticValidator, classMapping,
-                                                 packageMapping, replaceCount, filePath,
+                    return new DataBindingVisitor(child, semanticValidator, mappingIndex,
+                                                 replaceCount, filePath,
                                                  false, name);
                 }
             });
@@ -1,7 +1,6 @@
 package com.resources.axml;
 
-import com.resources.model.ClassMapping;
-import com.resources.model.PackageMapping;
+import com.resources.model.MappingIndex;
 import com.resources.validator.SemanticValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,8 +29,7 @@ public class DataBindingVisitor extends NodeVisitor {
     private static final Pattern CLASS_EXPR_PATTERN = Pattern.compile("T\\(([a-zA-Z0-9._]+)\\)");
     
     private final SemanticValidator semanticValidator;
-    private final ClassMapping classMapping;
-    private final PackageMapping packageMapping;
+    private final MappingIndex mappingIndex;
     private final int[] replaceCount;
     private final String filePath;
     private final boolean inDataSection;  // 是否在<data>节点内
@@ -39,16 +37,14 @@ public class DataBindingVisitor extends NodeVisitor {
     
     public DataBindingVisitor(NodeVisitor child,
                              SemanticValidator semanticValidator,
-                             ClassMapping classMapping,
-                             PackageMapping packageMapping,
+                             MappingIndex mappingIndex,
                              int[] replaceCount,
                              String filePath,
                              boolean inDataSection,
                              String currentTagName) {
         super(child);
         this.semanticValidator = Objects.requireNonNull(semanticValidator);
-        this.classMapping = Objects.requireNonNull(classMapping);
-        this.packageMapping = Objects.requireNonNull(packageMapping);
+        this.mappingIndex = Objects.requireNonNull(mappingIndex);
         this.replaceCount = replaceCount;
         this.filePath = filePath;
         this.inDataSection = inDataSection;
@@ -66,8 +62,8 @@ public class DataBindingVisitor extends NodeVisitor {
         }
         
         NodeVisitor child = super.child(ns, name);
-        return new DataBindingVisitor(child, semanticValidator, classMapping,
-                                     packageMapping, replaceCount, filePath,
+        return new DataBindingVisitor(child, semanticValidator, mappingIndex,
+                                     replaceCount, filePath,
                                      newInDataSection, name);
     }
     
@@ -134,13 +130,13 @@ public class DataBindingVisitor extends NodeVisitor {
         }
         
         // 1. 精确匹配
-        String replacement = classMapping.getNewClass(className);
+        String replacement = mappingIndex.getNewClass(className);
         if (replacement != null) {
             return replacement;
         }
         
         // 2. 前缀匹配
-        replacement = packageMapping.replace(className);
+        replacement = mappingIndex.replacePackage(className);
         return replacement;
     }
     
@@ -161,9 +157,9 @@ public class DataBindingVisitor extends NodeVisitor {
             
             if (semanticValidator.validateAndFilter(context, className)) {
                 // 尝试替换
-                String newClassName = classMapping.getNewClass(className);
+                String newClassName = mappingIndex.getNewClass(className);
                 if (newClassName == null) {
-                    newClassName = packageMapping.replace(className);
+                    newClassName = mappingIndex.replacePackage(className);
                 }
                 
                 if (!className.equals(newClassName)) {
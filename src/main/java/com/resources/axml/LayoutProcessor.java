@@ -1,6 +1,7 @@
 package com.resources.axml;
 
 import com.resources.model.ClassMapping;
+import com.resources.model.MappingIndex;
 import com.resources.model.PackageMapping;
 import com.resources.validator.SemanticValidator;
 import org.slf4j.Logger;
@@ -27,17 +28,25 @@ public class LayoutProcessor {
     private static final Logger log = LoggerFactory.getLogger(LayoutProcessor.class);
     
     private final SemanticValidator semanticValidator;
-    private final ClassMapping classMapping;
-    private final PackageMapping packageMapping;
+    private final MappingIndex mappingIndex;
     private final boolean processToolsContext;
     
     public LayoutProcessor(SemanticValidator semanticValidator,
                           ClassMapping classMapping,
                           PackageMapping packageMapping,
                           boolean processToolsContext) {
+        this(semanticValidator, MappingIndex.compile(classMapping, packageMapping),
+             processToolsContext);
+    }
+    
+    /**
+     * 使用已编译的映射索引构造（多个处理器共享同一索引）
+     */
+    public LayoutProcessor(SemanticValidator semanticValidator,
+                          MappingIndex mappingIndex,
+                          boolean processToolsContext) {
         this.semanticValidator = Objects.requireNonNull(semanticValidator);
-        this.classMapping = Objects.requireNonNull(classMapping);
-        this.packageMapping = Objects.requireNonNull(packageMapping);
+        this.mappingIndex = Objects.requireNonNull(mappingIndex, "mappingIndex不能为null");
         this.processToolsContext = processToolsContext;
     }
     
@@ -79,8 +88,8 @@ public class LayoutProcessor {
                         log.info("[LayoutProcessor.child] ✅ 替换根/子标签: {} -> {} (文件: {})", name, newName, filePath);
                     }
                     NodeVisitor child = super.child(ns, newName);  // 用新名字创建节点
-                    return new LayoutVisitor(child, semanticValidator, classMapping,
-                                            packageMapping, processToolsContext,
+                    return new LayoutVisitor(child, semanticValidator, mappingIndex,
+                                            processToolsContext,
                                             replaceCount, filePath);
                 }
                 
@@ -97,13 +106,13 @@ public class LayoutProcessor {
                     }
                     
                     // 1. 精确匹配
-                    String replacement = classMapping.getNewClass(tagName);
+                    String replacement = mappingIndex.getNewClass(tagName);
                     if (replacement != null) {
                         return replacement;
                     }
                     
                     // 2. 前缀匹配
-                    replacement = packageMapping.replace(tagName);
+                    replacement = mappingIndex.replacePackage(tagName);
                     return replacement;
                 }
             });
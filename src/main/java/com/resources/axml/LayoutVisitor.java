@@ -1,7 +1,6 @@
 package com.resources.axml;
 
-import com.resources.model.ClassMapping;
-import com.resources.model.PackageMapping;
+import com.resources.model.MappingIndex;
 import com.resources.validator.SemanticValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,8 +29,7 @@ public class LayoutVisitor extends NodeVisitor {
     private static final Logger log = LoggerFactory.getLogger(LayoutVisitor.class);
     
     private final SemanticValidator semanticValidator;
-    private final ClassMapping classMapping;
-    private final PackageMapping packageMapping;
+    private final MappingIndex mappingIndex;
     private final boolean processToolsContext;
     private final int[] replaceCount;  // 替换计数器（数组用于在匿名类中修改）
     private final String filePath;
@@ -41,23 +39,20 @@ public class LayoutVisitor extends NodeVisitor {
      * 
      * @param child 子NodeVisitor（委托目标）
      * @param semanticValidator 语义验证器
-     * @param classMapping 类名映射
-     * @param packageMapping 包名映射
+     * @param mappingIndex 编译后的映射索引
      * @param processToolsContext 是否处理tools:context
      * @param replaceCount 替换计数器
      * @param filePath 文件路径
      */
     public LayoutVisitor(NodeVisitor child,
                         SemanticValidator semanticValidator,
-                        ClassMapping classMapping,
-                        PackageMapping packageMapping,
+                        MappingIndex mappingIndex,
                         boolean processToolsContext,
                         int[] replaceCount,
                         String filePath) {
         super(child);
         this.semanticValidator = Objects.requireNonNull(semanticValidator);
-        this.classMapping = Objects.requireNonNull(classMapping);
-        this.packageMapping = Objects.requireNonNull(packageMapping);
+        this.mappingIndex = Objects.requireNonNull(mappingIndex);
         this.processToolsContext = processToolsContext;
         this.replaceCount = replaceCount;
         this.filePath = filePath;
@@ -92,8 +87,8 @@ public class LayoutVisitor extends NodeVisitor {
         NodeVisitor child = super.child(ns, newName);
         
         // 3. 返回包装的Visitor，继续处理子节点
-        return new LayoutVisitor(child, semanticValidator, classMapping, 
-                                packageMapping, processToolsContext, 
+        return new LayoutVisitor(child, semanticValidator, mappingIndex,
+                                processToolsContext, 
                                 replaceCount, filePath);
     }
     
@@ -144,14 +139,14 @@ public class LayoutVisitor extends NodeVisitor {
         log.info("[诊断] 标签名通过验证: {} (文件: {})", tagName, filePath);
         
         // 1. 尝试精确匹配（类名映射）
-        String replacement = classMapping.getNewClass(tagName);
+        String replacement = mappingIndex.getNewClass(tagName);
         if (replacement != null) {
             log.info("✓ 精确匹配替换: {} -> {}", tagName, replacement);
             return replacement;
         }
         
         // 2. 尝试前缀匹配（包名映射）
-        replacement = packageMapping.replace(tagName);
+        replacement = mappingIndex.replacePackage(tagName);
         if (!replacement.equals(tagName)) {
             log.info("✓ 前缀匹配替换: {} -> {} (文件: {})", tagName, replacement, filePath);
             return replacement;
@@ -188,13 +183,13 @@ public class LayoutVisitor extends NodeVisitor {
         }
         
         // 1. 尝试精确匹配
-        String replacement = classMapping.getNewClass(strValue);
+        String replacement = mappingIndex.getNewClass(strValue);
         if (replacement != null) {
             return replacement;
         }
         
         // 2. 尝试前缀匹配
-        replacement = packageMapping.replace(strValue);
+        replacement = mappingIndex.replacePackage(strValue);
         if (!replacement.equals(strValue)) {
             return replacement;
         }
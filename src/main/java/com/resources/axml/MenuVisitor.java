@@ -1,7 +1,6 @@
 package com.resources.axml;
 
-import com.resources.model.ClassMapping;
-import com.resources.model.PackageMapping;
+import com.resources.model.MappingIndex;
 import com.resources.validator.SemanticValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,21 +23,18 @@ public class MenuVisitor extends NodeVisitor {
     private static final Logger log = LoggerFactory.getLogger(MenuVisitor.class);
     
     private final SemanticValidator semanticValidator;
-    private final ClassMapping classMapping;
-    private final PackageMapping packageMapping;
+    private final MappingIndex mappingIndex;
     private final int[] replaceCount;
     private final String filePath;
     
     public MenuVisitor(NodeVisitor child,
                       SemanticValidator semanticValidator,
-                      ClassMapping classMapping,
-                      PackageMapping packageMapping,
+                      MappingIndex mappingIndex,
                       int[] replaceCount,
                       String filePath) {
         super(child);
         this.semanticValidator = Objects.requireNonNull(semanticValidator);
-        this.classMapping = Objects.requireNonNull(classMapping);
-        this.packageMapping = Objects.requireNonNull(packageMapping);
+        this.mappingIndex = Objects.requireNonNull(mappingIndex);
         this.replaceCount = replaceCount;
         this.filePath = filePath;
     }
@@ -46,8 +42,8 @@ public class MenuVisitor extends NodeVisitor {
     @Override
     public NodeVisitor child(String ns, String name) {
         NodeVisitor child = super.child(ns, name);
-        return new MenuVisitor(child, semanticValidator, classMapping,
-                              packageMapping, replaceCount, filePath);
+        return new MenuVisitor(child, semanticValidator, mappingIndex,
+                              replaceCount, filePath);
     }
     
     @Override
@@ -87,13 +83,13 @@ public class MenuVisitor extends NodeVisitor {
         }
         
         // 1. 精确匹配
-        String replacement = classMapping.getNewClass(strValue);
+        String replacement = mappingIndex.getNewClass(strValue);
         if (replacement != null) {
             return replacement;
         }
         
         // 2. 前缀匹配
-        replacement = packageMapping.replace(strValue);
+        replacement = mappingIndex.replacePackage(strValue);
         return replacement;
     }
 }
@@ -1,6 +1,7 @@
 package com.resources.axml;
 
 import com.resources.model.ClassMapping;
+import com.resources.model.MappingIndex;
 import com.resources.model.PackageMapping;
 import com.resources.validator.SemanticValidator;
 import org.slf4j.Logger;
@@ -24,15 +25,21 @@ public class XmlConfigProcessor {
     private static final Logger log = LoggerFactory.getLogger(XmlConfigProcessor.class);
     
     private final SemanticValidator semanticValidator;
-    private final ClassMapping classMapping;
-    private final PackageMapping packageMapping;
+    private final MappingIndex mappingIndex;
     
     public XmlConfigProcessor(SemanticValidator semanticValidator,
                              ClassMapping classMapping,
                              PackageMapping packageMapping) {
+        this(semanticValidator, MappingIndex.compile(classMapping, packageMapping));
+    }
+    
+    /**
+     * 使用已编译的映射索引构造（多个处理器共享同一索引）
+     */
+    public XmlConfigProcessor(SemanticValidator semanticValidator,
+                             MappingIndex mappingIndex) {
         this.semanticValidator = Objects.requireNonNull(semanticValidator);
-        this.classMapping = Objects.requireNonNull(classMapping);
-        this.packageMapping = Objects.requireNonNull(packageMapping);
+        this.mappingIndex = Objects.requireNonNull(mappingIndex, "mappingIndex不能为null");
     }
     
     /**
@@ -67,8 +74,8 @@ public class XmlConfigProcessor {
                 @Override
                 public NodeVisitor child(String ns, String name) {
                     NodeVisitor child = super.child(ns, name);
-                    return new XmlConfigVisitor(child, semanticValidator, classMapping,
-                                               packageMapping, replaceCount, filePath);
+                    return new XmlConfigVisitor(child, semanticValidator, mappingIndex,
+                                               replaceCount, filePath);
                 }
             });
             
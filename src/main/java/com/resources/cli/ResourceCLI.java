@@ -1,9 +1,13 @@
 package com.resources.cli;
 
 import com.resources.config.ResourceConfig;
+import com.resources.core.BatchProcessor;
+import com.resources.core.ResourceDaemon;
 import com.resources.core.ResourceProcessor;
 import com.resources.model.ProcessingResult;
 import com.resources.scanner.ResourceScanner;
+import com.resources.util.DexClassCache;
+import com.resources.util.DexClassIndex;
 import com.resources.validator.Aapt2Validator;
 import com.resources.validator.SemanticValidator;
 import com.resources.mapping.WhitelistFilter;
@@ -22,6 +26,8 @@ import java.util.concurrent.Callable;
  * 
  * 命令：
  * - process-apk：处理APK文件
+ * - process-batch：在一个JVM内批量处理多个APK
+ * - serve：常驻进程，通过本机HTTP接口接收任务
  * - scan：扫描APK
  * - validate：验证APK
  * 
@@ -40,6 +46,8 @@ public class ResourceCLI implements Callable<Integer> {
         System.err.println();
         System.err.println("可用命令:");
         System.err.println("  process-apk  处理APK文件，替换包名和类名");
+        System.err.println("  process-batch 批量处理目录或清单中的多个APK");
+        System.err.println("  serve        常驻进程，通过本机HTTP接口接收任务");
         System.err.println("  scan         扫描APK，定位需要修改的位置");
         System.err.println("  validate     验证APK资源的合法性");
         System.err.println();
@@ -75,6 +83,10 @@ public class ResourceCLI implements Callable<Integer> {
                 description = "启用/禁用自动对齐和签名（默认: --auto-sign）")
         private Boolean autoSign = null;
         
+        @Option(names = {"--dex-index"}, 
+                description = "持久化DEX类索引目录（按DEX内容哈希跨运行复用类列表）")
+        private String dexIndexDir;
+        
         @Option(names = {"-v", "--verbose"}, 
                 description = "详细输出模式")
         private boolean verbose;
@@ -163,7 +175,7 @@ public class ResourceCLI implements Callable<Integer> {
                 // 3. 处理APK（处理workingApkPath，不破坏输入文件）
                 System.out.println("处理APK: " + workingApkPath);
                 
-                ResourceProcessor processor = new ResourceProcessor();
+                ResourceProcessor processor = new ResourceProcessor(createDexCache(dexIndexDir));
                 ProcessingResult result = processor.processApk(workingApkPath, config);
                 
                 // 3. 显示结果
@@ -195,6 +207,191 @@ public class ResourceCLI implements Callable<Integer> {
         }
     }
     
+    /**
+     * process-batch命令 - 批量处理多个APK
+     */
+    @Command(name = "process-batch",
+             description = "在一个JVM内批量处理目录或YAML清单中的多个APK")
+    public static class ProcessBatchCommand implements Callable<Integer> {
+        
+        @Parameters(index = "0", description = "APK目录，或YAML任务清单（jobs: [{apk, config, output}]）")
+        private String input;
+        
+        @Option(names = {"-c", "--config"}, 
+                description = "配置文件路径（目录模式必填；清单模式下为未指定config的任务的默认配置）")
+        private String configPath;
+        
+        @Option(names = {"-o", "--output-dir"}, 
+                description = "输出目录（仅目录模式，未指定时原地处理）")
+        private String outputDir;
+        
+        @Option(names = {"-j", "--jobs"}, 
+                description = "并行度（默认: CPU核数）")
+        private int jobs = 0;
+        
+        @Option(names = {"--memory-budget"}, 
+                description = "全局堆预算，单位MB（默认: 最大堆的60%%）")
+        private long memoryBudgetMb = 0;
+        
+        @Option(names = {"--dex-index"}, 
+                description = "持久化DEX类索引目录（按DEX内容哈希跨运行复用类列表）")
+        private String dexIndexDir;
+        
+        @Option(names = {"-v", "--verbose"}, 
+                description = "详细输出模式")
+        private boolean verbose;
+        
+        @Override
+        public Integer call() {
+            try {
+                printHeader();
+                
+                java.nio.file.Path inputPath = Paths.get(input);
+                if (!Files.exists(inputPath)) {
+                    System.err.println("✗ 错误: 输入不存在: " + input);
+                    return 1;
+                }
+                if (jobs < 0 || memoryBudgetMb < 0) {
+                    System.err.println("✗ 错误: --jobs和--memory-budget不能为负数");
+                    return 2;
+                }
+                
+                // 1. 收集任务
+                java.util.List<BatchProcessor.Job> batch;
+                if (Files.isDirectory(inputPath)) {
+                    if (configPath == null) {
+                        System.err.println("✗ 错误: 目录模式必须指定 --config");
+                        return 2;
+                    }
+                    batch = BatchProcessor.scanDirectory(inputPath, configPath,
+                        outputDir != null ? Paths.get(outputDir) : null);
+                } else {
+                    if (outputDir != null) {
+                        System.err.println("⚠️  警告: 清单模式忽略 --output-dir，请在清单中指定output");
+                    }
+                    batch = BatchProcessor.loadManifest(inputPath, configPath);
+                }
+                
+                if (batch.isEmpty()) {
+                    System.err.println("✗ 错误: 没有找到需要处理的APK: " + input);
+                    return 1;
+                }
+                System.out.println("任务数: " + batch.size());
+                
+                // 2. 批量处理
+                BatchProcessor processor = new BatchProcessor(jobs, memoryBudgetMb * 1024 * 1024,
+                    createDexCache(dexIndexDir));
+                BatchProcessor.BatchResult result = processor.process(batch);
+                
+                // 3. 显示结果
+                System.out.println();
+                System.out.println(result.getSummary());
+                
+                if (result.isAllSuccess()) {
+                    System.out.println("✓ 批量处理成功！");
+                    return 0;
+                } else {
+                    System.err.println("✗ " + result.getFailureCount() + " 个APK处理失败！");
+                    return 1;
+                }
+                
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.err.println("✗ 错误: 批量处理被中断");
+                return 1;
+            } catch (Exception e) {
+                System.err.println("✗ 错误: " + e.getMessage());
+                if (verbose) {
+                    e.printStackTrace();
+                }
+                return 1;
+            }
+        }
+        
+        private void printHeader() {
+            System.out.println("════════════════════════════════════════");
+            System.out.println("  Resources Processor - 批量处理APK");
+            System.out.println("════════════════════════════════════════");
+            System.out.println();
+        }
+    }
+    
+    /**
+     * serve命令 - 常驻进程
+     */
+    @Command(name = "serve",
+             description = "启动常驻进程，在本机HTTP端口接收process/scan/validate任务（复用预热的JIT、配置和DEX缓存）")
+    public static class ServeCommand implements Callable<Integer> {
+        
+        @Option(names = {"-p", "--port"}, 
+                description = "监听端口，只绑定127.0.0.1（默认: 7070）")
+        private int port = 7070;
+        
+        @Option(names = {"-j", "--jobs"}, 
+                description = "同时执行的任务数（默认: CPU核数）")
+        private int jobs = 0;
+        
+        @Option(names = {"--dex-index"}, 
+                description = "持久化DEX类索引目录（按DEX内容哈希跨运行复用类列表）")
+        private String dexIndexDir;
+        
+        @Option(names = {"--token-file"}, 
+                description = "将访问令牌写入此文件（权限0600，停止时删除），不在控制台打印")
+        private String tokenFile;
+        
+        @Option(names = {"-v", "--verbose"}, 
+                description = "详细输出模式")
+        private boolean verbose;
+        
+        @Override
+        public Integer call() {
+            try {
+                printHeader();
+                
+                ResourceDaemon daemon = new ResourceDaemon(port, jobs, createDexCache(dexIndexDir));
+                daemon.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(daemon::stop, "resource-daemon-hook"));
+                
+                String base = "http://127.0.0.1:" + daemon.getPort();
+                System.out.println("监听: " + base);
+                if (tokenFile != null) {
+                    daemon.writeTokenFile(Paths.get(tokenFile));
+                    System.out.println("访问令牌: 已写入 " + tokenFile);
+                } else {
+                    System.out.println("访问令牌: " + daemon.getToken());
+                }
+                System.out.println("请求头: Authorization: Bearer <令牌>，任务请求须带 Content-Type: application/json");
+                System.out.println("  POST " + base + "/process   {\"apk\", \"config\", \"output\"}");
+                System.out.println("  POST " + base + "/scan      {\"apk\", \"config\"}");
+                System.out.println("  POST " + base + "/validate  {\"apk\", \"dex\"}");
+                System.out.println("  GET  " + base + "/health");
+                System.out.println("  POST " + base + "/shutdown");
+                
+                daemon.awaitShutdown();
+                System.out.println("✓ 常驻进程已停止");
+                return 0;
+                
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.err.println("✗ 错误: 常驻进程被中断");
+                return 1;
+            } catch (Exception e) {
+                System.err.println("✗ 错误: " + e.getMessage());
+                if (verbose) {
+                    e.printStackTrace();
+                }
+                return 1;
+            }
+        }
+        
+        private void printHeader() {
+            System.out.println("════════════════════════════════════════");
+            System.out.println("  Resources Processor - 常驻进程");
+            System.out.println("════════════════════════════════════════");
+            System.out.println();
+        }
+    }
+    
     /**
      * scan命令 - 扫描APK
      */
@@ -299,6 +496,10 @@ public class ResourceCLI implements Callable<Integer> {
                 description = "DEX文件路径（用于交叉验证，可多次指定）")
         private String[] dexPaths;
         
+        @Option(names = {"--dex-index"}, 
+                description = "持久化DEX类索引目录（按DEX内容哈希跨运行复用类列表）")
+        private String dexIndexDir;
+        
         @Option(names = {"-v", "--verbose"}, 
                 description = "详细输出模式")
         private boolean verbose;
@@ -343,7 +544,7 @@ public class ResourceCLI implements Callable<Integer> {
                     if (!validDexPaths.isEmpty()) {
                         // 使用现有的DexCrossValidator
                         com.resources.validator.DexCrossValidator dexValidator = 
-                            new com.resources.validator.DexCrossValidator();
+                            new com.resources.validator.DexCrossValidator(createDexCache(dexIndexDir));
                         
                         // 从APK加载类映射（简化：只验证DEX可加载）
                         // 完整的DEX验证需要类映射，这里只验证DEX可加载
@@ -392,12 +593,23 @@ public class ResourceCLI implements Callable<Integer> {
         }
     }
     
+    /**
+     * 创建DEX类缓存（指定--dex-index时使用持久化索引）
+     */
+    private static DexClassCache createDexCache(String dexIndexDir) throws java.io.IOException {
+        return dexIndexDir != null
+            ? new DexClassCache(new DexClassIndex(Paths.get(dexIndexDir)))
+            : new DexClassCache();
+    }
+    
     /**
      * 主入口
      */
     public static void main(String[] args) {
         int exitCode = new CommandLine(new ResourceCLI())
             .addSubcommand("process-apk", new ProcessApkCommand())
+            .addSubcommand("process-batch", new ProcessBatchCommand())
+            .addSubcommand("serve", new ServeCommand())
             .addSubcommand("scan", new ScanCommand())
             .addSubcommand("validate", new ValidateCommand())
             .execute(args);
@@ -2,6 +2,7 @@ package com.resources.config;
 
 import com.resources.model.ClassMapping;
 import com.resources.model.PackageMapping;
+import com.resources.util.ApkSignerUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yaml.snakeyaml.Yaml;
@@ -40,7 +41,14 @@ public class ResourceConfig {
     private final boolean enableRuntimeValidation;
     private final boolean keepBackup;
     private final boolean parallelProcessing;
+    private final int parallelThreads;  // 并行线程数（0=CPU核数）
+    private final boolean compactStringPool;  // 替换后压缩全局字符串池
+    private final boolean dexFromApk;  // 直接从APK内的classes*.dex验证
     private final boolean autoSign;  // 自动对齐和签名
+    private final String keystorePath;  // 签名密钥库（默认测试密钥）
+    private final String keystorePassword;
+    private final String keyAlias;  // null=第一个私钥条目
+    private final String keyPassword;
     
     private ResourceConfig(Builder builder) {
         this.packageMappings = builder.packageMappings;
@@ -52,7 +60,14 @@ public class ResourceConfig {
         this.enableRuntimeValidation = builder.enableRuntimeValidation;
         this.keepBackup = builder.keepBackup;
         this.parallelProcessing = builder.parallelProcessing;
+        this.parallelThreads = builder.parallelThreads;
+        this.compactStringPool = builder.compactStringPool;
+        this.dexFromApk = builder.dexFromApk;
         this.autoSign = builder.autoSign;
+        this.keystorePath = builder.keystorePath;
+        this.keystorePassword = builder.keystorePassword;
+        this.keyAlias = builder.keyAlias;
+        this.keyPassword = builder.keyPassword;
     }
     
     // Getters
@@ -71,7 +86,21 @@ public class ResourceConfig {
     public boolean isEnableRuntimeValidation() { return enableRuntimeValidation; }
     public boolean isKeepBackup() { return keepBackup; }
     public boolean isParallelProcessing() { return parallelProcessing; }
+    public int getParallelThreads() { return parallelThreads; }
+    public boolean isCompactStringPool() { return compactStringPool; }
+    public boolean isDexFromApk() { return dexFromApk; }
+    
+    /**
+     * 获取实际并行度（parallelThreads为0时取CPU核数）
+     */
+    public int getEffectiveParallelism() {
+        return parallelThreads > 0 ? parallelThreads : Runtime.getRuntime().availableProcessors();
+    }
     public boolean isAutoSign() { return autoSign; }
+    public String getKeystorePath() { return keystorePath; }
+    public String getKeystorePassword() { return keystorePassword; }
+    public String getKeyAlias() { return keyAlias; }
+    public String getKeyPassword() { return keyPassword; }
     
     /**
      * 从YAML文件加载配置
@@ -172,11 +201,39 @@ public class ResourceConfig {
                     builder.parallelProcessing(parallel);
                 }
                 
+                Number parallelThreads = (Number) options.get("parallel_threads");
+                if (parallelThreads != null) {
+                    builder.parallelThreads(parallelThreads.intValue());
+                }
+                
+                Boolean compact = (Boolean) options.get("compact_string_pool");
+                if (compact != null) {
+                    builder.compactStringPool(compact);
+                }
+                
+                Boolean dexFromApk = (Boolean) options.get("dex_from_apk");
+                if (dexFromApk != null) {
+                    builder.dexFromApk(dexFromApk);
+                }
+                
                 Boolean autoSign = (Boolean) options.get("auto_sign");
                 if (autoSign != null) {
                     builder.autoSign(autoSign);
                 }
                 
+                String keystore = (String) options.get("keystore");
+                if (keystore != null) {
+                    String storePass = (String) options.get("keystore_password");
+                    if (storePass == null) {
+                        throw new IllegalArgumentException("设置了keystore但缺少keystore_password");
+                    }
+                    String keyPass = (String) options.get("key_password");
+                    builder.keystore(keystore,
+                                     storePass,
+                                     (String) options.get("key_alias"),
+                                     keyPass != null ? keyPass : storePass);
+                }
+                
                 log.debug("选项: {}", options);
             }
             
@@ -237,7 +294,16 @@ public class ResourceConfig {
             options.put("enable_runtime_validation", enableRuntimeValidation);
             options.put("keep_backup", keepBackup);
             options.put("parallel_processing", parallelProcessing);
+            options.put("parallel_threads", parallelThreads);
+            options.put("compact_string_pool", compactStringPool);
+            options.put("dex_from_apk", dexFromApk);
             options.put("auto_sign", autoSign);
+            options.put("keystore", keystorePath);
+            options.put("keystore_password", keystorePassword);
+            if (keyAlias != null) {
+                options.put("key_alias", keyAlias);
+            }
+            options.put("key_password", keyPassword);
             data.put("options", options);
             
             // 写入YAML
@@ -282,7 +348,14 @@ public class ResourceConfig {
         builder.enableRuntimeValidation = this.enableRuntimeValidation;
         builder.keepBackup = this.keepBackup;
         builder.parallelProcessing = this.parallelProcessing;
+        builder.parallelThreads = this.parallelThreads;
+        builder.compactStringPool = this.compactStringPool;
+        builder.dexFromApk = this.dexFromApk;
         builder.autoSign = this.autoSign;
+        builder.keystorePath = this.keystorePath;
+        builder.keystorePassword = this.keystorePassword;
+        builder.keyAlias = this.keyAlias;
+        builder.keyPassword = this.keyPassword;
         
         return builder;
     }
@@ -306,7 +379,14 @@ public class ResourceConfig {
         private boolean enableRuntimeValidation = false;
         private boolean keepBackup = true;
         private boolean parallelProcessing = false;
+        private int parallelThreads = 0;
+        private boolean compactStringPool = false;
+        private boolean dexFromApk = false;
         private boolean autoSign = true;  // 默认启用（向后兼容）
+        private String keystorePath = ApkSignerUtil.TEST_KEYSTORE;
+        private String keystorePassword = ApkSignerUtil.TEST_PASSWORD;
+        private String keyAlias = null;
+        private String keyPassword = ApkSignerUtil.TEST_PASSWORD;
         
         public Builder addPackageMapping(String oldPkg, String newPkg) {
             packageMappings.addPrefixMapping(oldPkg, newPkg);
@@ -363,11 +443,51 @@ public class ResourceConfig {
             return this;
         }
         
+        public Builder parallelThreads(int value) {
+            if (value < 0) {
+                throw new IllegalArgumentException("parallelThreads不能为负数: " + value);
+            }
+            this.parallelThreads = value;
+            return this;
+        }
+        
+        /**
+         * 替换后是否压缩全局字符串池（合并重复字符串、删除未引用字符串）
+         */
+        public Builder compactStringPool(boolean value) {
+            this.compactStringPool = value;
+            return this;
+        }
+        
+        /**
+         * 预验证时是否读取APK内的classes*.dex（与dex_paths合并）
+         */
+        public Builder dexFromApk(boolean value) {
+            this.dexFromApk = value;
+            return this;
+        }
+        
         public Builder autoSign(boolean value) {
             this.autoSign = value;
             return this;
         }
         
+        /**
+         * 设置签名密钥库（未设置时使用config/keystore/testkey.jks）
+         * 
+         * @param path 密钥库路径（JKS或PKCS12）
+         * @param storePassword 密钥库密码
+         * @param alias 密钥别名（null=第一个私钥条目）
+         * @param keyPassword 密钥密码
+         */
+        public Builder keystore(String path, String storePassword, String alias, String keyPassword) {
+            this.keystorePath = Objects.requireNonNull(path, "path不能为null");
+            this.keystorePassword = Objects.requireNonNull(storePassword, "storePassword不能为null");
+            this.keyAlias = alias;
+            this.keyPassword = Objects.requireNonNull(keyPassword, "keyPassword不能为null");
+            return this;
+        }
+        
         public ResourceConfig build() {
             return new ResourceConfig(this);
         }
@@ -0,0 +1,594 @@
+package com.resources.core;
+
+import com.resources.model.ProcessingResult;
+import com.resources.util.DexClassCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * 多APK批量处理器
+ *
+ * 一个JVM内处理多个APK，避免每个APK重复付出JVM启动和JIT预热的开销：
+ * - 所有任务在同一个ForkJoinPool（工作窃取）上执行，开启parallel_processing的
+ *   配置在APK内部的扫描、AXML替换和多资源包ARSC也使用这个池
+ * - 按APK解压后的总大小估算内存占用，只有全局堆预算足够时才放行任务；
+ *   超过预算的单个APK在没有其他任务运行时单独执行
+ * - 等待中的任务按估算大小从大到小调度，预算不足时优先放行能装下的小任务
+ * - 同一配置文件只加载、编译一次（映射索引与白名单）；所有任务共享同一个DexClassCache
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class BatchProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchProcessor.class);
+
+    // 未指定内存预算时使用最大堆的比例
+    private static final double DEFAULT_BUDGET_RATIO = 0.6;
+
+    /**
+     * 单个任务的执行逻辑（测试时可替换）
+     */
+    interface JobHandler {
+        ProcessingResult process(Job job, CompiledConfig compiled, ExecutorService workers) throws Exception;
+    }
+
+    private final int parallelism;
+    private final long memoryBudget;
+    private final DexClassCache dexCache;
+    private final JobHandler handler;
+
+    // 预算与并发状态（受lock保护）
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private long availableBudget;
+    private int running;
+    private long peakReserved;
+
+    /**
+     * @param parallelism 并行度（0=CPU核数）
+     * @param memoryBudget 全局堆预算（字节，0=最大堆的60%）
+     */
+    public BatchProcessor(int parallelism, long memoryBudget) {
+        this(parallelism, memoryBudget, new DexClassCache());
+    }
+
+    /**
+     * @param parallelism 并行度（0=CPU核数）
+     * @param memoryBudget 全局堆预算（字节，0=最大堆的60%）
+     * @param dexCache 所有任务共享的DEX类缓存
+     */
+    public BatchProcessor(int parallelism, long memoryBudget, DexClassCache dexCache) {
+        this(parallelism, memoryBudget, dexCache, null);
+    }
+
+    BatchProcessor(int parallelism, long memoryBudget, DexClassCache dexCache, JobHandler handler) {
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("parallelism不能为负数: " + parallelism);
+        }
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("memoryBudget不能为负数: " + memoryBudget);
+        }
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.memoryBudget = memoryBudget > 0
+            ? memoryBudget
+            : (long) (Runtime.getRuntime().maxMemory() * DEFAULT_BUDGET_RATIO);
+        this.dexCache = Objects.requireNonNull(dexCache, "dexCache不能为null");
+
+        if (handler != null) {
+            this.handler = handler;
+        } else {
+            ResourceProcessor processor = new ResourceProcessor(dexCache);
+            this.handler = (job, compiled, workers) ->
+                processor.processApk(prepareWorkingApk(job), compiled, workers);
+        }
+
+        log.info("批量处理器初始化: 并行度={}, 内存预算={} MB",
+                this.parallelism, this.memoryBudget / 1024 / 1024);
+    }
+
+    /**
+     * 处理一批APK
+     *
+     * 单个任务失败不影响其他任务；结果顺序与输入顺序一致。
+     * 同一实例上的多次调用串行执行。
+     *
+     * @param jobs 任务列表
+     * @return 批量结果
+     * @throws InterruptedException 等待过程中被中断（已提交的任务会被取消）
+     * @throws IllegalArgumentException 多个任务写入同一APK，或任务的输入被另一任务写入
+     */
+    public synchronized BatchResult process(List<Job> jobs) throws InterruptedException {
+        Objects.requireNonNull(jobs, "jobs不能为null");
+        String conflict = findWorkingPathConflict(jobs);
+        if (conflict != null) {
+            throw new IllegalArgumentException(conflict);
+        }
+
+        long startTime = System.currentTimeMillis();
+        JobResult[] results = new JobResult[jobs.size()];
+
+        // 1. 每个配置文件只加载和编译一次
+        Map<String, PreparedConfig> configs = loadConfigs(jobs);
+
+        // 2. 估算每个APK的内存占用，从大到小排队
+        List<Integer> pending = new ArrayList<>();
+        long[] footprints = new long[jobs.size()];
+        for (int i = 0; i < jobs.size(); i++) {
+            Job job = jobs.get(i);
+            PreparedConfig prepared = configs.get(job.getConfigPath());
+            if (prepared.error != null) {
+                results[i] = JobResult.failed(job, 0, 0, "配置加载失败: " + prepared.error);
+                continue;
+            }
+            try {
+                footprints[i] = Math.min(estimateFootprint(job.getApkPath()), memoryBudget);
+                pending.add(i);
+            } catch (IOException e) {
+                results[i] = JobResult.failed(job, 0, 0, "无法读取APK: " + e.getMessage());
+            }
+        }
+        pending.sort((a, b) -> Long.compare(footprints[b], footprints[a]));
+
+        log.info("批量处理开始: {} 个任务, 可执行 {} 个", jobs.size(), pending.size());
+
+        // 3. 按预算放行任务
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        lock.lock();
+        try {
+            availableBudget = memoryBudget;
+            running = 0;
+            peakReserved = 0;
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            while (!pending.isEmpty()) {
+                int index = admitNext(pending, footprints);
+                Job job = jobs.get(index);
+                PreparedConfig prepared = configs.get(job.getConfigPath());
+                long footprint = footprints[index];
+                pool.execute(() -> {
+                    try {
+                        results[index] = runJob(job, prepared, footprint, pool);
+                    } finally {
+                        release(footprint);
+                    }
+                });
+            }
+            awaitIdle();
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            throw e;
+        } finally {
+            pool.shutdown();
+        }
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+
+        BatchResult result = new BatchResult(Arrays.asList(results),
+            System.currentTimeMillis() - startTime, peakReserved, memoryBudget);
+        log.info("批量处理完成: {}", result.getSummaryLine());
+        log.info("{}", dexCache.getStatistics());
+        return result;
+    }
+
+    /**
+     * 等待直到有任务可以放行，预留预算并返回其下标
+     */
+    private int admitNext(List<Integer> pending, long[] footprints) throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                if (running < parallelism) {
+                    for (Iterator<Integer> it = pending.iterator(); it.hasNext(); ) {
+                        int index = it.next();
+                        // 没有任务运行时总能放行（单个任务的估算值不超过总预算）
+                        if (footprints[index] <= availableBudget || running == 0) {
+                            it.remove();
+                            availableBudget -= footprints[index];
+                            running++;
+                            peakReserved = Math.max(peakReserved, memoryBudget - availableBudget);
+                            return index;
+                        }
+                    }
+                }
+                released.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long footprint) {
+        lock.lock();
+        try {
+            availableBudget += footprint;
+            running--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        lock.lock();
+        try {
+            while (running > 0) {
+                released.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private JobResult runJob(Job job, PreparedConfig prepared, long footprint, ExecutorService pool) {
+        long start = System.currentTimeMillis();
+        try {
+            log.info("开始处理: {} (估算 {} MB)", job.getApkPath(), footprint / 1024 / 1024);
+            ExecutorService workers = prepared.compiled.getConfig().isParallelProcessing() ? pool : null;
+            ProcessingResult result = handler.process(job, prepared.compiled, workers);
+            return new JobResult(job, result.isSuccess(), result, null,
+                                 System.currentTimeMillis() - start, footprint);
+        } catch (Exception e) {
+            log.error("处理失败: {}", job.getApkPath(), e);
+            return JobResult.failed(job, System.currentTimeMillis() - start, footprint, e.getMessage());
+        }
+    }
+
+    /**
+     * 加载所有不同的配置文件并编译映射
+     */
+    private static Map<String, PreparedConfig> loadConfigs(List<Job> jobs) {
+        Map<String, PreparedConfig> configs = new HashMap<>();
+        for (Job job : jobs) {
+            configs.computeIfAbsent(job.getConfigPath(), path -> {
+                try {
+                    CompiledConfig compiled = CompiledConfig.load(path);
+                    log.info("配置已加载: {} ({})", path, compiled.getMappingIndex());
+                    return new PreparedConfig(compiled, null);
+                } catch (Exception e) {
+                    log.error("配置加载失败: {}", path, e);
+                    return new PreparedConfig(null, e.getMessage());
+                }
+            });
+        }
+        return configs;
+    }
+
+    /**
+     * 加载并编译后的配置（加载失败时error非null）
+     */
+    private static final class PreparedConfig {
+        final CompiledConfig compiled;
+        final String error;
+
+        PreparedConfig(CompiledConfig compiled, String error) {
+            this.compiled = compiled;
+            this.error = error;
+        }
+    }
+
+    /**
+     * 估算处理APK所需的堆内存：所有entry解压后的大小之和（不小于文件大小）
+     *
+     * @param apkPath APK路径
+     * @return 字节数
+     * @throws IOException 读取失败
+     */
+    static long estimateFootprint(String apkPath) throws IOException {
+        long fileSize = Files.size(Path.of(apkPath));
+        long uncompressed = 0;
+        try (ZipFile zip = new ZipFile(apkPath)) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                long size = entry.getSize();
+                uncompressed += size >= 0 ? size : Math.max(entry.getCompressedSize(), 0);
+            }
+        }
+        return Math.max(uncompressed, fileSize);
+    }
+
+    /**
+     * 任务实际读写的APK：指定输出路径时为输出，否则为输入（原地处理）
+     */
+    static String workingPath(Job job) {
+        return job.getOutputPath() != null ? job.getOutputPath() : job.getApkPath();
+    }
+
+    /**
+     * 检查任务之间的路径冲突
+     *
+     * 并发执行的任务各自在工作APK旁写临时文件并替换它，因此两个任务的工作APK
+     * 不能相同，任务的输入APK也不能是另一个任务的工作APK。
+     *
+     * @param jobs 任务列表
+     * @return 冲突描述，没有冲突时返回null
+     */
+    static String findWorkingPathConflict(List<Job> jobs) {
+        Map<Path, Job> writers = new HashMap<>();
+        for (Job job : jobs) {
+            Path working = normalizePath(workingPath(job));
+            Job previous = writers.putIfAbsent(working, job);
+            if (previous != null) {
+                return String.format("多个任务写入同一APK: %s (%s, %s)",
+                                     working, previous.getApkPath(), job.getApkPath());
+            }
+        }
+        for (Job job : jobs) {
+            Job writer = writers.get(normalizePath(job.getApkPath()));
+            if (writer != null && writer != job) {
+                return String.format("任务的输入APK会被另一任务写入: %s (输出任务: %s)",
+                                     job.getApkPath(), writer.getApkPath());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 规范化路径（已存在的文件解析符号链接），用于判断两个路径是否指向同一APK
+     */
+    static Path normalizePath(String path) {
+        Path normalized = Path.of(path).toAbsolutePath().normalize();
+        try {
+            return Files.exists(normalized) ? normalized.toRealPath() : normalized;
+        } catch (IOException e) {
+            return normalized;
+        }
+    }
+
+    /**
+     * 指定输出路径时先复制APK，不修改输入文件
+     */
+    static String prepareWorkingApk(Job job) throws IOException {
+        if (job.getOutputPath() == null || job.getOutputPath().equals(job.getApkPath())) {
+            return job.getApkPath();
+        }
+        Path output = Path.of(job.getOutputPath());
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        Files.copy(Path.of(job.getApkPath()), output, StandardCopyOption.REPLACE_EXISTING);
+        return job.getOutputPath();
+    }
+
+    /**
+     * 扫描目录中的APK（不递归，按文件名排序）
+     *
+     * @param dir APK目录
+     * @param configPath 所有APK使用的配置文件
+     * @param outputDir 输出目录（null=原地处理）
+     * @return 任务列表
+     * @throws IOException 读取目录失败
+     */
+    public static List<Job> scanDirectory(Path dir, String configPath, Path outputDir) throws IOException {
+        Objects.requireNonNull(dir, "dir不能为null");
+        Objects.requireNonNull(configPath, "configPath不能为null");
+
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                .filter(Files::isRegularFile)
+                .filter(p -> p.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".apk"))
+                .sorted()
+                .map(p -> new Job(p.toString(), configPath,
+                    outputDir != null ? outputDir.resolve(p.getFileName()).toString() : null))
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * 加载YAML任务清单
+     *
+     * 格式：
+     * <pre>
+     * jobs:
+     *   - apk: app-release.apk
+     *     config: configs/app.yaml      # 可选，默认使用defaultConfigPath
+     *     output: out/app-release.apk   # 可选，默认原地处理
+     * </pre>
+     * 相对路径相对于清单文件所在目录。多个任务不能写入同一APK
+     * （相同的output，或相同的apk且都未指定output）。
+     *
+     * @param manifest 清单文件
+     * @param defaultConfigPath 默认配置文件（可为null，此时每个任务都必须指定config）
+     * @return 任务列表
+     * @throws IOException 读取或格式错误，或任务之间路径冲突
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Job> loadManifest(Path manifest, String defaultConfigPath) throws IOException {
+        Objects.requireNonNull(manifest, "manifest不能为null");
+
+        Path baseDir = manifest.toAbsolutePath().getParent();
+        Object data;
+        try {
+            data = new Yaml().load(new String(Files.readAllBytes(manifest), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new IOException("任务清单格式错误: " + e.getMessage(), e);
+        }
+        if (!(data instanceof Map) || !(((Map<String, Object>) data).get("jobs") instanceof List)) {
+            throw new IOException("任务清单缺少jobs列表: " + manifest);
+        }
+
+        List<Job> jobs = new ArrayList<>();
+        for (Object item : (List<Object>) ((Map<String, Object>) data).get("jobs")) {
+            if (!(item instanceof Map)) {
+                throw new IOException("任务清单第" + (jobs.size() + 1) + "项格式错误: " + item);
+            }
+            Map<String, Object> entry = (Map<String, Object>) item;
+            Object apk = entry.get("apk");
+            Object config = entry.getOrDefault("config", defaultConfigPath);
+            Object output = entry.get("output");
+            if (apk == null) {
+                throw new IOException("任务清单第" + (jobs.size() + 1) + "项缺少apk");
+            }
+            if (config == null) {
+                throw new IOException("任务清单第" + (jobs.size() + 1) + "项缺少config，且未指定默认配置");
+            }
+            jobs.add(new Job(resolve(baseDir, apk.toString()),
+                             entry.containsKey("config") ? resolve(baseDir, config.toString()) : config.toString(),
+                             output != null ? resolve(baseDir, output.toString()) : null));
+        }
+
+        String conflict = findWorkingPathConflict(jobs);
+        if (conflict != null) {
+            throw new IOException("任务清单路径冲突: " + conflict);
+        }
+        return jobs;
+    }
+
+    private static String resolve(Path baseDir, String path) {
+        return baseDir != null ? baseDir.resolve(path).normalize().toString() : path;
+    }
+
+    /**
+     * 批量任务
+     */
+    public static final class Job {
+        private final String apkPath;
+        private final String configPath;
+        private final String outputPath;
+
+        /**
+         * @param apkPath 输入APK
+         * @param configPath 配置文件
+         * @param outputPath 输出APK（null=原地处理）
+         */
+        public Job(String apkPath, String configPath, String outputPath) {
+            this.apkPath = Objects.requireNonNull(apkPath, "apkPath不能为null");
+            this.configPath = Objects.requireNonNull(configPath, "configPath不能为null");
+            this.outputPath = outputPath;
+        }
+
+        public String getApkPath() { return apkPath; }
+        public String getConfigPath() { return configPath; }
+        public String getOutputPath() { return outputPath; }
+
+        @Override
+        public String toString() {
+            return String.format("Job{apk='%s', config='%s', output='%s'}", apkPath, configPath, outputPath);
+        }
+    }
+
+    /**
+     * 单个任务的结果
+     */
+    public static final class JobResult {
+        private final Job job;
+        private final boolean success;
+        private final ProcessingResult result;
+        private final String error;
+        private final long durationMs;
+        private final long footprint;
+
+        JobResult(Job job, boolean success, ProcessingResult result, String error,
+                  long durationMs, long footprint) {
+            this.job = job;
+            this.success = success;
+            this.result = result;
+            this.error = error;
+            this.durationMs = durationMs;
+            this.footprint = footprint;
+        }
+
+        static JobResult failed(Job job, long durationMs, long footprint, String error) {
+            return new JobResult(job, false, null, error, durationMs, footprint);
+        }
+
+        public Job getJob() { return job; }
+        public boolean isSuccess() { return success; }
+        /** 处理结果（任务未能执行时为null） */
+        public ProcessingResult getResult() { return result; }
+        public String getError() { return error; }
+        public long getDurationMs() { return durationMs; }
+        /** 调度时预留的内存预算（字节） */
+        public long getFootprint() { return footprint; }
+    }
+
+    /**
+     * 批量处理结果
+     */
+    public static final class BatchResult {
+        private final List<JobResult> results;
+        private final long durationMs;
+        private final long peakReserved;
+        private final long memoryBudget;
+
+        BatchResult(List<JobResult> results, long durationMs, long peakReserved, long memoryBudget) {
+            this.results = Collections.unmodifiableList(new ArrayList<>(results));
+            this.durationMs = durationMs;
+            this.peakReserved = peakReserved;
+            this.memoryBudget = memoryBudget;
+        }
+
+        /** 与输入顺序一致的任务结果 */
+        public List<JobResult> getResults() { return results; }
+        public long getDurationMs() { return durationMs; }
+        /** 同时预留的内存预算峰值（字节） */
+        public long getPeakReserved() { return peakReserved; }
+        public long getMemoryBudget() { return memoryBudget; }
+
+        public int getSuccessCount() {
+            return (int) results.stream().filter(JobResult::isSuccess).count();
+        }
+
+        public int getFailureCount() {
+            return results.size() - getSuccessCount();
+        }
+
+        public boolean isAllSuccess() {
+            return getFailureCount() == 0;
+        }
+
+        String getSummaryLine() {
+            return String.format("成功=%d, 失败=%d, 耗时=%d ms, 预算峰值=%d/%d MB",
+                               getSuccessCount(), getFailureCount(), durationMs,
+                               peakReserved / 1024 / 1024, memoryBudget / 1024 / 1024);
+        }
+
+        /**
+         * 获取摘要
+         */
+        public String getSummary() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("批量处理: ").append(results.size()).append(" 个APK\n");
+            for (JobResult result : results) {
+                sb.append(result.isSuccess() ? "  ✓ " : "  ✗ ")
+                  .append(result.getJob().getApkPath())
+                  .append(" (").append(result.getDurationMs()).append(" ms)");
+                if (!result.isSuccess()) {
+                    String error = result.getError();
+                    if (error == null && result.getResult() != null) {
+                        error = String.join("; ", result.getResult().getErrors());
+                    }
+                    sb.append(" - ").append(error);
+                }
+                sb.append('\n');
+            }
+            sb.append(getSummaryLine());
+            return sb.toString();
+        }
+
+        @Override
+        public String toString() {
+            return "BatchResult{" + getSummaryLine() + "}";
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.resources.core;
+
+import com.resources.config.ResourceConfig;
+import com.resources.mapping.WhitelistFilter;
+import com.resources.model.MappingIndex;
+import com.resources.scanner.ResourceScanner;
+import com.resources.validator.SemanticValidator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 编译后的配置
+ *
+ * 把一份ResourceConfig需要预处理的部分一次性准备好，供多个APK复用：
+ * - 映射索引（MappingIndex）
+ * - 白名单前缀树及其决策缓存（WhitelistFilter）和基于它的SemanticValidator
+ *
+ * 构造完成后只读，可在多个线程间共享。从文件加载时记录文件的修改时间和大小，
+ * 常驻进程据此判断配置是否需要重新加载。
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public final class CompiledConfig {
+
+    private final ResourceConfig config;
+    private final MappingIndex mappingIndex;
+    private final WhitelistFilter whitelistFilter;
+    private final SemanticValidator semanticValidator;
+
+    // 来源文件（null=内存中构造）
+    private final Path source;
+    private final long sourceModified;
+    private final long sourceSize;
+
+    private CompiledConfig(ResourceConfig config, Path source, long sourceModified, long sourceSize) {
+        this.config = Objects.requireNonNull(config, "config不能为null");
+        this.mappingIndex = MappingIndex.compile(config.getClassMappings(), config.getPackageMappings());
+        this.whitelistFilter = new WhitelistFilter();
+        this.whitelistFilter.addOwnPackages(config.getOwnPackagePrefixes());
+        this.semanticValidator = new SemanticValidator(whitelistFilter);
+        this.source = source;
+        this.sourceModified = sourceModified;
+        this.sourceSize = sourceSize;
+    }
+
+    /**
+     * 编译内存中的配置
+     *
+     * @param config 资源配置
+     * @return 编译后的配置
+     */
+    public static CompiledConfig of(ResourceConfig config) {
+        return new CompiledConfig(config, null, 0, 0);
+    }
+
+    /**
+     * 从YAML文件加载并编译配置
+     *
+     * @param configPath 配置文件路径
+     * @return 编译后的配置
+     * @throws IOException 读取失败
+     * @throws IllegalArgumentException 配置不合法
+     */
+    public static CompiledConfig load(String configPath) throws IOException {
+        Objects.requireNonNull(configPath, "configPath不能为null");
+
+        Path path = Path.of(configPath);
+        // 先取文件属性再读取内容：读取期间被修改时下一次isStale()会返回true
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        ResourceConfig config = ResourceConfig.loadFromYaml(configPath);
+        return new CompiledConfig(config, path, attrs.lastModifiedTime().toMillis(), attrs.size());
+    }
+
+    /**
+     * 来源文件自加载后是否被修改或删除（内存中构造的配置永远返回false）
+     */
+    public boolean isStale() {
+        if (source == null) {
+            return false;
+        }
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(source, BasicFileAttributes.class);
+            return attrs.lastModifiedTime().toMillis() != sourceModified || attrs.size() != sourceSize;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * 创建使用共享白名单的扫描器
+     *
+     * @param executor 扫描执行器，为null时串行扫描
+     * @return 扫描器
+     */
+    public ResourceScanner newScanner(ExecutorService executor) {
+        return new ResourceScanner(semanticValidator, whitelistFilter,
+                                   config.getOwnPackagePrefixes(), executor);
+    }
+
+    public ResourceConfig getConfig() { return config; }
+    public MappingIndex getMappingIndex() { return mappingIndex; }
+    public WhitelistFilter getWhitelistFilter() { return whitelistFilter; }
+    public SemanticValidator getSemanticValidator() { return semanticValidator; }
+
+    @Override
+    public String toString() {
+        return "CompiledConfig{" +
+               "source=" + source +
+               ", mappingIndex=" + mappingIndex +
+               '}';
+    }
+}
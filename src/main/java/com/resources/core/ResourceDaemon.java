@@ -0,0 +1,578 @@
+package com.resources.core;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.resources.model.ProcessingResult;
+import com.resources.model.ScanResult;
+import com.resources.model.ValidationResult;
+import com.resources.scanner.ResourceScanner;
+import com.resources.util.DexClassCache;
+import com.resources.validator.Aapt2Validator;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 常驻处理进程
+ *
+ * 在本机回环地址上提供HTTP接口，接收JSON格式的process/scan/validate任务。
+ * 进程常驻期间JIT保持预热，以下状态跨请求复用：
+ * - 编译后的配置（映射索引、白名单前缀树），配置文件修改后自动重新加载
+ * - DexClassCache
+ * - parallel_processing使用的ForkJoinPool
+ *
+ * 接口：
+ * <pre>
+ * POST /process   {"apk": "...", "config": "...", "output": "..."}   output可选，默认原地处理
+ * POST /scan      {"apk": "...", "config": "..."}
+ * POST /validate  {"apk": "...", "dex": ["...", ...]}                dex可选
+ * GET  /health
+ * POST /shutdown
+ * </pre>
+ * 任务接口以NDJSON流式返回：先返回accepted事件，任务结束后返回result或error事件。
+ *
+ * 所有接口都要求"Authorization: Bearer &lt;令牌&gt;"，令牌在启动时随机生成
+ * （{@link #getToken()}，或通过{@link #writeTokenFile(Path)}写入仅本人可读的文件）；
+ * 任务接口的Content-Type必须是application/json，带Origin头的（浏览器）请求一律拒绝。
+ * 涉及同一APK（输入或输出）的任务串行执行。
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class ResourceDaemon {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceDaemon.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String NDJSON = "application/x-ndjson; charset=utf-8";
+    private static final String JSON = "application/json; charset=utf-8";
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final int port;
+    private final int concurrency;
+
+    private final DexClassCache dexCache;
+    private final ResourceProcessor processor;
+    private final Map<String, CompiledConfig> configs = new ConcurrentHashMap<>();
+    private final Map<Path, ApkLock> apkLocks = new ConcurrentHashMap<>();
+
+    private final AtomicLong jobsCompleted = new AtomicLong();
+    private final AtomicLong jobsFailed = new AtomicLong();
+    private final AtomicBoolean stopping = new AtomicBoolean();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private HttpServer server;
+    private ExecutorService requestExecutor;
+    private ForkJoinPool workers;
+    private long startTime;
+    private volatile String token;
+    private Path tokenFile;
+
+    /**
+     * @param port 监听端口（0=随机端口，启动后通过{@link #getPort()}获取）
+     * @param concurrency 同时执行的任务数（0=CPU核数）
+     */
+    public ResourceDaemon(int port, int concurrency) {
+        this(port, concurrency, new DexClassCache());
+    }
+
+    /**
+     * @param port 监听端口（0=随机端口）
+     * @param concurrency 同时执行的任务数（0=CPU核数）
+     * @param dexCache 跨请求共享的DEX类缓存
+     */
+    public ResourceDaemon(int port, int concurrency, DexClassCache dexCache) {
+        if (port < 0 || port > 0xFFFF) {
+            throw new IllegalArgumentException("端口不合法: " + port);
+        }
+        if (concurrency < 0) {
+            throw new IllegalArgumentException("concurrency不能为负数: " + concurrency);
+        }
+        this.port = port;
+        this.concurrency = concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+        this.dexCache = Objects.requireNonNull(dexCache, "dexCache不能为null");
+        this.processor = new ResourceProcessor(dexCache);
+    }
+
+    /**
+     * 启动监听（只绑定回环地址）
+     *
+     * @throws IOException 端口绑定失败
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("常驻进程已启动");
+        }
+
+        byte[] random = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(random);
+        token = HexFormat.of().formatHex(random);
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        requestExecutor = Executors.newFixedThreadPool(concurrency);
+        workers = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        server.setExecutor(requestExecutor);
+
+        server.createContext("/process", exchange -> handleJob(exchange, "process"));
+        server.createContext("/scan", exchange -> handleJob(exchange, "scan"));
+        server.createContext("/validate", exchange -> handleJob(exchange, "validate"));
+        server.createContext("/health", this::handleHealth);
+        server.createContext("/shutdown", this::handleShutdown);
+
+        startTime = System.currentTimeMillis();
+        server.start();
+        log.info("常驻进程已启动: http://{}:{} (并发任务数={})",
+                InetAddress.getLoopbackAddress().getHostAddress(), getPort(), concurrency);
+    }
+
+    /**
+     * 实际监听的端口
+     */
+    public synchronized int getPort() {
+        if (server == null) {
+            throw new IllegalStateException("常驻进程未启动");
+        }
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * 本次启动生成的访问令牌
+     */
+    public synchronized String getToken() {
+        if (server == null) {
+            throw new IllegalStateException("常驻进程未启动");
+        }
+        return token;
+    }
+
+    /**
+     * 将访问令牌写入文件（POSIX文件系统上权限为0600），停止时删除
+     *
+     * @param file 令牌文件，已存在时覆盖
+     * @throws IOException 写入失败
+     */
+    public synchronized void writeTokenFile(Path file) throws IOException {
+        String value = getToken();
+        // 先删除再创建，使权限在创建时即生效，不沿用已有文件的权限
+        Files.deleteIfExists(file);
+        if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(
+                PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createFile(file);
+        }
+        Files.writeString(file, value + "\n", StandardCharsets.UTF_8);
+        tokenFile = file;
+    }
+
+    /**
+     * 阻塞直到常驻进程停止
+     */
+    public void awaitShutdown() throws InterruptedException {
+        stopped.await();
+    }
+
+    /**
+     * 停止监听，等待进行中的请求最多1秒
+     */
+    public void stop() {
+        if (!stopping.compareAndSet(false, true)) {
+            return;
+        }
+        HttpServer current;
+        Path currentTokenFile;
+        synchronized (this) {
+            current = server;
+            currentTokenFile = tokenFile;
+        }
+        if (current != null) {
+            current.stop(1);
+            requestExecutor.shutdown();
+            workers.shutdown();
+        }
+        if (currentTokenFile != null) {
+            try {
+                Files.deleteIfExists(currentTokenFile);
+            } catch (IOException e) {
+                log.warn("无法删除令牌文件: {} ({})", currentTokenFile, e.getMessage());
+            }
+        }
+        log.info("常驻进程已停止: 完成任务 {} 个, 失败 {} 个", jobsCompleted.get(), jobsFailed.get());
+        stopped.countDown();
+    }
+
+    /**
+     * 获取编译后的配置（按绝对路径缓存，文件修改后重新加载）
+     */
+    CompiledConfig getConfig(String configPath) throws IOException {
+        String key = Path.of(configPath).toAbsolutePath().normalize().toString();
+        try {
+            return configs.compute(key, (path, cached) -> {
+                if (cached != null && !cached.isStale()) {
+                    return cached;
+                }
+                try {
+                    CompiledConfig compiled = CompiledConfig.load(path);
+                    log.info("配置已{}: {} ({})", cached == null ? "加载" : "重新加载",
+                            path, compiled.getMappingIndex());
+                    return compiled;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // ==================== 请求处理 ====================
+
+    private void handleJob(HttpExchange exchange, String type) throws IOException {
+        try (exchange) {
+            if (!authorize(exchange, type)) {
+                return;
+            }
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendJson(exchange, 405, error(type, "只支持POST请求"));
+                return;
+            }
+            if (!isJson(exchange.getRequestHeaders().getFirst("Content-Type"))) {
+                sendJson(exchange, 415, error(type, "Content-Type必须是application/json"));
+                return;
+            }
+
+            Map<String, Object> request;
+            try {
+                request = parseRequest(exchange);
+                require(request, "apk");
+                if (!"validate".equals(type)) {
+                    require(request, "config");
+                }
+            } catch (IllegalArgumentException e) {
+                sendJson(exchange, 400, error(type, e.getMessage()));
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", NDJSON);
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+
+            Map<String, Object> accepted = event("accepted", type);
+            accepted.put("apk", request.get("apk"));
+            writeEvent(out, accepted);
+
+            long start = System.currentTimeMillis();
+            Map<String, Object> response;
+            try {
+                response = event("result", type);
+                response.put("result", runJob(type, request));
+                jobsCompleted.incrementAndGet();
+            } catch (Exception e) {
+                log.error("任务失败: {} {}", type, request.get("apk"), e);
+                jobsFailed.incrementAndGet();
+                response = error(type, e.getMessage() != null ? e.getMessage() : e.toString());
+            }
+            response.put("durationMs", System.currentTimeMillis() - start);
+            writeEvent(out, response);
+        }
+    }
+
+    private Map<String, Object> runJob(String type, Map<String, Object> request) throws Exception {
+        String apk = request.get("apk").toString();
+        Object output = request.get("output");
+
+        // 原地处理会经apk + ".tmp"替换APK，涉及同一文件的任务不能并发
+        SortedSet<Path> paths = new TreeSet<>();
+        paths.add(BatchProcessor.normalizePath(apk));
+        if ("process".equals(type) && output != null) {
+            paths.add(BatchProcessor.normalizePath(output.toString()));
+        }
+        lockApks(paths);
+        try {
+            return runJob(type, request, apk, output);
+        } finally {
+            unlockApks(paths);
+        }
+    }
+
+    private Map<String, Object> runJob(String type, Map<String, Object> request, String apk, Object output)
+            throws Exception {
+        switch (type) {
+            case "process": {
+                CompiledConfig compiled = getConfig(request.get("config").toString());
+                String workingApk = BatchProcessor.prepareWorkingApk(new BatchProcessor.Job(
+                    apk, request.get("config").toString(), output != null ? output.toString() : null));
+                ProcessingResult result = processor.processApk(workingApk, compiled,
+                    compiled.getConfig().isParallelProcessing() ? workers : null);
+                return toMap(result);
+            }
+            case "scan": {
+                CompiledConfig compiled = getConfig(request.get("config").toString());
+                ResourceScanner scanner = compiled.newScanner(
+                    compiled.getConfig().isParallelProcessing() ? workers : null);
+                return toMap(scanner.scanApk(apk));
+            }
+            case "validate": {
+                Map<String, Object> data = new LinkedHashMap<>();
+                data.put("validation", toMap(new Aapt2Validator().validate(apk)));
+                List<Map<String, Object>> dexResults = new ArrayList<>();
+                for (String dexPath : stringList(request.get("dex"))) {
+                    Map<String, Object> dex = new LinkedHashMap<>();
+                    dex.put("path", dexPath);
+                    dex.put("classes", dexCache.getDexClasses(dexPath).size());
+                    dexResults.add(dex);
+                }
+                data.put("dex", dexResults);
+                return data;
+            }
+            default:
+                throw new IllegalArgumentException("未知任务类型: " + type);
+        }
+    }
+
+    /**
+     * 按固定顺序锁定任务涉及的APK，避免两个任务交叉等待
+     */
+    private void lockApks(SortedSet<Path> paths) {
+        for (Path path : paths) {
+            ApkLock apkLock = apkLocks.compute(path, (key, current) -> {
+                ApkLock value = current != null ? current : new ApkLock();
+                value.users++;
+                return value;
+            });
+            apkLock.lock.lock();
+        }
+    }
+
+    private void unlockApks(SortedSet<Path> paths) {
+        for (Path path : paths) {
+            apkLocks.computeIfPresent(path, (key, apkLock) -> {
+                apkLock.lock.unlock();
+                return --apkLock.users == 0 ? null : apkLock;
+            });
+        }
+    }
+
+    /**
+     * 单个APK的锁，没有任务使用时从表中移除
+     */
+    private static final class ApkLock {
+        final ReentrantLock lock = new ReentrantLock();
+        int users;  // 只在apkLocks.compute内修改
+    }
+
+    /**
+     * 校验访问令牌，并拒绝浏览器发起的请求
+     *
+     * @return 是否通过（未通过时已返回错误响应）
+     */
+    private boolean authorize(HttpExchange exchange, String type) throws IOException {
+        Headers headers = exchange.getRequestHeaders();
+        // 浏览器的跨站请求总会带Origin，命令行客户端不会
+        if (headers.containsKey("Origin")) {
+            sendJson(exchange, 403, error(type, "不接受浏览器发起的请求"));
+            return false;
+        }
+        String authorization = headers.getFirst("Authorization");
+        byte[] expected = ("Bearer " + token).getBytes(StandardCharsets.UTF_8);
+        if (authorization == null
+                || !MessageDigest.isEqual(expected, authorization.getBytes(StandardCharsets.UTF_8))) {
+            exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+            sendJson(exchange, 401, error(type, "缺少或错误的访问令牌"));
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isJson(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        int separator = contentType.indexOf(';');
+        String mediaType = separator >= 0 ? contentType.substring(0, separator) : contentType;
+        return "application/json".equalsIgnoreCase(mediaType.trim());
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!authorize(exchange, "health")) {
+                return;
+            }
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("status", stopping.get() ? "stopping" : "ok");
+            data.put("uptimeMs", System.currentTimeMillis() - startTime);
+            data.put("jobsCompleted", jobsCompleted.get());
+            data.put("jobsFailed", jobsFailed.get());
+            data.put("configsCached", configs.size());
+            data.put("dexCache", dexCache.getStatistics());
+            sendJson(exchange, 200, data);
+        }
+    }
+
+    private void handleShutdown(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!authorize(exchange, "shutdown")) {
+                return;
+            }
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendJson(exchange, 405, error("shutdown", "只支持POST请求"));
+                return;
+            }
+            sendJson(exchange, 200, event("stopping", "shutdown"));
+        }
+        // HttpServer.stop会等待进行中的请求，不能在请求线程中直接调用
+        Thread stopper = new Thread(this::stop, "resource-daemon-stop");
+        stopper.setDaemon(true);
+        stopper.start();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> parseRequest(HttpExchange exchange) throws IOException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        Object data;
+        try {
+            data = MAPPER.readValue(body, Object.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("请求不是合法的JSON: " + e.getOriginalMessage());
+        }
+        if (!(data instanceof Map)) {
+            throw new IllegalArgumentException("请求必须是JSON对象");
+        }
+        return (Map<String, Object>) data;
+    }
+
+    private static void require(Map<String, Object> request, String field) {
+        if (!(request.get(field) instanceof String) || ((String) request.get(field)).isEmpty()) {
+            throw new IllegalArgumentException("缺少字段: " + field);
+        }
+    }
+
+    private static List<String> stringList(Object value) {
+        if (value == null) {
+            return List.of();
+        }
+        if (value instanceof String) {
+            return List.of((String) value);
+        }
+        if (value instanceof List) {
+            List<String> result = new ArrayList<>();
+            for (Object item : (List<?>) value) {
+                result.add(String.valueOf(item));
+            }
+            return result;
+        }
+        throw new IllegalArgumentException("dex必须是字符串或字符串数组");
+    }
+
+    private static Map<String, Object> event(String event, String type) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("event", event);
+        data.put("type", type);
+        return data;
+    }
+
+    private static Map<String, Object> error(String type, String message) {
+        Map<String, Object> data = event("error", type);
+        data.put("message", message);
+        return data;
+    }
+
+    private static void writeEvent(OutputStream out, Map<String, Object> data) throws IOException {
+        out.write(MAPPER.writeValueAsBytes(data));
+        out.write('\n');
+        out.flush();
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, Map<String, Object> data) throws IOException {
+        byte[] body = (MAPPER.writeValueAsString(data) + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    // ==================== 结果序列化 ====================
+
+    static Map<String, Object> toMap(ProcessingResult result) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("apkPath", result.getApkPath());
+        data.put("success", result.isSuccess());
+        data.put("durationMs", result.getDurationMs());
+        data.put("totalFilesScanned", result.getTotalFilesScanned());
+        data.put("totalModifications", result.getTotalModifications());
+        data.put("modificationsByType", result.getModificationsByType());
+        data.put("errors", result.getErrors());
+        data.put("warnings", result.getWarnings());
+        data.put("validation", result.getValidationResult() != null
+            ? toMap(result.getValidationResult()) : null);
+        return data;
+    }
+
+    static Map<String, Object> toMap(ResourceScanner.ScanReport report) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("apkPath", report.getApkPath());
+        data.put("durationMs", report.getDurationMs());
+        data.put("totalResults", report.getTotalResults());
+
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put("arsc", report.getArscResults().size());
+        counts.put("layout", report.getLayoutResults().size());
+        counts.put("menu", report.getMenuResults().size());
+        counts.put("navigation", report.getNavigationResults().size());
+        counts.put("xml", report.getXmlResults().size());
+        data.put("resultsByCategory", counts);
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (ScanResult result : report.getAllResults()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("filePath", result.getFilePath());
+            item.put("semanticType", result.getSemanticType() != null ? result.getSemanticType().name() : null);
+            item.put("location", result.getLocation());
+            item.put("originalValue", result.getOriginalValue());
+            item.put("newValue", result.getNewValue());
+            results.add(item);
+        }
+        data.put("results", results);
+        return data;
+    }
+
+    static Map<String, Object> toMap(ValidationResult result) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("overallSuccess", result.isOverallSuccess());
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (ValidationResult.ValidationItem item : result.getItems()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("level", item.getLevel().name());
+            entry.put("status", item.getStatus().name());
+            entry.put("message", item.getMessage());
+            entry.put("details", item.getDetails());
+            items.add(entry);
+        }
+        data.put("items", items);
+        return data;
+    }
+}
@@ -3,14 +3,12 @@ package com.resources.core;
 import com.resources.arsc.*;
 import com.resources.axml.AxmlReplacer;
 import com.resources.config.ResourceConfig;
-import com.resources.mapping.WhitelistFilter;
 import com.resources.model.*;
 import com.resources.scanner.ResourceScanner;
 import com.resources.transaction.TransactionManager;
-import com.resources.util.ApkSignerUtil;
-import com.resources.util.VirtualFileSystem;
-import com.resources.util.VfsResourceProvider;
-import com.resources.util.ZipAlignUtil;
+import com.resources.util.ApkSession;
+import com.resources.util.ApkSigner;
+import com.resources.util.DexClassCache;
 import com.resources.validator.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,6 +16,8 @@ import org.slf4j.LoggerFactory;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import static java.nio.file.StandardCopyOption.*;
 
 /**
@@ -32,6 +32,8 @@ import static java.nio.file.StandardCopyOption.*;
  * 6. 重新打包APK
  * 7. 提交事务或回滚
  * 
+ * APK在一次处理中只加载、解析一次（{@link ApkSession}），由各阶段共享。
+ * 
  * @author Resources Processor Team
  * @version 1.0.0
  */
@@ -47,6 +49,18 @@ public class ResourceProcessor {
         log.info("ResourceProcessor初始化完成");
     }
     
+    /**
+     * 使用共享的DEX类缓存构造（批量处理时多个APK共用同一份DEX类列表）
+     * 
+     * @param dexCache DEX类缓存
+     */
+    public ResourceProcessor(DexClassCache dexCache) {
+        Objects.requireNonNull(dexCache, "dexCache不能为null");
+        this.transactionManager = new TransactionManager(dexCache);
+        
+        log.info("ResourceProcessor初始化完成（共享DEX缓存）");
+    }
+    
     /**
      * 处理APK
      * 
@@ -59,6 +73,38 @@ public class ResourceProcessor {
         Objects.requireNonNull(apkPath, "apkPath不能为null");
         Objects.requireNonNull(config, "config不能为null");
         
+        // parallel_processing开启时扫描、AXML替换和多资源包ARSC共用一个ForkJoinPool
+        ExecutorService workers = config.isParallelProcessing()
+            ? new ForkJoinPool(config.getEffectiveParallelism())
+            : null;
+        try {
+            // 映射和白名单只编译一次，扫描、AXML各处理器与ARSC共享
+            return processApk(apkPath, CompiledConfig.of(config), workers);
+        } finally {
+            if (workers != null) {
+                workers.shutdownNow();
+            }
+        }
+    }
+    
+    /**
+     * 使用已编译的配置和外部执行器处理APK
+     * 
+     * 批量处理和常驻进程中多个APK共享同一份编译后的配置和同一个执行器。
+     * 
+     * @param apkPath APK路径
+     * @param compiled 编译后的配置
+     * @param workers 扫描、AXML替换和多资源包ARSC使用的执行器，为null时串行处理；
+     *                生命周期由调用方管理
+     * @return 处理结果
+     * @throws IOException 处理失败
+     */
+    public ProcessingResult processApk(String apkPath, CompiledConfig compiled, 
+                                       ExecutorService workers) throws IOException {
+        Objects.requireNonNull(apkPath, "apkPath不能为null");
+        Objects.requireNonNull(compiled, "compiled不能为null");
+        ResourceConfig config = compiled.getConfig();
+        
         log.info("════════════════════════════════════════");
         log.info("  开始处理APK");
         log.info("════════════════════════════════════════");
@@ -77,44 +123,50 @@ public class ResourceProcessor {
             tx = transactionManager.beginTransaction(apkPath);
             log.info("事务已创建: {}", tx.getTransactionId());
             
-            // 2. 扫描APK
-            log.info("────────────────────────────────────────");
-            log.info("  Phase 1: 扫描定位");
-            log.info("────────────────────────────────────────");
+            // 加载APK（各阶段共享同一会话，替换源APK前关闭以释放映射）
+            ValidationResult preValidation;
+            try (ApkSession session = ApkSession.open(apkPath, workers)) {
+            
+                // 2. 扫描APK
+                log.info("────────────────────────────────────────");
+                log.info("  Phase 1: 扫描定位");
+                log.info("────────────────────────────────────────");
             
-            ResourceScanner.ScanReport scanReport = phase1_Scan(apkPath, config);
-            log.info("扫描完成: 发现 {} 处需要修改", scanReport.getTotalResults());
+                ResourceScanner.ScanReport scanReport = compiled.newScanner(workers).scanApk(session);
+                log.info("扫描完成: 发现 {} 处需要修改", scanReport.getTotalResults());
             
-            // 修复1：正确统计扫描文件数
-            int totalScannedFiles = scanReport.getAllResults().size() + 1; // XML文件 + ARSC
-            resultBuilder.totalFilesScanned(totalScannedFiles);
+                // 修复1：正确统计扫描文件数
+                int totalScannedFiles = scanReport.getAllResults().size() + 1; // XML文件 + ARSC
+                resultBuilder.totalFilesScanned(totalScannedFiles);
             
-            // 3. 预验证
-            log.info("────────────────────────────────────────");
-            log.info("  Phase 2: 预验证");
-            log.info("────────────────────────────────────────");
+                // 3. 预验证
+                log.info("────────────────────────────────────────");
+                log.info("  Phase 2: 预验证");
+                log.info("────────────────────────────────────────");
             
-            ValidationResult preValidation = phase2_Validate(tx, config);
+                preValidation = phase2_Validate(tx, config, session, workers);
             
-            if (!preValidation.isOverallSuccess()) {
-                resultBuilder.success(false);
-                resultBuilder.addError("预验证失败");
-                resultBuilder.validationResult(preValidation);
+                if (!preValidation.isOverallSuccess()) {
+                    resultBuilder.success(false);
+                    resultBuilder.addError("预验证失败");
+                    resultBuilder.validationResult(preValidation);
                 
-                log.error("预验证失败，终止处理");
-                throw new IOException("预验证失败");
-            }
+                    log.error("预验证失败，终止处理");
+                    throw new IOException("预验证失败");
+                }
             
-            log.info("预验证通过");
+                log.info("预验证通过");
             
-            // 4. 执行替换
-            log.info("────────────────────────────────────────");
-            log.info("  Phase 3: 执行替换");
-            log.info("────────────────────────────────────────");
+                // 4. 执行替换
+                log.info("────────────────────────────────────────");
+                log.info("  Phase 3: 执行替换");
+                log.info("────────────────────────────────────────");
             
-            int replaceCount = phase3_Replace(apkPath, config, scanReport, resultBuilder);
-            log.info("替换完成: {} 处修改", replaceCount);
-            resultBuilder.totalModifications(replaceCount);
+                int replaceCount = phase3_Replace(session, compiled, scanReport, 
+                                                  resultBuilder, workers);
+                log.info("替换完成: {} 处修改", replaceCount);
+                resultBuilder.totalModifications(replaceCount);
+            }
             
             // 5. aapt2验证（跳过，用于混淆APK）
             // 混淆APK无法通过aapt2验证，跳过此步骤
@@ -168,42 +220,28 @@ public class ResourceProcessor {
         return resultBuilder.build();
     }
     
-    /**
-     * Phase 1: 扫描定位
-     */
-    private ResourceScanner.ScanReport phase1_Scan(String apkPath, ResourceConfig config) 
-            throws IOException {
-        
-        // 创建扫描器
-        WhitelistFilter whitelistFilter = new WhitelistFilter();
-        whitelistFilter.addOwnPackages(config.getOwnPackagePrefixes());
-        
-        SemanticValidator semanticValidator = new SemanticValidator(whitelistFilter);
-        
-        ResourceScanner scanner = new ResourceScanner(
-            semanticValidator, whitelistFilter, config.getOwnPackagePrefixes());
-        
-        // 扫描APK
-        return scanner.scanApk(apkPath);
-    }
-    
     /**
      * Phase 2: 预验证
      */
-    private ValidationResult phase2_Validate(Transaction tx, ResourceConfig config) {
+    private ValidationResult phase2_Validate(Transaction tx, ResourceConfig config,
+                                             ApkSession session, ExecutorService workers) {
         
         // 映射一致性验证和DEX交叉验证
+        // dex_from_apk开启时直接读取APK内的classes*.dex，与dex_paths一起并行加载
         return transactionManager.validate(
-            tx, config.getClassMappings(), config.getDexPaths());
+            tx, config.getClassMappings(), config.getPackageMappings(), config.getDexPaths(),
+            config.isDexFromApk() ? session.getVfs() : null, workers);
     }
     
     /**
      * Phase 3: 执行替换
      */
-    private int phase3_Replace(String apkPath, ResourceConfig config,
+    private int phase3_Replace(ApkSession session, CompiledConfig compiled,
                               ResourceScanner.ScanReport scanReport, 
-                              ProcessingResult.Builder resultBuilder) throws IOException {
+                              ProcessingResult.Builder resultBuilder,
+                              ExecutorService workers) throws IOException {
         
+        String apkPath = session.getApkPath();
         int totalReplaceCount = 0;
         
         // 从扫描结果提取需要处理的文件
@@ -216,52 +254,56 @@ public class ResourceProcessor {
             log.info("从扫描结果提取 {} 个需处理的文件", filesToProcess.size());
         }
         
-        // 1. 创建处理器
-        WhitelistFilter whitelistFilter = new WhitelistFilter();
-        whitelistFilter.addOwnPackages(config.getOwnPackagePrefixes());
-        
-        SemanticValidator semanticValidator = new SemanticValidator(whitelistFilter);
+        // 1. 创建处理器（复用编译后配置中的白名单和映射索引）
+        ResourceConfig config = compiled.getConfig();
+        MappingIndex mappingIndex = compiled.getMappingIndex();
+        log.info("映射索引: {}", mappingIndex);
         
         AxmlReplacer axmlReplacer = new AxmlReplacer(
-            semanticValidator,
-            config.getClassMappings(),
-            config.getPackageMappings(),
-            config.isProcessToolsContext());
+            compiled.getSemanticValidator(),
+            mappingIndex,
+            config.isProcessToolsContext(),
+            workers);
         
-        ArscReplacer arscReplacer = new ArscReplacer(whitelistFilter);
+        ArscReplacer arscReplacer = new ArscReplacer(compiled.getWhitelistFilter());
         
-        // 2. 加载APK到VFS
-        VirtualFileSystem vfs = new VirtualFileSystem();
-        int fileCount = vfs.loadFromApk(apkPath);
-        log.info("VFS加载完成: {} 个文件", fileCount);
-        
-        // 3. 批量处理AXML文件
-        BatchReplaceResult axmlResult = processAxmlFilesVfs(vfs, axmlReplacer, filesToProcess);
+        // 2. 批量处理AXML文件（复用扫描阶段加载的VFS）
+        BatchReplaceResult axmlResult = processAxmlFilesVfs(session, axmlReplacer, filesToProcess);
         totalReplaceCount += axmlResult.getSuccessCount();
         resultBuilder.addModification("AXML文件", axmlResult.getSuccessCount());
         log.info("AXML处理完成: {} 个文件已修改", axmlResult.getSuccessCount());
         
-        // 4. 处理resources.arsc
-        ArscReplaceResult arscResult = processArscVfs(vfs, arscReplacer, config);
+        // 3. 处理resources.arsc
+        ArscReplaceResult arscResult = processArscVfs(session, arscReplacer, mappingIndex,
+                                                       config.isCompactStringPool());
         totalReplaceCount += arscResult.getTotalModifications();
         resultBuilder.addModification("ARSC包名", arscResult.getPackageModifications());
         resultBuilder.addModification("ARSC字符串池", arscResult.getStringPoolModifications());
         log.info("ARSC处理完成: 包名={}, 字符串池={}", 
                 arscResult.getPackageModifications(), arscResult.getStringPoolModifications());
+        if (arscResult.getStringsCompacted() > 0) {
+            resultBuilder.addModification("ARSC字符串池压缩", arscResult.getStringsCompacted());
+        }
         
-        // 5. 导出APK到临时文件
+        // 4. 导出APK到临时文件（auto_sign时导出过程中同时完成签名，minSdkVersion < 24时附加v1）
         String tempApkPath = apkPath + ".tmp";
-        vfs.saveToApk(tempApkPath);
+        if (config.isAutoSign()) {
+            session.saveToApk(tempApkPath, createSigner(config, session.getMinSdkVersion(), workers));
+        } else {
+            session.saveToApk(tempApkPath);
+        }
         log.info("VFS导出完成: {}", tempApkPath);
+        log.info(session.getStatistics());
         
-        // 6. 条件对齐和签名
+        // 5. 替换原文件（先关闭会话，释放对源APK的映射）
+        session.close();
         if (config.isAutoSign()) {
-            performAlignAndSign(tempApkPath, apkPath);
+            replaceWithSignedApk(tempApkPath, apkPath);
         } else {
-            // 直接替换原文件，不对齐不签名
+            // 直接替换原文件（导出时已对齐，未签名）
             try {
                 Files.move(Paths.get(tempApkPath), Paths.get(apkPath), REPLACE_EXISTING);
-                log.info("APK已更新（未对齐、未签名）: {}", apkPath);
+                log.info("APK已更新（未签名）: {}", apkPath);
             } catch (IOException e) {
                 log.error("替换APK文件失败", e);
                 // 清理临时文件
@@ -274,8 +316,6 @@ public class ResourceProcessor {
             }
         }
         
-        log.info(vfs.getStatistics());
-        
         return totalReplaceCount;
     }
     
@@ -286,23 +326,21 @@ public class ResourceProcessor {
      * - Level 1: 标准res目录（res/**\/*.xml）
      * - Level 2: 全局扫描（**\/*.xml）+ 过滤非资源XML
      * 
-     * @param vfs VFS实例
+     * @param session APK会话
      * @param axmlReplacer AXML替换器
      * @param filesToProcess 需要处理的文件路径集合（来自扫描结果，可为null）
      * @return 批量处理结果
      */
-    private BatchReplaceResult processAxmlFilesVfs(VirtualFileSystem vfs, AxmlReplacer axmlReplacer,
+    private BatchReplaceResult processAxmlFilesVfs(ApkSession session, AxmlReplacer axmlReplacer,
                                                   Set<String> filesToProcess) throws IOException {
         
-        VfsResourceProvider provider = new VfsResourceProvider(vfs);
-        
         // Level 1: 标准res目录
-        Map<String, byte[]> allXmls = provider.getFilesByPattern("res/**/*.xml");
+        Map<String, byte[]> allXmls = session.getFilesByPattern("res/**/*.xml");
         
         // Level 2: fallback到全局扫描（支持res目录被重命名的混淆APK）
         if (allXmls.isEmpty()) {
             log.warn("标准res目录为空，启用全局XML扫描（混淆APK模式）");
-            allXmls = provider.getFilesByPattern("**/*.xml");
+            allXmls = session.getFilesByPattern("**/*.xml");
             
             // 过滤：排除已知非资源XML
             allXmls = filterNonResourceXml(allXmls);
@@ -342,7 +380,7 @@ public class ResourceProcessor {
         BatchReplaceResult result = axmlReplacer.replaceAxmlBatch(allXmls);
         
         // 写回VFS
-        provider.updateFiles(result.getResults());
+        session.updateFiles(result.getResults());
         
         return result;
     }
@@ -398,17 +436,17 @@ public class ResourceProcessor {
     /**
      * 使用VFS处理resources.arsc
      * 
-     * @param vfs VFS实例
+     * @param session APK会话
      * @param arscReplacer ARSC替换器
-     * @param config 资源配置
+     * @param mappingIndex 编译后的映射索引（与AXML处理共享）
+     * @param compactStringPool 字符串池有替换时是否压缩
      * @return ARSC替换结果
      */
-    private ArscReplaceResult processArscVfs(VirtualFileSystem vfs, ArscReplacer arscReplacer, 
-                                            ResourceConfig config) throws IOException {
+    private ArscReplaceResult processArscVfs(ApkSession session, ArscReplacer arscReplacer, 
+                                            MappingIndex mappingIndex,
+                                            boolean compactStringPool) throws IOException {
         
-        VfsResourceProvider provider = new VfsResourceProvider(vfs);
-        
-        if (!vfs.exists("resources.arsc")) {
+        if (!session.hasResourcesArsc()) {
             log.warn("未找到resources.arsc");
             return new ArscReplaceResult.Builder()
                 .packageModifications(0)
@@ -418,22 +456,20 @@ public class ResourceProcessor {
         }
         
         try {
-            byte[] arscData = provider.getResourcesArsc();
-            
-            // 解析ARSC
-            ArscParser parser = new ArscParser();
-            parser.parse(arscData);
+            // 复用扫描阶段已解析的ARSC
+            ArscParser parser = session.getArscParser();
             
             // 跟踪修改统计
             int packageModifications = 0;
             int stringPoolModifications = 0;
             boolean arscModified = false;
+            ArscStringPoolCompactor.CompactionResult compaction = null;
             
             // 替换包名
             ResTablePackage mainPackage = parser.getMainPackage();
-            if (mainPackage != null && !config.getPackageMappings().isEmpty()) {
+            if (mainPackage != null && mappingIndex.getPackageMappingCount() > 0) {
                 String oldPkg = mainPackage.getName();
-                String newPkg = config.getPackageMappings().replace(oldPkg);
+                String newPkg = mappingIndex.replacePackage(oldPkg);
                 
                 if (!oldPkg.equals(newPkg)) {
                     arscReplacer.replacePackageName(mainPackage, newPkg);
@@ -445,21 +481,24 @@ public class ResourceProcessor {
             
             // 替换字符串池
             if (parser.getGlobalStringPool() != null) {
-                Map<String, String> stringReplacements = buildStringReplacements(config);
                 stringPoolModifications = arscReplacer.replaceStringPool(
-                    parser.getGlobalStringPool(), stringReplacements);
+                    parser.getGlobalStringPool(), mappingIndex);
                 
                 log.info("ARSC字符串池替换: {} 处", stringPoolModifications);
                 if (stringPoolModifications > 0) {
                     arscModified = true;
                 }
+                
+                // 替换可能产生重复字符串和不再被引用的字符串
+                if (compactStringPool && stringPoolModifications > 0) {
+                    compaction = new ArscStringPoolCompactor().compact(parser);
+                    log.info("ARSC字符串池压缩: {}", compaction);
+                }
             }
             
             // 只有在真正修改时才写回VFS（避免无意义的重新生成导致字节顺序改变）
             if (arscModified) {
-                ArscWriter writer = new ArscWriter();
-                byte[] modifiedData = writer.toByteArray(parser);
-                provider.setResourcesArsc(modifiedData);
+                session.commitArsc(parser);
                 log.info("resources.arsc已更新到VFS");
             } else {
                 log.info("resources.arsc无需修改，保持原始数据");
@@ -469,6 +508,9 @@ public class ResourceProcessor {
                 .packageModifications(packageModifications)
                 .stringPoolModifications(stringPoolModifications)
                 .arscModified(arscModified)
+                .stringsCompacted(compaction != null 
+                    ? compaction.getStringCountBefore() - compaction.getStringCountAfter() : 0)
+                .compactionBytesSaved(compaction != null ? compaction.getBytesSaved() : 0)
                 .build();
             
         } catch (Exception e) {
@@ -478,94 +520,42 @@ public class ResourceProcessor {
     }
     
     /**
-     * 构建字符串替换映射表
+     * 根据配置创建签名器（未配置密钥库时使用测试密钥）
+     * 
+     * @param minSdkVersion APK的minSdkVersion，低于24时附加v1签名
      */
-    private Map<String, String> buildStringReplacements(ResourceConfig config) {
-        Map<String, String> replacements = new HashMap<>();
-        
-        // 1. 添加类名映射（精确匹配）
-        for (String oldClass : config.getClassMappings().getAllOldClasses()) {
-            String newClass = config.getClassMappings().getNewClass(oldClass);
-            if (newClass != null) {
-                replacements.put(oldClass, newClass);
-                log.debug("添加类名映射: {} -> {}", oldClass, newClass);
-            }
-        }
-        
-        // 2. 添加包名映射（前缀匹配）
-        // 关键修复：ARSC字符串池替换需要包名映射才能支持包名前缀替换
-        for (PackageMapping.MappingEntry entry : config.getPackageMappings().getAllMappings()) {
-            replacements.put(entry.getOldPackage(), entry.getNewPackage());
-            log.debug("添加包名映射: {} -> {} ({})", 
-                     entry.getOldPackage(), entry.getNewPackage(), entry.getMode());
-        }
-        
-        log.info("构建字符串替换映射: 类名={}, 包名={}", 
-                 config.getClassMappings().size(), 
-                 config.getPackageMappings().size());
-        
-        return replacements;
+    private ApkSigner createSigner(ResourceConfig config, int minSdkVersion,
+                                   ExecutorService workers) throws IOException {
+        ApkSigner signer = new ApkSigner.Builder()
+            .keyStore(Paths.get(config.getKeystorePath()), config.getKeystorePassword(),
+                      config.getKeyAlias(), config.getKeyPassword())
+            .minSdkVersion(minSdkVersion)
+            .executor(workers)
+            .build();
+        log.info("APK签名器: {} (keystore={})", signer, config.getKeystorePath());
+        return signer;
     }
     
     /**
-     * 执行对齐和签名
+     * 用导出时已对齐并签名的临时APK替换原文件
      * 
-     * @param tempApkPath 临时APK路径（VFS导出的未签名APK）
-     * @param finalApkPath 最终APK路径（对齐签名后的APK）
-     * @throws IOException 对齐或签名失败
+     * @param tempApkPath 临时APK路径（VFS导出的已对齐、已签名APK）
+     * @param finalApkPath 最终APK路径
+     * @throws IOException 替换失败
      */
-    private void performAlignAndSign(String tempApkPath, String finalApkPath) throws IOException {
-        log.info("────────────────────────────────────────");
-        log.info("  对齐和签名APK");
-        log.info("────────────────────────────────────────");
-        
-        String alignedApkPath = finalApkPath + ".aligned.tmp";
-        
-        // 对齐
+    private void replaceWithSignedApk(String tempApkPath, String finalApkPath) throws IOException {
+        // VFS导出时已完成对齐（STORED 4字节，.so 4096字节）和签名
         try {
-            ZipAlignUtil.align(tempApkPath, alignedApkPath, 4);
-            log.info("✓ APK对齐完成");
-        } catch (Exception e) {
-            log.error("APK对齐失败", e);
-            throw new IOException("APK对齐失败: " + e.getMessage(), e);
-        } finally {
-            // 清理临时文件
-            try {
-                Files.deleteIfExists(Paths.get(tempApkPath));
-            } catch (IOException cleanupError) {
-                log.warn("清理临时文件失败: {}", tempApkPath, cleanupError);
-            }
-        }
-        
-        // 签名
-        try {
-            ApkSignerUtil.signWithTestKey(alignedApkPath);
-            log.info("✓ APK签名完成");
-        } catch (Exception e) {
-            log.error("APK签名失败", e);
-            
-            // 清理临时文件
-            try {
-                Files.deleteIfExists(Paths.get(alignedApkPath));
-            } catch (IOException cleanupError) {
-                log.warn("清理临时文件失败: {}", alignedApkPath, cleanupError);
-            }
-            
-            throw new IOException("APK签名失败: " + e.getMessage(), e);
-        }
-        
-        // 替换原文件
-        try {
-            Files.move(Paths.get(alignedApkPath), Paths.get(finalApkPath), REPLACE_EXISTING);
+            Files.move(Paths.get(tempApkPath), Paths.get(finalApkPath), REPLACE_EXISTING);
             log.info("✓ APK已更新（已对齐+已签名）: {}", finalApkPath);
         } catch (IOException e) {
             log.error("替换APK文件失败", e);
             
             // 清理临时文件
             try {
-                Files.deleteIfExists(Paths.get(alignedApkPath));
+                Files.deleteIfExists(Paths.get(tempApkPath));
             } catch (IOException cleanupError) {
-                log.warn("清理临时文件失败: {}", alignedApkPath, cleanupError);
+                log.warn("清理临时文件失败: {}", tempApkPath, cleanupError);
             }
             
             throw new IOException("替换APK文件失败: " + e.getMessage(), e);
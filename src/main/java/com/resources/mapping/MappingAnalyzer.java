@@ -0,0 +1,282 @@
+package com.resources.mapping;
+
+import com.resources.model.ClassMapping;
+import com.resources.model.PackageMapping;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * 类名映射分析器
+ *
+ * 把ClassMapping看作Old→New的有向图（每个节点出度至多为1），一次遍历得到所有问题：
+ * - 循环映射：出度≤1的图中强连通分量就是简单环，每个节点只访问一次即可找出全部环，O(n)
+ * - 大小写冲突：多个新类名只差大小写，或新类名与DEX中的其他类只差大小写
+ *   （完全相同的多对一映射已在ClassMapping.addMapping时拒绝）
+ * - 缺失类：新类在DEX中不存在
+ * - 旧类仍在DEX中：被改名的旧类仍由DEX定义，且不是其他映射的新类名
+ * - 包名不一致：旧类所在包有包名映射，但类映射的目标包与包名映射的结果不同
+ *
+ * 线程安全（无状态）
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class MappingAnalyzer {
+
+    private static final Logger log = LoggerFactory.getLogger(MappingAnalyzer.class);
+
+    /**
+     * 问题类型
+     */
+    public enum FindingType {
+        CYCLE("循环映射", true),
+        MISSING_CLASS("新类在DEX中不存在", true),
+        CASE_COLLISION("类名只差大小写", false),
+        OLD_CLASS_IN_DEX("旧类仍存在于DEX中", false),
+        PACKAGE_MISMATCH("类映射与包名映射不一致", false);
+
+        private final String description;
+        private final boolean error;
+
+        FindingType(String description, boolean error) {
+            this.description = description;
+            this.error = error;
+        }
+
+        public String getDescription() { return description; }
+        public boolean isError() { return error; }
+    }
+
+    /**
+     * 单个问题
+     */
+    public static final class Finding {
+        private final FindingType type;
+        private final List<String> classes;
+        private final String message;
+
+        Finding(FindingType type, List<String> classes, String message) {
+            this.type = type;
+            this.classes = List.copyOf(classes);
+            this.message = message;
+        }
+
+        public FindingType getType() { return type; }
+        /** 涉及的类（循环映射按映射顺序排列） */
+        public List<String> getClasses() { return classes; }
+        public String getMessage() { return message; }
+        public boolean isError() { return type.isError(); }
+
+        @Override
+        public String toString() {
+            return String.format("[%s] %s", type, message);
+        }
+    }
+
+    /**
+     * 分析映射
+     *
+     * @param mapping 类名映射
+     * @param dexClasses DEX中定义的类（null=跳过与DEX相关的检查）
+     * @param packageMapping 包名映射（null=跳过包名一致性检查）
+     * @return 分析报告
+     */
+    public Report analyze(ClassMapping mapping, Set<String> dexClasses, PackageMapping packageMapping) {
+        Objects.requireNonNull(mapping, "mapping不能为null");
+
+        long start = System.currentTimeMillis();
+        Map<String, String> mappings = mapping.getAllMappings();
+        List<Finding> findings = new ArrayList<>();
+
+        findCycles(mappings, findings);
+        findCaseCollisions(mapping, mappings, dexClasses, findings);
+        if (dexClasses != null) {
+            findDexConflicts(mapping, mappings, dexClasses, findings);
+        }
+        if (packageMapping != null && !packageMapping.isEmpty()) {
+            findPackageMismatches(mappings, packageMapping, findings);
+        }
+
+        Report report = new Report(mappings.size(), findings, System.currentTimeMillis() - start);
+        log.info("映射分析完成: {}", report);
+        return report;
+    }
+
+    /**
+     * 查找所有循环映射（A→B→C→A）
+     *
+     * 每个节点最多属于一条路径：沿映射链前进时记录所在的遍历轮次，
+     * 遇到本轮已访问的节点即为环，遇到更早轮次的节点说明剩余部分已检查过。
+     * 自身映射（A→A）不算循环。
+     */
+    private void findCycles(Map<String, String> mappings, List<Finding> findings) {
+        Map<String, Integer> visitedRound = new HashMap<>(mappings.size() * 4 / 3 + 1);
+        List<String> path = new ArrayList<>();
+        int round = 0;
+
+        for (String startClass : mappings.keySet()) {
+            if (visitedRound.containsKey(startClass)) {
+                continue;
+            }
+            round++;
+            path.clear();
+
+            String current = startClass;
+            while (true) {
+                Integer seen = visitedRound.get(current);
+                if (seen != null) {
+                    if (seen == round) {
+                        List<String> cycle = new ArrayList<>(path.subList(path.indexOf(current), path.size()));
+                        findings.add(new Finding(FindingType.CYCLE, cycle,
+                            String.join(" → ", cycle) + " → " + current));
+                    }
+                    break;
+                }
+                visitedRound.put(current, round);
+                path.add(current);
+
+                String next = mappings.get(current);
+                if (next == null || next.equals(current) || !mappings.containsKey(next)) {
+                    break;
+                }
+                current = next;
+            }
+        }
+    }
+
+    /**
+     * 查找只差大小写的类名（在大小写不敏感的文件系统上解包/反编译时会互相覆盖）
+     */
+    private void findCaseCollisions(ClassMapping mapping, Map<String, String> mappings,
+                                    Set<String> dexClasses, List<Finding> findings) {
+        Map<String, String> byLowerCase = new HashMap<>(mappings.size() * 4 / 3 + 1);
+        for (String newClass : mappings.values()) {
+            String existing = byLowerCase.putIfAbsent(newClass.toLowerCase(Locale.ROOT), newClass);
+            if (existing != null) {
+                findings.add(new Finding(FindingType.CASE_COLLISION, List.of(existing, newClass),
+                    String.format("新类名 %s 与 %s 只差大小写", newClass, existing)));
+            }
+        }
+
+        if (dexClasses == null || byLowerCase.isEmpty()) {
+            return;
+        }
+        for (String dexClass : dexClasses) {
+            String newClass = byLowerCase.get(dexClass.toLowerCase(Locale.ROOT));
+            // 新类名之间的冲突已在上面报告
+            if (newClass != null && !newClass.equals(dexClass) && !mapping.containsNewClass(dexClass)) {
+                findings.add(new Finding(FindingType.CASE_COLLISION, List.of(newClass, dexClass),
+                    String.format("新类名 %s 与DEX中的 %s 只差大小写", newClass, dexClass)));
+            }
+        }
+    }
+
+    /**
+     * 与DEX中的类对照：新类必须存在；旧类若仍存在且没有被其他映射占用，则资源引用会被改到别的类
+     */
+    private void findDexConflicts(ClassMapping mapping, Map<String, String> mappings,
+                                  Set<String> dexClasses, List<Finding> findings) {
+        for (Map.Entry<String, String> entry : mappings.entrySet()) {
+            String oldClass = entry.getKey();
+            String newClass = entry.getValue();
+            if (!dexClasses.contains(newClass)) {
+                findings.add(new Finding(FindingType.MISSING_CLASS, List.of(newClass),
+                    String.format("%s → %s: 新类在DEX中不存在", oldClass, newClass)));
+            }
+            if (!oldClass.equals(newClass) && dexClasses.contains(oldClass)
+                    && !mapping.containsNewClass(oldClass)) {
+                findings.add(new Finding(FindingType.OLD_CLASS_IN_DEX, List.of(oldClass, newClass),
+                    String.format("%s → %s: 旧类仍由DEX定义，对它的资源引用将被改为新类", oldClass, newClass)));
+            }
+        }
+    }
+
+    /**
+     * 旧类所在包有包名映射时，类映射的目标包应与包名映射的结果一致
+     */
+    private void findPackageMismatches(Map<String, String> mappings, PackageMapping packageMapping,
+                                       List<Finding> findings) {
+        for (Map.Entry<String, String> entry : mappings.entrySet()) {
+            String oldPackage = packageOf(entry.getKey());
+            if (oldPackage.isEmpty()) {
+                continue;
+            }
+            String mappedPackage = packageMapping.replace(oldPackage);
+            String newPackage = packageOf(entry.getValue());
+            if (!mappedPackage.equals(oldPackage) && !mappedPackage.equals(newPackage)) {
+                findings.add(new Finding(FindingType.PACKAGE_MISMATCH,
+                    List.of(entry.getKey(), entry.getValue()),
+                    String.format("%s → %s: 包名映射要求目标包为 %s",
+                                  entry.getKey(), entry.getValue(), mappedPackage)));
+            }
+        }
+    }
+
+    private static String packageOf(String className) {
+        int lastDot = className.lastIndexOf('.');
+        return lastDot > 0 ? className.substring(0, lastDot) : "";
+    }
+
+    /**
+     * 分析报告
+     */
+    public static final class Report {
+        private final int mappingCount;
+        private final List<Finding> findings;
+        private final long durationMs;
+
+        Report(int mappingCount, List<Finding> findings, long durationMs) {
+            this.mappingCount = mappingCount;
+            this.findings = List.copyOf(findings);
+            this.durationMs = durationMs;
+        }
+
+        public int getMappingCount() { return mappingCount; }
+        public List<Finding> getFindings() { return findings; }
+        public long getDurationMs() { return durationMs; }
+
+        /**
+         * 指定类型的问题
+         */
+        public List<Finding> getFindings(FindingType type) {
+            List<Finding> result = new ArrayList<>();
+            for (Finding finding : findings) {
+                if (finding.getType() == type) {
+                    result.add(finding);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * 是否存在错误级别的问题（循环映射、缺失类）
+         */
+        public boolean hasErrors() {
+            for (Finding finding : findings) {
+                if (finding.isError()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 按类型统计问题数量
+         */
+        public Map<FindingType, Integer> countByType() {
+            Map<FindingType, Integer> counts = new EnumMap<>(FindingType.class);
+            for (Finding finding : findings) {
+                counts.merge(finding.getType(), 1, Integer::sum);
+            }
+            return counts;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d 个映射, %d 个问题 %s, 耗时 %d ms",
+                                 mappingCount, findings.size(), countByType(), durationMs);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.resources.mapping;
 
 import com.resources.model.ClassMapping;
+import com.resources.model.PackageMapping;
+import com.resources.util.ClassNameSet;
 import com.resources.util.DexClassCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,9 +13,9 @@ import java.util.*;
 /**
  * 映射一致性验证器
  * 
- * 功能：
+ * 功能（由{@link MappingAnalyzer}一次遍历完成）：
  * - 检查循环映射
- * - 检查冲突映射
+ * - 检查冲突映射（大小写冲突、旧类仍在DEX中、与包名映射不一致）
  * - 检查缺失类（新类在DEX中不存在）
  * 
  * 线程安全
@@ -28,6 +30,8 @@ public class MappingValidator {
     // DEX类加载缓存
     private final DexClassCache dexCache;
     
+    private final MappingAnalyzer analyzer = new MappingAnalyzer();
+    
     /**
      * 默认构造函数（使用默认缓存）
      */
@@ -58,88 +62,72 @@ public class MappingValidator {
         log.info("开始映射验证: {} 个映射, {} 个DEX文件", 
                 classMapping.size(), dexPaths.size());
         
-        boolean valid = true;
+        return validateClasses(classMapping, loadAllDexClasses(dexPaths));
+    }
+    
+    /**
+     * 使用已加载的DEX类验证类名映射
+     * 
+     * 与DexCrossValidator共用同一份类集合时使用（见{@link com.resources.validator.DexClassCollector}）。
+     * 
+     * @param classMapping 类名映射表
+     * @param dexClasses 所有DEX中定义的类
+     * @return true=验证通过，false=验证失败
+     */
+    public boolean validateClasses(ClassMapping classMapping, Set<String> dexClasses) {
+        Objects.requireNonNull(dexClasses, "dexClasses不能为null");
         
-        // 1. 检查循环映射
-        if (hasCircularMapping(classMapping)) {
-            log.error("发现循环映射");
-            valid = false;
-        }
+        return !analyze(classMapping, dexClasses, null).hasErrors();
+    }
+    
+    /**
+     * 分析类名映射（循环、大小写冲突、缺失类、旧类残留、包名不一致）
+     * 
+     * @param classMapping 类名映射表
+     * @param dexClasses 所有DEX中定义的类（null=跳过与DEX相关的检查）
+     * @param packageMapping 包名映射（null=跳过包名一致性检查）
+     * @return 分析报告，循环映射和缺失类为错误，其余为警告
+     */
+    public MappingAnalyzer.Report analyze(ClassMapping classMapping, Set<String> dexClasses,
+                                          PackageMapping packageMapping) {
+        Objects.requireNonNull(classMapping, "classMapping不能为null");
         
-        // 2. 加载DEX类
-        Set<String> dexClasses = loadAllDexClasses(dexPaths);
-        if (dexClasses.isEmpty()) {
-            log.warn("未能加载任何DEX类");
-        } else {
-            log.info("加载DEX类: {} 个", dexClasses.size());
+        if (dexClasses != null) {
+            if (dexClasses.isEmpty()) {
+                log.warn("未能加载任何DEX类");
+            } else {
+                log.info("加载DEX类: {} 个", dexClasses.size());
+            }
         }
         
-        // 3. 检查缺失类
-        List<String> missingClasses = findMissingClasses(classMapping, dexClasses);
-        if (!missingClasses.isEmpty()) {
-            log.error("发现 {} 个缺失的类:", missingClasses.size());
-            for (String missing : missingClasses) {
-                log.error("  - {}", missing);
+        MappingAnalyzer.Report report = analyzer.analyze(classMapping, dexClasses, packageMapping);
+        for (MappingAnalyzer.Finding finding : report.getFindings()) {
+            if (finding.isError()) {
+                log.error("  - {}", finding);
+            } else {
+                log.warn("  - {}", finding);
             }
-            valid = false;
         }
         
-        if (valid) {
-            log.info("映射验证通过");
-        } else {
+        if (report.hasErrors()) {
             log.error("映射验证失败");
+        } else {
+            log.info("映射验证通过");
         }
         
-        return valid;
-    }
-    
-    /**
-     * 检查循环映射
-     * 例如：A->B, B->C, C->A
-     */
-    private boolean hasCircularMapping(ClassMapping classMapping) {
-        Set<String> allOldClasses = classMapping.getAllOldClasses();
-        
-        for (String startClass : allOldClasses) {
-            Set<String> visited = new HashSet<>();
-            String current = startClass;
-            
-            while (current != null) {
-                if (visited.contains(current)) {
-                    log.error("发现循环映射: {} (访问路径: {})", current, visited);
-                    return true;
-                }
-                
-                visited.add(current);
-                
-                // 获取下一个映射
-                String next = classMapping.getNewClass(current);
-                if (next == null || next.equals(current)) {
-                    break;
-                }
-                
-                // 如果next也在oldClasses中，继续检查
-                if (allOldClasses.contains(next)) {
-                    current = next;
-                } else {
-                    break;
-                }
-            }
-        }
-        
-        return false;
+        return report;
     }
     
     /**
      * 加载所有DEX文件中的类（使用缓存）
      */
     private Set<String> loadAllDexClasses(List<String> dexPaths) {
-        Set<String> allClasses = new HashSet<>();
+        List<ClassNameSet> loaded = new ArrayList<>();
         
         for (String dexPath : dexPaths) {
             try {
-                Set<String> classes = dexCache.getDexClasses(dexPath);
-                allClasses.addAll(classes);
+                ClassNameSet classes = dexCache.getDexClasses(dexPath);
+                loaded.add(classes);
                 log.debug("从 {} 加载 {} 个类", dexPath, classes.size());
                 
             } catch (Exception e) {
@@ -148,7 +136,7 @@ public class MappingValidator {
         }
         
         log.info("DEX类加载统计: {}", dexCache.getStatistics());
-        return allClasses;
+        return ClassNameSet.union(loaded);
     }
     
     /**
@@ -174,15 +162,16 @@ public class MappingValidator {
         Objects.requireNonNull(dexClasses, "dexClasses不能为null");
         
         List<String> missingClasses = new ArrayList<>();
+        Set<String> newClasses = mapping.getAllNewClasses();
         
-        for (String newClass : mapping.getAllNewClasses()) {
+        for (String newClass : newClasses) {
             if (!dexClasses.contains(newClass)) {
                 missingClasses.add(newClass);
             }
         }
         
         log.debug("缺失类检查: {} 个新类, {} 个缺失", 
-                 mapping.getAllNewClasses().size(), missingClasses.size());
+                 newClasses.size(), missingClasses.size());
         
         return missingClasses;
     }
@@ -200,28 +189,28 @@ public class MappingValidator {
         report.append(String.format("映射数量: %d\n", mapping.size()));
         report.append(String.format("DEX文件: %d 个\n\n", dexPaths.size()));
         
-        // 2. 循环映射检查
-        boolean hasCircular = hasCircularMapping(mapping);
-        report.append(String.format("循环映射: %s\n", hasCircular ? "✗ 存在" : "✓ 无"));
-        
-        // 3. DEX类检查
+        // 2. 映射分析
         Set<String> dexClasses = loadAllDexClasses(dexPaths);
-        List<String> missingClasses = findMissingClasses(mapping, dexClasses);
+        MappingAnalyzer.Report analysis = analyzer.analyze(mapping, dexClasses, null);
+        Map<MappingAnalyzer.FindingType, Integer> counts = analysis.countByType();
         
         report.append(String.format("DEX类总数: %d\n", dexClasses.size()));
-        report.append(String.format("缺失类: %d\n", missingClasses.size()));
+        for (MappingAnalyzer.FindingType type : MappingAnalyzer.FindingType.values()) {
+            int count = counts.getOrDefault(type, 0);
+            report.append(String.format("%s: %s\n", type.getDescription(),
+                                        count == 0 ? "✓ 无" : (type.isError() ? "✗ " : "⚠ ") + count));
+        }
         
-        if (!missingClasses.isEmpty()) {
-            report.append("\n缺失的类:\n");
-            for (String missing : missingClasses) {
-                report.append(String.format("  ✗ %s\n", missing));
+        if (!analysis.getFindings().isEmpty()) {
+            report.append("\n问题列表:\n");
+            for (MappingAnalyzer.Finding finding : analysis.getFindings()) {
+                report.append(String.format("  %s %s\n", finding.isError() ? "✗" : "⚠", finding.getMessage()));
             }
         }
         
         report.append("\n");
         report.append(String.format("验证结果: %s\n", 
-                                   (!hasCircular && missingClasses.isEmpty()) ? 
-                                   "✓ 通过" : "✗ 失败"));
+                                   !analysis.hasErrors() ? "✓ 通过" : "✗ 失败"));
         report.append("════════════════════════════════════════\n");
         
         return report.toString();
@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 白名单过滤器 - 区分自有包vs系统/三方包
@@ -14,6 +15,10 @@ import java.util.concurrent.ConcurrentHashMap;
  * - 定义自有包前缀
  * - 判断类名/包名是否应该被替换
  * 
+ * 所有前缀编译为一棵按包名段（以'.'分隔）组织的前缀树，节点上记录所属类别，
+ * 一次遍历即可得出判定；重复出现的值（如androidx.constraintlayout.widget.ConstraintLayout）
+ * 的判定结果缓存在固定容量的决策缓存中。
+ * 
  * @author Resources Processor Team
  * @version 1.0.0
  */
@@ -60,9 +65,42 @@ public class WhitelistFilter {
     // 额外的排除前缀（用户自定义）
     private final Set<String> excludePrefixes;
     
+    /**
+     * 默认决策缓存容量
+     */
+    public static final int DEFAULT_DECISION_CACHE_SIZE = 1024;
+    
+    // 前缀类别（按优先级：系统 > 第三方 > 用户排除 > 自有）
+    private static final int SYSTEM = 1;
+    private static final int THIRD_PARTY = 1 << 1;
+    private static final int EXCLUDED = 1 << 2;
+    private static final int OWN = 1 << 3;
+    private static final int OWN_EXACT = 1 << 4;  // 纯包名（去掉尾部点号后完全相等）
+    private static final int BLOCKED = SYSTEM | THIRD_PARTY | EXCLUDED;
+    
+    private final int decisionCacheSize;
+    
+    // 编译后的前缀树和决策缓存（前缀变化时失效）
+    private volatile Compiled compiled;
+    
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    
     public WhitelistFilter() {
+        this(DEFAULT_DECISION_CACHE_SIZE);
+    }
+    
+    /**
+     * @param decisionCacheSize 决策缓存容量（向上取整为2的幂），0表示不缓存
+     */
+    public WhitelistFilter(int decisionCacheSize) {
+        if (decisionCacheSize < 0) {
+            throw new IllegalArgumentException("decisionCacheSize不能为负数: " + decisionCacheSize);
+        }
         this.ownPackagePrefixes = ConcurrentHashMap.newKeySet();
         this.excludePrefixes = ConcurrentHashMap.newKeySet();
+        this.decisionCacheSize = decisionCacheSize == 0 ? 0 :
+            Integer.highestOneBit(Math.min(decisionCacheSize, 1 << 20) * 2 - 1);
     }
     
     /**
@@ -78,6 +116,7 @@ public class WhitelistFilter {
         }
         
         ownPackagePrefixes.add(prefix);
+        invalidate();
         log.debug("添加自有包前缀: '{}'", prefix);
     }
     
@@ -109,6 +148,7 @@ public class WhitelistFilter {
         }
         
         excludePrefixes.add(prefix);
+        invalidate();
         log.debug("添加排除前缀: '{}'", prefix);
     }
     
@@ -130,48 +170,51 @@ public class WhitelistFilter {
             return false;
         }
         
+        Compiled current = compiled();
+        
+        Decision cached = current.lookup(className);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached.replace;
+        }
+        if (current.cache != null) {
+            cacheMisses.increment();
+        }
+        
+        boolean replace = decide(current.root, className);
+        current.store(new Decision(className, replace));
+        return replace;
+    }
+    
+    private boolean decide(Node root, String className) {
+        int flags = match(root, className, true);
+        
         // 1. 系统包 - 绝对不改
-        for (String sysPrefix : SYSTEM_PREFIXES) {
-            if (className.startsWith(sysPrefix)) {
-                log.trace("系统包，不替换: '{}'", className);
-                return false;
-            }
+        if ((flags & SYSTEM) != 0) {
+            log.trace("系统包，不替换: '{}'", className);
+            return false;
         }
         
         // 2. 常见第三方库 - 绝对不改
-        for (String thirdPartyPrefix : COMMON_THIRD_PARTY_PREFIXES) {
-            if (className.startsWith(thirdPartyPrefix)) {
-                log.trace("第三方库，不替换: '{}'", className);
-                return false;
-            }
+        if ((flags & THIRD_PARTY) != 0) {
+            log.trace("第三方库，不替换: '{}'", className);
+            return false;
         }
         
         // 3. 用户排除的前缀 - 不改
-        for (String excludePrefix : excludePrefixes) {
-            if (className.startsWith(excludePrefix)) {
-                log.trace("用户排除，不替换: '{}'", className);
-                return false;
-            }
+        if ((flags & EXCLUDED) != 0) {
+            log.trace("用户排除，不替换: '{}'", className);
+            return false;
         }
         
-        // 4. 自有包 - 应该改
-        for (String ownPrefix : ownPackagePrefixes) {
-            // 修复：支持纯包名匹配
-            // "com.example".startsWith("com.example.") = false (错误)
-            // 应该同时检查完全相等的情况
-            if (className.startsWith(ownPrefix)) {
-                log.trace("自有包，应替换: '{}'", className);
-                return true;
-            }
-            
-            // 检查是否为纯包名（去掉尾部点号后的精确匹配）
-            if (ownPrefix.endsWith(".")) {
-                String prefixWithoutDot = ownPrefix.substring(0, ownPrefix.length() - 1);
-                if (className.equals(prefixWithoutDot)) {
-                    log.trace("自有包（纯包名），应替换: '{}'", className);
-                    return true;
-                }
-            }
+        // 4. 自有包 - 应该改（支持纯包名："com.example"匹配前缀"com.example."）
+        if ((flags & OWN) != 0) {
+            log.trace("自有包，应替换: '{}'", className);
+            return true;
+        }
+        if ((flags & OWN_EXACT) != 0) {
+            log.trace("自有包（纯包名），应替换: '{}'", className);
+            return true;
         }
         
         // 5. 未知包 - 默认不改（保守策略）
@@ -190,13 +233,7 @@ public class WhitelistFilter {
             return false;
         }
         
-        for (String sysPrefix : SYSTEM_PREFIXES) {
-            if (className.startsWith(sysPrefix)) {
-                return true;
-            }
-        }
-        
-        return false;
+        return (match(compiled().root, className, false) & SYSTEM) != 0;
     }
     
     /**
@@ -210,13 +247,7 @@ public class WhitelistFilter {
             return false;
         }
         
-        for (String thirdPartyPrefix : COMMON_THIRD_PARTY_PREFIXES) {
-            if (className.startsWith(thirdPartyPrefix)) {
-                return true;
-            }
-        }
-        
-        return false;
+        return (match(compiled().root, className, false) & THIRD_PARTY) != 0;
     }
     
     /**
@@ -230,13 +261,7 @@ public class WhitelistFilter {
             return false;
         }
         
-        for (String ownPrefix : ownPackagePrefixes) {
-            if (className.startsWith(ownPrefix)) {
-                return true;
-            }
-        }
-        
-        return false;
+        return (match(compiled().root, className, false) & OWN) != 0;
     }
     
     /**
@@ -258,6 +283,7 @@ public class WhitelistFilter {
      */
     public void clearOwnPackages() {
         ownPackagePrefixes.clear();
+        invalidate();
         log.debug("清空自有包前缀");
     }
     
@@ -266,13 +292,210 @@ public class WhitelistFilter {
      */
     public void clearExcludePrefixes() {
         excludePrefixes.clear();
+        invalidate();
         log.debug("清空排除前缀");
     }
     
+    /**
+     * 决策缓存命中次数
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+    
+    /**
+     * 决策缓存未命中次数
+     */
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+    
+    /**
+     * 决策缓存容量（0表示未启用）
+     */
+    public int getDecisionCacheSize() {
+        return decisionCacheSize;
+    }
+    
+    /**
+     * 重置缓存命中统计
+     */
+    public void resetCacheStatistics() {
+        cacheHits.reset();
+        cacheMisses.reset();
+    }
+    
+    /**
+     * 沿包名段遍历前缀树，收集匹配到的类别
+     * 
+     * 前缀"a.b."匹配当且仅当类名的前若干段为a、b且其后紧跟'.'；
+     * 类名恰好在某个自有包节点结束时记为纯包名匹配。
+     * 
+     * @param stopOnBlocked 命中不可替换类别后立即返回
+     */
+    private static int match(Node root, String className, boolean stopOnBlocked) {
+        int flags = 0;
+        Node node = root;
+        int length = className.length();
+        int start = 0;
+        
+        while (true) {
+            int dot = className.indexOf('.', start);
+            int end = dot < 0 ? length : dot;
+            
+            node = node.child(className, start, end);
+            if (node == null) {
+                return flags;
+            }
+            
+            if (dot < 0) {
+                if ((node.flags & OWN) != 0) {
+                    flags |= OWN_EXACT;
+                }
+                return flags;
+            }
+            
+            flags |= node.flags;
+            if (stopOnBlocked && (flags & BLOCKED) != 0) {
+                return flags;
+            }
+            start = end + 1;
+        }
+    }
+    
+    private Compiled compiled() {
+        Compiled current = compiled;
+        if (current == null) {
+            current = compile();
+        }
+        return current;
+    }
+    
+    private synchronized Compiled compile() {
+        Compiled current = compiled;
+        if (current == null) {
+            Node root = new Node();
+            insertAll(root, SYSTEM_PREFIXES, SYSTEM);
+            insertAll(root, COMMON_THIRD_PARTY_PREFIXES, THIRD_PARTY);
+            insertAll(root, excludePrefixes, EXCLUDED);
+            insertAll(root, ownPackagePrefixes, OWN);
+            current = new Compiled(root, decisionCacheSize);
+            compiled = current;
+        }
+        return current;
+    }
+    
+    private synchronized void invalidate() {
+        compiled = null;
+    }
+    
+    private static void insertAll(Node root, Collection<String> prefixes, int flag) {
+        for (String prefix : prefixes) {
+            // 前缀均以'.'结尾，去掉后按段插入
+            String path = prefix.substring(0, prefix.length() - 1);
+            Node node = root;
+            int start = 0;
+            while (true) {
+                int dot = path.indexOf('.', start);
+                int end = dot < 0 ? path.length() : dot;
+                node = node.getOrCreateChild(path.substring(start, end));
+                if (dot < 0) {
+                    break;
+                }
+                start = end + 1;
+            }
+            node.flags |= flag;
+        }
+    }
+    
+    /**
+     * 前缀树节点（对应一个包名段），子节点数量通常很少，使用数组线性查找避免分配子串
+     */
+    private static final class Node {
+        private String[] keys = new String[0];
+        private Node[] children = new Node[0];
+        private int flags;
+        
+        Node child(String name, int start, int end) {
+            int length = end - start;
+            for (int i = 0; i < keys.length; i++) {
+                String key = keys[i];
+                if (key.length() == length && name.regionMatches(start, key, 0, length)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+        
+        Node getOrCreateChild(String segment) {
+            Node existing = child(segment, 0, segment.length());
+            if (existing != null) {
+                return existing;
+            }
+            Node node = new Node();
+            keys = Arrays.copyOf(keys, keys.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            keys[keys.length - 1] = segment;
+            children[children.length - 1] = node;
+            return node;
+        }
+    }
+    
+    /**
+     * 缓存的判定结果（不可变，可安全地无锁发布）
+     */
+    private static final class Decision {
+        private final String value;
+        private final boolean replace;
+        
+        Decision(String value, boolean replace) {
+            this.value = value;
+            this.replace = replace;
+        }
+    }
+    
+    /**
+     * 编译结果：前缀树 + 直接映射的决策缓存
+     * 
+     * 缓存按哈希值定位槽位，冲突时直接覆盖，容量固定不会增长；
+     * 并发写入同一槽位只会丢失一次缓存，不影响判定正确性。
+     */
+    private static final class Compiled {
+        private final Node root;
+        private final Decision[] cache;
+        private final int mask;
+        
+        Compiled(Node root, int cacheSize) {
+            this.root = root;
+            this.cache = cacheSize > 0 ? new Decision[cacheSize] : null;
+            this.mask = cacheSize - 1;
+        }
+        
+        Decision lookup(String value) {
+            if (cache == null) {
+                return null;
+            }
+            Decision decision = cache[slot(value)];
+            return decision != null && decision.value.equals(value) ? decision : null;
+        }
+        
+        void store(Decision decision) {
+            if (cache != null) {
+                cache[slot(decision.value)] = decision;
+            }
+        }
+        
+        private int slot(String value) {
+            int h = value.hashCode();
+            return (h ^ (h >>> 16)) & mask;
+        }
+    }
+    
     @Override
     public String toString() {
-        return String.format("WhitelistFilter{ownPackages=%d, excludes=%d}", 
-                           ownPackagePrefixes.size(), excludePrefixes.size());
+        return String.format("WhitelistFilter{ownPackages=%d, excludes=%d, cacheHits=%d, cacheMisses=%d}", 
+                           ownPackagePrefixes.size(), excludePrefixes.size(),
+                           getCacheHits(), getCacheMisses());
     }
 }
 
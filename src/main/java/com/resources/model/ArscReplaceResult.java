@@ -13,11 +13,15 @@ public class ArscReplaceResult {
     private final int packageModifications;
     private final int stringPoolModifications;
     private final boolean arscModified;
+    private final int stringsCompacted;
+    private final int compactionBytesSaved;
     
     private ArscReplaceResult(Builder builder) {
         this.packageModifications = builder.packageModifications;
         this.stringPoolModifications = builder.stringPoolModifications;
         this.arscModified = builder.arscModified;
+        this.stringsCompacted = builder.stringsCompacted;
+        this.compactionBytesSaved = builder.compactionBytesSaved;
     }
     
     // Getters
@@ -37,12 +41,31 @@ public class ArscReplaceResult {
         return arscModified; 
     }
     
+    /**
+     * 压缩阶段移除的字符串数（合并重复+删除未引用，未启用压缩时为0）
+     */
+    public int getStringsCompacted() {
+        return stringsCompacted;
+    }
+    
+    /**
+     * 压缩阶段节省的字节数
+     */
+    public int getCompactionBytesSaved() {
+        return compactionBytesSaved;
+    }
+    
     /**
      * 获取摘要
      */
     public String getSummary() {
-        return String.format("ARSC替换: 包名=%d, 字符串池=%d, 总计=%d", 
+        String summary = String.format("ARSC替换: 包名=%d, 字符串池=%d, 总计=%d", 
                            packageModifications, stringPoolModifications, getTotalModifications());
+        if (stringsCompacted > 0) {
+            summary += String.format(", 压缩移除字符串=%d, 节省=%d字节", 
+                                   stringsCompacted, compactionBytesSaved);
+        }
+        return summary;
     }
     
     @Override
@@ -55,6 +78,8 @@ public class ArscReplaceResult {
         private int packageModifications = 0;
         private int stringPoolModifications = 0;
         private boolean arscModified = false;
+        private int stringsCompacted = 0;
+        private int compactionBytesSaved = 0;
         
         public Builder packageModifications(int packageModifications) {
             this.packageModifications = packageModifications;
@@ -71,6 +96,16 @@ public class ArscReplaceResult {
             return this;
         }
         
+        public Builder stringsCompacted(int stringsCompacted) {
+            this.stringsCompacted = stringsCompacted;
+            return this;
+        }
+        
+        public Builder compactionBytesSaved(int compactionBytesSaved) {
+            this.compactionBytesSaved = compactionBytesSaved;
+            return this;
+        }
+        
         public ArscReplaceResult build() {
             return new ArscReplaceResult(this);
         }
@@ -107,6 +107,13 @@ public class ClassMapping {
         return new HashSet<>(newToOld.keySet());
     }
     
+    /**
+     * 获取所有映射（Old→New的只读视图，不复制）
+     */
+    public Map<String, String> getAllMappings() {
+        return Collections.unmodifiableMap(oldToNew);
+    }
+    
     /**
      * 获取映射数量
      */
@@ -0,0 +1,325 @@
+package com.resources.model;
+
+import java.util.*;
+
+/**
+ * 编译后的映射索引（不可变）
+ *
+ * 由ClassMapping和PackageMapping编译一次，供ARSC和所有AXML处理器共享：
+ * - 类名映射：哈希表精确查找
+ * - 包名映射：按包名段（以'.'分隔）组织的前缀树，
+ *   一次遍历同时完成精确匹配和最长前缀匹配，复杂度O(字符串长度)
+ *
+ * 匹配语义与PackageMapping.replace一致：最长的映射键优先，
+ * 前缀匹配必须落在完整的包名段边界上（com.example不匹配com.examples）。
+ *
+ * 线程安全（不可变）
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public final class MappingIndex {
+
+    private static final MappingIndex EMPTY = new Builder().build();
+
+    private final Map<String, String> classMappings;
+    private final Node root;
+    private final int packageMappingCount;
+
+    /**
+     * 前缀树节点（对应一个包名段）
+     *
+     * 子节点存放在开放寻址哈希表中，按名称区域（起止位置）计算与String.hashCode
+     * 相同的哈希值并用regionMatches比较，查找时不分配子串。
+     */
+    private static final class Node {
+        private String[] keys;
+        private Node[] children;
+        private int size;
+        private String exactTarget;   // EXACT_MATCH映射的新值
+        private String prefixTarget;  // PREFIX_MATCH映射的新前缀
+
+        Node child(String name, int start, int end) {
+            if (keys == null) {
+                return null;
+            }
+            int length = end - start;
+            int mask = keys.length - 1;
+            for (int i = slot(regionHash(name, start, end), mask); ; i = (i + 1) & mask) {
+                String key = keys[i];
+                if (key == null) {
+                    return null;
+                }
+                if (key.length() == length && name.regionMatches(start, key, 0, length)) {
+                    return children[i];
+                }
+            }
+        }
+
+        Node getOrCreateChild(String segment) {
+            Node existing = child(segment, 0, segment.length());
+            if (existing != null) {
+                return existing;
+            }
+            // 负载因子不超过1/2，保证查找总能遇到空槽
+            if (keys == null || (size + 1) * 2 > keys.length) {
+                resize(keys == null ? 4 : keys.length * 2);
+            }
+            Node node = new Node();
+            insert(segment, node);
+            size++;
+            return node;
+        }
+
+        private void resize(int capacity) {
+            String[] oldKeys = keys;
+            Node[] oldChildren = children;
+            keys = new String[capacity];
+            children = new Node[capacity];
+            if (oldKeys != null) {
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != null) {
+                        insert(oldKeys[i], oldChildren[i]);
+                    }
+                }
+            }
+        }
+
+        private void insert(String segment, Node node) {
+            int mask = keys.length - 1;
+            int i = slot(segment.hashCode(), mask);
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = segment;
+            children[i] = node;
+        }
+
+        private static int regionHash(String name, int start, int end) {
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + name.charAt(i);
+            }
+            return h;
+        }
+
+        private static int slot(int hash, int mask) {
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+    }
+
+    private MappingIndex(Builder builder) {
+        this.classMappings = new HashMap<>(builder.classMappings);
+        this.root = builder.root;
+        this.packageMappingCount = builder.packageMappingCount;
+        // 构建完成后Builder不可再修改本实例的前缀树
+        builder.root = null;
+    }
+
+    /**
+     * 编译类名映射和包名映射
+     *
+     * @param classMapping 类名映射（精确匹配，优先）
+     * @param packageMapping 包名映射（按模式精确或前缀匹配）
+     * @return 映射索引
+     */
+    public static MappingIndex compile(ClassMapping classMapping, PackageMapping packageMapping) {
+        Objects.requireNonNull(classMapping, "classMapping不能为null");
+        Objects.requireNonNull(packageMapping, "packageMapping不能为null");
+
+        Builder builder = new Builder();
+        for (String oldClass : classMapping.getAllOldClasses()) {
+            String newClass = classMapping.getNewClass(oldClass);
+            if (newClass != null) {
+                builder.addClassMapping(oldClass, newClass);
+            }
+        }
+        for (PackageMapping.MappingEntry entry : packageMapping.getAllMappings()) {
+            builder.addPackageMapping(entry.getOldPackage(), entry.getNewPackage(), entry.getMode());
+        }
+        return builder.build();
+    }
+
+    /**
+     * 由通用替换表编译：每个键既可精确匹配，也可作为前缀匹配
+     *
+     * @param replacements 替换映射表（Old -> New）
+     * @return 映射索引
+     */
+    public static MappingIndex fromReplacements(Map<String, String> replacements) {
+        Objects.requireNonNull(replacements, "replacements不能为null");
+
+        Builder builder = new Builder();
+        for (Map.Entry<String, String> entry : replacements.entrySet()) {
+            builder.addClassMapping(entry.getKey(), entry.getValue());
+            builder.addPackageMapping(entry.getKey(), entry.getValue(), PackageMapping.ReplaceMode.PREFIX_MATCH);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 空索引
+     */
+    public static MappingIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 类名精确查找
+     *
+     * @param oldClass 原类名
+     * @return 新类名，不存在时返回null
+     */
+    public String getNewClass(String oldClass) {
+        return oldClass != null ? classMappings.get(oldClass) : null;
+    }
+
+    /**
+     * 包名映射查找（精确或最长前缀）
+     *
+     * 遍历过程不分配对象，只有匹配成功时才生成替换结果。
+     *
+     * @param name 完整类名或包名
+     * @return 替换后的值，没有任何映射匹配时返回null
+     */
+    public String findPackageReplacement(String name) {
+        if (name == null || name.isEmpty() || packageMappingCount == 0) {
+            return null;
+        }
+
+        Node node = root;
+        String bestPrefix = null;
+        int bestLength = -1;
+        int length = name.length();
+        int start = 0;
+
+        while (true) {
+            int dot = name.indexOf('.', start);
+            int end = dot < 0 ? length : dot;
+
+            node = node.child(name, start, end);
+            if (node == null) {
+                break;
+            }
+
+            if (end == length) {
+                // 整个字符串已匹配：精确映射与同长度的前缀映射等价，均为最长匹配
+                if (node.exactTarget != null) {
+                    return node.exactTarget;
+                }
+                if (node.prefixTarget != null) {
+                    return node.prefixTarget;
+                }
+                break;
+            }
+
+            // 当前位置是'.'边界，记录更长的前缀匹配
+            if (node.prefixTarget != null) {
+                bestPrefix = node.prefixTarget;
+                bestLength = end;
+            }
+            start = end + 1;
+        }
+
+        return bestPrefix != null ? bestPrefix + name.substring(bestLength) : null;
+    }
+
+    /**
+     * 包名映射替换
+     *
+     * @param name 完整类名或包名
+     * @return 替换后的值，没有匹配时返回原值
+     */
+    public String replacePackage(String name) {
+        String replacement = findPackageReplacement(name);
+        return replacement != null ? replacement : name;
+    }
+
+    /**
+     * 完整替换：先类名精确匹配，再包名映射
+     *
+     * @param name 完整类名或包名
+     * @return 替换后的值，没有匹配时返回原值
+     */
+    public String replace(String name) {
+        String replacement = getNewClass(name);
+        return replacement != null ? replacement : replacePackage(name);
+    }
+
+    public int getClassMappingCount() {
+        return classMappings.size();
+    }
+
+    public int getPackageMappingCount() {
+        return packageMappingCount;
+    }
+
+    public boolean isEmpty() {
+        return classMappings.isEmpty() && packageMappingCount == 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MappingIndex{classes=%d, packages=%d}",
+                           classMappings.size(), packageMappingCount);
+    }
+
+    /**
+     * 构建器
+     */
+    public static class Builder {
+        private final Map<String, String> classMappings = new HashMap<>();
+        private Node root = new Node();
+        private int packageMappingCount = 0;
+
+        public Builder addClassMapping(String oldClass, String newClass) {
+            Objects.requireNonNull(oldClass, "oldClass不能为null");
+            Objects.requireNonNull(newClass, "newClass不能为null");
+            checkNotBuilt();
+            classMappings.put(oldClass, newClass);
+            return this;
+        }
+
+        public Builder addPackageMapping(String oldPackage, String newPackage,
+                                         PackageMapping.ReplaceMode mode) {
+            Objects.requireNonNull(oldPackage, "oldPackage不能为null");
+            Objects.requireNonNull(newPackage, "newPackage不能为null");
+            Objects.requireNonNull(mode, "mode不能为null");
+            checkNotBuilt();
+
+            Node node = root;
+            int start = 0;
+            while (true) {
+                int dot = oldPackage.indexOf('.', start);
+                int end = dot < 0 ? oldPackage.length() : dot;
+                node = node.getOrCreateChild(oldPackage.substring(start, end));
+                if (dot < 0) {
+                    break;
+                }
+                start = end + 1;
+            }
+
+            boolean isNew = node.exactTarget == null && node.prefixTarget == null;
+            if (mode == PackageMapping.ReplaceMode.EXACT_MATCH) {
+                node.exactTarget = newPackage;
+            } else {
+                node.prefixTarget = newPackage;
+            }
+            if (isNew) {
+                packageMappingCount++;
+            }
+            return this;
+        }
+
+        private void checkNotBuilt() {
+            if (root == null) {
+                throw new IllegalStateException("MappingIndex已构建，Builder不可再使用");
+            }
+        }
+
+        public MappingIndex build() {
+            checkNotBuilt();
+            return new MappingIndex(this);
+        }
+    }
+}
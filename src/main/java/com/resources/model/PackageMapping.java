@@ -51,6 +51,9 @@ public class PackageMapping {
     
     private final Map<String, MappingEntry> mappings;
     
+    // 编译后的匹配索引（延迟构建，映射变化时失效）
+    private volatile MappingIndex compiledIndex;
+    
     public PackageMapping() {
         this.mappings = new ConcurrentHashMap<>();
     }
@@ -82,7 +85,10 @@ public class PackageMapping {
                                  oldPackage, existing, oldPackage, newPackage, mode));
             }
             // 否则是重复添加相同映射，忽略
+            return;
         }
+        
+        invalidateIndex();
     }
     
     /**
@@ -110,31 +116,37 @@ public class PackageMapping {
             return fullClassName;
         }
         
-        // 按照映射的长度倒序排序（优先匹配最长的前缀）
-        List<MappingEntry> sortedEntries = new ArrayList<>(mappings.values());
-        sortedEntries.sort((a, b) -> Integer.compare(
-            b.oldPackage.length(), a.oldPackage.length()));
-        
-        for (MappingEntry entry : sortedEntries) {
-            if (entry.mode == ReplaceMode.EXACT_MATCH) {
-                // 精确匹配
-                if (fullClassName.equals(entry.oldPackage)) {
-                    return entry.newPackage;
-                }
-            } else {
-                // 前缀匹配
-                if (fullClassName.startsWith(entry.oldPackage)) {
-                    // 确保是完整的包名分隔（不是com.example匹配com.examples）
-                    int prefixLen = entry.oldPackage.length();
-                    if (fullClassName.length() == prefixLen || 
-                        fullClassName.charAt(prefixLen) == '.') {
-                        return entry.newPackage + fullClassName.substring(prefixLen);
-                    }
-                }
+        return getIndex().replacePackage(fullClassName);
+    }
+    
+    /**
+     * 获取编译后的匹配索引（最长前缀匹配，不再逐次排序）
+     * 
+     * @return 只包含包名映射的索引
+     */
+    public MappingIndex getIndex() {
+        MappingIndex index = compiledIndex;
+        if (index == null) {
+            index = compileIndex();
+        }
+        return index;
+    }
+    
+    private synchronized MappingIndex compileIndex() {
+        MappingIndex index = compiledIndex;
+        if (index == null) {
+            MappingIndex.Builder builder = new MappingIndex.Builder();
+            for (MappingEntry entry : mappings.values()) {
+                builder.addPackageMapping(entry.oldPackage, entry.newPackage, entry.mode);
             }
+            index = builder.build();
+            compiledIndex = index;
         }
-        
-        return fullClassName;
+        return index;
+    }
+    
+    private synchronized void invalidateIndex() {
+        compiledIndex = null;
     }
     
     /**
@@ -250,6 +262,7 @@ public class PackageMapping {
      */
     public void clear() {
         mappings.clear();
+        invalidateIndex();
     }
     
     @Override
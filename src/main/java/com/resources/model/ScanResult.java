@@ -29,6 +29,7 @@ public class ScanResult {
     private final String originalValue;   // 原始值
     private final String newValue;        // 新值（如果已确定）
     private final int stringPoolIndex;    // ARSC字符串池索引（仅ARSC_STRING类型）
+    private final int[] referencingResources; // 引用该字符串的资源ID（仅ARSC_STRING类型）
     
     private ScanResult(Builder builder) {
         this.filePath = Objects.requireNonNull(builder.filePath, "filePath不能为null");
@@ -37,6 +38,7 @@ public class ScanResult {
         this.originalValue = Objects.requireNonNull(builder.originalValue, "originalValue不能为null");
         this.newValue = builder.newValue;
         this.stringPoolIndex = builder.stringPoolIndex;
+        this.referencingResources = builder.referencingResources;
     }
     
     // Getters
@@ -46,6 +48,7 @@ public class ScanResult {
     public String getOriginalValue() { return originalValue; }
     public String getNewValue() { return newValue; }
     public int getStringPoolIndex() { return stringPoolIndex; }
+    public int[] getReferencingResources() { return referencingResources != null ? referencingResources.clone() : new int[0]; }
     public boolean hasNewValue() { return newValue != null; }
     
     @Override
@@ -79,6 +82,7 @@ public class ScanResult {
         private String originalValue;
         private String newValue;
         private int stringPoolIndex = -1;
+        private int[] referencingResources;
         
         public Builder filePath(String filePath) {
             this.filePath = filePath;
@@ -110,6 +114,11 @@ public class ScanResult {
             return this;
         }
         
+        public Builder referencingResources(int[] referencingResources) {
+            this.referencingResources = referencingResources != null ? referencingResources.clone() : null;
+            return this;
+        }
+        
         public ScanResult build() {
             return new ScanResult(this);
         }
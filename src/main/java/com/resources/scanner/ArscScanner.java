@@ -3,6 +3,7 @@ package com.resources.scanner;
 import com.resources.arsc.ArscParser;
 import com.resources.arsc.ResStringPool;
 import com.resources.arsc.ResTablePackage;
+import com.resources.arsc.ResourceTableIndex;
 import com.resources.model.ScanResult;
 import com.resources.mapping.WhitelistFilter;
 import org.slf4j.Logger;
@@ -44,19 +45,37 @@ public class ArscScanner {
         
         log.info("扫描resources.arsc: {} 字节", arscData.length);
         
-        List<ScanResult> results = new ArrayList<>();
-        
         try {
-            // 1. 解析ARSC
             ArscParser parser = new ArscParser();
             parser.parse(arscData);
+            return scan(parser);
             
-            // 2. 扫描全局字符串池
+        } catch (Exception e) {
+            log.error("ARSC扫描失败", e);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * 扫描已解析的resources.arsc
+     * 
+     * 供共享解析结果的会话使用，避免重复解析
+     * 
+     * @param parser 已解析的ARSC
+     * @return 扫描结果列表
+     */
+    public List<ScanResult> scan(ArscParser parser) {
+        Objects.requireNonNull(parser, "parser不能为null");
+        
+        List<ScanResult> results = new ArrayList<>();
+        
+        try {
+            // 1. 扫描全局字符串池（附带引用每个字符串的资源ID）
             if (parser.getGlobalStringPool() != null) {
-                scanGlobalStringPool(parser.getGlobalStringPool(), results);
+                scanGlobalStringPool(parser, results);
             }
             
-            // 3. 扫描所有包
+            // 2. 扫描所有包
             for (ResTablePackage pkg : parser.getPackages()) {
                 scanPackage(pkg, results);
             }
@@ -70,10 +89,26 @@ public class ArscScanner {
         return results;
     }
     
+    /**
+     * 建立资源索引，entry数据损坏时不影响字符串扫描
+     */
+    private ResourceTableIndex buildIndex(ArscParser parser) {
+        try {
+            return ResourceTableIndex.build(parser);
+        } catch (IllegalArgumentException e) {
+            log.warn("资源索引建立失败，扫描结果不含资源引用: {}", e.getMessage());
+            return null;
+        }
+    }
+    
     /**
      * 扫描全局字符串池
      */
-    private void scanGlobalStringPool(ResStringPool pool, List<ScanResult> results) {
+    private void scanGlobalStringPool(ArscParser parser, List<ScanResult> results) {
+        ResStringPool pool = parser.getGlobalStringPool();
+        ResourceTableIndex index = null;
+        boolean indexBuilt = false;
+        
         log.debug("扫描全局字符串池: {} 个字符串", pool.getStringCount());
         
         for (int i = 0; i < pool.getStringCount(); i++) {
@@ -90,13 +125,18 @@ public class ArscScanner {
                 continue;
             }
             
-            // 3. 添加到结果
+            // 3. 添加到结果（首次命中时才建立资源索引）
+            if (!indexBuilt) {
+                index = buildIndex(parser);
+                indexBuilt = true;
+            }
             ScanResult result = new ScanResult.Builder()
                 .filePath("resources.arsc")
                 .semanticType(ScanResult.SemanticType.ARSC_STRING)
                 .location(String.format("globalStringPool[%d]", i))
                 .originalValue(str)
                 .stringPoolIndex(i)
+                .referencingResources(index != null ? index.getReferencingResources(i) : null)
                 .build();
             
             results.add(result);
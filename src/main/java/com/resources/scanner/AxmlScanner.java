@@ -9,6 +9,9 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -32,9 +35,22 @@ public class AxmlScanner {
     
     private final SemanticValidator semanticValidator;
     
+    // 批量扫描执行器（null=串行）
+    private final ExecutorService executor;
+    
     public AxmlScanner(SemanticValidator semanticValidator, Set<String> ownPackagePrefixes) {
+        this(semanticValidator, ownPackagePrefixes, null);
+    }
+    
+    /**
+     * @param executor 批量扫描使用的执行器，为null时串行扫描；
+     *                 执行器的生命周期由调用方管理
+     */
+    public AxmlScanner(SemanticValidator semanticValidator, Set<String> ownPackagePrefixes,
+                       ExecutorService executor) {
         this.semanticValidator = Objects.requireNonNull(semanticValidator);
         // ownPackagePrefixes 参数保留以保持API兼容性
+        this.executor = executor;
     }
     
     /**
@@ -266,28 +282,81 @@ public class AxmlScanner {
     public List<ScanResult> scanBatch(Map<String, byte[]> files) throws IOException {
         Objects.requireNonNull(files, "files不能为null");
         
-        log.info("批量扫描AXML: {} 个文件", files.size());
-        
         List<ScanResult> allResults = new ArrayList<>();
+        for (List<ScanResult> results : scanFiles(files).values()) {
+            allResults.addAll(results);
+        }
+        return allResults;
+    }
+    
+    /**
+     * 批量扫描，按文件返回结果
+     * 
+     * 配置了执行器时每个文件作为独立任务并行扫描，结果按输入顺序组装，
+     * 与串行扫描完全一致。扫描失败的文件结果为空列表。
+     * 
+     * @param files 文件路径到数据的映射
+     * @return 文件路径到扫描结果的映射（保持输入顺序）
+     * @throws IOException 扫描被中断
+     */
+    public Map<String, List<ScanResult>> scanFiles(Map<String, byte[]> files) throws IOException {
+        Objects.requireNonNull(files, "files不能为null");
+        
+        boolean parallel = executor != null && files.size() > 1;
+        log.info("批量扫描AXML: {} 个文件（{}）", files.size(), parallel ? "并行" : "串行");
+        
+        Map<String, List<ScanResult>> resultsByFile = new LinkedHashMap<>();
         int successCount = 0;
         int errorCount = 0;
+        int totalFound = 0;
         
-        for (Map.Entry<String, byte[]> entry : files.entrySet()) {
+        if (parallel) {
+            Map<String, Future<List<ScanResult>>> futures = new LinkedHashMap<>();
+            for (Map.Entry<String, byte[]> entry : files.entrySet()) {
+                String filePath = entry.getKey();
+                byte[] xmlData = entry.getValue();
+                futures.put(filePath, executor.submit(() -> scan(filePath, xmlData)));
+            }
+            
+            // 按提交顺序收集，保证结果顺序确定
             try {
-                List<ScanResult> results = scan(entry.getKey(), entry.getValue());
-                allResults.addAll(results);
-                successCount++;
-                
-            } catch (Exception e) {
-                log.error("扫描文件失败: {}", entry.getKey(), e);
-                errorCount++;
+                for (Map.Entry<String, Future<List<ScanResult>>> entry : futures.entrySet()) {
+                    try {
+                        List<ScanResult> results = entry.getValue().get();
+                        resultsByFile.put(entry.getKey(), results);
+                        totalFound += results.size();
+                        successCount++;
+                    } catch (ExecutionException e) {
+                        log.error("扫描文件失败: {}", entry.getKey(), e.getCause());
+                        resultsByFile.put(entry.getKey(), Collections.emptyList());
+                        errorCount++;
+                    }
+                }
+            } catch (InterruptedException e) {
+                futures.values().forEach(f -> f.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new IOException("批量扫描被中断", e);
+            }
+            
+        } else {
+            for (Map.Entry<String, byte[]> entry : files.entrySet()) {
+                try {
+                    List<ScanResult> results = scan(entry.getKey(), entry.getValue());
+                    resultsByFile.put(entry.getKey(), results);
+                    totalFound += results.size();
+                    successCount++;
+                    
+                } catch (Exception e) {
+                    log.error("扫描文件失败: {}", entry.getKey(), e);
+                    resultsByFile.put(entry.getKey(), Collections.emptyList());
+                    errorCount++;
+                }
             }
         }
         
         log.info("批量扫描完成: 成功={}, 失败={}, 发现{}处", 
-                successCount, errorCount, allResults.size());
+                successCount, errorCount, totalFound);
         
-        return allResults;
+        return resultsByFile;
     }
 }
-
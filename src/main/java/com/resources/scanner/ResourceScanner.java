@@ -3,13 +3,14 @@ package com.resources.scanner;
 import com.resources.model.ScanResult;
 import com.resources.validator.SemanticValidator;
 import com.resources.mapping.WhitelistFilter;
-import com.resources.util.VirtualFileSystem;
-import com.resources.util.VfsResourceProvider;
+import com.resources.arsc.ArscParser;
+import com.resources.util.ApkSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 
 /**
  * 资源扫描器 - 批量扫描APK中的所有资源文件
@@ -18,6 +19,9 @@ import java.util.*;
  * - AxmlScanner（扫描二进制XML）
  * - ArscScanner（扫描resources.arsc）
  * 
+ * 配置执行器时，各类XML合并为一个批次按文件并行扫描，
+ * 结果按原有类别和顺序写入报告。
+ * 
  * @author Resources Processor Team
  * @version 1.0.0
  */
@@ -31,12 +35,23 @@ public class ResourceScanner {
     public ResourceScanner(SemanticValidator semanticValidator,
                           WhitelistFilter whitelistFilter,
                           Set<String> ownPackagePrefixes) {
+        this(semanticValidator, whitelistFilter, ownPackagePrefixes, null);
+    }
+    
+    /**
+     * @param executor XML扫描使用的执行器，为null时串行扫描；
+     *                 执行器的生命周期由调用方管理
+     */
+    public ResourceScanner(SemanticValidator semanticValidator,
+                          WhitelistFilter whitelistFilter,
+                          Set<String> ownPackagePrefixes,
+                          ExecutorService executor) {
         
         Objects.requireNonNull(semanticValidator, "semanticValidator不能为null");
         Objects.requireNonNull(whitelistFilter, "whitelistFilter不能为null");
         Objects.requireNonNull(ownPackagePrefixes, "ownPackagePrefixes不能为null");
         
-        this.axmlScanner = new AxmlScanner(semanticValidator, ownPackagePrefixes);
+        this.axmlScanner = new AxmlScanner(semanticValidator, ownPackagePrefixes, executor);
         this.arscScanner = new ArscScanner(whitelistFilter, ownPackagePrefixes);
         
         log.info("ResourceScanner初始化完成");
@@ -52,6 +67,24 @@ public class ResourceScanner {
     public ScanReport scanApk(String apkPath) throws IOException {
         Objects.requireNonNull(apkPath, "apkPath不能为null");
         
+        try (ApkSession session = ApkSession.open(apkPath)) {
+            return scanApk(session);
+        }
+    }
+    
+    /**
+     * 扫描已加载的APK会话
+     * 
+     * 复用会话中的VFS和已解析的resources.arsc，不再重复加载
+     * 
+     * @param session APK会话
+     * @return 扫描报告
+     * @throws IOException 扫描失败
+     */
+    public ScanReport scanApk(ApkSession session) throws IOException {
+        Objects.requireNonNull(session, "session不能为null");
+        
+        String apkPath = session.getApkPath();
         log.info("开始扫描APK: {}", apkPath);
         
         long startTime = System.currentTimeMillis();
@@ -60,19 +93,12 @@ public class ResourceScanner {
             .startTime(startTime);
         
         try {
-            // 1. 加载APK到VFS
-            VirtualFileSystem vfs = new VirtualFileSystem();
-            int fileCount = vfs.loadFromApk(apkPath);
-            log.info("VFS加载完成: {} 个文件", fileCount);
-            
-            VfsResourceProvider provider = new VfsResourceProvider(vfs);
-            
             List<ScanResult> allResults = new ArrayList<>();
             
-            // 2. 扫描resources.arsc
-            if (vfs.exists("resources.arsc")) {
-                byte[] arscData = provider.getResourcesArsc();
-                List<ScanResult> arscResults = arscScanner.scan(arscData);
+            // 1. 扫描resources.arsc（会话内只解析一次）
+            ArscParser arscParser = session.getArscParser();
+            if (arscParser != null) {
+                List<ScanResult> arscResults = arscScanner.scan(arscParser);
                 allResults.addAll(arscResults);
                 reportBuilder.addArscResults(arscResults);
                 
@@ -81,12 +107,12 @@ public class ResourceScanner {
                 log.warn("未找到resources.arsc文件");
             }
             
-            // 3. 批量扫描res/下所有XML（支持混淆后的APK）
+            // 2. 批量扫描res/下所有XML（支持混淆后的APK）
             // 尝试标准路径
-            Map<String, byte[]> layoutFiles = provider.getAllLayouts();
-            Map<String, byte[]> menuFiles = provider.getAllMenus();
-            Map<String, byte[]> navigationFiles = provider.getAllNavigations();
-            Map<String, byte[]> xmlFiles = provider.getAllXmlConfigs();
+            Map<String, byte[]> layoutFiles = session.getFilesByPattern("res/layout/**/*.xml");
+            Map<String, byte[]> menuFiles = session.getFilesByPattern("res/menu/**/*.xml");
+            Map<String, byte[]> navigationFiles = session.getFilesByPattern("res/navigation/**/*.xml");
+            Map<String, byte[]> xmlFiles = session.getFilesByPattern("res/xml/**/*.xml");
             
             // 如果标准路径找不到文件，启用全局扫描（混淆后的APK）
             if (layoutFiles.isEmpty() && menuFiles.isEmpty() && 
@@ -94,12 +120,12 @@ public class ResourceScanner {
                 log.warn("标准res目录为空，启用全局XML扫描（混淆APK模式）");
                 
                 // 尝试res根目录平铺
-                Map<String, byte[]> allResXml = provider.getFilesByPattern("res/*.xml");
+                Map<String, byte[]> allResXml = session.getFilesByPattern("res/*.xml");
                 
                 // 如果res/*.xml也为空，尝试全局扫描
                 if (allResXml.isEmpty()) {
                     log.warn("res/*.xml也为空，尝试全局扫描（res目录可能被重命名）");
-                    allResXml = provider.getFilesByPattern("**/*.xml");
+                    allResXml = session.getFilesByPattern("**/*.xml");
                     
                     // 过滤非资源XML
                     allResXml = filterNonResourceXml(allResXml);
@@ -111,26 +137,34 @@ public class ResourceScanner {
                 layoutFiles = allResXml;
             }
             
+            // 四类XML合并为一个批次扫描（并行时充分利用所有工作线程）
+            Map<String, byte[]> allFiles = new LinkedHashMap<>();
+            allFiles.putAll(layoutFiles);
+            allFiles.putAll(menuFiles);
+            allFiles.putAll(navigationFiles);
+            allFiles.putAll(xmlFiles);
+            Map<String, List<ScanResult>> resultsByFile = axmlScanner.scanFiles(allFiles);
+            
             // 扫描layout
-            List<ScanResult> layoutResults = axmlScanner.scanBatch(layoutFiles);
+            List<ScanResult> layoutResults = collectResults(layoutFiles, resultsByFile);
             allResults.addAll(layoutResults);
             reportBuilder.addLayoutResults(layoutResults);
             log.info("Layout扫描: {} 个文件, 发现{}处", layoutFiles.size(), layoutResults.size());
             
             // 扫描menu
-            List<ScanResult> menuResults = axmlScanner.scanBatch(menuFiles);
+            List<ScanResult> menuResults = collectResults(menuFiles, resultsByFile);
             allResults.addAll(menuResults);
             reportBuilder.addMenuResults(menuResults);
             log.info("Menu扫描: {} 个文件, 发现{}处", menuFiles.size(), menuResults.size());
             
             // 扫描navigation
-            List<ScanResult> navigationResults = axmlScanner.scanBatch(navigationFiles);
+            List<ScanResult> navigationResults = collectResults(navigationFiles, resultsByFile);
             allResults.addAll(navigationResults);
             reportBuilder.addNavigationResults(navigationResults);
             log.info("Navigation扫描: {} 个文件, 发现{}处", navigationFiles.size(), navigationResults.size());
             
             // 扫描xml config
-            List<ScanResult> xmlResults = axmlScanner.scanBatch(xmlFiles);
+            List<ScanResult> xmlResults = collectResults(xmlFiles, resultsByFile);
             allResults.addAll(xmlResults);
             reportBuilder.addXmlResults(xmlResults);
             log.info("XML Config扫描: {} 个文件, 发现{}处", xmlFiles.size(), xmlResults.size());
@@ -143,7 +177,7 @@ public class ResourceScanner {
             
             log.info("APK扫描完成: 耗时{}ms, 发现{}处", 
                     report.getDurationMs(), allResults.size());
-            log.info(vfs.getStatistics());
+            log.info(session.getStatistics());
             
             return report;
             
@@ -153,6 +187,21 @@ public class ResourceScanner {
         }
     }
     
+    /**
+     * 按类别文件顺序提取扫描结果
+     */
+    private List<ScanResult> collectResults(Map<String, byte[]> categoryFiles,
+                                            Map<String, List<ScanResult>> resultsByFile) {
+        List<ScanResult> results = new ArrayList<>();
+        for (String path : categoryFiles.keySet()) {
+            List<ScanResult> fileResults = resultsByFile.get(path);
+            if (fileResults != null) {
+                results.addAll(fileResults);
+            }
+        }
+        return results;
+    }
+    
     /**
      * 扫描报告
      */
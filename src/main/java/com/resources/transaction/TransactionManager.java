@@ -3,14 +3,20 @@ package com.resources.transaction;
 import com.resources.model.ModificationRecord;
 import com.resources.model.Transaction;
 import com.resources.model.ValidationResult;
+import com.resources.validator.DexClassCollector;
 import com.resources.validator.DexCrossValidator;
+import com.resources.mapping.MappingAnalyzer;
 import com.resources.mapping.MappingValidator;
+import com.resources.util.DexClassCache;
+import com.resources.util.VirtualFileSystem;
 import com.resources.model.ClassMapping;
+import com.resources.model.PackageMapping;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 
 /**
  * 事务管理器 - 两阶段提交确保原子性
@@ -32,12 +38,22 @@ public class TransactionManager {
     private final RollbackExecutor rollbackExecutor;
     private final DexCrossValidator dexCrossValidator;
     private final MappingValidator mappingValidator;
+    private final DexClassCollector dexClassCollector;
     
     public TransactionManager() {
+        this(new DexClassCache());
+    }
+    
+    /**
+     * 映射验证和DEX交叉验证共用同一个DEX类缓存，同一组dexPaths只加载一次
+     * 
+     * @param dexCache DEX类缓存
+     */
+    public TransactionManager(DexClassCache dexCache) {
         this(new SnapshotManager(),
              new RollbackExecutor(),
-             new DexCrossValidator(),
-             new MappingValidator());
+             new DexCrossValidator(dexCache),
+             new MappingValidator(dexCache));
     }
     
     public TransactionManager(SnapshotManager snapshotManager,
@@ -49,6 +65,7 @@ public class TransactionManager {
         this.rollbackExecutor = Objects.requireNonNull(rollbackExecutor);
         this.dexCrossValidator = Objects.requireNonNull(dexCrossValidator);
         this.mappingValidator = Objects.requireNonNull(mappingValidator);
+        this.dexClassCollector = new DexClassCollector(dexCrossValidator.getDexCache());
         
         log.info("TransactionManager初始化完成");
     }
@@ -132,6 +149,107 @@ public class TransactionManager {
         return result;
     }
     
+    /**
+     * Phase 1 - 预检查（DEX类只收集一次，两个验证器共用）
+     * 
+     * 除dexPaths外还可直接读取APK内的classes*.dex，此时无需提供外部DEX文件。
+     * 
+     * @param tx 事务
+     * @param mapping 类名映射
+     * @param packageMapping 包名映射（null=不检查类映射与包名映射的一致性）
+     * @param dexPaths 外部DEX文件路径列表（可为空）
+     * @param apkVfs 已加载的APK（null=不读取APK内的DEX）
+     * @param executor 执行器，为null时串行加载DEX；生命周期由调用方管理
+     * @return 验证结果
+     */
+    public ValidationResult validate(Transaction tx, ClassMapping mapping, PackageMapping packageMapping,
+                                     List<String> dexPaths, VirtualFileSystem apkVfs,
+                                     ExecutorService executor) {
+        
+        Objects.requireNonNull(tx, "tx不能为null");
+        Objects.requireNonNull(mapping, "mapping不能为null");
+        Objects.requireNonNull(dexPaths, "dexPaths不能为null");
+        
+        log.info("Phase 1 - 预检查: txId={}", tx.getTransactionId());
+        
+        tx.setStatus(Transaction.TransactionStatus.VALIDATING);
+        
+        ValidationResult.Builder builder = new ValidationResult.Builder();
+        
+        // 1. 并行收集所有DEX类
+        DexClassCollector.Result dexClasses = dexClassCollector.collect(dexPaths, apkVfs, executor);
+        for (Map.Entry<String, String> failure : dexClasses.getFailures().entrySet()) {
+            builder.addWarning(ValidationResult.ValidationLevel.DEX_CROSS,
+                             "DEX加载失败",
+                             failure.getKey() + ": " + failure.getValue());
+        }
+        if (dexClasses.getDexCount() == 0) {
+            builder.addWarning(ValidationResult.ValidationLevel.DEX_CROSS,
+                             "未找到DEX文件",
+                             "未配置dex_paths且APK中没有classes*.dex");
+        }
+        
+        // 2. 映射一致性验证（每类问题汇总为一项）
+        MappingAnalyzer.Report analysis = mappingValidator.analyze(
+            mapping, dexClasses.getClasses(), packageMapping);
+        if (analysis.hasErrors()) {
+            builder.addFailed(ValidationResult.ValidationLevel.DEX_CROSS,
+                            "映射一致性验证失败",
+                            "请检查类名映射表: " + analysis.countByType());
+        } else {
+            builder.addPassed(ValidationResult.ValidationLevel.DEX_CROSS,
+                            "映射一致性验证通过");
+        }
+        for (MappingAnalyzer.FindingType type : MappingAnalyzer.FindingType.values()) {
+            List<MappingAnalyzer.Finding> findings = analysis.getFindings(type);
+            // 缺失类由DEX交叉验证报告
+            if (findings.isEmpty() || type == MappingAnalyzer.FindingType.MISSING_CLASS) {
+                continue;
+            }
+            String details = summarize(findings);
+            if (type.isError()) {
+                builder.addFailed(ValidationResult.ValidationLevel.DEX_CROSS, type.getDescription(), details);
+            } else {
+                builder.addWarning(ValidationResult.ValidationLevel.DEX_CROSS, type.getDescription(), details);
+            }
+        }
+        
+        // 3. DEX交叉验证
+        ValidationResult dexValidation = dexCrossValidator.validateClasses(mapping, dexClasses.getClasses());
+        for (ValidationResult.ValidationItem item : dexValidation.getItems()) {
+            builder.addItem(item.getLevel(), item.getStatus(), 
+                          item.getMessage(), item.getDetails());
+        }
+        
+        ValidationResult result = builder.build();
+        
+        if (result.isOverallSuccess()) {
+            tx.setStatus(Transaction.TransactionStatus.VALIDATED);
+            log.info("预检查通过");
+        } else {
+            tx.setStatus(Transaction.TransactionStatus.FAILED);
+            log.error("预检查失败");
+        }
+        
+        return result;
+    }
+    
+    /**
+     * 汇总同类问题（最多列出前20项）
+     */
+    private static String summarize(List<MappingAnalyzer.Finding> findings) {
+        StringBuilder details = new StringBuilder();
+        details.append(findings.size()).append(" 项:\n");
+        int shown = Math.min(findings.size(), 20);
+        for (int i = 0; i < shown; i++) {
+            details.append("  - ").append(findings.get(i).getMessage()).append("\n");
+        }
+        if (shown < findings.size()) {
+            details.append("  ... 另有 ").append(findings.size() - shown).append(" 项\n");
+        }
+        return details.toString();
+    }
+    
     /**
      * Phase 2 - 执行并提交
      * 
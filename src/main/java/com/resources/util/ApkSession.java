@@ -0,0 +1,315 @@
+package com.resources.util;
+
+import com.resources.arsc.ArscParser;
+import com.resources.arsc.ArscWriter;
+import com.resources.axml.AxmlReader;
+import com.resources.axml.AxmlVisitor;
+import com.resources.axml.NodeVisitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * APK处理会话
+ *
+ * 一次处理流程只加载、解析一次APK，由扫描、验证、替换各阶段共享：
+ * - VFS只从磁盘加载一次（延迟模式：只索引中央目录，按需解压）
+ * - resources.arsc只解析一次（扫描阶段只读，替换阶段在同一实例上修改）
+ * - 按模式获取的XML结果会被缓存，写回VFS时自动失效
+ *
+ * 延迟模式下会话持有源APK的内存映射，用完须关闭（try-with-resources），
+ * 且必须在替换源APK之前关闭。
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class ApkSession implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ApkSession.class);
+
+    private static final String RESOURCES_ARSC = "resources.arsc";
+    private static final String ANDROID_MANIFEST = "AndroidManifest.xml";
+    /** android:minSdkVersion的属性资源ID */
+    private static final int MIN_SDK_VERSION_ATTR = 0x0101020c;
+
+    private final String apkPath;
+    private final VirtualFileSystem vfs;
+    private final VfsResourceProvider provider;
+    private final ExecutorService executor;  // 多资源包ARSC并行处理（null=串行）
+
+    // 按模式缓存的文件内容
+    private final Map<String, Map<String, byte[]>> patternCache = new ConcurrentHashMap<>();
+
+    // 延迟解析的ARSC
+    private ArscParser arscParser;
+
+    private ApkSession(String apkPath, VirtualFileSystem vfs, ExecutorService executor) {
+        this.apkPath = apkPath;
+        this.vfs = vfs;
+        this.provider = new VfsResourceProvider(vfs);
+        this.executor = executor;
+    }
+
+    /**
+     * 打开APK会话（延迟加载APK到VFS）
+     *
+     * 只有扫描和替换实际访问的文件才会被解压；归档不支持延迟加载
+     * （如ZIP64）时退化为完整加载。
+     *
+     * @param apkPath APK文件路径
+     * @return 会话实例
+     * @throws IOException 加载失败
+     */
+    public static ApkSession open(String apkPath) throws IOException {
+        return open(apkPath, null);
+    }
+
+    /**
+     * 打开APK会话，resources.arsc的多个资源包使用执行器并行解析和写回
+     *
+     * @param apkPath APK文件路径
+     * @param executor 执行器，为null时串行处理；生命周期由调用方管理，
+     *                 须在导出APK之后才能关闭
+     * @return 会话实例
+     * @throws IOException 加载失败
+     */
+    public static ApkSession open(String apkPath, ExecutorService executor) throws IOException {
+        Objects.requireNonNull(apkPath, "apkPath不能为null");
+
+        VirtualFileSystem vfs = new VirtualFileSystem();
+        int fileCount;
+        try {
+            fileCount = vfs.loadFromApkLazy(apkPath);
+        } catch (IOException e) {
+            log.warn("延迟加载失败，改为完整加载: {} ({})", apkPath, e.getMessage());
+            fileCount = vfs.loadFromApk(apkPath);
+        }
+        log.info("APK会话已打开: {} ({} 个文件)", apkPath, fileCount);
+
+        return new ApkSession(apkPath, vfs, executor);
+    }
+
+    /**
+     * 基于已加载的VFS创建会话
+     *
+     * @param apkPath APK文件路径（用于报告和导出）
+     * @param vfs 已加载的VFS
+     * @return 会话实例
+     */
+    public static ApkSession of(String apkPath, VirtualFileSystem vfs) {
+        Objects.requireNonNull(apkPath, "apkPath不能为null");
+        Objects.requireNonNull(vfs, "vfs不能为null");
+
+        return new ApkSession(apkPath, vfs, null);
+    }
+
+    public String getApkPath() {
+        return apkPath;
+    }
+
+    public VirtualFileSystem getVfs() {
+        return vfs;
+    }
+
+    public VfsResourceProvider getProvider() {
+        return provider;
+    }
+
+    /**
+     * 是否包含resources.arsc
+     */
+    public boolean hasResourcesArsc() {
+        return vfs.exists(RESOURCES_ARSC);
+    }
+
+    /**
+     * 获取已解析的resources.arsc（首次调用时解析）
+     *
+     * 返回的解析器在各阶段之间共享，替换阶段对其的修改
+     * 需通过{@link #commitArsc(ArscParser)}写回VFS。
+     *
+     * @return ARSC解析器，不存在resources.arsc时返回null
+     * @throws IOException 读取或解析失败
+     */
+    public synchronized ArscParser getArscParser() throws IOException {
+        if (arscParser == null) {
+            if (!hasResourcesArsc()) {
+                return null;
+            }
+
+            // STORED的resources.arsc直接解析APK映射区域，资源包在首次访问时才解析
+            ByteBuffer arscData = vfs.readFileView(RESOURCES_ARSC);
+            ArscParser parser = new ArscParser(executor);
+            parser.parseLazy(arscData);
+            arscParser = parser;
+            log.debug("resources.arsc已解析: {} 字节", arscData.remaining());
+        }
+        return arscParser;
+    }
+
+    /**
+     * 读取AndroidManifest.xml中uses-sdk的minSdkVersion
+     *
+     * 未声明、无法解析或为资源引用时返回1，使签名器保守地生成v1签名；
+     * 预览版代号（如"Q"）视为高于所有正式版本。
+     *
+     * @return minSdkVersion
+     */
+    public int getMinSdkVersion() {
+        byte[] manifest;
+        try {
+            manifest = vfs.readFile(ANDROID_MANIFEST);
+        } catch (FileNotFoundException e) {
+            return 1;
+        }
+
+        int[] minSdk = {1};
+        try {
+            new AxmlReader(manifest).accept(new AxmlVisitor() {
+                @Override
+                public NodeVisitor child(String ns, String name) {
+                    return "manifest".equals(name) ? new NodeVisitor() {
+                        @Override
+                        public NodeVisitor child(String ns, String name) {
+                            return "uses-sdk".equals(name) ? new NodeVisitor() {
+                                @Override
+                                public void attr(String ns, String name, int resourceId, int type, Object obj) {
+                                    if (resourceId == MIN_SDK_VERSION_ATTR
+                                            || resourceId == 0 && "minSdkVersion".equals(name)) {
+                                        minSdk[0] = toSdkVersion(obj);
+                                    }
+                                }
+                            } : null;
+                        }
+                    } : null;
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            log.warn("无法读取minSdkVersion，按1处理: {} ({})", apkPath, e.getMessage());
+            return 1;
+        }
+        return minSdk[0];
+    }
+
+    private static int toSdkVersion(Object value) {
+        if (value instanceof Integer) {
+            return Math.max(1, (Integer) value);
+        }
+        if (value instanceof String) {
+            String text = ((String) value).trim();
+            try {
+                return Math.max(1, Integer.parseInt(text));
+            } catch (NumberFormatException e) {
+                // 预览版代号
+                return text.isEmpty() ? 1 : Integer.MAX_VALUE;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * 将重新生成的resources.arsc写回VFS
+     *
+     * @param data ARSC字节数据
+     */
+    public void commitArsc(byte[] data) {
+        Objects.requireNonNull(data, "data不能为null");
+        provider.setResourcesArsc(data);
+    }
+
+    /**
+     * 将修改后的ARSC解析器写回VFS（导出时流式写出）
+     * 
+     * 此处只计算输出大小；导出APK时ArscWriter直接把各chunk写入
+     * resources.arsc的ZIP entry，不在内存中再生成一份完整的表。
+     * 提交后不得再修改该解析器。未修改的chunk直接取自源APK的映射，
+     * 因此必须在关闭会话之前导出（导出到源APK自身时VFS会先物化）。
+     *
+     * @param parser 已修改的ARSC解析器
+     */
+    public void commitArsc(ArscParser parser) {
+        Objects.requireNonNull(parser, "parser不能为null");
+
+        ArscWriter writer = new ArscWriter();
+        int size = writer.calculateSize(parser);
+        vfs.writeFile(RESOURCES_ARSC, size, channel -> writer.write(parser, channel));
+        log.info("VFS更新: resources.arsc ({} 字节，导出时流式写出)", size);
+    }
+
+    /**
+     * 按模式获取文件（带缓存）
+     *
+     * 同一模式在会话内只读取一次；返回只读视图，调用方不得修改数组内容。
+     *
+     * @param pattern 模式（如"res/layout/**\/*.xml"）
+     * @return 路径到数据的只读映射（保持VFS顺序）
+     */
+    public Map<String, byte[]> getFilesByPattern(String pattern) {
+        Objects.requireNonNull(pattern, "pattern不能为null");
+
+        return patternCache.computeIfAbsent(pattern,
+            p -> Collections.unmodifiableMap(provider.getFilesByPattern(p)));
+    }
+
+    /**
+     * 批量写回文件并使缓存失效
+     *
+     * @param files 路径到数据的映射
+     */
+    public void updateFiles(Map<String, byte[]> files) {
+        Objects.requireNonNull(files, "files不能为null");
+
+        provider.updateFiles(files);
+        patternCache.clear();
+    }
+
+    /**
+     * 导出APK
+     *
+     * @param outputPath 输出路径
+     * @throws IOException 导出失败
+     */
+    public void saveToApk(String outputPath) throws IOException {
+        vfs.saveToApk(outputPath);
+    }
+
+    /**
+     * 导出APK，导出时同时签名（v2/v3，minSdkVersion &lt; 24时附加v1）
+     *
+     * @param outputPath 输出路径
+     * @param signer 签名器
+     * @throws IOException 导出或签名失败
+     */
+    public void saveToApk(String outputPath, ApkSigner signer) throws IOException {
+        Objects.requireNonNull(signer, "signer不能为null");
+        vfs.saveToApk(outputPath, signer);
+    }
+
+    /**
+     * 获取统计信息
+     */
+    public String getStatistics() {
+        return vfs.getStatistics();
+    }
+
+    /**
+     * 关闭会话，释放源APK的内存映射（可重复调用）
+     *
+     * 须在导出完成之后调用；关闭后不得再访问解析器或未读取过的文件。
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            arscParser = null;
+        }
+        patternCache.clear();
+        vfs.close();
+    }
+}
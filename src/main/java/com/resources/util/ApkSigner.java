@@ -0,0 +1,867 @@
+package com.resources.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * 进程内APK签名器（APK Signature Scheme v2/v3，按minSdkVersion附加v1）
+ *
+ * 不依赖apksigner子进程：
+ * - 内容摘要按1MB分块计算，ZIP entry区通过mmap映射后多线程并行摘要
+ * - 签名块插入到中央目录之前，中央目录和结束记录在内存中调整偏移后写回
+ * - 可由ZipRawWriter在导出时直接调用（entry写完、中央目录写出前签名），无需再次读写整个APK
+ *
+ * minSdkVersion &lt; 24时（Android 7.0以下不认识v2/v3）同时生成v1（JAR）签名，
+ * 与apksigner默认行为一致；v1签名文件需在导出时作为entry写入（见{@link VirtualFileSystem}）。
+ *
+ * 线程安全（不可变，可在多次导出间复用）
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public final class ApkSigner {
+
+    private static final Logger log = LoggerFactory.getLogger(ApkSigner.class);
+
+    static final int V2_BLOCK_ID = 0x7109871a;
+    static final int V3_BLOCK_ID = 0xf05368c0;
+    /** v2签名中的防剥离属性：声明APK同时带有v3签名 */
+    private static final int STRIPPING_PROTECTION_ATTR_ID = 0xbeeff00d;
+    private static final int V3_SCHEME_ID = 3;
+    /** v3签名生效的最低平台版本（Android 9） */
+    private static final int V3_MIN_SDK = 28;
+    private static final int V3_MAX_SDK = Integer.MAX_VALUE;
+    /** 支持v2签名的最低平台版本（Android 7.0），低于此版本需要v1签名 */
+    static final int MIN_SDK_WITHOUT_V1 = 24;
+
+    private static final int SIGNATURE_RSA_PKCS1_V1_5_WITH_SHA256 = 0x0103;
+    private static final int SIGNATURE_ECDSA_WITH_SHA256 = 0x0201;
+    private static final int SIGNATURE_DSA_WITH_SHA256 = 0x0301;
+
+    static final int CHUNK_SIZE = 1024 * 1024;
+    private static final int DIGEST_SIZE = 32;
+    private static final byte[] SIGNING_BLOCK_MAGIC =
+        "APK Sig Block 42".getBytes(StandardCharsets.US_ASCII);
+    /** 签名块尾部：大小(8) + 魔数(16) */
+    private static final int SIGNING_BLOCK_FOOTER_SIZE = 24;
+    private static final long MAX_OFFSET = 0xFFFFFFFFL;
+
+    private final PrivateKey privateKey;
+    private final List<X509Certificate> certificates;
+    private final int signatureAlgorithm;
+    private final boolean v2Enabled;
+    private final boolean v3Enabled;
+    private final int minSdkVersion;
+    private final ExecutorService executor;
+
+    private ApkSigner(Builder builder) {
+        this.privateKey = builder.privateKey;
+        this.certificates = List.copyOf(builder.certificates);
+        this.signatureAlgorithm = builder.signatureAlgorithm;
+        this.v2Enabled = builder.v2Enabled;
+        this.v3Enabled = builder.v3Enabled;
+        this.minSdkVersion = builder.minSdkVersion;
+        this.executor = builder.executor;
+    }
+
+    /**
+     * 就地签名APK
+     *
+     * 已有的签名块会被替换；entry数据不移动，只重写签名块、中央目录和结束记录。
+     * 需要v1签名时要写入新的META-INF entry，改为经VFS重写整个APK。
+     *
+     * @param apkPath APK路径
+     * @throws IOException 读写失败或APK格式不支持
+     */
+    public void sign(Path apkPath) throws IOException {
+        Objects.requireNonNull(apkPath, "apkPath不能为null");
+
+        long start = System.nanoTime();
+
+        if (isV1Enabled()) {
+            try (VirtualFileSystem vfs = new VirtualFileSystem()) {
+                vfs.setMaxFileSize(Long.MAX_VALUE);
+                vfs.loadFromApkLazy(apkPath.toString());
+                vfs.saveToApk(apkPath.toString(), this);
+            }
+            log.info("APK签名完成（v1=true, v2={}, v3={}）: {} ({} ms)", v2Enabled, v3Enabled, apkPath,
+                    (System.nanoTime() - start) / 1_000_000);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(apkPath,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ZipSections sections = ZipSections.read(channel, apkPath);
+
+            ByteBuffer centralDirectory = ByteBuffer.allocate((int) sections.cdSize);
+            ZipArchiveIndex.readFully(channel, centralDirectory, sections.cdOffset);
+            centralDirectory.flip();
+            ByteBuffer eocd = ByteBuffer.allocate((int) (channel.size() - sections.eocdOffset))
+                .order(ByteOrder.LITTLE_ENDIAN);
+            ZipArchiveIndex.readFully(channel, eocd, sections.eocdOffset);
+            eocd.flip();
+
+            long entriesEnd = sections.entriesEnd;
+            byte[] signingBlock = createSigningBlock(channel, entriesEnd, centralDirectory, eocd);
+
+            long newCdOffset = entriesEnd + signingBlock.length;
+            if (newCdOffset + sections.cdSize + eocd.remaining() > MAX_OFFSET) {
+                throw new IOException("签名后APK超过4GB（不支持ZIP64）: " + apkPath);
+            }
+            eocd.putInt(16, (int) newCdOffset);
+
+            long position = entriesEnd;
+            position += writeFully(channel, ByteBuffer.wrap(signingBlock), position);
+            position += writeFully(channel, centralDirectory, position);
+            position += writeFully(channel, eocd, position);
+            channel.truncate(position);
+        }
+
+        log.info("APK签名完成（v2={}, v3={}）: {} ({} ms)", v2Enabled, v3Enabled, apkPath,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 生成APK签名块
+     *
+     * @param channel 可读通道，[0, entriesEnd)为ZIP entry区
+     * @param entriesEnd entry区结束偏移（即签名块的写入位置）
+     * @param centralDirectory 中央目录（不修改position）
+     * @param eocd 中央目录结束记录（不修改position和内容）
+     * @return 签名块字节
+     * @throws IOException 读取或签名失败
+     */
+    byte[] createSigningBlock(FileChannel channel, long entriesEnd,
+                              ByteBuffer centralDirectory, ByteBuffer eocd) throws IOException {
+        byte[] digest = computeContentDigest(channel, entriesEnd, centralDirectory, eocd,
+                                             executor != null ? executor : ForkJoinPool.commonPool());
+
+        try {
+            List<byte[]> encodedCertificates = new ArrayList<>(certificates.size());
+            for (X509Certificate certificate : certificates) {
+                encodedCertificates.add(certificate.getEncoded());
+            }
+            byte[] publicKey = certificates.get(0).getPublicKey().getEncoded();
+            byte[] digests = sequence(List.of(concat(u32(signatureAlgorithm), lengthPrefixed(digest))));
+            byte[] encodedCerts = sequence(encodedCertificates);
+
+            ByteArrayOutputStream pairs = new ByteArrayOutputStream();
+            if (v2Enabled) {
+                List<byte[]> attributes = v3Enabled
+                    ? List.of(concat(u32(STRIPPING_PROTECTION_ATTR_ID), u32(V3_SCHEME_ID)))
+                    : List.of();
+                byte[] signedData = concat(digests, encodedCerts, sequence(attributes));
+                byte[] signer = concat(lengthPrefixed(signedData),
+                                       signatures(signedData),
+                                       lengthPrefixed(publicKey));
+                writePair(pairs, V2_BLOCK_ID, sequence(List.of(signer)));
+            }
+            if (v3Enabled) {
+                byte[] signedData = concat(digests, encodedCerts,
+                                           u32(V3_MIN_SDK), u32(V3_MAX_SDK),
+                                           sequence(List.of()));
+                byte[] signer = concat(lengthPrefixed(signedData),
+                                       u32(V3_MIN_SDK), u32(V3_MAX_SDK),
+                                       signatures(signedData),
+                                       lengthPrefixed(publicKey));
+                writePair(pairs, V3_BLOCK_ID, sequence(List.of(signer)));
+            }
+
+            long blockSize = (long) pairs.size() + SIGNING_BLOCK_FOOTER_SIZE;
+            ByteBuffer block = ByteBuffer.allocate((int) (blockSize + 8)).order(ByteOrder.LITTLE_ENDIAN);
+            block.putLong(blockSize);
+            block.put(pairs.toByteArray());
+            block.putLong(blockSize);
+            block.put(SIGNING_BLOCK_MAGIC);
+            return block.array();
+
+        } catch (GeneralSecurityException e) {
+            throw new IOException("APK签名失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * v1签名中entry摘要使用的JCA算法名
+     */
+    String getV1DigestAlgorithm() {
+        return V1SchemeSigner.digestAlgorithm(minSdkVersion);
+    }
+
+    /**
+     * 生成v1签名文件（MANIFEST.MF、.SF和签名块）
+     *
+     * @param entryDigests entry名到未压缩内容摘要的映射（按{@link #getV1DigestAlgorithm()}计算，
+     *                     不含已有的v1签名文件）
+     * @return entry名到内容的映射
+     * @throws IOException 签名失败
+     */
+    Map<String, byte[]> createV1SignatureFiles(SortedMap<String, byte[]> entryDigests) throws IOException {
+        String schemes = v2Enabled && v3Enabled ? "2, 3" : v2Enabled ? "2" : "3";
+        return V1SchemeSigner.sign(entryDigests, minSdkVersion, privateKey, certificates, schemes);
+    }
+
+    private byte[] signatures(byte[] signedData) throws GeneralSecurityException {
+        Signature signature = Signature.getInstance(jcaSignatureAlgorithm(signatureAlgorithm));
+        signature.initSign(privateKey);
+        signature.update(signedData);
+        byte[] value = signature.sign();
+        return sequence(List.of(concat(u32(signatureAlgorithm), lengthPrefixed(value))));
+    }
+
+    /**
+     * 验证APK的v2/v3签名
+     *
+     * 校验每个signer的签名、证书与公钥的一致性以及内容摘要。
+     *
+     * @param apkPath APK路径
+     * @return 验证结果
+     */
+    public static VerificationResult verify(Path apkPath) {
+        Objects.requireNonNull(apkPath, "apkPath不能为null");
+
+        VerificationResult result = new VerificationResult();
+        try (FileChannel channel = FileChannel.open(apkPath, StandardOpenOption.READ)) {
+            ZipSections sections = ZipSections.read(channel, apkPath);
+            if (sections.entriesEnd == sections.cdOffset) {
+                result.errors.add("APK没有签名块");
+                return result;
+            }
+
+            ByteBuffer block = ByteBuffer.allocate((int) (sections.cdOffset - sections.entriesEnd))
+                .order(ByteOrder.LITTLE_ENDIAN);
+            ZipArchiveIndex.readFully(channel, block, sections.entriesEnd);
+            block.flip();
+            Map<Integer, ByteBuffer> pairs = readPairs(block);
+
+            ByteBuffer v2 = pairs.get(V2_BLOCK_ID);
+            ByteBuffer v3 = pairs.get(V3_BLOCK_ID);
+            if (v2 == null && v3 == null) {
+                result.errors.add("签名块中没有v2/v3签名");
+                return result;
+            }
+
+            ByteBuffer centralDirectory = ByteBuffer.allocate((int) sections.cdSize);
+            ZipArchiveIndex.readFully(channel, centralDirectory, sections.cdOffset);
+            centralDirectory.flip();
+            ByteBuffer eocd = ByteBuffer.allocate((int) (channel.size() - sections.eocdOffset))
+                .order(ByteOrder.LITTLE_ENDIAN);
+            ZipArchiveIndex.readFully(channel, eocd, sections.eocdOffset);
+            eocd.flip();
+
+            byte[] digest = computeContentDigest(channel, sections.entriesEnd, centralDirectory, eocd,
+                                                 ForkJoinPool.commonPool());
+            if (v2 != null) {
+                result.v2Verified = verifySigners(v2, false, digest, result.errors);
+            }
+            if (v3 != null) {
+                result.v3Verified = verifySigners(v3, true, digest, result.errors);
+            }
+
+        } catch (IOException | RuntimeException e) {
+            result.errors.add("读取签名失败: " + e.getMessage());
+        }
+        return result;
+    }
+
+    private static boolean verifySigners(ByteBuffer value, boolean v3, byte[] contentDigest,
+                                         List<String> errors) {
+        String scheme = v3 ? "v3" : "v2";
+        try {
+            ByteBuffer signers = lengthPrefixedSlice(value);
+            if (!signers.hasRemaining()) {
+                errors.add(scheme + ": 没有signer");
+                return false;
+            }
+            while (signers.hasRemaining()) {
+                ByteBuffer signer = lengthPrefixedSlice(signers);
+                ByteBuffer signedData = lengthPrefixedSlice(signer);
+                if (v3) {
+                    signer.getInt();  // minSdk
+                    signer.getInt();  // maxSdk
+                }
+                ByteBuffer signatures = lengthPrefixedSlice(signer);
+                byte[] publicKeyBytes = toArray(lengthPrefixedSlice(signer));
+
+                // 1. 签名：取第一个支持的算法
+                int algorithm = -1;
+                byte[] signatureBytes = null;
+                while (signatures.hasRemaining()) {
+                    ByteBuffer entry = lengthPrefixedSlice(signatures);
+                    int id = entry.getInt();
+                    if (isSupportedAlgorithm(id)) {
+                        algorithm = id;
+                        signatureBytes = toArray(lengthPrefixedSlice(entry));
+                        break;
+                    }
+                }
+                if (signatureBytes == null) {
+                    errors.add(scheme + ": 没有支持的签名算法");
+                    return false;
+                }
+
+                PublicKey publicKey = KeyFactory.getInstance(keyAlgorithm(algorithm))
+                    .generatePublic(new X509EncodedKeySpec(publicKeyBytes));
+                Signature signature = Signature.getInstance(jcaSignatureAlgorithm(algorithm));
+                signature.initVerify(publicKey);
+                signature.update(signedData.duplicate());
+                if (!signature.verify(signatureBytes)) {
+                    errors.add(scheme + ": 签名校验失败");
+                    return false;
+                }
+
+                // 2. 摘要
+                ByteBuffer digests = lengthPrefixedSlice(signedData);
+                byte[] expectedDigest = null;
+                while (digests.hasRemaining()) {
+                    ByteBuffer entry = lengthPrefixedSlice(digests);
+                    if (entry.getInt() == algorithm) {
+                        expectedDigest = toArray(lengthPrefixedSlice(entry));
+                    }
+                }
+                if (expectedDigest == null) {
+                    errors.add(scheme + ": 缺少与签名算法对应的摘要");
+                    return false;
+                }
+
+                // 3. 证书公钥必须与signer公钥一致
+                ByteBuffer certificates = lengthPrefixedSlice(signedData);
+                if (!certificates.hasRemaining()) {
+                    errors.add(scheme + ": 没有证书");
+                    return false;
+                }
+                byte[] certificateBytes = toArray(lengthPrefixedSlice(certificates));
+                Certificate certificate = CertificateFactory.getInstance("X.509")
+                    .generateCertificate(new ByteArrayInputStream(certificateBytes));
+                if (!Arrays.equals(certificate.getPublicKey().getEncoded(), publicKeyBytes)) {
+                    errors.add(scheme + ": 证书公钥与signer公钥不一致");
+                    return false;
+                }
+
+                if (!MessageDigest.isEqual(expectedDigest, contentDigest)) {
+                    errors.add(scheme + ": 内容摘要不匹配（APK已被修改）");
+                    return false;
+                }
+            }
+            return true;
+
+        } catch (GeneralSecurityException | RuntimeException e) {
+            errors.add(scheme + ": 签名格式无效: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 计算内容摘要（1MB分块，SHA-256）
+     *
+     * 三个区段依次参与：entry区、中央目录、结束记录（中央目录偏移替换为签名块偏移）。
+     * 每块摘要 = SHA-256(0xa5 || 块长度 || 块数据)，
+     * 顶层摘要 = SHA-256(0x5a || 块数量 || 所有块摘要)。
+     * entry区按块区间拆分为多个任务并行计算，每个任务只映射自己的区间。
+     */
+    static byte[] computeContentDigest(FileChannel channel, long entriesEnd,
+                                       ByteBuffer centralDirectory, ByteBuffer eocd,
+                                       ExecutorService executor) throws IOException {
+        ByteBuffer eocdForDigest = ByteBuffer.allocate(eocd.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+        eocdForDigest.put(eocd.duplicate()).flip();
+        eocdForDigest.putInt(16, (int) entriesEnd);
+
+        long entriesChunks = chunkCount(entriesEnd);
+        long cdChunks = chunkCount(centralDirectory.remaining());
+        long eocdChunks = chunkCount(eocdForDigest.remaining());
+        long totalChunks = entriesChunks + cdChunks + eocdChunks;
+        if (totalChunks > Integer.MAX_VALUE / DIGEST_SIZE) {
+            throw new IOException("APK过大，分块数超出上限: " + totalChunks);
+        }
+
+        byte[] chunkDigests = new byte[(int) totalChunks * DIGEST_SIZE];
+
+        int parallelism = executor instanceof ForkJoinPool
+            ? ((ForkJoinPool) executor).getParallelism()
+            : Runtime.getRuntime().availableProcessors();
+        int taskCount = (int) Math.max(1, Math.min(entriesChunks, parallelism * 4L));
+        long chunksPerTask = (entriesChunks + taskCount - 1) / Math.max(1, taskCount);
+
+        List<Callable<Void>> tasks = new ArrayList<>(taskCount + 1);
+        for (long from = 0; from < entriesChunks; from += chunksPerTask) {
+            long firstChunk = from;
+            long lastChunk = Math.min(entriesChunks, from + chunksPerTask);
+            tasks.add(() -> {
+                long start = firstChunk * CHUNK_SIZE;
+                long end = Math.min(entriesEnd, lastChunk * CHUNK_SIZE);
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                digestChunks(mapped, chunkDigests, (int) firstChunk);
+                return null;
+            });
+        }
+        tasks.add(() -> {
+            digestChunks(centralDirectory.duplicate(), chunkDigests, (int) entriesChunks);
+            digestChunks(eocdForDigest.duplicate(), chunkDigests, (int) (entriesChunks + cdChunks));
+            return null;
+        });
+
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("计算APK摘要被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("计算APK摘要失败: " + cause.getMessage(), cause);
+        }
+
+        MessageDigest top = sha256();
+        top.update((byte) 0x5a);
+        top.update(u32((int) totalChunks));
+        top.update(chunkDigests);
+        return top.digest();
+    }
+
+    private static void digestChunks(ByteBuffer data, byte[] output, int firstChunk) throws IOException {
+        MessageDigest md = sha256();
+        byte[] prefix = new byte[5];
+        prefix[0] = (byte) 0xa5;
+        int chunk = firstChunk;
+        while (data.hasRemaining()) {
+            int length = Math.min(CHUNK_SIZE, data.remaining());
+            prefix[1] = (byte) length;
+            prefix[2] = (byte) (length >>> 8);
+            prefix[3] = (byte) (length >>> 16);
+            prefix[4] = (byte) (length >>> 24);
+            md.update(prefix);
+
+            ByteBuffer slice = data.duplicate();
+            slice.limit(data.position() + length);
+            md.update(slice);
+            data.position(data.position() + length);
+
+            try {
+                md.digest(output, chunk * DIGEST_SIZE, DIGEST_SIZE);
+            } catch (GeneralSecurityException e) {
+                throw new IOException("摘要计算失败", e);
+            }
+            chunk++;
+        }
+    }
+
+    private static long chunkCount(long size) {
+        return (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    private static MessageDigest sha256() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256不可用", e);
+        }
+    }
+
+    /**
+     * APK的区段边界：entry区、（可选）签名块、中央目录、结束记录
+     */
+    private static final class ZipSections {
+        final long entriesEnd;
+        final long cdOffset;
+        final long cdSize;
+        final long eocdOffset;
+
+        private ZipSections(long entriesEnd, long cdOffset, long cdSize, long eocdOffset) {
+            this.entriesEnd = entriesEnd;
+            this.cdOffset = cdOffset;
+            this.cdSize = cdSize;
+            this.eocdOffset = eocdOffset;
+        }
+
+        static ZipSections read(FileChannel channel, Path apkPath) throws IOException {
+            long eocdOffset = ZipArchiveIndex.findEndOfCentralDirectory(channel, apkPath);
+            ByteBuffer eocd = ByteBuffer.allocate(ZipArchiveIndex.END_OF_CENTRAL_DIR_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+            ZipArchiveIndex.readFully(channel, eocd, eocdOffset);
+
+            long cdSize = eocd.getInt(12) & 0xFFFFFFFFL;
+            long cdOffset = eocd.getInt(16) & 0xFFFFFFFFL;
+            if (cdOffset == 0xFFFFFFFFL || cdSize == 0xFFFFFFFFL) {
+                throw new IOException("不支持ZIP64: " + apkPath);
+            }
+            if (cdOffset + cdSize != eocdOffset) {
+                throw new IOException("中央目录与结束记录不相邻: " + apkPath);
+            }
+
+            long entriesEnd = cdOffset;
+            if (cdOffset >= SIGNING_BLOCK_FOOTER_SIZE) {
+                ByteBuffer footer = ByteBuffer.allocate(SIGNING_BLOCK_FOOTER_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+                ZipArchiveIndex.readFully(channel, footer, cdOffset - SIGNING_BLOCK_FOOTER_SIZE);
+                byte[] magic = Arrays.copyOfRange(footer.array(), 8, SIGNING_BLOCK_FOOTER_SIZE);
+                if (Arrays.equals(magic, SIGNING_BLOCK_MAGIC)) {
+                    long blockSize = footer.getLong(0);
+                    long blockStart = cdOffset - blockSize - 8;
+                    if (blockSize < SIGNING_BLOCK_FOOTER_SIZE || blockStart < 0) {
+                        throw new IOException("签名块大小无效: " + blockSize);
+                    }
+                    ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+                    ZipArchiveIndex.readFully(channel, header, blockStart);
+                    if (header.getLong(0) != blockSize) {
+                        throw new IOException("签名块首尾大小不一致");
+                    }
+                    entriesEnd = blockStart;
+                }
+            }
+
+            return new ZipSections(entriesEnd, cdOffset, cdSize, eocdOffset);
+        }
+    }
+
+    private static Map<Integer, ByteBuffer> readPairs(ByteBuffer block) throws IOException {
+        long blockSize = block.getLong(0);
+        if (blockSize + 8 != block.remaining()) {
+            throw new IOException("签名块大小无效: " + blockSize);
+        }
+
+        ByteBuffer pairs = block.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        pairs.position(8);
+        pairs.limit(block.remaining() - SIGNING_BLOCK_FOOTER_SIZE);
+
+        Map<Integer, ByteBuffer> result = new HashMap<>();
+        while (pairs.hasRemaining()) {
+            long length = pairs.getLong();
+            if (length < 4 || length > pairs.remaining()) {
+                throw new IOException("签名块条目长度无效: " + length);
+            }
+            int id = pairs.getInt();
+            ByteBuffer value = pairs.slice().order(ByteOrder.LITTLE_ENDIAN);
+            value.limit((int) length - 4);
+            result.put(id, value);
+            pairs.position(pairs.position() + (int) length - 4);
+        }
+        return result;
+    }
+
+    private static ByteBuffer lengthPrefixedSlice(ByteBuffer source) {
+        int length = source.getInt();
+        if (length < 0 || length > source.remaining()) {
+            throw new IllegalArgumentException("长度前缀越界: " + length);
+        }
+        ByteBuffer slice = source.slice().order(ByteOrder.LITTLE_ENDIAN);
+        slice.limit(length);
+        source.position(source.position() + length);
+        return slice;
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static void writePair(ByteArrayOutputStream out, int id, byte[] value) {
+        ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(4L + value.length);
+        header.putInt(id);
+        out.write(header.array(), 0, 12);
+        out.write(value, 0, value.length);
+    }
+
+    private static byte[] sequence(List<byte[]> items) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] item : items) {
+            byte[] prefixed = lengthPrefixed(item);
+            out.write(prefixed, 0, prefixed.length);
+        }
+        return lengthPrefixed(out.toByteArray());
+    }
+
+    private static byte[] lengthPrefixed(byte[] data) {
+        return concat(u32(data.length), data);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int size = 0;
+        for (byte[] part : parts) {
+            size += part.length;
+        }
+        byte[] result = new byte[size];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, result, offset, part.length);
+            offset += part.length;
+        }
+        return result;
+    }
+
+    private static byte[] u32(int value) {
+        return ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(value).array();
+    }
+
+    private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    private static boolean isSupportedAlgorithm(int id) {
+        return id == SIGNATURE_RSA_PKCS1_V1_5_WITH_SHA256
+            || id == SIGNATURE_ECDSA_WITH_SHA256
+            || id == SIGNATURE_DSA_WITH_SHA256;
+    }
+
+    private static String jcaSignatureAlgorithm(int id) {
+        switch (id) {
+            case SIGNATURE_RSA_PKCS1_V1_5_WITH_SHA256: return "SHA256withRSA";
+            case SIGNATURE_ECDSA_WITH_SHA256: return "SHA256withECDSA";
+            case SIGNATURE_DSA_WITH_SHA256: return "SHA256withDSA";
+            default: throw new IllegalArgumentException("不支持的签名算法: 0x" + Integer.toHexString(id));
+        }
+    }
+
+    private static String keyAlgorithm(int id) {
+        switch (id) {
+            case SIGNATURE_RSA_PKCS1_V1_5_WITH_SHA256: return "RSA";
+            case SIGNATURE_ECDSA_WITH_SHA256: return "EC";
+            case SIGNATURE_DSA_WITH_SHA256: return "DSA";
+            default: throw new IllegalArgumentException("不支持的签名算法: 0x" + Integer.toHexString(id));
+        }
+    }
+
+    /**
+     * 是否生成v1签名（minSdkVersion &lt; 24）
+     */
+    public boolean isV1Enabled() {
+        return minSdkVersion < MIN_SDK_WITHOUT_V1;
+    }
+
+    public int getMinSdkVersion() {
+        return minSdkVersion;
+    }
+
+    public boolean isV2Enabled() {
+        return v2Enabled;
+    }
+
+    public boolean isV3Enabled() {
+        return v3Enabled;
+    }
+
+    public X509Certificate getCertificate() {
+        return certificates.get(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ApkSigner{subject=%s, v1=%s, v2=%s, v3=%s, minSdk=%d}",
+                           getCertificate().getSubjectX500Principal().getName(),
+                           isV1Enabled(), v2Enabled, v3Enabled, minSdkVersion);
+    }
+
+    /**
+     * 签名验证结果
+     */
+    public static final class VerificationResult {
+        private boolean v2Verified;
+        private boolean v3Verified;
+        private final List<String> errors = new ArrayList<>();
+
+        /**
+         * @return true=至少一种方案验证通过且没有任何失败
+         */
+        public boolean isVerified() {
+            return (v2Verified || v3Verified) && errors.isEmpty();
+        }
+
+        public boolean isV2Verified() {
+            return v2Verified;
+        }
+
+        public boolean isV3Verified() {
+            return v3Verified;
+        }
+
+        public List<String> getErrors() {
+            return Collections.unmodifiableList(errors);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("VerificationResult{v2=%s, v3=%s, errors=%s}",
+                               v2Verified, v3Verified, errors);
+        }
+    }
+
+    /**
+     * 构建器
+     */
+    public static class Builder {
+        private PrivateKey privateKey;
+        private List<X509Certificate> certificates;
+        private int signatureAlgorithm;
+        private boolean v2Enabled = true;
+        private boolean v3Enabled = true;
+        private int minSdkVersion = MIN_SDK_WITHOUT_V1;
+        private ExecutorService executor;
+
+        /**
+         * 从密钥库加载签名密钥（JKS或PKCS12，自动识别）
+         *
+         * @param keystorePath 密钥库路径
+         * @param storePassword 密钥库密码
+         * @param alias 密钥别名（null=第一个私钥条目）
+         * @param keyPassword 密钥密码
+         * @throws IOException 密钥库读取失败或不包含可用私钥
+         */
+        public Builder keyStore(Path keystorePath, String storePassword,
+                                String alias, String keyPassword) throws IOException {
+            Objects.requireNonNull(keystorePath, "keystorePath不能为null");
+            Objects.requireNonNull(storePassword, "storePassword不能为null");
+            Objects.requireNonNull(keyPassword, "keyPassword不能为null");
+
+            if (!Files.isReadable(keystorePath)) {
+                throw new IOException("密钥库不存在或不可读: " + keystorePath);
+            }
+
+            try {
+                KeyStore keyStore = KeyStore.getInstance(keystorePath.toFile(), storePassword.toCharArray());
+
+                String keyAlias = alias;
+                if (keyAlias == null) {
+                    for (String candidate : Collections.list(keyStore.aliases())) {
+                        if (keyStore.isKeyEntry(candidate)) {
+                            keyAlias = candidate;
+                            break;
+                        }
+                    }
+                }
+                if (keyAlias == null || !keyStore.isKeyEntry(keyAlias)) {
+                    throw new IOException("密钥库中没有私钥条目: " + keystorePath
+                                          + (alias != null ? " (alias=" + alias + ")" : ""));
+                }
+
+                PrivateKey key = (PrivateKey) keyStore.getKey(keyAlias, keyPassword.toCharArray());
+                Certificate[] chain = keyStore.getCertificateChain(keyAlias);
+                if (chain == null || chain.length == 0) {
+                    throw new IOException("密钥没有证书链: " + keyAlias);
+                }
+                List<X509Certificate> certs = new ArrayList<>(chain.length);
+                for (Certificate certificate : chain) {
+                    certs.add((X509Certificate) certificate);
+                }
+
+                log.debug("加载签名密钥: {} (alias={}, {})", keystorePath, keyAlias, key.getAlgorithm());
+                return signingKey(key, certs);
+
+            } catch (GeneralSecurityException e) {
+                throw new IOException("加载密钥库失败: " + keystorePath + ": " + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * 直接指定签名密钥
+         *
+         * @param privateKey 私钥（RSA、EC或DSA）
+         * @param certificates 证书链（第一个为签名证书）
+         */
+        public Builder signingKey(PrivateKey privateKey, List<X509Certificate> certificates) {
+            Objects.requireNonNull(privateKey, "privateKey不能为null");
+            Objects.requireNonNull(certificates, "certificates不能为null");
+            if (certificates.isEmpty()) {
+                throw new IllegalArgumentException("certificates不能为空");
+            }
+
+            switch (privateKey.getAlgorithm()) {
+                case "RSA":
+                    this.signatureAlgorithm = SIGNATURE_RSA_PKCS1_V1_5_WITH_SHA256;
+                    break;
+                case "EC":
+                    this.signatureAlgorithm = SIGNATURE_ECDSA_WITH_SHA256;
+                    break;
+                case "DSA":
+                    this.signatureAlgorithm = SIGNATURE_DSA_WITH_SHA256;
+                    break;
+                default:
+                    throw new IllegalArgumentException("不支持的密钥算法: " + privateKey.getAlgorithm());
+            }
+            this.privateKey = privateKey;
+            this.certificates = new ArrayList<>(certificates);
+            return this;
+        }
+
+        public Builder v2Enabled(boolean value) {
+            this.v2Enabled = value;
+            return this;
+        }
+
+        public Builder v3Enabled(boolean value) {
+            this.v3Enabled = value;
+            return this;
+        }
+
+        /**
+         * APK的minSdkVersion（默认24，即只生成v2/v3签名）
+         *
+         * 低于24时同时生成v1签名；低于18时v1使用SHA-1（此时不支持EC密钥）。
+         */
+        public Builder minSdkVersion(int value) {
+            if (value < 1) {
+                throw new IllegalArgumentException("minSdkVersion必须大于0: " + value);
+            }
+            this.minSdkVersion = value;
+            return this;
+        }
+
+        /**
+         * 摘要计算使用的线程池（默认ForkJoinPool.commonPool()）
+         */
+        public Builder executor(ExecutorService value) {
+            this.executor = value;
+            return this;
+        }
+
+        public ApkSigner build() {
+            if (privateKey == null) {
+                throw new IllegalStateException("未设置签名密钥");
+            }
+            if (!v2Enabled && !v3Enabled) {
+                throw new IllegalStateException("至少需要启用v2或v3签名");
+            }
+            if (minSdkVersion < 18 && signatureAlgorithm == SIGNATURE_ECDSA_WITH_SHA256) {
+                throw new IllegalStateException("minSdkVersion < 18时v1签名不支持EC密钥");
+            }
+            return new ApkSigner(this);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.resources.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 紧凑的不可变类名集合
+ *
+ * 所有类名以UTF-8编码、按无符号字节序排序后连续存放在一个byte[]中，
+ * 另用int[]记录每个类名的起始偏移，contains通过二分查找完成。
+ * 与HashSet&lt;String&gt;相比不需要为每个类名保留String对象和哈希表节点，
+ * 8万个类约占几MB而不是几十MB；由于不可变，可以在线程间直接共享，无需防御性复制。
+ *
+ * 附带一个Bloom过滤器（约10 bit/类），不存在的类名绝大多数在二分查找前就被排除。
+ *
+ * 布局与{@link DexClassIndex}的索引文件一致，索引可直接转换而无需重新排序。
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public final class ClassNameSet extends AbstractSet<String> {
+
+    private static final ClassNameSet EMPTY = new ClassNameSet(new byte[0], new int[] {0});
+
+    // Bloom过滤器参数：每个类约10 bit，3个哈希函数（误判率约2%）
+    private static final int BLOOM_BITS_PER_ENTRY = 10;
+    private static final int BLOOM_HASHES = 3;
+
+    private final byte[] data;
+    private final int[] offsets;   // offsets[i]..offsets[i+1]为第i个类名，长度为size+1
+    private final long[] bloom;
+    private final int bloomMask;
+
+    private ClassNameSet(byte[] data, int[] offsets) {
+        this.data = data;
+        this.offsets = offsets;
+
+        int size = offsets.length - 1;
+        int bits = Integer.highestOneBit(Math.max(64, size * BLOOM_BITS_PER_ENTRY - 1) << 1);
+        this.bloom = new long[bits >>> 6];
+        this.bloomMask = bits - 1;
+        for (int i = 0; i < size; i++) {
+            long hash = hash(data, offsets[i], offsets[i + 1]);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int k = 0; k < BLOOM_HASHES; k++) {
+                int bit = (h1 + k * h2) & bloomMask;
+                bloom[bit >>> 6] |= 1L << bit;
+            }
+        }
+    }
+
+    /**
+     * 空集合
+     */
+    public static ClassNameSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 由任意类名集合构造（已经是ClassNameSet时直接返回）
+     *
+     * @param classNames 类名（可包含重复项）
+     * @return 不可变类名集合
+     */
+    public static ClassNameSet of(Collection<String> classNames) {
+        Objects.requireNonNull(classNames, "classNames不能为null");
+        if (classNames instanceof ClassNameSet) {
+            return (ClassNameSet) classNames;
+        }
+        if (classNames.isEmpty()) {
+            return EMPTY;
+        }
+
+        byte[][] encoded = new byte[classNames.size()][];
+        int count = 0;
+        for (String className : classNames) {
+            encoded[count++] = Objects.requireNonNull(className, "类名不能为null")
+                .getBytes(StandardCharsets.UTF_8);
+        }
+        Arrays.sort(encoded, 0, count, Arrays::compareUnsigned);
+
+        int dataSize = 0;
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || !Arrays.equals(encoded[i], encoded[i - 1])) {
+                encoded[unique++] = encoded[i];
+                dataSize += encoded[i].length;
+            }
+        }
+
+        byte[] data = new byte[dataSize];
+        int[] offsets = new int[unique + 1];
+        int offset = 0;
+        for (int i = 0; i < unique; i++) {
+            offsets[i] = offset;
+            System.arraycopy(encoded[i], 0, data, offset, encoded[i].length);
+            offset += encoded[i].length;
+        }
+        offsets[unique] = offset;
+        return new ClassNameSet(data, offsets);
+    }
+
+    /**
+     * 合并多个类名集合（多路归并，不经过中间String）
+     *
+     * @param sets 待合并的集合
+     * @return 并集；只有一个非空集合时直接返回该集合
+     */
+    public static ClassNameSet union(Collection<? extends Collection<String>> sets) {
+        Objects.requireNonNull(sets, "sets不能为null");
+
+        List<ClassNameSet> parts = new ArrayList<>();
+        long dataSize = 0;
+        for (Collection<String> set : sets) {
+            ClassNameSet part = of(set);
+            if (!part.isEmpty()) {
+                parts.add(part);
+                dataSize += part.data.length;
+            }
+        }
+        if (parts.isEmpty()) {
+            return EMPTY;
+        }
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        if (dataSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("类名数据过大: " + dataSize);
+        }
+
+        // 按各集合当前位置的类名排序的游标堆
+        int[] cursors = new int[parts.size()];
+        PriorityQueue<Integer> heap = new PriorityQueue<>(parts.size(), (a, b) -> {
+            int cmp = compare(parts.get(a), cursors[a], parts.get(b), cursors[b]);
+            return cmp != 0 ? cmp : Integer.compare(a, b);
+        });
+        int total = 0;
+        for (int i = 0; i < parts.size(); i++) {
+            heap.add(i);
+            total += parts.get(i).size();
+        }
+
+        byte[] data = new byte[(int) dataSize];
+        int[] offsets = new int[total + 1];
+        int count = 0;
+        int offset = 0;
+        ClassNameSet lastSet = null;
+        int lastIndex = -1;
+        while (!heap.isEmpty()) {
+            int p = heap.poll();
+            ClassNameSet part = parts.get(p);
+            int index = cursors[p];
+            if (lastSet == null || compare(part, index, lastSet, lastIndex) != 0) {
+                int start = part.offsets[index];
+                int length = part.offsets[index + 1] - start;
+                offsets[count++] = offset;
+                System.arraycopy(part.data, start, data, offset, length);
+                offset += length;
+                lastSet = part;
+                lastIndex = index;
+            }
+            if (++cursors[p] < part.size()) {
+                heap.add(p);
+            }
+        }
+        offsets[count] = offset;
+
+        return new ClassNameSet(
+            offset == data.length ? data : Arrays.copyOf(data, offset),
+            count == total ? offsets : Arrays.copyOf(offsets, count + 1));
+    }
+
+    /**
+     * 由已排序的打包数据构造（DexClassIndex读取索引时使用）
+     *
+     * @throws IllegalArgumentException 偏移不合法或未严格按字节序排序
+     */
+    static ClassNameSet fromPacked(byte[] data, int[] offsets) {
+        if (offsets.length == 0 || offsets[0] != 0 || offsets[offsets.length - 1] != data.length) {
+            throw new IllegalArgumentException("类名偏移不合法");
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            if (offsets[i] < offsets[i - 1]) {
+                throw new IllegalArgumentException("类名偏移不合法: index=" + i);
+            }
+            if (i >= 2 && Arrays.compareUnsigned(data, offsets[i - 2], offsets[i - 1],
+                                                 data, offsets[i - 1], offsets[i]) >= 0) {
+                throw new IllegalArgumentException("类名未排序: index=" + (i - 1));
+            }
+        }
+        return offsets.length == 1 ? EMPTY : new ClassNameSet(data, offsets);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof String) || isEmpty()) {
+            return false;
+        }
+        byte[] key = ((String) o).getBytes(StandardCharsets.UTF_8);
+        return mightContain(key) && indexOf(key) >= 0;
+    }
+
+    private boolean mightContain(byte[] key) {
+        long hash = hash(key, 0, key.length);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int k = 0; k < BLOOM_HASHES; k++) {
+            int bit = (h1 + k * h2) & bloomMask;
+            if ((bloom[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indexOf(byte[] key) {
+        int low = 0;
+        int high = size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Arrays.compareUnsigned(data, offsets[mid], offsets[mid + 1], key, 0, key.length);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 第index个类名（按UTF-8字节序）
+     */
+    public String get(int index) {
+        Objects.checkIndex(index, size());
+        return new String(data, offsets[index], offsets[index + 1] - offsets[index], StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++);
+            }
+        };
+    }
+
+    /**
+     * 占用的内存（字节，不含对象头）
+     */
+    public long memoryBytes() {
+        return data.length + 4L * offsets.length + 8L * bloom.length;
+    }
+
+    /** 打包的UTF-8数据（不复制，调用方不得修改） */
+    byte[] packedData() {
+        return data;
+    }
+
+    /** 打包数据的偏移表（不复制，调用方不得修改） */
+    int[] packedOffsets() {
+        return offsets;
+    }
+
+    private static int compare(ClassNameSet a, int i, ClassNameSet b, int j) {
+        return Arrays.compareUnsigned(a.data, a.offsets[i], a.offsets[i + 1],
+                                      b.data, b.offsets[j], b.offsets[j + 1]);
+    }
+
+    // FNV-1a 64位哈希
+    private static long hash(byte[] bytes, int from, int to) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++) {
+            hash ^= bytes[i] & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
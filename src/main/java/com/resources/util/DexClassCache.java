@@ -6,7 +6,7 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * DEX类加载缓存
@@ -15,6 +15,14 @@ import java.util.concurrent.ConcurrentHashMap;
  * 缓存键：文件路径 + 修改时间
  * 线程安全实现
  * 
+ * 类列表以不可变的{@link ClassNameSet}缓存并直接返回给调用方，
+ * 命中时不再复制集合。
+ * 
+ * 可选配置{@link DexClassIndex}作为二级缓存：内存未命中时先按DEX内容哈希
+ * 查找磁盘索引，仍未命中才通过{@link DexUtils#loadDexClasses(String)}加载（先用
+ * {@link DexClassNameReader}只读取类名，失败时回退到dexlib2完整解析），
+ * 结果写回索引供后续运行使用。
+ * 
  * @author Resources Processor Team
  * @version 1.0.0
  */
@@ -55,35 +63,17 @@ public class DexClassCache {
         }
     }
     
-    // 缓存值
-    private static class CacheValue {
-        private final Set<String> classes;
-        private final long cacheTime;
-        private long lastAccessTime;
-        
-        public CacheValue(Set<String> classes) {
-            this.classes = new HashSet<>(classes); // 防御性复制
-            this.cacheTime = System.currentTimeMillis();
-            this.lastAccessTime = cacheTime;
-        }
-        
-        public Set<String> getClasses() {
-            lastAccessTime = System.currentTimeMillis();
-            return new HashSet<>(classes); // 防御性复制
-        }
-        
-        public long getLastAccessTime() {
-            return lastAccessTime;
-        }
-    }
-    
-    // LRU缓存实现
-    private final Map<CacheKey, CacheValue> cache;
+    // LRU缓存实现（按访问顺序的LinkedHashMap，所有访问在cache上同步）
+    private final LinkedHashMap<CacheKey, ClassNameSet> cache;
     private final int maxSize;
     
+    // 持久化索引（可为null）
+    private final DexClassIndex index;
+    private final DexClassIndex.Loader loader;
+    
     // 统计信息
-    private long hits = 0;
-    private long misses = 0;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
     
     /**
      * 默认构造函数（缓存大小=10）
@@ -98,24 +88,59 @@ public class DexClassCache {
      * @param maxSize 最大缓存条目数
      */
     public DexClassCache(int maxSize) {
+        this(maxSize, null);
+    }
+    
+    /**
+     * 使用持久化索引作为二级缓存（缓存大小=10）
+     * 
+     * @param index 持久化DEX类索引（null=不使用）
+     */
+    public DexClassCache(DexClassIndex index) {
+        this(DEFAULT_CACHE_SIZE, index);
+    }
+    
+    /**
+     * 使用持久化索引作为二级缓存
+     * 
+     * @param maxSize 最大缓存条目数
+     * @param index 持久化DEX类索引（null=不使用）
+     */
+    public DexClassCache(int maxSize, DexClassIndex index) {
+        this(maxSize, index, DexUtils::loadDexClasses);
+    }
+    
+    DexClassCache(int maxSize, DexClassIndex index, DexClassIndex.Loader loader) {
         if (maxSize <= 0) {
             throw new IllegalArgumentException("maxSize必须大于0");
         }
         
         this.maxSize = maxSize;
-        this.cache = new ConcurrentHashMap<>(maxSize);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, ClassNameSet> eldest) {
+                if (size() > maxSize) {
+                    log.debug("驱逐LRU缓存条目: {}", eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.index = index;
+        this.loader = Objects.requireNonNull(loader, "loader不能为null");
         
-        log.info("DEX类缓存初始化: maxSize={}", maxSize);
+        log.info("DEX类缓存初始化: maxSize={}, 持久化索引={}", 
+                maxSize, index != null ? index.getDirectory() : "无");
     }
     
     /**
      * 获取DEX文件的类列表（带缓存）
      * 
      * @param dexPath DEX文件路径
-     * @return 类名集合
+     * @return 不可变类名集合（可在线程间共享）
      * @throws IOException 加载失败
      */
-    public Set<String> getDexClasses(String dexPath) throws IOException {
+    public ClassNameSet getDexClasses(String dexPath) throws IOException {
         Objects.requireNonNull(dexPath, "dexPath不能为null");
         
         // 1. 获取文件修改时间
@@ -128,73 +153,45 @@ public class DexClassCache {
         CacheKey key = new CacheKey(dexPath, lastModified);
         
         // 2. 尝试从缓存获取
-        CacheValue cachedValue = cache.get(key);
-        if (cachedValue != null) {
-            hits++;
+        ClassNameSet cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null) {
+            long hitCount = hits.incrementAndGet();
             log.debug("DEX缓存命中: {} (命中率: {}/{})", 
-                    dexPath, hits, hits + misses);
-            return cachedValue.getClasses();
+                    dexPath, hitCount, hitCount + misses.get());
+            return cached;
         }
         
-        // 3. 缓存未命中，加载DEX
-        misses++;
+        // 3. 缓存未命中，查持久化索引或加载DEX（不持有锁）
+        misses.incrementAndGet();
         log.debug("DEX缓存未命中: {}, 开始加载...", dexPath);
         
-        Set<String> classes = DexUtils.loadDexClasses(dexPath);
-        
-        // 4. 存入缓存
-        putCache(key, new CacheValue(classes));
+        ClassNameSet classes = index != null 
+            ? index.getOrLoad(dexPath, loader) 
+            : ClassNameSet.of(loader.load(dexPath));
         
-        log.info("DEX类加载并缓存: {} ({} 个类)", dexPath, classes.size());
-        
-        return new HashSet<>(classes); // 防御性复制
-    }
-    
-    /**
-     * 添加到缓存（LRU驱逐策略）
-     */
-    private void putCache(CacheKey key, CacheValue value) {
-        // 如果缓存已满，驱逐最久未使用的条目
-        if (cache.size() >= maxSize) {
-            evictLRU();
-        }
-        
-        cache.put(key, value);
-    }
-    
-    /**
-     * 驱逐最久未使用的条目（LRU）
-     */
-    private void evictLRU() {
-        if (cache.isEmpty()) {
-            return;
+        // 4. 存入缓存（超过maxSize时驱逐最久未使用的条目）
+        synchronized (cache) {
+            cache.put(key, classes);
         }
         
-        // 找到最久未访问的条目
-        CacheKey lruKey = null;
-        long oldestAccessTime = Long.MAX_VALUE;
+        log.info("DEX类加载并缓存: {} ({} 个类, {} KB)", 
+                dexPath, classes.size(), classes.memoryBytes() / 1024);
         
-        for (Map.Entry<CacheKey, CacheValue> entry : cache.entrySet()) {
-            long accessTime = entry.getValue().getLastAccessTime();
-            if (accessTime < oldestAccessTime) {
-                oldestAccessTime = accessTime;
-                lruKey = entry.getKey();
-            }
-        }
-        
-        if (lruKey != null) {
-            cache.remove(lruKey);
-            log.debug("驱逐LRU缓存条目: {}", lruKey);
-        }
+        return classes;
     }
     
     /**
      * 清除缓存
      */
     public void clear() {
-        cache.clear();
-        hits = 0;
-        misses = 0;
+        synchronized (cache) {
+            cache.clear();
+        }
+        hits.set(0);
+        misses.set(0);
         log.info("DEX缓存已清空");
     }
     
@@ -202,23 +199,40 @@ public class DexClassCache {
      * 获取缓存大小
      */
     public int size() {
-        return cache.size();
+        synchronized (cache) {
+            return cache.size();
+        }
     }
     
     /**
      * 获取缓存命中率
      */
     public double getHitRate() {
-        long total = hits + misses;
-        return total == 0 ? 0 : (double) hits / total;
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
     }
     
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    
     /**
      * 获取统计信息
      */
     public String getStatistics() {
-        return String.format("DEX缓存: size=%d/%d, hits=%d, misses=%d, hitRate=%.2f%%",
-                           cache.size(), maxSize, hits, misses, getHitRate() * 100);
+        String stats = String.format("DEX缓存: size=%d/%d, hits=%d, misses=%d, hitRate=%.2f%%",
+                                   size(), maxSize, hits.get(), misses.get(), getHitRate() * 100);
+        if (index != null) {
+            stats += String.format(", 持久化索引: hits=%d, misses=%d", index.getHits(), index.getMisses());
+        }
+        return stats;
+    }
+    
+    /**
+     * 持久化索引（未配置时为null）
+     */
+    public DexClassIndex getIndex() {
+        return index;
     }
     
     @Override
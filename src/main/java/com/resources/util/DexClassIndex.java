@@ -0,0 +1,221 @@
+package com.resources.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 持久化DEX类索引
+ *
+ * 以DEX文件内容的SHA-256为键，把类列表保存到磁盘，跨进程、跨运行复用，
+ * 同一份DEX无论路径和修改时间如何变化都只需用dexlib2解析一次。
+ *
+ * 索引文件格式（小端序，可直接内存映射读取）：
+ * <pre>
+ * magic    4字节 "RPDX"
+ * version  u16
+ * reserved u16
+ * count    u32               类数量
+ * offsets  u32[count + 1]    每个类名在data中的起始偏移，最后一项为data长度
+ * data     UTF-8类名（Java格式，按字节序排序，无分隔符）
+ * </pre>
+ * 写入先落到临时文件再原子重命名，多个进程可同时使用同一目录。
+ * 损坏或版本不符的索引文件会被删除并重新生成。
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class DexClassIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DexClassIndex.class);
+
+    private static final int MAGIC = 0x58445052;   // "RPDX"（小端）
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final String SUFFIX = ".idx";
+
+    private static final int HASH_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * DEX类加载函数
+     */
+    @FunctionalInterface
+    public interface Loader {
+        Set<String> load(String dexPath) throws IOException;
+    }
+
+    private final Path directory;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param directory 索引目录（不存在时自动创建）
+     * @throws IOException 创建目录失败
+     */
+    public DexClassIndex(Path directory) throws IOException {
+        this.directory = Objects.requireNonNull(directory, "directory不能为null");
+        Files.createDirectories(directory);
+        log.info("DEX类索引目录: {}", directory);
+    }
+
+    /**
+     * 获取DEX的类列表：索引中存在时直接读取，否则用loader加载并写入索引
+     *
+     * @param dexPath DEX文件路径
+     * @param loader 索引未命中时的加载函数
+     * @return 不可变类名集合
+     * @throws IOException 读取或加载失败
+     */
+    public ClassNameSet getOrLoad(String dexPath, Loader loader) throws IOException {
+        Objects.requireNonNull(dexPath, "dexPath不能为null");
+        Objects.requireNonNull(loader, "loader不能为null");
+
+        String hash = contentHash(Path.of(dexPath));
+        Path indexFile = directory.resolve(hash + SUFFIX);
+
+        if (Files.isRegularFile(indexFile)) {
+            try {
+                ClassNameSet classes = read(indexFile);
+                hits.incrementAndGet();
+                log.debug("DEX类索引命中: {} -> {} ({} 个类)", dexPath, hash, classes.size());
+                return classes;
+            } catch (IOException | RuntimeException e) {
+                log.warn("DEX类索引损坏，重新生成: {} ({})", indexFile, e.getMessage());
+                Files.deleteIfExists(indexFile);
+            }
+        }
+
+        misses.incrementAndGet();
+        ClassNameSet classes = ClassNameSet.of(loader.load(dexPath));
+        try {
+            write(indexFile, classes);
+            log.info("DEX类索引已写入: {} -> {} ({} 个类)", dexPath, indexFile.getFileName(), classes.size());
+        } catch (IOException e) {
+            // 索引只是加速手段，写入失败不影响本次结果
+            log.warn("DEX类索引写入失败: {}", indexFile, e);
+        }
+        return classes;
+    }
+
+    /**
+     * 计算文件内容的SHA-256（十六进制）
+     *
+     * @param file 文件
+     * @return 64位十六进制字符串
+     * @throws IOException 读取失败
+     */
+    public static String contentHash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JVM不支持SHA-256", e);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * 读取索引文件（打包数据直接构成ClassNameSet，不逐个解码类名）
+     */
+    static ClassNameSet read(Path indexFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + 4 || size > Integer.MAX_VALUE) {
+                throw new IOException("索引文件大小不合法: " + size);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (mapped.getInt(0) != MAGIC) {
+                throw new IOException("索引文件magic不匹配");
+            }
+            if ((mapped.getShort(4) & 0xFFFF) != VERSION) {
+                throw new IOException("索引文件版本不支持: " + (mapped.getShort(4) & 0xFFFF));
+            }
+            int count = mapped.getInt(8);
+            long dataStart = HEADER_SIZE + 4L * (count + 1);
+            if (count < 0 || dataStart > size) {
+                throw new IOException("索引文件类数量不合法: " + count);
+            }
+            int dataSize = (int) (size - dataStart);
+            if (mapped.getInt(HEADER_SIZE + 4 * count) != dataSize) {
+                throw new IOException("索引文件数据长度不匹配");
+            }
+
+            int[] offsets = new int[count + 1];
+            mapped.position(HEADER_SIZE);
+            mapped.asIntBuffer().get(offsets);
+            byte[] data = new byte[dataSize];
+            mapped.get((int) dataStart, data);
+            try {
+                return ClassNameSet.fromPacked(data, offsets);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("索引文件内容不合法: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 写入索引文件（临时文件 + 原子重命名）
+     */
+    static void write(Path indexFile, Collection<String> classes) throws IOException {
+        ClassNameSet set = ClassNameSet.of(classes);
+        byte[] data = set.packedData();
+        int[] offsets = set.packedOffsets();
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 4 * offsets.length + data.length)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putShort((short) VERSION);
+        buffer.putShort((short) 0);
+        buffer.putInt(set.size());
+        for (int offset : offsets) {
+            buffer.putInt(offset);
+        }
+        buffer.put(data);
+
+        Path temp = Files.createTempFile(indexFile.getParent(), indexFile.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, buffer.array());
+            try {
+                Files.move(temp, indexFile, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public Path getDirectory() { return directory; }
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+
+    @Override
+    public String toString() {
+        return String.format("DEX类索引: dir=%s, hits=%d, misses=%d", directory, hits.get(), misses.get());
+    }
+}
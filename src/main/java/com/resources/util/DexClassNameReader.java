@@ -0,0 +1,229 @@
+package com.resources.util;
+
+import com.resources.arsc.ModifiedUTF8;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * DEX类名读取器
+ *
+ * 只读取DEX中定义的类名：class_defs → type_ids → string_ids → string_data，
+ * 不构建dexlib2的ClassDef/Method/Field等对象。MUTF-8描述符直接解码为Java类名，
+ * ASCII描述符（绝大多数情况）不经过中间String，一次拷贝完成转换。
+ *
+ * 输入可以是文件（内存映射）、byte[]或ByteBuffer，因此APK中的classes*.dex
+ * 可以直接从VFS读取而无需解压到磁盘。
+ *
+ * 只支持标准DEX（magic为"dex\n"），不支持CompactDex/ODEX/OAT，
+ * 调用方可在失败时回退到dexlib2。
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public final class DexClassNameReader {
+
+    private static final byte[] DEX_MAGIC = {'d', 'e', 'x', '\n'};
+    private static final int ENDIAN_CONSTANT = 0x12345678;
+
+    // header_item中的字段偏移
+    private static final int HEADER_SIZE = 0x70;
+    private static final int ENDIAN_TAG_OFFSET = 40;
+    private static final int STRING_IDS_SIZE_OFFSET = 56;
+    private static final int TYPE_IDS_SIZE_OFFSET = 64;
+    private static final int CLASS_DEFS_SIZE_OFFSET = 96;
+
+    private static final int CLASS_DEF_ITEM_SIZE = 32;
+
+    private DexClassNameReader() {
+    }
+
+    /**
+     * 读取DEX文件中定义的类名（内存映射，不加载整个文件到堆）
+     *
+     * @param dexFile DEX文件
+     * @return Java格式类名（按class_defs顺序）
+     * @throws IOException 读取失败或不是合法的DEX
+     */
+    public static List<String> read(Path dexFile) throws IOException {
+        Objects.requireNonNull(dexFile, "dexFile不能为null");
+        try (FileChannel channel = FileChannel.open(dexFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("DEX文件过大: " + size);
+            }
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * 读取内存中DEX数据定义的类名
+     *
+     * @param data DEX数据
+     * @return Java格式类名（按class_defs顺序）
+     * @throws IOException 不是合法的DEX
+     */
+    public static List<String> read(byte[] data) throws IOException {
+        Objects.requireNonNull(data, "data不能为null");
+        return read(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * 读取DEX数据定义的类名
+     *
+     * 从buffer的position开始读取，不修改buffer的position/limit/字节序。
+     *
+     * @param buffer DEX数据
+     * @return Java格式类名（按class_defs顺序）
+     * @throws IOException 不是合法的DEX
+     */
+    public static List<String> read(ByteBuffer buffer) throws IOException {
+        Objects.requireNonNull(buffer, "buffer不能为null");
+        ByteBuffer dex = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        int limit = dex.limit();
+
+        if (limit < HEADER_SIZE) {
+            throw new IOException("DEX数据过短: " + limit);
+        }
+        for (int i = 0; i < DEX_MAGIC.length; i++) {
+            if (dex.get(i) != DEX_MAGIC[i]) {
+                throw new IOException("不是标准DEX文件（magic不匹配）");
+            }
+        }
+        if (dex.getInt(ENDIAN_TAG_OFFSET) != ENDIAN_CONSTANT) {
+            throw new IOException("不支持的DEX字节序");
+        }
+
+        int stringIdsSize = dex.getInt(STRING_IDS_SIZE_OFFSET);
+        int stringIdsOff = dex.getInt(STRING_IDS_SIZE_OFFSET + 4);
+        int typeIdsSize = dex.getInt(TYPE_IDS_SIZE_OFFSET);
+        int typeIdsOff = dex.getInt(TYPE_IDS_SIZE_OFFSET + 4);
+        int classDefsSize = dex.getInt(CLASS_DEFS_SIZE_OFFSET);
+        int classDefsOff = dex.getInt(CLASS_DEFS_SIZE_OFFSET + 4);
+
+        checkSection("string_ids", stringIdsOff, stringIdsSize, 4, limit);
+        checkSection("type_ids", typeIdsOff, typeIdsSize, 4, limit);
+        checkSection("class_defs", classDefsOff, classDefsSize, CLASS_DEF_ITEM_SIZE, limit);
+
+        String[] names = new String[classDefsSize];
+        char[] chars = new char[128];
+        for (int i = 0; i < classDefsSize; i++) {
+            int typeIdx = dex.getInt(classDefsOff + i * CLASS_DEF_ITEM_SIZE);
+            if (typeIdx < 0 || typeIdx >= typeIdsSize) {
+                throw new IOException("class_def[" + i + "]的类型索引越界: " + typeIdx);
+            }
+            int stringIdx = dex.getInt(typeIdsOff + typeIdx * 4);
+            if (stringIdx < 0 || stringIdx >= stringIdsSize) {
+                throw new IOException("type_id[" + typeIdx + "]的字符串索引越界: " + stringIdx);
+            }
+            int dataOff = dex.getInt(stringIdsOff + stringIdx * 4);
+            if (dataOff < 0 || dataOff >= limit) {
+                throw new IOException("string_id[" + stringIdx + "]的数据偏移越界: " + dataOff);
+            }
+
+            // string_data_item: uleb128 utf16_size + MUTF-8字节 + '\0'
+            int pos = dataOff;
+            int utf16Size = 0;
+            int shift = 0;
+            int b;
+            do {
+                if (pos >= limit || shift > 28) {
+                    throw new IOException("string_data[" + stringIdx + "]长度编码损坏");
+                }
+                b = dex.get(pos++);
+                utf16Size |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            // 每个UTF-16字符至少占1个字节
+            if (utf16Size < 0 || utf16Size > limit - pos) {
+                throw new IOException("string_data[" + stringIdx + "]长度越界: " + utf16Size);
+            }
+
+            if (chars.length < utf16Size) {
+                chars = new char[Math.max(utf16Size, chars.length * 2)];
+            }
+            names[i] = decodeClassName(dex, pos, utf16Size, limit, chars);
+        }
+        return Arrays.asList(names);
+    }
+
+    /**
+     * 把描述符（Lcom/example/Foo;）解码为Java类名（com.example.Foo）
+     */
+    private static String decodeClassName(ByteBuffer dex, int start, int utf16Size, int limit,
+                                          char[] chars) throws IOException {
+        // 快速路径：纯ASCII描述符，字节数 == 字符数
+        int end = start + utf16Size;
+        if (end <= limit) {
+            boolean ascii = true;
+            for (int p = start; p < end; p++) {
+                byte b = dex.get(p);
+                if (b <= 0) {
+                    ascii = false;
+                    break;
+                }
+                chars[p - start] = b == '/' ? '.' : (char) b;
+            }
+            if (ascii && end < limit && dex.get(end) == 0) {
+                return toClassName(chars, utf16Size, start);
+            }
+        }
+
+        // 含非ASCII字符：找到结尾的'\0'后按MUTF-8解码
+        int terminator = start;
+        while (terminator < limit && dex.get(terminator) != 0) {
+            terminator++;
+        }
+        if (terminator >= limit) {
+            throw new IOException("字符串未以'\\0'结尾: offset=" + start);
+        }
+        byte[] bytes = new byte[terminator - start];
+        dex.get(start, bytes);
+        String descriptor = ModifiedUTF8.decode(bytes);
+        if (descriptor.length() != utf16Size) {
+            throw new IOException("字符串长度不匹配: offset=" + start);
+        }
+        descriptor.getChars(0, utf16Size, chars, 0);
+        for (int p = 0; p < utf16Size; p++) {
+            if (chars[p] == '/') {
+                chars[p] = '.';
+            }
+        }
+        return toClassName(chars, utf16Size, start);
+    }
+
+    private static String toClassName(char[] chars, int length, int offset) throws IOException {
+        if (length < 3 || chars[0] != 'L' || chars[length - 1] != ';') {
+            throw new IOException("无效的类描述符: " + new String(chars, 0, length) + " (offset=" + offset + ")");
+        }
+        return new String(chars, 1, length - 2);
+    }
+
+    private static void checkSection(String name, int offset, int count, int itemSize, int limit)
+            throws IOException {
+        if (count < 0 || (count > 0 && (offset < 0 || (long) offset + (long) count * itemSize > limit))) {
+            throw new IOException(String.format("DEX的%s区越界: offset=%d, count=%d, 数据大小=%d",
+                                                name, offset, count, limit));
+        }
+    }
+
+    /**
+     * 判断数据是否为标准DEX（只检查magic）
+     */
+    public static boolean isDex(byte[] data) {
+        if (data == null || data.length < HEADER_SIZE) {
+            return false;
+        }
+        for (int i = 0; i < DEX_MAGIC.length; i++) {
+            if (data[i] != DEX_MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
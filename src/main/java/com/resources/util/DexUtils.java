@@ -9,6 +9,12 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -28,6 +34,9 @@ public class DexUtils {
     /**
      * 加载DEX文件中的所有类
      * 
+     * 标准DEX由{@link DexClassNameReader}直接读取class_defs；
+     * 读取失败（CompactDex、ODEX等）时回退到dexlib2完整加载。
+     * 
      * @param dexPath DEX文件路径
      * @return 类名集合（Java格式：com.example.MainActivity）
      * @throws IOException 加载失败
@@ -50,6 +59,54 @@ public class DexUtils {
             throw new IOException("DEX文件不可读: " + dexPath);
         }
         
+        try {
+            Set<String> classes = new HashSet<>(DexClassNameReader.read(dexFile.toPath()));
+            log.debug("DEX类名读取完成: {} -> {} 个类", dexPath, classes.size());
+            return classes;
+        } catch (IOException e) {
+            log.debug("DEX类名读取失败，回退到dexlib2: {} ({})", dexPath, e.getMessage());
+        }
+        
+        return loadWithDexlib2(dexFile, dexPath);
+    }
+    
+    /**
+     * 加载内存中DEX数据定义的所有类（如APK内的classes*.dex）
+     * 
+     * 与{@link #loadDexClasses(String)}相同：先由{@link DexClassNameReader}读取，
+     * 失败时把数据写入临时文件，回退到dexlib2完整加载。
+     * 
+     * @param data DEX数据（不修改position/limit）
+     * @param source 数据来源（用于日志和错误信息）
+     * @return 类名集合（Java格式：com.example.MainActivity）
+     * @throws IOException 加载失败
+     */
+    public static Set<String> loadDexClasses(ByteBuffer data, String source) throws IOException {
+        Objects.requireNonNull(data, "data不能为null");
+        
+        try {
+            Set<String> classes = new HashSet<>(DexClassNameReader.read(data));
+            log.debug("DEX类名读取完成: {} -> {} 个类", source, classes.size());
+            return classes;
+        } catch (IOException e) {
+            log.debug("DEX类名读取失败，回退到dexlib2: {} ({})", source, e.getMessage());
+        }
+        
+        Path tempFile = Files.createTempFile("rp-dex-", ".dex");
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                ByteBuffer remaining = data.duplicate();
+                while (remaining.hasRemaining()) {
+                    channel.write(remaining);
+                }
+            }
+            return loadWithDexlib2(tempFile.toFile(), source);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+    
+    private static Set<String> loadWithDexlib2(File dexFile, String source) throws IOException {
         try {
             DexFile dex = DexFileFactory.loadDexFile(dexFile, null);
             
@@ -59,14 +116,14 @@ public class DexUtils {
                 .filter(Objects::nonNull)
                 .collect(Collectors.toSet());
             
-            log.debug("DEX类加载完成: {} -> {} 个类", dexPath, classes.size());
+            log.debug("DEX类加载完成: {} -> {} 个类", source, classes.size());
             return classes;
             
         } catch (IOException e) {
-            log.error("DEX文件加载失败: {}", dexPath, e);
+            log.error("DEX文件加载失败: {}", source, e);
             throw e;
         } catch (Exception e) {
-            log.error("DEX文件解析失败: {}", dexPath, e);
+            log.error("DEX文件解析失败: {}", source, e);
             throw new IOException("DEX文件解析失败: " + e.getMessage(), e);
         }
     }
@@ -0,0 +1,252 @@
+package com.resources.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * 延迟加载VFS的数据源
+ *
+ * 将整个APK以只读方式映射到内存（超过2GB时按entry区域映射），
+ * entry只在首次访问时解压，且解压后校验大小和CRC。
+ *
+ * 关闭后立即解除映射（Windows上映射中的文件无法被替换），
+ * 之前通过{@link #view}得到的视图随之失效，不得再访问。
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+final class LazyZipSource implements Closeable {
+
+    private final ZipArchiveIndex index;
+
+    // 整个归档的映射（归档超过2GB时为null，改为按区域映射）
+    private MappedByteBuffer mapped;
+
+    // 读取期间持有读锁，关闭（解除映射）须等待进行中的读取结束
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    private LazyZipSource(ZipArchiveIndex index, MappedByteBuffer mapped) {
+        this.index = index;
+        this.mapped = mapped;
+    }
+
+    /**
+     * 映射归档
+     *
+     * @param index 中央目录索引
+     * @return 数据源
+     * @throws IOException 映射失败
+     */
+    static LazyZipSource open(ZipArchiveIndex index) throws IOException {
+        try (FileChannel channel = FileChannel.open(index.getArchivePath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer mapped = size <= Integer.MAX_VALUE
+                ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+                : null;
+            // 映射在通道关闭后仍然有效
+            return new LazyZipSource(index, mapped);
+        }
+    }
+
+    ZipArchiveIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * 是否已关闭
+     */
+    boolean isClosed() {
+        lock.readLock().lock();
+        try {
+            return closed;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 解除映射（可重复调用）
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            MappedByteBuffer buffer = mapped;
+            mapped = null;
+            if (buffer != null) {
+                unmap(buffer);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 解压entry
+     *
+     * @param entry 中央目录entry
+     * @return 解压后的数据
+     * @throws IOException 数据损坏或与中央目录不一致
+     */
+    byte[] read(ZipArchiveIndex.Entry entry) throws IOException {
+        if (entry.getSize() > Integer.MAX_VALUE - 8) {
+            throw new IOException("entry过大: " + entry.getName());
+        }
+
+        lock.readLock().lock();
+        try {
+            return readLocked(entry);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private byte[] readLocked(ZipArchiveIndex.Entry entry) throws IOException {
+        ByteBuffer compressed = region(dataOffset(entry), entry.getCompressedSize());
+        byte[] data = new byte[(int) entry.getSize()];
+
+        if (entry.getMethod() == ZipEntry.STORED) {
+            if (entry.getCompressedSize() != entry.getSize()) {
+                throw new IOException("STORED entry大小不一致: " + entry.getName());
+            }
+            compressed.get(data);
+        } else if (entry.getMethod() == ZipEntry.DEFLATED) {
+            inflate(entry, compressed, data);
+        } else {
+            throw new IOException("不支持的压缩方法: " + entry.getMethod() + " (" + entry.getName() + ")");
+        }
+
+        CRC32 crc32 = new CRC32();
+        crc32.update(data);
+        if (crc32.getValue() != entry.getCrc()) {
+            throw new IOException("CRC校验失败（源APK可能已被修改）: " + entry.getName());
+        }
+
+        return data;
+    }
+
+    /**
+     * 获取STORED entry数据的只读映射视图（不复制到堆）
+     *
+     * @param entry 中央目录entry
+     * @return 数据视图；非STORED entry返回null
+     * @throws IOException 数据损坏或与中央目录不一致
+     */
+    ByteBuffer view(ZipArchiveIndex.Entry entry) throws IOException {
+        if (entry.getMethod() != ZipEntry.STORED) {
+            return null;
+        }
+        if (entry.getCompressedSize() != entry.getSize()) {
+            throw new IOException("STORED entry大小不一致: " + entry.getName());
+        }
+
+        lock.readLock().lock();
+        try {
+            ByteBuffer data = region(dataOffset(entry), entry.getSize()).asReadOnlyBuffer();
+
+            CRC32 crc32 = new CRC32();
+            crc32.update(data.duplicate());
+            if (crc32.getValue() != entry.getCrc()) {
+                throw new IOException("CRC校验失败（源APK可能已被修改）: " + entry.getName());
+            }
+
+            return data;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long dataOffset(ZipArchiveIndex.Entry entry) throws IOException {
+        ByteBuffer header = region(entry.getLocalHeaderOffset(), ZipArchiveIndex.LOCAL_HEADER_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt(0) != ZipArchiveIndex.LOCAL_HEADER_SIGNATURE) {
+            throw new IOException("本地文件头签名无效: " + entry.getName());
+        }
+        int nameLength = header.getShort(26) & 0xFFFF;
+        int extraLength = header.getShort(28) & 0xFFFF;
+        return entry.getLocalHeaderOffset() + ZipArchiveIndex.LOCAL_HEADER_SIZE
+            + nameLength + extraLength;
+    }
+
+    private void inflate(ZipArchiveIndex.Entry entry, ByteBuffer compressed, byte[] data)
+            throws IOException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            int total = 0;
+            while (total < data.length) {
+                int n = inflater.inflate(data, total, data.length - total);
+                if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                total += n;
+            }
+            // 实际解压大小必须与中央目录一致（防御伪造大小的ZIP bomb）
+            if (total != data.length || !inflater.finished() && inflater.inflate(new byte[1]) > 0) {
+                throw new IOException("解压大小与中央目录不一致: " + entry.getName());
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("entry数据损坏: " + entry.getName(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // 调用方须持有读锁
+    private ByteBuffer region(long offset, long length) throws IOException {
+        if (closed) {
+            throw new IOException("数据源已关闭: " + index.getArchivePath());
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("映射区域过大: " + length);
+        }
+        if (mapped != null) {
+            if (offset < 0 || offset + length > mapped.capacity()) {
+                throw new IOException("entry数据越界: offset=" + offset + ", length=" + length);
+            }
+            return mapped.slice((int) offset, (int) length);
+        }
+        try (FileChannel channel = FileChannel.open(index.getArchivePath(), StandardOpenOption.READ)) {
+            if (offset + length > channel.size()) {
+                throw new IOException("entry数据越界: offset=" + offset + ", length=" + length);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        }
+    }
+
+    /**
+     * 立即释放映射，不等待GC
+     *
+     * 通过反射调用Unsafe.invokeCleaner（jdk.unsupported模块）；
+     * 不可用时只丢弃引用，由GC回收映射。
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            invokeCleaner.invoke(field.get(null), buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // 映射将在GC时释放
+        }
+    }
+}
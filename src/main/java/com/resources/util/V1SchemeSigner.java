@@ -0,0 +1,258 @@
+package com.resources.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.cert.X509Certificate;
+import java.util.*;
+
+/**
+ * v1（JAR）签名文件生成
+ *
+ * 根据各entry的摘要生成META-INF/MANIFEST.MF、META-INF/CERT.SF和
+ * PKCS#7签名块（CERT.RSA/CERT.EC/CERT.DSA），由{@link ApkSigner}在导出时调用。
+ * 与apksigner一致：minSdkVersion &lt; 18时使用SHA-1，否则使用SHA-256；
+ * .SF中写入X-Android-APK-Signed，防止v2/v3签名被剥离后降级到v1验证。
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+final class V1SchemeSigner {
+
+    static final String MANIFEST_ENTRY_NAME = "META-INF/MANIFEST.MF";
+
+    /** 支持SHA-256 JAR签名的最低平台版本（Android 4.3） */
+    private static final int MIN_SDK_WITH_SHA256 = 18;
+
+    private static final String SIGNER_NAME = "CERT";
+    private static final String CREATED_BY = "1.0 (Resources Processor)";
+    private static final int MAX_LINE_LENGTH = 72;
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    // DER编码的OID（不含tag和长度）
+    private static final byte[] OID_SIGNED_DATA = {0x2a, (byte) 0x86, 0x48, (byte) 0x86, (byte) 0xf7, 0x0d, 0x01, 0x07, 0x02};
+    private static final byte[] OID_DATA = {0x2a, (byte) 0x86, 0x48, (byte) 0x86, (byte) 0xf7, 0x0d, 0x01, 0x07, 0x01};
+    private static final byte[] OID_SHA1 = {0x2b, 0x0e, 0x03, 0x02, 0x1a};
+    private static final byte[] OID_SHA256 = {0x60, (byte) 0x86, 0x48, 0x01, 0x65, 0x03, 0x04, 0x02, 0x01};
+    private static final byte[] OID_RSA = {0x2a, (byte) 0x86, 0x48, (byte) 0x86, (byte) 0xf7, 0x0d, 0x01, 0x01, 0x01};
+    private static final byte[] OID_EC_PUBLIC_KEY = {0x2a, (byte) 0x86, 0x48, (byte) 0xce, 0x3d, 0x02, 0x01};
+    private static final byte[] OID_DSA = {0x2a, (byte) 0x86, 0x48, (byte) 0xce, 0x38, 0x04, 0x01};
+
+    private V1SchemeSigner() {
+    }
+
+    /**
+     * 是否为v1签名相关的文件（重新签名时丢弃，且不计入MANIFEST.MF）
+     *
+     * @param entryName ZIP entry名
+     */
+    static boolean isSignatureEntry(String entryName) {
+        if (!entryName.startsWith("META-INF/")) {
+            return false;
+        }
+        String name = entryName.substring("META-INF/".length());
+        if (name.indexOf('/') >= 0) {
+            return false;
+        }
+        String upper = name.toUpperCase(Locale.ROOT);
+        return upper.equals("MANIFEST.MF")
+            || upper.endsWith(".SF")
+            || upper.endsWith(".RSA")
+            || upper.endsWith(".DSA")
+            || upper.endsWith(".EC")
+            || upper.startsWith("SIG-");
+    }
+
+    /**
+     * entry摘要使用的算法
+     *
+     * @param minSdkVersion APK的minSdkVersion
+     * @return JCA摘要算法名
+     */
+    static String digestAlgorithm(int minSdkVersion) {
+        return minSdkVersion < MIN_SDK_WITH_SHA256 ? "SHA-1" : "SHA-256";
+    }
+
+    /**
+     * 生成v1签名文件
+     *
+     * @param entryDigests entry名到未压缩内容摘要的映射（按{@link #digestAlgorithm}计算）
+     * @param minSdkVersion APK的minSdkVersion
+     * @param privateKey 签名私钥
+     * @param certificates 证书链（第一个为签名证书）
+     * @param apkSignedSchemes 同时存在的APK签名方案（如"2, 3"）
+     * @return entry名到内容的映射（按写入顺序）
+     * @throws IOException 签名失败
+     */
+    static Map<String, byte[]> sign(SortedMap<String, byte[]> entryDigests, int minSdkVersion,
+                                    PrivateKey privateKey, List<X509Certificate> certificates,
+                                    String apkSignedSchemes) throws IOException {
+        String digestAlgorithm = digestAlgorithm(minSdkVersion);
+        String keyAlgorithm = privateKey.getAlgorithm();
+        if (minSdkVersion < MIN_SDK_WITH_SHA256 && !"RSA".equals(keyAlgorithm) && !"DSA".equals(keyAlgorithm)) {
+            throw new IOException("minSdkVersion=" + minSdkVersion + "不支持" + keyAlgorithm
+                                  + "密钥的v1签名（需要minSdkVersion >= " + MIN_SDK_WITH_SHA256 + "）");
+        }
+        String digestAttribute = "SHA-1".equals(digestAlgorithm) ? "SHA1-Digest" : "SHA-256-Digest";
+
+        try {
+            MessageDigest md = MessageDigest.getInstance(digestAlgorithm);
+            Base64.Encoder base64 = Base64.getEncoder();
+
+            // MANIFEST.MF：主段 + 每个entry一段
+            ByteArrayOutputStream manifest = new ByteArrayOutputStream();
+            writeAttribute(manifest, "Manifest-Version", "1.0");
+            writeAttribute(manifest, "Created-By", CREATED_BY);
+            manifest.write(CRLF);
+
+            ByteArrayOutputStream signatureFileSections = new ByteArrayOutputStream();
+            for (Map.Entry<String, byte[]> entry : entryDigests.entrySet()) {
+                ByteArrayOutputStream section = new ByteArrayOutputStream();
+                writeAttribute(section, "Name", entry.getKey());
+                writeAttribute(section, digestAttribute, base64.encodeToString(entry.getValue()));
+                section.write(CRLF);
+                byte[] sectionBytes = section.toByteArray();
+                manifest.write(sectionBytes);
+
+                writeAttribute(signatureFileSections, "Name", entry.getKey());
+                writeAttribute(signatureFileSections, digestAttribute,
+                               base64.encodeToString(md.digest(sectionBytes)));
+                signatureFileSections.write(CRLF);
+            }
+            byte[] manifestBytes = manifest.toByteArray();
+
+            // CERT.SF：整个MANIFEST.MF的摘要 + 每段的摘要
+            ByteArrayOutputStream signatureFile = new ByteArrayOutputStream();
+            writeAttribute(signatureFile, "Signature-Version", "1.0");
+            writeAttribute(signatureFile, "Created-By", CREATED_BY);
+            writeAttribute(signatureFile, digestAttribute + "-Manifest",
+                           base64.encodeToString(md.digest(manifestBytes)));
+            writeAttribute(signatureFile, "X-Android-APK-Signed", apkSignedSchemes);
+            signatureFile.write(CRLF);
+            signatureFile.write(signatureFileSections.toByteArray());
+            byte[] signatureFileBytes = signatureFile.toByteArray();
+
+            Map<String, byte[]> files = new LinkedHashMap<>();
+            files.put(MANIFEST_ENTRY_NAME, manifestBytes);
+            files.put("META-INF/" + SIGNER_NAME + ".SF", signatureFileBytes);
+            files.put("META-INF/" + SIGNER_NAME + "." + keyAlgorithm,
+                      signatureBlock(signatureFileBytes, digestAlgorithm, privateKey, certificates));
+            return files;
+
+        } catch (GeneralSecurityException e) {
+            throw new IOException("v1签名失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 生成PKCS#7 SignedData（detached，无签名属性）
+     */
+    private static byte[] signatureBlock(byte[] signatureFile, String digestAlgorithm,
+                                         PrivateKey privateKey, List<X509Certificate> certificates)
+            throws GeneralSecurityException, IOException {
+        String keyAlgorithm = privateKey.getAlgorithm();
+        String jcaAlgorithm = ("SHA-1".equals(digestAlgorithm) ? "SHA1" : "SHA256") + "with"
+            + ("EC".equals(keyAlgorithm) ? "ECDSA" : keyAlgorithm);
+        Signature signature = Signature.getInstance(jcaAlgorithm);
+        signature.initSign(privateKey);
+        signature.update(signatureFile);
+        byte[] signatureValue = signature.sign();
+
+        byte[] digestAlgorithmId = algorithmIdentifier(
+            "SHA-1".equals(digestAlgorithm) ? OID_SHA1 : OID_SHA256, true);
+        byte[] signatureAlgorithmId;
+        switch (keyAlgorithm) {
+            case "RSA":
+                signatureAlgorithmId = algorithmIdentifier(OID_RSA, true);
+                break;
+            case "EC":
+                signatureAlgorithmId = algorithmIdentifier(OID_EC_PUBLIC_KEY, false);
+                break;
+            case "DSA":
+                signatureAlgorithmId = algorithmIdentifier(OID_DSA, false);
+                break;
+            default:
+                throw new NoSuchAlgorithmException("不支持的密钥算法: " + keyAlgorithm);
+        }
+
+        X509Certificate signingCertificate = certificates.get(0);
+        byte[] issuerAndSerial = der(0x30,
+            signingCertificate.getIssuerX500Principal().getEncoded(),
+            der(0x02, signingCertificate.getSerialNumber().toByteArray()));
+        byte[] signerInfo = der(0x30,
+            der(0x02, BigInteger.ONE.toByteArray()),
+            issuerAndSerial,
+            digestAlgorithmId,
+            signatureAlgorithmId,
+            der(0x04, signatureValue));
+
+        ByteArrayOutputStream encodedCertificates = new ByteArrayOutputStream();
+        for (X509Certificate certificate : certificates) {
+            encodedCertificates.write(certificate.getEncoded());
+        }
+
+        byte[] signedData = der(0x30,
+            der(0x02, BigInteger.ONE.toByteArray()),
+            der(0x31, digestAlgorithmId),
+            der(0x30, der(0x06, OID_DATA)),
+            der(0xa0, encodedCertificates.toByteArray()),
+            der(0x31, signerInfo));
+
+        return der(0x30, der(0x06, OID_SIGNED_DATA), der(0xa0, signedData));
+    }
+
+    private static byte[] algorithmIdentifier(byte[] oid, boolean nullParameters) {
+        return nullParameters
+            ? der(0x30, der(0x06, oid), new byte[] {0x05, 0x00})
+            : der(0x30, der(0x06, oid));
+    }
+
+    /**
+     * DER编码：tag + 长度 + 依次拼接的内容
+     */
+    private static byte[] der(int tag, byte[]... contents) {
+        int length = 0;
+        for (byte[] content : contents) {
+            length += content.length;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length + 6);
+        out.write(tag);
+        if (length < 0x80) {
+            out.write(length);
+        } else {
+            int lengthBytes = (32 - Integer.numberOfLeadingZeros(length) + 7) / 8;
+            out.write(0x80 | lengthBytes);
+            for (int i = lengthBytes - 1; i >= 0; i--) {
+                out.write(length >>> (i * 8));
+            }
+        }
+        for (byte[] content : contents) {
+            out.write(content, 0, content.length);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 写入"名称: 值"，超过72字节时折行（续行以空格开头）
+     */
+    private static void writeAttribute(ByteArrayOutputStream out, String name, String value) {
+        byte[] line = (name + ": " + value).getBytes(StandardCharsets.UTF_8);
+        int offset = 0;
+        int limit = MAX_LINE_LENGTH;
+        while (line.length - offset > limit) {
+            out.write(line, offset, limit);
+            out.write(CRLF, 0, CRLF.length);
+            out.write(' ');
+            offset += limit;
+            limit = MAX_LINE_LENGTH - 1;
+        }
+        out.write(line, offset, line.length - offset);
+        out.write(CRLF, 0, CRLF.length);
+    }
+}
@@ -4,7 +4,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -23,11 +29,12 @@ import java.util.zip.*;
  * - 其他模块可以直接通过VFS路径访问文件
  * - 避免频繁的ZIP操作
  * - 统一的文件访问接口
+ * - 导出时未修改的entry原样拷贝压缩数据（{@link ExportMode#PASSTHROUGH}）
  * 
  * @author Resources Processor Team
  * @version 1.0.0
  */
-public class VirtualFileSystem {
+public class VirtualFileSystem implements Closeable {
     
     private static final Logger log = LoggerFactory.getLogger(VirtualFileSystem.class);
     
@@ -48,6 +55,46 @@ public class VirtualFileSystem {
     private long maxFileSize = DEFAULT_MAX_FILE_SIZE;
     private long maxTotalSize = DEFAULT_MAX_TOTAL_SIZE;
     
+    // 源APK中央目录索引（用于原样拷贝未修改的entry，不可用时为null）
+    private volatile ZipArchiveIndex sourceIndex;
+    
+    // 延迟模式的数据源（保持源APK的映射，close时释放）
+    private volatile LazyZipSource lazySource;
+    
+    // 导出模式
+    private volatile ExportMode exportMode = ExportMode.PASSTHROUGH;
+    
+    // 导出时对齐未压缩entry（等价于zipalign -p 4）
+    private volatile boolean zipAlign = true;
+    
+    /**
+     * 导出模式
+     */
+    public enum ExportMode {
+        /** 所有entry重新压缩 */
+        RECOMPRESS,
+        /** 未修改的entry原样拷贝源APK中的压缩数据，只重新压缩修改过的entry */
+        PASSTHROUGH
+    }
+    
+    /**
+     * 延迟生成的文件内容
+     * 
+     * 导出时直接写入ZIP entry，不需要先在内存中生成完整的字节数组
+     * （如resources.arsc由ArscWriter流式写出）。
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        
+        /**
+         * 写出完整内容
+         * 
+         * @param channel 目标通道（不得关闭）
+         * @throws IOException 写入失败
+         */
+        void writeTo(WritableByteChannel channel) throws IOException;
+    }
+    
     public VirtualFileSystem() {
         this("vfs:/");
     }
@@ -87,6 +134,40 @@ public class VirtualFileSystem {
         log.info("设置最大总大小: {}MB", maxTotalSize / 1024 / 1024);
     }
     
+    /**
+     * 设置导出模式
+     * 
+     * @param exportMode 导出模式
+     */
+    public void setExportMode(ExportMode exportMode) {
+        this.exportMode = Objects.requireNonNull(exportMode, "exportMode不能为null");
+        log.info("设置导出模式: {}", exportMode);
+    }
+    
+    /**
+     * 获取导出模式
+     */
+    public ExportMode getExportMode() {
+        return exportMode;
+    }
+    
+    /**
+     * 设置导出时是否对齐
+     * 
+     * 启用时（默认）STORED entry按4字节、.so文件按4096字节对齐，
+     * 在同一次写入中完成，无需再调用zipalign。
+     * 
+     * @param zipAlign true=对齐
+     */
+    public void setZipAlign(boolean zipAlign) {
+        this.zipAlign = zipAlign;
+        log.info("设置导出对齐: {}", zipAlign);
+    }
+    
+    public boolean isZipAlign() {
+        return zipAlign;
+    }
+    
     /**
      * 获取最大文件大小限制
      */
@@ -106,7 +187,7 @@ public class VirtualFileSystem {
      */
     public static class VirtualFile {
         private final String path;
-        private byte[] data;
+        private volatile byte[] data;  // 延迟模式下首次访问前为null
         private final long originalSize;
         private long lastModified;
         private boolean modified;
@@ -117,6 +198,16 @@ public class VirtualFileSystem {
         private byte[] extra = null;  // 额外字段
         private String comment = null;  // 注释
         
+        // 源APK中的原始entry（用于原样拷贝压缩数据）
+        private ZipArchiveIndex.Entry sourceEntry;
+        
+        // 延迟模式的数据源（物化后置为null）
+        private LazyZipSource lazySource;
+        
+        // 延迟生成的内容（物化后置为null）
+        private ContentWriter deferredContent;
+        private long deferredSize;
+        
         public VirtualFile(String path, byte[] data) {
             this.path = Objects.requireNonNull(path);
             this.data = Objects.requireNonNull(data).clone();
@@ -139,9 +230,97 @@ public class VirtualFileSystem {
             }
         }
         
+        /**
+         * 延迟模式：只记录中央目录信息，数据在首次访问时解压
+         */
+        VirtualFile(String path, ZipArchiveIndex.Entry sourceEntry, LazyZipSource lazySource) {
+            this.path = Objects.requireNonNull(path);
+            this.sourceEntry = Objects.requireNonNull(sourceEntry);
+            this.lazySource = Objects.requireNonNull(lazySource);
+            this.originalSize = sourceEntry.getSize();
+            this.lastModified = sourceEntry.getLastModifiedTime();
+            this.modified = false;
+            this.compressionMethod = sourceEntry.getMethod();
+            this.crc = sourceEntry.getCrc();
+            this.extra = sourceEntry.extraBytes();
+            this.comment = sourceEntry.commentString();
+        }
+        
+        /**
+         * 延迟生成内容的新文件
+         */
+        VirtualFile(String path, long size, ContentWriter content) {
+            this.path = Objects.requireNonNull(path);
+            this.originalSize = size;
+            this.deferredContent = Objects.requireNonNull(content);
+            this.deferredSize = size;
+            this.lastModified = System.currentTimeMillis();
+            this.modified = true;
+        }
+        
         public String getPath() { return path; }
-        public byte[] getData() { return data.clone(); }
-        public long getSize() { return data.length; }
+        public byte[] getData() { return data().clone(); }
+        public long getSize() {
+            byte[] d = data;
+            if (d != null) {
+                return d.length;
+            }
+            return deferredContent != null ? deferredSize : originalSize;
+        }
+        
+        /**
+         * 数据是否已驻留内存（延迟模式下未访问的文件返回false）
+         */
+        public boolean isMaterialized() { return data != null; }
+        
+        /**
+         * 获取数据（延迟模式下首次访问时解压）
+         */
+        byte[] data() {
+            byte[] d = data;
+            if (d != null) {
+                return d;
+            }
+            synchronized (this) {
+                if (data == null && deferredContent != null) {
+                    try {
+                        data = materialize(deferredSize, deferredContent);
+                        deferredContent = null;
+                        log.trace("物化延迟内容: {} ({} 字节)", path, data.length);
+                    } catch (IOException e) {
+                        throw new IllegalStateException("生成文件内容失败: " + path + " (" + e.getMessage() + ")", e);
+                    }
+                } else if (data == null) {
+                    try {
+                        data = lazySource.read(sourceEntry);
+                        lazySource = null;
+                        log.trace("延迟加载: {} ({} 字节)", path, data.length);
+                    } catch (IOException e) {
+                        throw new IllegalStateException("延迟加载文件失败: " + path + " (" + e.getMessage() + ")", e);
+                    }
+                }
+                return data;
+            }
+        }
+        /**
+         * 获取只读数据视图（延迟模式下未访问的STORED文件直接返回APK的映射区域）
+         */
+        ByteBuffer view() {
+            synchronized (this) {
+                if (data == null && deferredContent == null && lazySource != null) {
+                    try {
+                        ByteBuffer mapped = lazySource.view(sourceEntry);
+                        if (mapped != null) {
+                            log.trace("映射视图: {} ({} 字节)", path, mapped.remaining());
+                            return mapped;
+                        }
+                    } catch (IOException e) {
+                        throw new IllegalStateException("延迟加载文件失败: " + path + " (" + e.getMessage() + ")", e);
+                    }
+                }
+            }
+            return ByteBuffer.wrap(data()).asReadOnlyBuffer();
+        }
         public long getOriginalSize() { return originalSize; }
         public long getLastModified() { return lastModified; }
         public boolean isModified() { return modified; }
@@ -152,14 +331,117 @@ public class VirtualFileSystem {
         public byte[] getExtra() { return extra != null ? extra.clone() : null; }
         public String getComment() { return comment; }
         
-        public void setData(byte[] newData) {
+        ZipArchiveIndex.Entry getSourceEntry() { return sourceEntry; }
+        void setSourceEntry(ZipArchiveIndex.Entry sourceEntry) { this.sourceEntry = sourceEntry; }
+        
+        /**
+         * 获取尚未物化的延迟内容（已物化或不是延迟内容时返回null）
+         */
+        synchronized ContentWriter getDeferredContent() { return data == null ? deferredContent : null; }
+        
+        public synchronized void setData(byte[] newData) {
             this.data = Objects.requireNonNull(newData).clone();
+            this.lazySource = null;
+            this.deferredContent = null;
             this.lastModified = System.currentTimeMillis();
             this.modified = true;
             // 数据修改后CRC失效
             this.crc = -1;
         }
         
+        /**
+         * 设置延迟生成的内容（导出时才写出）
+         */
+        synchronized void setContent(long size, ContentWriter content) {
+            this.data = null;
+            this.lazySource = null;
+            this.deferredContent = Objects.requireNonNull(content);
+            this.deferredSize = size;
+            this.lastModified = System.currentTimeMillis();
+            this.modified = true;
+            this.crc = -1;
+        }
+        
+        /**
+         * 源APK映射释放后使尚未物化的延迟内容失效，之后访问抛出异常而不是读取已解除的映射
+         */
+        synchronized void detachDeferredContent() {
+            if (data == null && deferredContent != null) {
+                deferredContent = channel -> {
+                    throw new IOException("源APK映射已释放，无法生成延迟内容: " + path);
+                };
+            }
+        }
+        
+        /**
+         * 计算内容摘要（未读取过的延迟文件解压后不驻留内存）
+         */
+        synchronized void digest(MessageDigest md) throws IOException {
+            if (data != null) {
+                md.update(data);
+            } else if (deferredContent != null) {
+                deferredContent.writeTo(new WritableByteChannel() {
+                    @Override
+                    public int write(ByteBuffer src) {
+                        int n = src.remaining();
+                        md.update(src);
+                        return n;
+                    }
+                    
+                    @Override
+                    public boolean isOpen() {
+                        return true;
+                    }
+                    
+                    @Override
+                    public void close() {
+                    }
+                });
+            } else {
+                ByteBuffer mapped = lazySource.view(sourceEntry);
+                if (mapped != null) {
+                    md.update(mapped);
+                } else {
+                    md.update(lazySource.read(sourceEntry));
+                }
+            }
+        }
+        
+        /**
+         * 把延迟内容写入精确大小的字节数组
+         */
+        private static byte[] materialize(long size, ContentWriter content) throws IOException {
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IOException("文件过大，无法载入内存: " + size);
+            }
+            ByteBuffer target = ByteBuffer.allocate((int) size);
+            content.writeTo(new WritableByteChannel() {
+                @Override
+                public int write(ByteBuffer src) throws IOException {
+                    int n = src.remaining();
+                    if (n > target.remaining()) {
+                        throw new IOException("内容超出声明的大小: " + size);
+                    }
+                    target.put(src);
+                    return n;
+                }
+                
+                @Override
+                public boolean isOpen() {
+                    return true;
+                }
+                
+                @Override
+                public void close() {
+                }
+            });
+            if (target.hasRemaining()) {
+                throw new IOException(String.format("内容小于声明的大小: 期望%d, 实际%d",
+                                                    size, target.position()));
+            }
+            return target.array();
+        }
+        
         /**
          * 创建ZipEntry（恢复所有元数据）
          */
@@ -183,11 +465,12 @@ public class VirtualFileSystem {
             
             // 如果是STORED方法，必须设置大小和CRC
             if (compressionMethod == ZipEntry.STORED) {
-                entry.setSize(data.length);
+                byte[] d = data();
+                entry.setSize(d.length);
                 if (crc < 0 || modified) {
                     // 重新计算CRC
                     java.util.zip.CRC32 crc32 = new java.util.zip.CRC32();
-                    crc32.update(data);
+                    crc32.update(d);
                     entry.setCrc(crc32.getValue());
                 }
             }
@@ -198,7 +481,7 @@ public class VirtualFileSystem {
         @Override
         public String toString() {
             return String.format("VirtualFile{path='%s', size=%d, modified=%b, method=%s}", 
-                               path, data.length, modified, 
+                               path, getSize(), modified, 
                                compressionMethod == ZipEntry.STORED ? "STORED" : "DEFLATED");
         }
     }
@@ -216,9 +499,19 @@ public class VirtualFileSystem {
         log.info("从APK加载到VFS: {}", apkPath);
         
         fileSystem.clear();
+        close();
         int count = 0;
         long currentTotalSize = 0;
         
+        // 读取中央目录索引，失败时（如ZIP64）导出退化为重新压缩
+        ZipArchiveIndex index;
+        try {
+            index = ZipArchiveIndex.read(Paths.get(apkPath));
+        } catch (IOException e) {
+            log.debug("无法建立中央目录索引，导出时将重新压缩: {}", e.getMessage());
+            index = null;
+        }
+        
         try (ZipFile zipFile = new ZipFile(apkPath)) {
             Enumeration<? extends ZipEntry> entries = zipFile.entries();
             
@@ -275,6 +568,14 @@ public class VirtualFileSystem {
                         
                         // 使用新构造函数保留ZIP元数据
                         VirtualFile vFile = new VirtualFile(entryPath, data, entry);
+                        if (index != null) {
+                            ZipArchiveIndex.Entry rawEntry = index.getEntry(originalName);
+                            if (rawEntry != null && !rawEntry.isEncrypted()
+                                    && rawEntry.getMethod() == entry.getMethod()
+                                    && rawEntry.getSize() == data.length) {
+                                vFile.setSourceEntry(rawEntry);
+                            }
+                        }
                         fileSystem.put(entryPath, vFile);
                         count++;
                         currentTotalSize += data.length;
@@ -287,6 +588,7 @@ public class VirtualFileSystem {
             }
         }
         
+        sourceIndex = index;
         loaded.set(true);
         log.info("VFS加载完成: {} 个文件, 总大小: {} MB", 
                 count, currentTotalSize / 1024 / 1024);
@@ -294,6 +596,83 @@ public class VirtualFileSystem {
         return count;
     }
     
+    /**
+     * 从APK延迟加载到VFS
+     * 
+     * 只读取中央目录建立索引，APK保持内存映射，文件数据在首次
+     * {@link #readFile}/{@link VirtualFile#getData()}时才解压。
+     * 不访问的entry（DEX、so、图片等）不占用堆内存，因此不受
+     * maxTotalSize限制；单个文件仍受maxFileSize限制。
+     * 
+     * 不支持ZIP64（抛出IOException，可改用{@link #loadFromApk}）。
+     * 
+     * @param apkPath APK文件路径
+     * @return 索引的文件数量
+     * @throws IOException 加载失败
+     */
+    public int loadFromApkLazy(String apkPath) throws IOException {
+        Objects.requireNonNull(apkPath, "apkPath不能为null");
+        
+        log.info("从APK延迟加载到VFS: {}", apkPath);
+        
+        fileSystem.clear();
+        close();
+        
+        ZipArchiveIndex index = ZipArchiveIndex.read(Paths.get(apkPath));
+        LazyZipSource source = LazyZipSource.open(index);
+        lazySource = source;
+        
+        int count = 0;
+        long indexedSize = 0;
+        
+        for (ZipArchiveIndex.Entry entry : index.getEntries()) {
+            if (entry.isDirectory()) {
+                continue;
+            }
+            
+            String originalName = entry.getName();
+            String entryPath;
+            
+            // 🔒 ZIP Slip防护：验证ZIP Entry路径
+            try {
+                entryPath = normalizeVfsPath(originalName);
+                validateVfsPath(entryPath);
+            } catch (IllegalArgumentException e) {
+                log.warn("跳过非法ZIP Entry: {} ({})", originalName, e.getMessage());
+                continue;
+            }
+            
+            if (entry.getSize() > maxFileSize) {
+                log.warn("跳过超大文件: {} (大小: {} MB, 限制: {} MB)", 
+                        entryPath, entry.getSize() / 1024 / 1024, maxFileSize / 1024 / 1024);
+                continue;
+            }
+            
+            if (entry.isEncrypted() 
+                    || (entry.getMethod() != ZipEntry.STORED && entry.getMethod() != ZipEntry.DEFLATED)) {
+                log.warn("跳过不支持的entry: {} (method={}, flags=0x{})", 
+                        entryPath, entry.getMethod(), Integer.toHexString(entry.getFlags()));
+                continue;
+            }
+            
+            if (fileSystem.containsKey(entryPath)) {
+                log.warn("跳过重复的ZIP Entry: {}", originalName);
+                continue;
+            }
+            
+            fileSystem.put(entryPath, new VirtualFile(entryPath, entry, source));
+            count++;
+            indexedSize += entry.getSize();
+        }
+        
+        sourceIndex = index;
+        loaded.set(true);
+        log.info("VFS延迟加载完成: {} 个文件, 未压缩总大小: {} MB（按需解压）", 
+                count, indexedSize / 1024 / 1024);
+        
+        return count;
+    }
+    
     /**
      * 从VFS导出到APK
      * 
@@ -302,18 +681,92 @@ public class VirtualFileSystem {
      * @throws IOException 导出失败
      */
     public int saveToApk(String apkPath) throws IOException {
+        return saveToApk(apkPath, null);
+    }
+    
+    /**
+     * 从VFS导出到APK，导出时同时签名
+     * 
+     * entry写完后直接对输出文件计算v2/v3摘要，签名块与中央目录一起写出，
+     * 不需要导出后再读写一遍APK。签名总是经过底层写入器（与exportMode无关）。
+     * 签名器需要v1签名时，先生成META-INF下的v1签名文件写入VFS。
+     * 
+     * @param apkPath 输出APK路径
+     * @param signer 签名器（null=不签名）
+     * @return 写入的文件数量
+     * @throws IOException 导出或签名失败
+     */
+    public int saveToApk(String apkPath, ApkSigner signer) throws IOException {
         Objects.requireNonNull(apkPath, "apkPath不能为null");
         
         if (!loaded.get()) {
             throw new IllegalStateException("VFS未加载");
         }
         
-        log.info("从VFS导出到APK: {}", apkPath);
+        log.info("从VFS导出到APK: {} (模式: {})", apkPath, exportMode);
         
         // 确保输出目录存在
-        Path outputPath = Paths.get(apkPath);
+        Path outputPath = Paths.get(apkPath).toAbsolutePath();
         Files.createDirectories(outputPath.getParent());
         
+        ZipArchiveIndex index = sourceIndex;
+        if (index != null && !index.isUnchanged()) {
+            log.warn("源APK在加载后已被修改，无法原样拷贝，改为重新压缩: {}", index.getArchivePath());
+            index = null;
+        }
+        
+        if (signer != null && signer.isV1Enabled()) {
+            writeV1Signature(signer);
+        }
+        
+        boolean passthrough = exportMode == ExportMode.PASSTHROUGH && index != null;
+        // 延迟模式下输出可能正是被映射的源APK，必须经临时文件写出
+        if (passthrough || zipAlign || signer != null || lazySource != null) {
+            return saveWithRawWriter(outputPath, index, passthrough, signer);
+        }
+        
+        return saveRecompressed(apkPath);
+    }
+    
+    /**
+     * 生成v1签名文件并写入VFS（替换已有的v1签名文件）
+     * 
+     * MANIFEST.MF需要每个entry未压缩内容的摘要，因此会读取所有entry；
+     * 只在minSdkVersion &lt; 24时执行。
+     */
+    private void writeV1Signature(ApkSigner signer) throws IOException {
+        long start = System.nanoTime();
+        
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance(signer.getV1DigestAlgorithm());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("v1签名摘要算法不可用: " + e.getMessage(), e);
+        }
+        
+        SortedMap<String, byte[]> digests = new TreeMap<>();
+        for (String vfsPath : new ArrayList<>(fileSystem.keySet())) {
+            String entryName = vfsPathToZipEntry(vfsPath);
+            if (V1SchemeSigner.isSignatureEntry(entryName)) {
+                deleteFile(vfsPath);
+                continue;
+            }
+            fileSystem.get(vfsPath).digest(md);
+            digests.put(entryName, md.digest());
+        }
+        
+        for (Map.Entry<String, byte[]> file : signer.createV1SignatureFiles(digests).entrySet()) {
+            writeFile(file.getKey(), file.getValue());
+        }
+        
+        log.info("v1签名文件已生成: {} 个entry ({}, {} ms)", digests.size(),
+                signer.getV1DigestAlgorithm(), (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    /**
+     * 导出：所有entry经ZipOutputStream重新压缩（不对齐）
+     */
+    private int saveRecompressed(String apkPath) throws IOException {
         int count = 0;
         
         try (ZipOutputStream zos = new ZipOutputStream(
@@ -333,7 +786,12 @@ public class VirtualFileSystem {
                 ZipEntry entry = vFile.toZipEntry(zipEntryPath);
                 
                 zos.putNextEntry(entry);
-                zos.write(vFile.getData());
+                ContentWriter deferred = vFile.getDeferredContent();
+                if (deferred != null && entry.getMethod() != ZipEntry.STORED) {
+                    deferred.writeTo(Channels.newChannel(zos));
+                } else {
+                    zos.write(vFile.data());
+                }
                 zos.closeEntry();
                 
                 count++;
@@ -350,6 +808,100 @@ public class VirtualFileSystem {
         return count;
     }
     
+    /**
+     * 导出：单次写入，按需对齐
+     * 
+     * passthrough时未修改的entry原样拷贝源APK的压缩数据，修改过的entry重新压缩；
+     * 否则所有entry重新压缩。输出与源APK为同一文件时，先写入临时文件再替换。
+     * 
+     * @param index 源归档索引（可为null）
+     * @param passthrough 是否原样拷贝未修改的entry
+     * @param signer 签名器（可为null）
+     */
+    private int saveWithRawWriter(Path outputPath, ZipArchiveIndex index, 
+                                  boolean passthrough, ApkSigner signer) throws IOException {
+        LazyZipSource source = lazySource;
+        Path sourcePath = index != null ? index.getArchivePath()
+            : source != null ? source.getIndex().getArchivePath() : null;
+        boolean sameFile = sourcePath != null 
+            && Files.exists(outputPath) && Files.isSameFile(outputPath, sourcePath);
+        Path writePath = sameFile
+            ? outputPath.resolveSibling(outputPath.getFileName() + ".vfs.tmp")
+            : outputPath;
+        
+        if (sameFile) {
+            // 源文件将被替换，先物化所有文件：既包括尚未访问的延迟加载文件，
+            // 也包括延迟生成的内容（如ApkSession提交的resources.arsc由ArscWriter
+            // 从源APK映射中拼接未修改的chunk，替换后将不可读）
+            for (VirtualFile vFile : fileSystem.values()) {
+                vFile.data();
+            }
+        }
+        
+        int copied = 0;
+        int recompressed = 0;
+        
+        try (FileChannel sourceChannel = passthrough 
+                 ? FileChannel.open(sourcePath, StandardOpenOption.READ) : null;
+             ZipRawWriter writer = new ZipRawWriter(writePath)) {
+            
+            if (zipAlign) {
+                writer.setAlignment(ZipRawWriter.DEFAULT_ALIGNMENT);
+            }
+            writer.setSigner(signer);
+            
+            // 按路径排序（保持ZIP文件的可重现性）
+            List<String> sortedPaths = new ArrayList<>(fileSystem.keySet());
+            Collections.sort(sortedPaths);
+            
+            for (String vfsPath : sortedPaths) {
+                VirtualFile vFile = fileSystem.get(vfsPath);
+                String zipEntryPath = vfsPathToZipEntry(vfsPath);
+                ZipArchiveIndex.Entry rawEntry = vFile.getSourceEntry();
+                
+                ContentWriter deferred = vFile.getDeferredContent();
+                if (passthrough && !vFile.isModified() && rawEntry != null) {
+                    writer.copyRaw(zipEntryPath, rawEntry, sourceChannel,
+                                   vFile.extra, vFile.getComment());
+                    copied++;
+                } else if (deferred != null) {
+                    writer.writeStream(zipEntryPath, vFile.getCompressionMethod(), vFile.getSize(),
+                                       deferred, vFile.getLastModified(), vFile.extra, vFile.getComment());
+                    recompressed++;
+                } else {
+                    writer.writeData(zipEntryPath, vFile.getCompressionMethod(), vFile.data(),
+                                     vFile.getLastModified(), vFile.extra, vFile.getComment());
+                    recompressed++;
+                }
+                
+                log.trace("写入ZIP: {} ({} 字节, modified={}, raw={})", 
+                        zipEntryPath, vFile.getSize(), vFile.isModified(), rawEntry != null);
+            }
+            
+            writer.finish();
+            
+        } catch (IOException e) {
+            Files.deleteIfExists(writePath);
+            throw e;
+        }
+        
+        if (sameFile) {
+            // 所有内容已驻留内存，替换前释放映射（Windows上无法替换仍被映射的文件）
+            close();
+            Files.move(writePath, outputPath, StandardCopyOption.REPLACE_EXISTING);
+            // 源APK已被替换，原有偏移失效
+            sourceIndex = null;
+            for (VirtualFile vFile : fileSystem.values()) {
+                vFile.setSourceEntry(null);
+            }
+        }
+        
+        log.info("VFS导出完成: {} 个文件（原样拷贝={}, 重新压缩={}, 对齐={}, 签名={}）", 
+                copied + recompressed, copied, recompressed, zipAlign, signer != null);
+        
+        return copied + recompressed;
+    }
+    
     /**
      * 读取VFS文件
      * 
@@ -371,6 +923,31 @@ public class VirtualFileSystem {
         return vFile.getData();
     }
     
+    /**
+     * 读取VFS文件的只读视图（不复制）
+     * 
+     * 延迟加载且未访问的STORED entry（如对齐的resources.arsc）直接返回源APK的
+     * 内存映射区域，不进入堆；其他文件返回内存数据的只读包装。
+     * 视图在文件被覆盖后仍指向旧内容。
+     * 
+     * @param vfsPath VFS路径
+     * @return 只读视图
+     * @throws FileNotFoundException 文件不存在
+     * @throws IllegalArgumentException 路径非法
+     */
+    public ByteBuffer readFileView(String vfsPath) throws FileNotFoundException {
+        vfsPath = normalizeVfsPath(vfsPath);
+        validateVfsPath(vfsPath);
+        
+        VirtualFile vFile = fileSystem.get(vfsPath);
+        if (vFile == null) {
+            throw new FileNotFoundException("VFS文件不存在: " + vfsPath);
+        }
+        
+        log.trace("VFS读取视图: {} ({} 字节)", vfsPath, vFile.getSize());
+        return vFile.view();
+    }
+    
     /**
      * 写入VFS文件（修改或创建）
      * 
@@ -397,6 +974,36 @@ public class VirtualFileSystem {
         }
     }
     
+    /**
+     * 写入延迟生成的VFS文件（修改或创建）
+     * 
+     * 内容在导出时才由writer直接写入ZIP entry；在此之前读取该文件
+     * 会先在内存中生成一次完整数据。
+     * 
+     * @param vfsPath VFS路径
+     * @param size 内容的精确大小
+     * @param content 内容生成器
+     * @throws IllegalArgumentException 路径非法或大小为负
+     */
+    public void writeFile(String vfsPath, long size, ContentWriter content) {
+        Objects.requireNonNull(content, "content不能为null");
+        if (size < 0) {
+            throw new IllegalArgumentException("size不能为负: " + size);
+        }
+        vfsPath = normalizeVfsPath(vfsPath);
+        validateVfsPath(vfsPath);
+        
+        VirtualFile vFile = fileSystem.get(vfsPath);
+        if (vFile != null) {
+            vFile.setContent(size, content);
+            log.debug("VFS修改（延迟生成）: {} ({} -> {} 字节)", 
+                     vfsPath, vFile.getOriginalSize(), size);
+        } else {
+            fileSystem.put(vfsPath, new VirtualFile(vfsPath, size, content));
+            log.debug("VFS创建（延迟生成）: {} ({} 字节)", vfsPath, size);
+        }
+    }
+    
     /**
      * 检查文件是否存在
      * 
@@ -566,10 +1173,32 @@ public class VirtualFileSystem {
      */
     public void clear() {
         fileSystem.clear();
+        close();
+        sourceIndex = null;
         loaded.set(false);
         log.info("VFS已清空");
     }
     
+    /**
+     * 释放延迟模式下源APK的内存映射（可重复调用）
+     * 
+     * 已读取或修改过的文件仍可访问，未访问过的延迟文件将无法再读取。
+     * 替换源APK前必须先关闭（Windows上无法替换仍被映射的文件）。
+     */
+    @Override
+    public void close() {
+        LazyZipSource source = lazySource;
+        lazySource = null;
+        if (source != null) {
+            // 延迟生成的内容可能引用源APK的映射（如ArscWriter拼接未修改的chunk）
+            for (VirtualFile vFile : fileSystem.values()) {
+                vFile.detachDeferredContent();
+            }
+            source.close();
+            log.debug("已释放源APK映射: {}", source.getIndex().getArchivePath());
+        }
+    }
+    
     /**
      * VFS是否已加载
      */
@@ -736,10 +1365,13 @@ public class VirtualFileSystem {
         int modifiedFiles = (int) fileSystem.values().stream()
             .filter(VirtualFile::isModified)
             .count();
+        int residentFiles = (int) fileSystem.values().stream()
+            .filter(VirtualFile::isMaterialized)
+            .count();
         long totalSize = getTotalSize();
         
-        return String.format("VFS统计: 文件=%d, 已修改=%d, 总大小=%d字节 (%.2f MB)", 
-                           totalFiles, modifiedFiles, totalSize, totalSize / 1024.0 / 1024.0);
+        return String.format("VFS统计: 文件=%d, 已修改=%d, 已驻留=%d, 总大小=%d字节 (%.2f MB)", 
+                           totalFiles, modifiedFiles, residentFiles, totalSize, totalSize / 1024.0 / 1024.0);
     }
     
     /**
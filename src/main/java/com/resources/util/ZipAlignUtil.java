@@ -3,24 +3,30 @@ package com.resources.util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.*;
-import java.nio.charset.StandardCharsets;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
 
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 
 /**
  * ZIP对齐工具类
  * 
- * 调用bin/win/zipalign.exe对APK进行对齐
+ * 纯Java实现zipalign（不再依赖bin/win/zipalign.exe），
  * 对齐要求：
- * - 未压缩资源：4字节对齐
+ * - 未压缩资源：按指定字节数对齐（默认4）
  * - native库(.so)：4096字节对齐
  * 
- * 设计：完全复用Aapt2Validator的ProcessBuilder模式
+ * 所有entry的压缩数据原样拷贝，只调整本地文件头中的额外字段。
+ * VFS导出时默认已完成对齐（见{@link VirtualFileSystem#setZipAlign}），
+ * 本工具用于对外部生成的APK单独对齐。
  * 
  * @author Resources Processor Team
  * @version 1.0.0
@@ -29,9 +35,7 @@ public class ZipAlignUtil {
     
     private static final Logger log = LoggerFactory.getLogger(ZipAlignUtil.class);
     
-    private static final String ZIPALIGN_PATH = "bin/win/zipalign.exe";
     private static final int DEFAULT_ALIGNMENT = 4;
-    private static final long COMMAND_TIMEOUT_MS = 60000;  // 60秒
     
     /**
      * 对齐APK
@@ -51,12 +55,6 @@ public class ZipAlignUtil {
                 "alignment必须是4, 8或4096，实际: " + alignment);
         }
         
-        // 验证zipalign工具存在
-        File zipalignFile = new File(ZIPALIGN_PATH);
-        if (!zipalignFile.exists()) {
-            throw new FileNotFoundException("zipalign工具不存在: " + ZIPALIGN_PATH);
-        }
-        
         // 验证输入文件存在
         File inputFile = new File(inputApk);
         if (!inputFile.exists()) {
@@ -67,66 +65,40 @@ public class ZipAlignUtil {
             throw new IOException("输入APK不可读: " + inputApk);
         }
         
+        Path inputPath = inputFile.toPath().toAbsolutePath();
+        Path outputPath = Paths.get(outputApk).toAbsolutePath();
+        if (Files.exists(outputPath) && Files.isSameFile(inputPath, outputPath)) {
+            throw new IllegalArgumentException("输入和输出不能是同一文件（请使用alignInPlace）: " + inputApk);
+        }
+        
         log.info("对齐APK: {} -> {} (alignment={})", inputApk, outputApk, alignment);
         
-        try {
-            // 构建命令（完全复用Aapt2Validator模式）
-            ProcessBuilder pb = new ProcessBuilder(
-                ZIPALIGN_PATH,
-                "-f",  // force overwrite
-                "-v",  // verbose
-                String.valueOf(alignment),
-                inputApk,
-                outputApk
-            );
-            
-            pb.redirectErrorStream(true);
-            Process process = pb.start();
-            
-            // 读取输出（复用Aapt2Validator的readProcessOutput模式）
-            String output = readProcessOutput(process);
-            
-            // 等待完成（带超时，防止hang）
-            boolean finished = process.waitFor(COMMAND_TIMEOUT_MS, TimeUnit.MILLISECONDS);
-            
-            if (!finished) {
-                process.destroyForcibly();
-                throw new IOException("zipalign超时: " + COMMAND_TIMEOUT_MS + "ms");
-            }
-            
-            int exitCode = process.exitValue();
-            
-            if (exitCode != 0) {
-                log.error("zipalign失败: exitCode={}", exitCode);
-                log.error("输出:\n{}", output);
-                throw new IOException("zipalign failed with code " + exitCode);
-            }
+        ZipArchiveIndex index = ZipArchiveIndex.read(inputPath);
+        
+        try (FileChannel source = FileChannel.open(inputPath, StandardOpenOption.READ);
+             ZipRawWriter writer = new ZipRawWriter(outputPath)) {
             
-            // 检查输出文件是否存在且有效
-            File outputFile = new File(outputApk);
-            if (!outputFile.exists()) {
-                throw new IOException("zipalign未生成输出文件: " + outputApk);
-            }
+            writer.setAlignment(alignment);
             
-            if (outputFile.length() == 0) {
-                throw new IOException("zipalign生成的文件为空: " + outputApk);
+            // 保持原有entry顺序
+            for (ZipArchiveIndex.Entry entry : index.getEntries()) {
+                writer.copyRaw(entry.getName(), entry, source,
+                               entry.extraBytes(), entry.commentString());
             }
+            writer.finish();
             
-            log.info("APK对齐完成: {} ({} 字节)", outputApk, outputFile.length());
-            log.debug("zipalign输出:\n{}", output);
-            
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new IOException("zipalign被中断", e);
         } catch (IOException e) {
             // 清理可能生成的不完整文件
             try {
-                Files.deleteIfExists(Paths.get(outputApk));
+                Files.deleteIfExists(outputPath);
             } catch (IOException cleanupError) {
                 log.warn("清理输出文件失败: {}", outputApk, cleanupError);
             }
             throw e;
         }
+        
+        log.info("APK对齐完成: {} ({} 个entry, {} 字节)", 
+                outputApk, index.getEntries().size(), Files.size(outputPath));
     }
     
     /**
@@ -168,38 +140,41 @@ public class ZipAlignUtil {
     }
     
     /**
-     * 读取进程输出（复用Aapt2Validator模式）
+     * 检查APK是否已对齐
+     * 
+     * @param apkPath APK路径
+     * @param alignment 未压缩entry的对齐字节数（.so按4096检查）
+     * @return true=所有STORED entry均已对齐
+     * @throws IOException 读取失败
      */
-    private static String readProcessOutput(Process process) throws IOException {
-        StringBuilder output = new StringBuilder();
+    public static boolean isAligned(String apkPath, int alignment) throws IOException {
+        Objects.requireNonNull(apkPath, "apkPath不能为null");
         
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
+        Path path = Paths.get(apkPath);
+        ZipArchiveIndex index = ZipArchiveIndex.read(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (ZipArchiveIndex.Entry entry : index.getEntries()) {
+                if (entry.getMethod() != ZipEntry.STORED) {
+                    continue;
+                }
+                int required = entry.getName().endsWith(".so")
+                    ? Math.max(alignment, ZipRawWriter.SHARED_LIBRARY_ALIGNMENT) : alignment;
+                long offset = entry.dataOffset(channel);
+                if (offset % required != 0) {
+                    log.debug("未对齐: {} (offset={}, alignment={})", entry.getName(), offset, required);
+                    return false;
+                }
             }
         }
-        
-        return output.toString();
+        return true;
     }
     
     /**
-     * 验证zipalign工具是否可用
+     * 验证对齐功能是否可用（纯Java实现，始终可用）
      * 
      * @return true=可用
      */
     public static boolean isAvailable() {
-        File zipalignFile = new File(ZIPALIGN_PATH);
-        boolean available = zipalignFile.exists() && zipalignFile.canExecute();
-        
-        if (available) {
-            log.debug("zipalign工具可用: {}", zipalignFile.getAbsolutePath());
-        } else {
-            log.warn("zipalign工具不可用: {}", ZIPALIGN_PATH);
-        }
-        
-        return available;
+        return true;
     }
 }
-
@@ -0,0 +1,329 @@
+package com.resources.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * ZIP中央目录索引
+ *
+ * 只读取ZIP尾部的中央目录，记录每个entry的压缩方法、CRC、大小和
+ * 本地文件头偏移，不解压任何数据。用于：
+ * - 导出时原样拷贝未修改entry的压缩数据（免重新压缩）
+ * - 按需定位entry的压缩数据
+ *
+ * 不支持ZIP64和分卷ZIP（遇到时抛出IOException，由调用方回退）。
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public final class ZipArchiveIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ZipArchiveIndex.class);
+
+    static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    static final int END_OF_CENTRAL_DIR_SIGNATURE = 0x06054b50;
+
+    static final int LOCAL_HEADER_SIZE = 30;
+    static final int CENTRAL_HEADER_SIZE = 46;
+    static final int END_OF_CENTRAL_DIR_SIZE = 22;
+
+    // 通用标志位：名称使用UTF-8编码
+    static final int FLAG_UTF8 = 0x0800;
+
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    private final Path archivePath;
+    private final long archiveSize;
+    private final long archiveLastModified;
+    private final List<Entry> entries;
+    private final Map<String, Entry> entriesByName;
+
+    private ZipArchiveIndex(Path archivePath, long archiveSize, long archiveLastModified,
+                            List<Entry> entries) {
+        this.archivePath = archivePath;
+        this.archiveSize = archiveSize;
+        this.archiveLastModified = archiveLastModified;
+        this.entries = Collections.unmodifiableList(entries);
+
+        Map<String, Entry> byName = new HashMap<>();
+        for (Entry entry : entries) {
+            byName.putIfAbsent(entry.getName(), entry);
+        }
+        this.entriesByName = byName;
+    }
+
+    /**
+     * ZIP中央目录中的单个entry
+     */
+    public static final class Entry {
+        private final String name;
+        private final int flags;
+        private final int method;
+        private final int dosTime;
+        private final long crc;
+        private final long compressedSize;
+        private final long size;
+        private final long localHeaderOffset;
+        private final byte[] extra;
+        private final byte[] comment;
+
+        Entry(String name, int flags, int method, int dosTime, long crc,
+              long compressedSize, long size, long localHeaderOffset,
+              byte[] extra, byte[] comment) {
+            this.name = name;
+            this.flags = flags;
+            this.method = method;
+            this.dosTime = dosTime;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+            this.extra = extra;
+            this.comment = comment;
+        }
+
+        public String getName() { return name; }
+        public int getFlags() { return flags; }
+        public int getMethod() { return method; }
+        public int getDosTime() { return dosTime; }
+        public long getCrc() { return crc; }
+        public long getCompressedSize() { return compressedSize; }
+        public long getSize() { return size; }
+        public long getLocalHeaderOffset() { return localHeaderOffset; }
+        public boolean isDirectory() { return name.endsWith("/"); }
+        public boolean isEncrypted() { return (flags & 0x1) != 0; }
+
+        /**
+         * MS-DOS时间转换为Java时间（本地时区，与java.util.zip一致）
+         */
+        public long getLastModifiedTime() {
+            int year = ((dosTime >> 25) & 0x7F) + 1980;
+            int month = Math.max(1, Math.min(12, (dosTime >> 21) & 0x0F));
+            int day = Math.max(1, (dosTime >> 16) & 0x1F);
+            int hour = Math.min(23, (dosTime >> 11) & 0x1F);
+            int minute = Math.min(59, (dosTime >> 5) & 0x3F);
+            int second = Math.min(59, (dosTime << 1) & 0x3E);
+            try {
+                return java.time.LocalDateTime.of(year, month, day, hour, minute, second)
+                    .atZone(java.time.ZoneId.systemDefault()).toInstant().toEpochMilli();
+            } catch (java.time.DateTimeException e) {
+                return 0L;
+            }
+        }
+
+        String commentString() {
+            return comment != null ? new String(comment, StandardCharsets.UTF_8) : null;
+        }
+
+        byte[] extraBytes() { return extra; }
+        byte[] commentBytes() { return comment; }
+
+        /**
+         * 读取本地文件头，计算压缩数据的起始偏移
+         *
+         * @param channel 归档文件通道
+         * @return 压缩数据在归档中的偏移
+         * @throws IOException 本地文件头损坏
+         */
+        public long dataOffset(FileChannel channel) throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(LOCAL_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header, localHeaderOffset);
+            header.flip();
+
+            if (header.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+                throw new IOException("本地文件头签名无效: " + name);
+            }
+
+            int nameLength = header.getShort(26) & 0xFFFF;
+            int extraLength = header.getShort(28) & 0xFFFF;
+            return localHeaderOffset + LOCAL_HEADER_SIZE + nameLength + extraLength;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Entry{name='%s', method=%d, csize=%d, size=%d, offset=%d}",
+                               name, method, compressedSize, size, localHeaderOffset);
+        }
+    }
+
+    /**
+     * 读取ZIP中央目录
+     *
+     * @param archivePath 归档路径
+     * @return 中央目录索引
+     * @throws IOException 读取失败，或为不支持的ZIP格式
+     */
+    public static ZipArchiveIndex read(Path archivePath) throws IOException {
+        Objects.requireNonNull(archivePath, "archivePath不能为null");
+
+        try (FileChannel channel = FileChannel.open(archivePath, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long lastModified = archivePath.toFile().lastModified();
+
+            // 1. 定位中央目录结束记录（EOCD），最多向前搜索64KB注释
+            long eocdOffset = findEndOfCentralDirectory(channel, archivePath);
+            ByteBuffer eocd = ByteBuffer.allocate(END_OF_CENTRAL_DIR_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, eocd, eocdOffset);
+
+            int diskNumber = eocd.getShort(4) & 0xFFFF;
+            int cdDisk = eocd.getShort(6) & 0xFFFF;
+            int totalEntries = eocd.getShort(10) & 0xFFFF;
+            long cdSize = eocd.getInt(12) & 0xFFFFFFFFL;
+            long cdOffset = eocd.getInt(16) & 0xFFFFFFFFL;
+
+            if (diskNumber != 0 || cdDisk != 0) {
+                throw new IOException("不支持分卷ZIP: " + archivePath);
+            }
+            if (totalEntries == 0xFFFF || cdSize == 0xFFFFFFFFL || cdOffset == 0xFFFFFFFFL) {
+                throw new IOException("不支持ZIP64: " + archivePath);
+            }
+            if (cdOffset + cdSize > eocdOffset) {
+                throw new IOException("中央目录越界: offset=" + cdOffset + ", size=" + cdSize);
+            }
+
+            // 2. 解析中央目录
+            ByteBuffer cd = ByteBuffer.allocate((int) cdSize).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, cd, cdOffset);
+            cd.flip();
+
+            List<Entry> entries = new ArrayList<>(totalEntries);
+            for (int i = 0; i < totalEntries; i++) {
+                entries.add(readCentralEntry(cd, cdOffset));
+            }
+
+            log.debug("ZIP中央目录: {} ({} 个entry)", archivePath, entries.size());
+
+            return new ZipArchiveIndex(archivePath, fileSize, lastModified, entries);
+        }
+    }
+
+    /**
+     * 定位中央目录结束记录（EOCD）
+     *
+     * 从文件末尾向前搜索，最多跨过64KB的归档注释；
+     * 签名有效且注释长度恰好延伸到文件末尾才视为命中。
+     *
+     * @param channel 归档通道
+     * @param archivePath 归档路径（用于错误信息）
+     * @return EOCD在文件中的偏移
+     * @throws IOException 未找到EOCD
+     */
+    static long findEndOfCentralDirectory(FileChannel channel, Path archivePath) throws IOException {
+        long fileSize = channel.size();
+        int tailSize = (int) Math.min(fileSize, END_OF_CENTRAL_DIR_SIZE + MAX_COMMENT_SIZE);
+        if (tailSize < END_OF_CENTRAL_DIR_SIZE) {
+            throw new IOException("文件过小，不是有效的ZIP: " + archivePath);
+        }
+
+        ByteBuffer tail = ByteBuffer.allocate(tailSize).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, tail, fileSize - tailSize);
+        tail.flip();
+
+        for (int i = tailSize - END_OF_CENTRAL_DIR_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_OF_CENTRAL_DIR_SIGNATURE) {
+                int commentLength = tail.getShort(i + 20) & 0xFFFF;
+                if (i + END_OF_CENTRAL_DIR_SIZE + commentLength == tailSize) {
+                    return fileSize - tailSize + i;
+                }
+            }
+        }
+
+        throw new IOException("未找到ZIP中央目录结束记录: " + archivePath);
+    }
+
+    private static Entry readCentralEntry(ByteBuffer cd, long cdOffset) throws IOException {
+        if (cd.remaining() < CENTRAL_HEADER_SIZE) {
+            throw new IOException("中央目录截断");
+        }
+
+        int start = cd.position();
+        if (cd.getInt(start) != CENTRAL_HEADER_SIGNATURE) {
+            throw new IOException(String.format("中央目录签名无效: offset=%d", cdOffset + start));
+        }
+
+        int flags = cd.getShort(start + 8) & 0xFFFF;
+        int method = cd.getShort(start + 10) & 0xFFFF;
+        int dosTime = cd.getInt(start + 12);
+        long crc = cd.getInt(start + 16) & 0xFFFFFFFFL;
+        long compressedSize = cd.getInt(start + 20) & 0xFFFFFFFFL;
+        long size = cd.getInt(start + 24) & 0xFFFFFFFFL;
+        int nameLength = cd.getShort(start + 28) & 0xFFFF;
+        int extraLength = cd.getShort(start + 30) & 0xFFFF;
+        int commentLength = cd.getShort(start + 32) & 0xFFFF;
+        long localHeaderOffset = cd.getInt(start + 42) & 0xFFFFFFFFL;
+
+        if (compressedSize == 0xFFFFFFFFL || size == 0xFFFFFFFFL || localHeaderOffset == 0xFFFFFFFFL) {
+            throw new IOException("不支持ZIP64 entry");
+        }
+
+        int variableLength = nameLength + extraLength + commentLength;
+        if (cd.remaining() < CENTRAL_HEADER_SIZE + variableLength) {
+            throw new IOException("中央目录截断");
+        }
+
+        cd.position(start + CENTRAL_HEADER_SIZE);
+        byte[] nameBytes = new byte[nameLength];
+        cd.get(nameBytes);
+        byte[] extra = new byte[extraLength];
+        cd.get(extra);
+        byte[] comment = new byte[commentLength];
+        cd.get(comment);
+
+        // APK中的名称实际上总是UTF-8，与java.util.zip.ZipFile行为一致
+        String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+        return new Entry(name, flags, method, dosTime, crc, compressedSize, size,
+                         localHeaderOffset,
+                         extraLength > 0 ? extra : null,
+                         commentLength > 0 ? comment : null);
+    }
+
+    static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long pos = position;
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, pos);
+            if (n < 0) {
+                throw new IOException("读取ZIP时遇到意外的文件结尾: position=" + pos);
+            }
+            pos += n;
+        }
+    }
+
+    public Path getArchivePath() {
+        return archivePath;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public Entry getEntry(String name) {
+        return entriesByName.get(name);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 归档文件自建立索引后是否未被改动（大小和修改时间一致）
+     *
+     * @return true=索引仍然有效
+     */
+    public boolean isUnchanged() {
+        java.io.File file = archivePath.toFile();
+        return file.isFile()
+            && file.length() == archiveSize
+            && file.lastModified() == archiveLastModified;
+    }
+}
@@ -0,0 +1,515 @@
+package com.resources.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * 底层ZIP写入器
+ *
+ * 与ZipOutputStream不同，支持直接写入已压缩的原始数据：
+ * - 未修改的entry从源归档原样拷贝压缩字节（transferTo，零解压零压缩）
+ * - 修改过的entry重新压缩
+ *
+ * 本地文件头总是写明CRC和大小（不使用数据描述符），不支持ZIP64。
+ * 流式写入的entry在内容写完后回填本地文件头。
+ *
+ * 启用对齐后，STORED entry的数据起始偏移按zipalign规则对齐
+ * （普通文件4字节，.so文件4096字节），通过在本地文件头的额外字段中
+ * 追加对齐记录（0xD935，与apksigner一致）实现，中央目录保持原额外字段。
+ *
+ * 设置签名器后，finish()在写出中央目录之前对已写入的entry区计算摘要，
+ * 并把v2/v3签名块插入到entry区与中央目录之间。
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+final class ZipRawWriter implements Closeable {
+
+    private static final int VERSION_NEEDED = 20;
+    private static final int MAX_ENTRIES = 0xFFFF;
+    private static final long MAX_OFFSET = 0xFFFFFFFFL;
+
+    /** 未压缩entry的默认对齐字节数 */
+    static final int DEFAULT_ALIGNMENT = 4;
+    /** native库（.so）的对齐字节数（页大小，便于直接mmap） */
+    static final int SHARED_LIBRARY_ALIGNMENT = 4096;
+    /** 对齐额外字段ID（Android zipalign/apksigner约定） */
+    static final int ALIGNMENT_EXTRA_ID = 0xD935;
+    private static final int ALIGNMENT_EXTRA_MIN_SIZE = 6;
+
+    private final FileChannel out;
+    private final List<CentralRecord> centralRecords = new ArrayList<>();
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private long position;
+    private int alignment;  // 0=不对齐
+    private ApkSigner signer;
+
+    private static final class CentralRecord {
+        final byte[] name;
+        final int flags;
+        final int method;
+        final int dosTime;
+        long crc;
+        long compressedSize;
+        long size;
+        final long localHeaderOffset;
+        final byte[] extra;
+        final byte[] comment;
+
+        CentralRecord(byte[] name, int flags, int method, int dosTime, long crc,
+                      long compressedSize, long size, long localHeaderOffset,
+                      byte[] extra, byte[] comment) {
+            this.name = name;
+            this.flags = flags;
+            this.method = method;
+            this.dosTime = dosTime;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+            this.extra = extra;
+            this.comment = comment;
+        }
+    }
+
+    ZipRawWriter(Path outputPath) throws IOException {
+        this.out = FileChannel.open(outputPath,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        this.position = 0;
+    }
+
+    /**
+     * 设置STORED entry的对齐字节数
+     *
+     * @param alignment 对齐字节数（0=不对齐；.so文件总是按4096对齐）
+     */
+    void setAlignment(int alignment) {
+        if (alignment < 0 || (alignment & (alignment - 1)) != 0) {
+            throw new IllegalArgumentException("alignment必须是2的幂: " + alignment);
+        }
+        this.alignment = alignment;
+    }
+
+    /**
+     * 设置签名器（null=不签名）
+     */
+    void setSigner(ApkSigner signer) {
+        this.signer = signer;
+    }
+
+    /**
+     * 原样拷贝源归档中的entry（不解压、不重新压缩）
+     *
+     * @param name 输出entry名称
+     * @param source 源entry
+     * @param sourceChannel 源归档通道
+     * @param extra 额外字段（可为null）
+     * @param comment 注释（可为null）
+     */
+    void copyRaw(String name, ZipArchiveIndex.Entry source, FileChannel sourceChannel,
+                 byte[] extra, String comment) throws IOException {
+        long dataOffset = source.dataOffset(sourceChannel);
+        long compressedSize = source.getCompressedSize();
+
+        if (dataOffset + compressedSize > sourceChannel.size()) {
+            throw new IOException("源entry数据越界: " + source.getName());
+        }
+
+        // 数据描述符标志（bit 3）不再需要：本地文件头中直接写入CRC和大小
+        int flags = source.getFlags() & ~0x0008;
+
+        writeLocalHeader(name, flags, source.getMethod(), source.getDosTime(), source.getCrc(),
+                         compressedSize, source.getSize(), extra, comment);
+
+        long transferred = 0;
+        while (transferred < compressedSize) {
+            long n = sourceChannel.transferTo(dataOffset + transferred,
+                                              compressedSize - transferred, out);
+            if (n <= 0) {
+                throw new IOException("拷贝entry数据失败: " + source.getName());
+            }
+            transferred += n;
+        }
+        position += compressedSize;
+    }
+
+    /**
+     * 写入未压缩数据（按指定方法压缩）
+     *
+     * @param name 输出entry名称
+     * @param method 压缩方法（STORED或DEFLATED）
+     * @param data 原始数据
+     * @param lastModified 修改时间（毫秒）
+     * @param extra 额外字段（可为null）
+     * @param comment 注释（可为null）
+     */
+    void writeData(String name, int method, byte[] data, long lastModified,
+                   byte[] extra, String comment) throws IOException {
+        CRC32 crc32 = new CRC32();
+        crc32.update(data);
+
+        byte[] payload;
+        if (method == ZipEntry.STORED) {
+            payload = data;
+        } else {
+            method = ZipEntry.DEFLATED;
+            payload = deflate(data);
+        }
+
+        writeLocalHeader(name, 0, method, javaToDosTime(lastModified), crc32.getValue(),
+                         payload.length, data.length, extra, comment);
+        writeFully(ByteBuffer.wrap(payload));
+        position += payload.length;
+    }
+
+    /**
+     * 流式写入entry（内容由writer直接写入输出文件，不在内存中组装）
+     *
+     * 本地文件头先以占位的CRC（和DEFLATED时的压缩大小）写出，
+     * 内容写完后再回填，仍然不使用数据描述符。
+     *
+     * @param name 输出entry名称
+     * @param method 压缩方法（STORED或DEFLATED）
+     * @param size 未压缩大小（必须与写出的字节数一致）
+     * @param content 内容生成器
+     * @param lastModified 修改时间（毫秒）
+     * @param extra 额外字段（可为null）
+     * @param comment 注释（可为null）
+     */
+    void writeStream(String name, int method, long size, VirtualFileSystem.ContentWriter content,
+                     long lastModified, byte[] extra, String comment) throws IOException {
+        if (method != ZipEntry.STORED) {
+            method = ZipEntry.DEFLATED;
+        }
+
+        CentralRecord record = writeLocalHeader(name, 0, method, javaToDosTime(lastModified), 0,
+                                                method == ZipEntry.STORED ? size : 0, size,
+                                                extra, comment);
+        long dataStart = position;
+
+        EntryChannel channel;
+        if (method == ZipEntry.STORED) {
+            channel = new EntryChannel(null);
+            content.writeTo(channel);
+        } else {
+            deflater.reset();
+            DeflaterOutputStream deflated = new DeflaterOutputStream(
+                Channels.newOutputStream(out), deflater, 64 * 1024);
+            channel = new EntryChannel(deflated);
+            content.writeTo(channel);
+            deflated.finish();
+        }
+
+        if (channel.count != size) {
+            throw new IOException(String.format("entry内容大小不一致: %s (声明=%d, 实际=%d)",
+                                                name, size, channel.count));
+        }
+
+        long compressedSize = out.position() - dataStart;
+        if (compressedSize > MAX_OFFSET) {
+            throw new IOException("ZIP大小超过4GB（不支持ZIP64）: " + name);
+        }
+        record.crc = channel.crc.getValue();
+        record.compressedSize = compressedSize;
+        position += compressedSize;
+
+        // 回填本地文件头中的CRC和压缩大小
+        ByteBuffer patch = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        patch.putInt((int) record.crc);
+        patch.putInt((int) compressedSize);
+        patch.flip();
+        long patchPosition = record.localHeaderOffset + 14;
+        while (patch.hasRemaining()) {
+            patchPosition += out.write(patch, patchPosition);
+        }
+    }
+
+    /**
+     * entry数据通道：计算CRC和未压缩字节数，写入输出文件（或压缩流）
+     */
+    private final class EntryChannel implements WritableByteChannel {
+        final CRC32 crc = new CRC32();
+        final OutputStream deflated;  // null=STORED，直接写入输出文件
+        final byte[] chunk;
+        long count;
+
+        EntryChannel(OutputStream deflated) {
+            this.deflated = deflated;
+            this.chunk = deflated != null ? new byte[64 * 1024] : null;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            int n = src.remaining();
+            crc.update(src.duplicate());
+            if (deflated == null) {
+                writeFully(src);
+            } else if (src.hasArray()) {
+                deflated.write(src.array(), src.arrayOffset() + src.position(), n);
+                src.position(src.limit());
+            } else {
+                while (src.hasRemaining()) {
+                    int len = Math.min(chunk.length, src.remaining());
+                    src.get(chunk, 0, len);
+                    deflated.write(chunk, 0, len);
+                }
+            }
+            count += n;
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return out.isOpen();
+        }
+
+        @Override
+        public void close() {
+            // 输出文件由ZipRawWriter关闭
+        }
+    }
+
+    private byte[] deflate(byte[] data) {
+        deflater.reset();
+        deflater.setInput(data);
+        deflater.finish();
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+        byte[] buffer = new byte[64 * 1024];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(buffer);
+            baos.write(buffer, 0, n);
+        }
+        return baos.toByteArray();
+    }
+
+    private CentralRecord writeLocalHeader(String name, int flags, int method, int dosTime, long crc,
+                                  long compressedSize, long size,
+                                  byte[] extra, String comment) throws IOException {
+        if (centralRecords.size() >= MAX_ENTRIES) {
+            throw new IOException("entry数量超过ZIP上限（不支持ZIP64）: " + MAX_ENTRIES);
+        }
+        if (position > MAX_OFFSET || compressedSize > MAX_OFFSET || size > MAX_OFFSET) {
+            throw new IOException("ZIP大小超过4GB（不支持ZIP64）: " + name);
+        }
+
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length != name.length()) {
+            flags |= ZipArchiveIndex.FLAG_UTF8;
+        }
+        byte[] extraBytes = extra != null ? extra : new byte[0];
+        byte[] commentBytes = comment != null ? comment.getBytes(StandardCharsets.UTF_8) : null;
+
+        byte[] localExtra = extraBytes;
+        if (alignment > 0 && method == ZipEntry.STORED) {
+            long headerEnd = position + ZipArchiveIndex.LOCAL_HEADER_SIZE + nameBytes.length;
+            localExtra = alignExtra(extraBytes, headerEnd, alignmentFor(name));
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(ZipArchiveIndex.LOCAL_HEADER_SIZE + nameBytes.length + localExtra.length)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(ZipArchiveIndex.LOCAL_HEADER_SIGNATURE);
+        header.putShort((short) VERSION_NEEDED);
+        header.putShort((short) flags);
+        header.putShort((short) method);
+        header.putInt(dosTime);
+        header.putInt((int) crc);
+        header.putInt((int) compressedSize);
+        header.putInt((int) size);
+        header.putShort((short) nameBytes.length);
+        header.putShort((short) localExtra.length);
+        header.put(nameBytes);
+        header.put(localExtra);
+        header.flip();
+
+        CentralRecord record = new CentralRecord(nameBytes, flags, method, dosTime, crc,
+                                                 compressedSize, size, position,
+                                                 extraBytes, commentBytes);
+        centralRecords.add(record);
+
+        writeFully(header);
+        position += header.limit();
+        return record;
+    }
+
+    private int alignmentFor(String name) {
+        return name.endsWith(".so") ? Math.max(alignment, SHARED_LIBRARY_ALIGNMENT) : alignment;
+    }
+
+    /**
+     * 计算对齐后的本地额外字段
+     *
+     * 先移除已有的对齐记录和零填充（重复对齐时偏移已变化），
+     * 需要填充时追加一条对齐记录：ID(2) + 长度(2) + 对齐值(2) + 零填充。
+     *
+     * @param extra 原额外字段
+     * @param headerEnd 额外字段的起始偏移
+     * @param align 对齐字节数
+     * @return 本地文件头使用的额外字段
+     */
+    static byte[] alignExtra(byte[] extra, long headerEnd, int align) {
+        byte[] base = stripAlignmentPadding(extra);
+        long dataStart = headerEnd + base.length;
+        if (dataStart % align == 0) {
+            return base;
+        }
+
+        int padding = (int) ((align - (dataStart + ALIGNMENT_EXTRA_MIN_SIZE) % align) % align)
+            + ALIGNMENT_EXTRA_MIN_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(base.length + padding).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(base);
+        buffer.putShort((short) ALIGNMENT_EXTRA_ID);
+        buffer.putShort((short) (padding - 4));
+        buffer.putShort((short) align);
+        return buffer.array();
+    }
+
+    private static byte[] stripAlignmentPadding(byte[] extra) {
+        if (extra.length == 0) {
+            return extra;
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(extra).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer out = ByteBuffer.allocate(extra.length);
+        while (in.remaining() >= 4) {
+            int start = in.position();
+            int id = in.getShort() & 0xFFFF;
+            int size = in.getShort() & 0xFFFF;
+            if (size > in.remaining()) {
+                // 格式不规范（如旧版zipalign的裸零填充），保持原样
+                return extra;
+            }
+            in.position(in.position() + size);
+            if (id != ALIGNMENT_EXTRA_ID && id != 0) {
+                out.put(extra, start, 4 + size);
+            }
+        }
+        if (in.hasRemaining()) {
+            return extra;
+        }
+        return out.position() == extra.length ? extra : Arrays.copyOf(out.array(), out.position());
+    }
+
+    /**
+     * 写入（签名块、）中央目录和结束记录
+     */
+    void finish() throws IOException {
+        long entriesEnd = position;
+
+        int cdSize = 0;
+        for (CentralRecord r : centralRecords) {
+            cdSize += ZipArchiveIndex.CENTRAL_HEADER_SIZE + r.name.length + r.extra.length
+                + (r.comment != null ? r.comment.length : 0);
+        }
+
+        ByteBuffer cd = ByteBuffer.allocate(cdSize).order(ByteOrder.LITTLE_ENDIAN);
+        for (CentralRecord r : centralRecords) {
+            int commentLength = r.comment != null ? r.comment.length : 0;
+            cd.putInt(ZipArchiveIndex.CENTRAL_HEADER_SIGNATURE);
+            cd.putShort((short) VERSION_NEEDED);   // version made by
+            cd.putShort((short) VERSION_NEEDED);   // version needed
+            cd.putShort((short) r.flags);
+            cd.putShort((short) r.method);
+            cd.putInt(r.dosTime);
+            cd.putInt((int) r.crc);
+            cd.putInt((int) r.compressedSize);
+            cd.putInt((int) r.size);
+            cd.putShort((short) r.name.length);
+            cd.putShort((short) r.extra.length);
+            cd.putShort((short) commentLength);
+            cd.putShort((short) 0);                // disk number start
+            cd.putShort((short) 0);                // internal attributes
+            cd.putInt(0);                          // external attributes
+            cd.putInt((int) r.localHeaderOffset);
+            cd.put(r.name);
+            cd.put(r.extra);
+            if (r.comment != null) {
+                cd.put(r.comment);
+            }
+        }
+        cd.flip();
+
+        ByteBuffer eocd = ByteBuffer.allocate(ZipArchiveIndex.END_OF_CENTRAL_DIR_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        eocd.putInt(ZipArchiveIndex.END_OF_CENTRAL_DIR_SIGNATURE);
+        eocd.putShort((short) 0);
+        eocd.putShort((short) 0);
+        eocd.putShort((short) centralRecords.size());
+        eocd.putShort((short) centralRecords.size());
+        eocd.putInt(cdSize);
+        eocd.putInt((int) entriesEnd);
+        eocd.putShort((short) 0);
+        eocd.flip();
+
+        if (signer != null) {
+            // entry区已全部写入通道，直接在此计算摘要并插入签名块
+            byte[] signingBlock = signer.createSigningBlock(out, entriesEnd, cd, eocd);
+            writeFully(ByteBuffer.wrap(signingBlock));
+            position += signingBlock.length;
+        }
+
+        long cdOffset = position;
+        if (cdOffset + cdSize + ZipArchiveIndex.END_OF_CENTRAL_DIR_SIZE > MAX_OFFSET) {
+            throw new IOException("ZIP大小超过4GB（不支持ZIP64）");
+        }
+        eocd.putInt(16, (int) cdOffset);
+
+        writeFully(cd);
+        writeFully(eocd);
+        position += cdSize + ZipArchiveIndex.END_OF_CENTRAL_DIR_SIZE;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    int getEntryCount() {
+        return centralRecords.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        out.close();
+    }
+
+    /**
+     * Java时间转换为MS-DOS时间格式（与java.util.zip一致，使用本地时区）
+     */
+    static int javaToDosTime(long millis) {
+        LocalDateTime ldt = LocalDateTime.ofInstant(
+            java.time.Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        int year = ldt.getYear();
+        if (year < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return ((year - 1980) << 25)
+            | (ldt.getMonthValue() << 21)
+            | (ldt.getDayOfMonth() << 16)
+            | (ldt.getHour() << 11)
+            | (ldt.getMinute() << 5)
+            | (ldt.getSecond() >> 1);
+    }
+}
@@ -0,0 +1,139 @@
+package com.resources.validator;
+
+import com.resources.util.ClassNameSet;
+import com.resources.util.DexClassCache;
+import com.resources.util.DexUtils;
+import com.resources.util.VirtualFileSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * DEX类收集器
+ *
+ * 为映射验证和DEX交叉验证一次性收集所有DEX中定义的类，两个验证器共用结果：
+ * - 外部DEX文件（dex_paths）经由DexClassCache（及其持久化索引）加载
+ * - APK内的classes*.dex直接从VFS读取（STORED的DEX使用APK的内存映射，不解压到磁盘），
+ *   与外部DEX一样在类名读取器失败时回退到dexlib2
+ *
+ * 每个DEX一个任务；提供执行器时并行读取，总耗时取决于最大的DEX而不是所有DEX之和。
+ * 单个DEX读取失败只记录在结果中，不影响其他DEX。
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class DexClassCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(DexClassCollector.class);
+
+    // APK内DEX文件的匹配模式
+    private static final String APK_DEX_PATTERN = "classes*.dex";
+
+    private final DexClassCache dexCache;
+
+    /**
+     * @param dexCache 外部DEX文件使用的类缓存
+     */
+    public DexClassCollector(DexClassCache dexCache) {
+        this.dexCache = Objects.requireNonNull(dexCache, "dexCache不能为null");
+    }
+
+    /**
+     * 收集DEX类
+     *
+     * @param dexPaths 外部DEX文件路径
+     * @param apkVfs 已加载的APK（null=不读取APK内的DEX）
+     * @param executor 执行器，为null时串行读取；生命周期由调用方管理
+     * @return 收集结果
+     */
+    public Result collect(List<String> dexPaths, VirtualFileSystem apkVfs, ExecutorService executor) {
+        Objects.requireNonNull(dexPaths, "dexPaths不能为null");
+
+        List<String> sources = new ArrayList<>();
+        List<Callable<ClassNameSet>> tasks = new ArrayList<>();
+        for (String dexPath : dexPaths) {
+            sources.add(dexPath);
+            tasks.add(() -> dexCache.getDexClasses(dexPath));
+        }
+        if (apkVfs != null) {
+            List<String> apkDexFiles = new ArrayList<>(apkVfs.listFilesByPattern(APK_DEX_PATTERN));
+            Collections.sort(apkDexFiles);
+            for (String entry : apkDexFiles) {
+                sources.add("apk:" + entry);
+                tasks.add(() -> ClassNameSet.of(DexUtils.loadDexClasses(apkVfs.readFileView(entry), entry)));
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        Result result = new Result();
+        List<ClassNameSet> loaded = new ArrayList<>();
+        if (executor == null || tasks.size() <= 1) {
+            for (int i = 0; i < tasks.size(); i++) {
+                try {
+                    loaded.add(result.add(sources.get(i), tasks.get(i).call()));
+                } catch (Exception e) {
+                    result.fail(sources.get(i), e);
+                }
+            }
+        } else {
+            List<Future<ClassNameSet>> futures = new ArrayList<>();
+            for (Callable<ClassNameSet> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    loaded.add(result.add(sources.get(i), futures.get(i).get()));
+                } catch (ExecutionException e) {
+                    result.fail(sources.get(i), e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    futures.forEach(f -> f.cancel(true));
+                    throw new IllegalStateException("DEX类收集被中断", e);
+                }
+            }
+        }
+
+        result.classes = ClassNameSet.union(loaded);
+        
+        log.info("DEX类收集完成: {} 个DEX, {} 个类, 失败 {} 个, 耗时 {} ms ({})",
+                tasks.size(), result.classes.size(), result.failures.size(),
+                System.currentTimeMillis() - start, dexCache.getStatistics());
+        return result;
+    }
+
+    /**
+     * 收集结果
+     */
+    public static final class Result {
+        private ClassNameSet classes = ClassNameSet.empty();
+        private final Map<String, Integer> classCounts = new LinkedHashMap<>();
+        private final Map<String, String> failures = new LinkedHashMap<>();
+
+        private Result() {
+        }
+
+        private ClassNameSet add(String source, ClassNameSet sourceClasses) {
+            classCounts.put(source, sourceClasses.size());
+            log.debug("DEX {} 包含 {} 个类", source, sourceClasses.size());
+            return sourceClasses;
+        }
+
+        private void fail(String source, Throwable error) {
+            log.warn("加载DEX失败: {}", source, error);
+            failures.put(source, error.getMessage() != null ? error.getMessage() : error.toString());
+        }
+
+        /** 所有DEX中定义的类（Java格式，不可变） */
+        public Set<String> getClasses() { return classes; }
+        /** 每个DEX的类数量（外部路径原样，APK内DEX为"apk:classesN.dex"） */
+        public Map<String, Integer> getClassCounts() { return Collections.unmodifiableMap(classCounts); }
+        /** 读取失败的DEX及原因 */
+        public Map<String, String> getFailures() { return Collections.unmodifiableMap(failures); }
+        public int getDexCount() { return classCounts.size() + failures.size(); }
+    }
+}
@@ -2,7 +2,7 @@ package com.resources.validator;
 
 import com.resources.model.ClassMapping;
 import com.resources.model.ValidationResult;
-import com.resources.util.DexUtils;
+import com.resources.util.ClassNameSet;
 import com.resources.util.DexClassCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -62,11 +62,11 @@ public class DexCrossValidator {
         ValidationResult.Builder builder = new ValidationResult.Builder();
         
         // 1. 加载所有DEX类（使用缓存）
-        Set<String> dexClasses = new HashSet<>();
+        List<ClassNameSet> loaded = new ArrayList<>();
         for (String dexPath : dexPaths) {
             try {
-                Set<String> classes = dexCache.getDexClasses(dexPath);
-                dexClasses.addAll(classes);
+                ClassNameSet classes = dexCache.getDexClasses(dexPath);
+                loaded.add(classes);
                 
                 log.debug("DEX文件 {} 包含 {} 个类", dexPath, classes.size());
                 
@@ -78,9 +78,32 @@ public class DexCrossValidator {
             }
         }
         
+        Set<String> dexClasses = ClassNameSet.union(loaded);
         log.info("总共加载 {} 个类 ({})", dexClasses.size(), dexCache.getStatistics());
         
         // 2. 验证所有新类是否存在
+        validateClasses(mapping, dexClasses, builder);
+        return builder.build();
+    }
+    
+    /**
+     * 使用已加载的DEX类验证类映射
+     * 
+     * @param mapping 类名映射
+     * @param dexClasses 所有DEX中定义的类
+     * @return 验证结果
+     */
+    public ValidationResult validateClasses(ClassMapping mapping, Set<String> dexClasses) {
+        Objects.requireNonNull(mapping, "mapping不能为null");
+        Objects.requireNonNull(dexClasses, "dexClasses不能为null");
+        
+        ValidationResult.Builder builder = new ValidationResult.Builder();
+        validateClasses(mapping, dexClasses, builder);
+        return builder.build();
+    }
+    
+    private void validateClasses(ClassMapping mapping, Set<String> dexClasses,
+                                 ValidationResult.Builder builder) {
         List<String> missingClasses = findMissingClasses(mapping, dexClasses);
         
         if (missingClasses.isEmpty()) {
@@ -98,8 +121,13 @@ public class DexCrossValidator {
                             "部分新类在DEX中不存在",
                             details.toString());
         }
-        
-        return builder.build();
+    }
+    
+    /**
+     * 共享的DEX类缓存
+     */
+    public DexClassCache getDexCache() {
+        return dexCache;
     }
     
     /**
@@ -110,8 +138,8 @@ public class DexCrossValidator {
      * @throws Exception 加载失败
      */
     public Set<String> loadDexClasses(String dexPath) throws Exception {
-        // 使用统一的DexUtils工具类，避免代码重复
-        return DexUtils.loadDexClasses(dexPath);
+        // 经由共享缓存（及其持久化索引）加载
+        return dexCache.getDexClasses(dexPath);
     }
     
     /**
@@ -3,6 +3,7 @@ package com.resources.validator;
 import com.resources.arsc.ArscParser;
 import com.resources.arsc.ResStringPool;
 import com.resources.arsc.ResTablePackage;
+import com.resources.arsc.ResourceTableIndex;
 import com.resources.model.ValidationResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -155,9 +156,11 @@ public class IntegrityChecker {
     /**
      * 检查资源ID稳定性
      * 
+     * packageId不变，且原始ARSC中的每个资源ID在修改后仍然存在、配置数量不变。
+     * 
      * @param original 原始ARSC
      * @param modified 修改后的ARSC
-     * @return true=资源ID稳定
+     * @return true=资源ID稳定；资源表损坏时返回false
      */
     public boolean checkResourceIdStability(ArscParser original, ArscParser modified) {
         Objects.requireNonNull(original, "original不能为null");
@@ -166,6 +169,11 @@ public class IntegrityChecker {
         log.debug("检查资源ID稳定性");
         
         // 检查所有包的ID是否相同
+        if (original.getPackages().size() != modified.getPackages().size()) {
+            log.error("包数量改变: {} -> {}", 
+                     original.getPackages().size(), modified.getPackages().size());
+            return false;
+        }
         for (int i = 0; i < original.getPackages().size(); i++) {
             ResTablePackage origPkg = original.getPackages().get(i);
             ResTablePackage modPkg = modified.getPackages().get(i);
@@ -178,7 +186,51 @@ public class IntegrityChecker {
             }
         }
         
-        log.debug("资源ID稳定性检查通过");
+        ResourceTableIndex originalIndex;
+        ResourceTableIndex modifiedIndex;
+        try {
+            originalIndex = ResourceTableIndex.build(original);
+            modifiedIndex = ResourceTableIndex.build(modified);
+        } catch (IllegalArgumentException e) {
+            // entry数据损坏：检查不通过，不向调用方抛出
+            log.error("无法建立资源索引: {}", e.getMessage(), e);
+            return false;
+        }
+        return checkResourceIdStability(originalIndex, modifiedIndex);
+    }
+    
+    /**
+     * 基于资源索引检查资源ID稳定性（每个资源O(1)查询）
+     * 
+     * @param original 原始ARSC的索引
+     * @param modified 修改后ARSC的索引
+     * @return true=资源ID稳定
+     */
+    public boolean checkResourceIdStability(ResourceTableIndex original, ResourceTableIndex modified) {
+        Objects.requireNonNull(original, "original不能为null");
+        Objects.requireNonNull(modified, "modified不能为null");
+        
+        if (original.getResourceCount() != modified.getResourceCount()) {
+            log.error("资源数量改变: {} -> {}", 
+                     original.getResourceCount(), modified.getResourceCount());
+            return false;
+        }
+        
+        for (int resourceId : original.getResourceIds()) {
+            if (!modified.contains(resourceId)) {
+                log.error("资源ID丢失: 0x{} ({})", 
+                         Integer.toHexString(resourceId), original.getResourceName(resourceId));
+                return false;
+            }
+            if (original.getConfigCount(resourceId) != modified.getConfigCount(resourceId)) {
+                log.error("资源配置数量改变: 0x{} ({}) {} -> {}", 
+                         Integer.toHexString(resourceId), original.getResourceName(resourceId),
+                         original.getConfigCount(resourceId), modified.getConfigCount(resourceId));
+                return false;
+            }
+        }
+        
+        log.debug("资源ID稳定性检查通过: {} 个资源", original.getResourceCount());
         return true;
     }
 }
@@ -0,0 +1,145 @@
+package com.resources.arsc;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ArscParser内存映射与按需解析测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class ArscParserMappedTest {
+
+    private static final String PACKAGE_NAME = "com.example.app";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("测试映射解析只扫描chunk头部，访问时才解析")
+    void testMaterializeOnDemand() throws Exception {
+        Path file = writeArsc(TestArscBuilder.arsc(TestArscBuilder.strings(40), PACKAGE_NAME));
+
+        ArscParser parser = new ArscParser();
+        parser.parseMapped(file);
+
+        assertEquals(0, parser.getMaterializedPackageCount());
+        assertEquals("ArscParser{packages=1, globalStrings=40}", parser.toString());
+        assertEquals(0, parser.getMaterializedPackageCount(), "toString不应触发解析");
+
+        assertNull(parser.getPackageById(0x01));
+        assertNull(parser.getPackageByName("com.other"));
+        assertEquals(0, parser.getMaterializedPackageCount());
+
+        ResTablePackage pkg = parser.getPackageByName(PACKAGE_NAME);
+        assertNotNull(pkg);
+        assertEquals(1, parser.getMaterializedPackageCount());
+        assertSame(pkg, parser.getMainPackage());
+        assertEquals("key_3", pkg.getKeyStrings().getString(3));
+        assertEquals(TestArscBuilder.strings(40).get(7), parser.getGlobalStringPool().getString(7));
+        assertTrue(parser.validate());
+    }
+
+    @Test
+    @DisplayName("测试未访问的chunk直接从映射写回")
+    void testUnmodifiedWriteFromMapping() throws Exception {
+        byte[] original = TestArscBuilder.arsc(TestArscBuilder.strings(25), PACKAGE_NAME);
+        Path file = writeArsc(original);
+
+        ArscParser parser = new ArscParser();
+        parser.parseMapped(file);
+        ArscWriter writer = new ArscWriter();
+
+        assertEquals(original.length, writer.calculateSize(parser));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(parser, out);
+
+        assertArrayEquals(original, out.toByteArray());
+        assertEquals(0, parser.getMaterializedPackageCount());
+        assertArrayEquals(original, parser.getOriginalData());
+    }
+
+    @Test
+    @DisplayName("测试只修改全局字符串池时资源包保持未解析")
+    void testModifyGlobalPoolOnly() throws Exception {
+        byte[] original = TestArscBuilder.arsc(TestArscBuilder.strings(25), PACKAGE_NAME);
+        Path file = writeArsc(original);
+
+        ArscParser parser = new ArscParser();
+        parser.parseMapped(file);
+        parser.getGlobalStringPool().setString(4, "com.renamed.app.View4");
+        byte[] output = new ArscWriter().toByteArray(parser);
+
+        assertEquals(0, parser.getMaterializedPackageCount());
+
+        ArscParser reparsed = new ArscParser();
+        reparsed.parse(output);
+        assertEquals("com.renamed.app.View4", reparsed.getGlobalStringPool().getString(4));
+        assertEquals(PACKAGE_NAME, reparsed.getMainPackage().getName());
+        assertTrue(reparsed.validate());
+    }
+
+    @Test
+    @DisplayName("测试映射文件中的一段区域")
+    void testMappedRegion() throws Exception {
+        byte[] arsc = TestArscBuilder.arsc(TestArscBuilder.strings(10), PACKAGE_NAME);
+        byte[] padded = new byte[arsc.length + 100];
+        System.arraycopy(arsc, 0, padded, 37, arsc.length);
+        Path file = writeArsc(padded);
+
+        ArscParser parser = new ArscParser();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            parser.parseMapped(channel, 37, arsc.length);
+        }
+
+        assertEquals(PACKAGE_NAME, parser.getMainPackage().getName());
+        assertArrayEquals(arsc, new ArscWriter().toByteArray(parser));
+    }
+
+    @Test
+    @DisplayName("测试延迟解析与立即解析结果一致")
+    void testLazyMatchesEager() {
+        byte[] arsc = TestArscBuilder.arsc(TestArscBuilder.strings(15), PACKAGE_NAME);
+
+        ArscParser eager = new ArscParser();
+        eager.parse(arsc);
+        ArscParser lazy = new ArscParser();
+        lazy.parseLazy(ByteBuffer.wrap(arsc));
+
+        assertEquals(1, eager.getMaterializedPackageCount());
+        assertEquals(eager.getGlobalStringPool().getStrings(), lazy.getGlobalStringPool().getStrings());
+        assertEquals(eager.getPackages().size(), lazy.getPackages().size());
+        assertEquals(eager.findStringsByPrefix("res/"), lazy.findStringsByPrefix("res/"));
+    }
+
+    @Test
+    @DisplayName("测试chunk越界在扫描阶段报错")
+    void testTruncatedChunk() {
+        byte[] arsc = TestArscBuilder.arsc(TestArscBuilder.strings(5), PACKAGE_NAME);
+        // 把全局字符串池的大小改为超出文件
+        ByteBuffer.wrap(arsc).order(ByteOrder.LITTLE_ENDIAN).putInt(12 + 4, arsc.length);
+
+        ArscParser parser = new ArscParser();
+        assertThrows(IllegalArgumentException.class, () -> parser.parseLazy(ByteBuffer.wrap(arsc)));
+        assertThrows(IllegalArgumentException.class,
+                     () -> parser.parseLazy(ByteBuffer.allocate(8)));
+    }
+
+    private Path writeArsc(byte[] data) throws Exception {
+        Path file = tempDir.resolve("resources.arsc");
+        Files.write(file, data);
+        return file;
+    }
+}
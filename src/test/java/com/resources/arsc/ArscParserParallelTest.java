@@ -0,0 +1,124 @@
+package com.resources.arsc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 多资源包并行解析与写回测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class ArscParserParallelTest {
+
+    private static final List<String> PACKAGE_NAMES = List.of(
+        "com.example.app", "com.example.feature.a", "com.example.feature.b", "com.example.overlay");
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("测试并行解析多个资源包并保持文件顺序")
+    void testParallelParse() {
+        byte[] data = TestArscBuilder.arsc(TestArscBuilder.strings(30), PACKAGE_NAMES);
+
+        ArscParser parser = new ArscParser(executor);
+        parser.parse(data);
+
+        List<ResTablePackage> packages = parser.getPackages();
+        assertEquals(4, packages.size());
+        for (int i = 0; i < packages.size(); i++) {
+            assertEquals(0x7f + i, packages.get(i).getId());
+            assertEquals(PACKAGE_NAMES.get(i), packages.get(i).getName());
+        }
+        assertTrue(parser.validate());
+        assertArrayEquals(data, new ArscWriter().toByteArray(parser));
+    }
+
+    @Test
+    @DisplayName("测试并行重写与串行结果一致")
+    void testParallelRewriteMatchesSerial() {
+        byte[] data = TestArscBuilder.arsc(TestArscBuilder.strings(30), PACKAGE_NAMES);
+
+        ArscParser parallel = new ArscParser(executor);
+        parallel.parse(data);
+        ArscParser serial = new ArscParser();
+        serial.parse(data);
+
+        for (ArscParser parser : List.of(parallel, serial)) {
+            assertEquals(4 * 15, parser.remapStringReferences(i -> i % 2 == 1 ? i - 1 : i));
+            for (ResTablePackage pkg : parser.getPackages()) {
+                pkg.setName(pkg.getName().replace("example", "renamed"));
+            }
+            parser.getGlobalStringPool().setString(0, "com.renamed.app.View0");
+        }
+
+        byte[] output = new ArscWriter().toByteArray(parallel);
+        assertArrayEquals(new ArscWriter().toByteArray(serial), output);
+
+        ArscParser reparsed = new ArscParser();
+        reparsed.parse(output);
+        assertTrue(reparsed.validate());
+        assertEquals("com.renamed.feature.b", reparsed.getPackageById(0x81).getName());
+        assertEquals(ResValue.string(4), reparsed.getPackageById(0x82).getTypes().get(0).getEntry(5).getValue());
+    }
+
+    @Test
+    @DisplayName("测试延迟模式下多线程同时访问同一资源包")
+    void testConcurrentMaterialize() throws Exception {
+        byte[] data = TestArscBuilder.arsc(TestArscBuilder.strings(30), PACKAGE_NAMES);
+        ArscParser parser = new ArscParser(executor);
+        parser.parseLazy(ByteBuffer.wrap(data));
+        assertEquals(0, parser.getMaterializedPackageCount());
+
+        List<Callable<ResTablePackage>> tasks = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            tasks.add(() -> parser.getPackageById(0x80));
+        }
+        List<Future<ResTablePackage>> futures = executor.invokeAll(tasks);
+        ResTablePackage first = futures.get(0).get();
+        for (Future<ResTablePackage> future : futures) {
+            assertSame(first, future.get());
+        }
+        assertEquals(1, parser.getMaterializedPackageCount());
+
+        assertEquals(30, parser.collectStringReferences().cardinality());
+        assertEquals(4, parser.getMaterializedPackageCount());
+    }
+
+    @Test
+    @DisplayName("测试并行解析时损坏的资源包报错")
+    void testParallelParseError() {
+        byte[] data = TestArscBuilder.arsc(TestArscBuilder.strings(10), PACKAGE_NAMES);
+        // 破坏最后一个包的类型字符串池chunk类型
+        ArscParser probe = new ArscParser();
+        probe.parse(data);
+        int offset = probe.getChunkSpans().get(4).offset;
+        data[offset + 288] = 0x7f;
+
+        ArscParser parser = new ArscParser(executor);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> parser.parse(data));
+        assertTrue(e.getMessage().contains("resources.arsc解析失败"), e.getMessage());
+    }
+}
@@ -0,0 +1,148 @@
+package com.resources.arsc;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ArscStringPoolCompactor测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class ArscStringPoolCompactorTest {
+
+    private static final String PACKAGE_NAME = "com.example.app";
+
+    @Test
+    @DisplayName("测试合并重复字符串并删除未引用字符串")
+    void testCompact() {
+        List<String> strings = TestArscBuilder.strings(10);
+        byte[] original = TestArscBuilder.arsc(strings, PACKAGE_NAME);
+        ArscParser parser = parse(original);
+        ResStringPool pool = parser.getGlobalStringPool();
+
+        // 两个旧类名替换为同一个新类名，entry 7改为引用字符串6（字符串7成为孤儿）
+        pool.setString(2, "com.renamed.View");
+        pool.setString(4, "com.renamed.View");
+        parser.getMainPackage().remapStringReferences(i -> i == 7 ? 6 : i);
+        int sizeBefore = new ArscWriter().toByteArray(parser).length;
+
+        ArscStringPoolCompactor.CompactionResult result = new ArscStringPoolCompactor().compact(parser);
+
+        assertTrue(result.isCompacted());
+        assertEquals(10, result.getStringCountBefore());
+        assertEquals(8, result.getStringCountAfter());
+        assertEquals(1, result.getDuplicatesMerged());
+        assertEquals(1, result.getUnreferencedRemoved());
+        assertEquals(6, result.getReferencesRemapped());
+        assertTrue(result.getBytesSaved() > 0);
+
+        byte[] output = new ArscWriter().toByteArray(parser);
+        assertEquals(sizeBefore - result.getBytesSaved(), output.length);
+
+        ArscParser reparsed = parse(output);
+        assertTrue(reparsed.validate());
+        ResStringPool newPool = reparsed.getGlobalStringPool();
+        assertEquals(8, newPool.getStringCount());
+        ResTableType type = reparsed.getMainPackage().getTypes().get(0);
+        for (int i = 0; i < 10; i++) {
+            String expected = i == 2 || i == 4 ? "com.renamed.View" : strings.get(i == 7 ? 6 : i);
+            int index = type.getEntry(i).getValue().getData();
+            assertEquals(expected, newPool.getString(index), "entry " + i);
+        }
+        assertEquals(2, type.getEntry(4).getValue().getData());
+
+        // library chunk保持原样
+        assertArrayEquals(Arrays.copyOfRange(original, original.length - 272, original.length),
+                          Arrays.copyOfRange(output, output.length - 272, output.length));
+    }
+
+    @Test
+    @DisplayName("测试无重复且全部被引用时不修改")
+    void testNothingToCompact() {
+        byte[] original = TestArscBuilder.arsc(TestArscBuilder.strings(6), PACKAGE_NAME);
+        ArscParser parser = parse(original);
+
+        ArscStringPoolCompactor.CompactionResult result = new ArscStringPoolCompactor().compact(parser);
+
+        assertFalse(result.isCompacted());
+        assertEquals(0, result.getBytesSaved());
+        assertFalse(parser.getMainPackage().isTypesModified());
+        assertArrayEquals(original, new ArscWriter().toByteArray(parser));
+    }
+
+    @Test
+    @DisplayName("测试压缩时保留样式并重映射span名称")
+    void testStyledPool() {
+        ResStringPool pool = new ResStringPool();
+        pool.parse(ByteBuffer.wrap(styledPool()));
+
+        BitSet references = new BitSet();
+        pool.collectStyleReferences(references);
+        assertEquals("{3}", references.toString());
+
+        assertThrows(IllegalArgumentException.class,
+                     () -> pool.compact(new int[] {-1, 0, 1, 0}, 2));
+
+        // 删除字符串2，字符串3与字符串1合并
+        pool.compact(new int[] {0, 1, -1, 1}, 2);
+        assertEquals(2, pool.getStringCount());
+        assertEquals(1, pool.getStyleCount());
+
+        ResStringPool reparsed = new ResStringPool();
+        reparsed.parse(pool.toBuffer());
+        assertEquals(List.of("Hello", "b"), reparsed.getStrings());
+        references.clear();
+        reparsed.collectStyleReferences(references);
+        assertEquals("{1}", references.toString());
+    }
+
+    /**
+     * 带1个样式的UTF-8字符串池：["Hello", "b", "unused", "b"]，样式0的span名称引用字符串3
+     */
+    private static byte[] styledPool() {
+        byte[] strings = TestArscBuilder.stringPool(List.of("Hello", "b", "unused", "b"));
+        ByteBuffer source = ByteBuffer.wrap(strings).order(ByteOrder.LITTLE_ENDIAN);
+        int stringsStart = source.getInt(20);
+        int stringsSize = strings.length - stringsStart;
+
+        // 样式数据：span(name=3, first=0, last=4) + END，结尾再加两个END
+        int[] styleData = {3, 0, 4, -1, -1, -1};
+        int headerAndOffsets = 28 + 4 * 4 + 4;
+        int stylesStart = headerAndOffsets + stringsSize;
+        int size = stylesStart + styleData.length * 4;
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putShort((short) ResStringPool.RES_STRING_POOL_TYPE);
+        buffer.putShort((short) 28);
+        buffer.putInt(size);
+        buffer.putInt(4);
+        buffer.putInt(1);                                       // styleCount
+        buffer.putInt(ResStringPool.UTF8_FLAG);
+        buffer.putInt(headerAndOffsets);
+        buffer.putInt(stylesStart);
+        for (int i = 0; i < 4; i++) {
+            buffer.putInt(source.getInt(28 + i * 4));
+        }
+        buffer.putInt(0);                                       // 样式偏移
+        buffer.put(strings, stringsStart, stringsSize);
+        for (int value : styleData) {
+            buffer.putInt(value);
+        }
+        return buffer.array();
+    }
+
+    private static ArscParser parse(byte[] data) {
+        ArscParser parser = new ArscParser();
+        parser.parse(data);
+        return parser;
+    }
+}
@@ -0,0 +1,146 @@
+package com.resources.arsc;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ArscWriter增量拼接写回测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class ArscWriterSpliceTest {
+
+    private static final String PACKAGE_NAME = "com.example.app";
+
+    @Test
+    @DisplayName("测试未修改时输出与原始数据完全一致")
+    void testUnmodifiedIdentical() {
+        byte[] original = TestArscBuilder.arsc(TestArscBuilder.strings(50), PACKAGE_NAME);
+        ArscParser parser = parse(original);
+
+        assertArrayEquals(original, new ArscWriter().toByteArray(parser));
+    }
+
+    @Test
+    @DisplayName("测试只修改全局字符串池时资源包按原始字节拼接")
+    void testGlobalPoolOnly() {
+        byte[] original = TestArscBuilder.arsc(TestArscBuilder.strings(50), PACKAGE_NAME);
+        ArscParser parser = parse(original);
+        int poolSize = parser.getGlobalStringPool().calculateSize();
+
+        parser.getGlobalStringPool().setString(0, "com.renamed.app.VeryLongViewName0");
+        byte[] output = new ArscWriter().toByteArray(parser);
+
+        int delta = parser.getGlobalStringPool().calculateSize() - poolSize;
+        assertEquals(original.length + delta, output.length);
+        assertEquals(output.length, ByteBuffer.wrap(output).order(ByteOrder.LITTLE_ENDIAN).getInt(4));
+
+        // 包chunk原样拼接在新字符串池之后
+        int packageStart = 12 + poolSize;
+        assertArrayEquals(Arrays.copyOfRange(original, packageStart, original.length),
+                          Arrays.copyOfRange(output, packageStart + delta, output.length));
+
+        ArscParser reparsed = parse(output);
+        assertEquals("com.renamed.app.VeryLongViewName0", reparsed.getGlobalStringPool().getString(0));
+        assertEquals(TestArscBuilder.strings(50).get(1), reparsed.getGlobalStringPool().getString(1));
+        assertTrue(reparsed.validate());
+    }
+
+    @Test
+    @DisplayName("测试修改包名时只覆盖包名字段")
+    void testPackageNameOnly() {
+        byte[] original = TestArscBuilder.arsc(TestArscBuilder.strings(10), PACKAGE_NAME);
+        ArscParser parser = parse(original);
+
+        parser.getMainPackage().setName("com.renamed");
+        byte[] output = new ArscWriter().toByteArray(parser);
+
+        assertEquals(original.length, output.length);
+        assertEquals("com.renamed", parse(output).getMainPackage().getName());
+    }
+
+    @Test
+    @DisplayName("测试修改键字符串池时保留typeSpec/type和未识别的chunk")
+    void testKeyStringsSpliced() {
+        byte[] original = TestArscBuilder.arsc(TestArscBuilder.strings(20), PACKAGE_NAME);
+        ArscParser parser = parse(original);
+        ResTablePackage pkg = parser.getMainPackage();
+
+        pkg.setKeyString(3, "renamed_key_with_longer_name");
+        assertTrue(pkg.needsRebuild());
+        byte[] output = new ArscWriter().toByteArray(parser);
+
+        ArscParser reparsed = parse(output);
+        ResTablePackage newPkg = reparsed.getMainPackage();
+        assertEquals("renamed_key_with_longer_name", newPkg.getKeyStrings().getString(3));
+        assertEquals("key_4", newPkg.getKeyStrings().getString(4));
+        assertEquals(pkg.getTypeStringsOffset(), newPkg.getTypeStringsOffset());
+        assertEquals(pkg.getKeyStringsOffset(), newPkg.getKeyStringsOffset());
+        assertEquals(pkg.calculateRebuildSize(), newPkg.getOriginalSize());
+
+        // 键池之后的typeSpec/type/library按原始字节保留
+        int tailLength = 16 + 20 * 4 + 84 + 20 * 4 + 20 * 16 + 272;
+        assertArrayEquals(Arrays.copyOfRange(original, original.length - tailLength, original.length),
+                          Arrays.copyOfRange(output, output.length - tailLength, output.length));
+    }
+
+    @Test
+    @DisplayName("测试直接修改字符串池也会被写回")
+    void testDirectPoolModification() {
+        byte[] original = TestArscBuilder.arsc(TestArscBuilder.strings(5), PACKAGE_NAME);
+        ArscParser parser = parse(original);
+
+        parser.getMainPackage().getKeyStrings().setString(0, "direct");
+        byte[] output = new ArscWriter().toByteArray(parser);
+
+        assertEquals("direct", parse(output).getMainPackage().getKeyStrings().getString(0));
+    }
+
+    @Test
+    @DisplayName("测试流式写出与toByteArray结果一致")
+    void testStreamingWrite() throws Exception {
+        byte[] original = TestArscBuilder.arsc(TestArscBuilder.strings(30), PACKAGE_NAME);
+        ArscParser parser = parse(original);
+        parser.getGlobalStringPool().setString(2, "com.renamed.app.View2");
+        parser.getMainPackage().setKeyString(1, "renamed_key");
+        ArscWriter writer = new ArscWriter();
+
+        byte[] expected = writer.toByteArray(parser);
+        assertEquals(expected.length, writer.calculateSize(parser));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        assertEquals(expected.length, writer.write(parser, stream));
+        assertArrayEquals(expected, stream.toByteArray());
+
+        ByteArrayOutputStream channelTarget = new ByteArrayOutputStream();
+        try (WritableByteChannel channel = Channels.newChannel(channelTarget)) {
+            assertEquals(expected.length, writer.write(parser, channel));
+        }
+        assertArrayEquals(expected, channelTarget.toByteArray());
+
+        // 原始数据不受写出影响
+        assertArrayEquals(original, parser.getOriginalData());
+    }
+
+    @Test
+    @DisplayName("测试未解析的ArscParser无法写入")
+    void testUnparsed() {
+        assertThrows(IllegalStateException.class, () -> new ArscWriter().toByteArray(new ArscParser()));
+    }
+
+    private static ArscParser parse(byte[] data) {
+        ArscParser parser = new ArscParser();
+        parser.parse(data);
+        return parser;
+    }
+}
@@ -0,0 +1,244 @@
+package com.resources.arsc;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ResStringPool延迟解码与原样写回测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class ResStringPoolLazyTest {
+
+    private static final byte[] STYLE_DATA = {
+        // span: name=0, firstChar=0, lastChar=2, END(0xFFFFFFFF), 结尾再跟两个END
+        0, 0, 0, 0, 0, 0, 0, 0, 2, 0, 0, 0,
+        -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1
+    };
+
+    @Test
+    @DisplayName("测试延迟模式按需解码")
+    void testLazyDecode() {
+        ResStringPool pool = parse(utf8Pool(List.of("com.example.A", "hello", "world"), false), null);
+
+        assertEquals(3, pool.getStringCount());
+        assertEquals(0, pool.getDecodedCount());
+        assertEquals("hello", pool.getString(1));
+        assertEquals(1, pool.getDecodedCount());
+        assertEquals(List.of("com.example.A", "hello", "world"), pool.getStrings());
+    }
+
+    @Test
+    @DisplayName("测试未修改时整个chunk原样输出")
+    void testUnmodifiedIdentical() {
+        // 非规范长度编码（2字节长度）和样式数据都应原样保留
+        byte[] chunk = utf8Pool(List.of("com.example.A", "hello"), true);
+        ResStringPool pool = parse(chunk, STYLE_DATA);
+        byte[] original = withStyles(chunk, STYLE_DATA);
+
+        assertArrayEquals(original, write(pool));
+        assertEquals(original.length, pool.calculateSize());
+    }
+
+    @Test
+    @DisplayName("测试修改后未修改的字符串原样拷贝")
+    void testVerbatimUntouchedStrings() {
+        byte[] chunk = utf8Pool(List.of("com.example.A", "hello"), true);
+        ResStringPool pool = parse(chunk, STYLE_DATA);
+
+        pool.setString(0, "com.renamed.B");
+        assertTrue(pool.isModified(0));
+        assertFalse(pool.isModified(1));
+        assertEquals(1, pool.getDecodedCount(), "setString只需解码被替换的字符串");
+
+        byte[] output = write(pool);
+        assertEquals(output.length, pool.calculateSize());
+
+        // 未修改的"hello"保留原始的2字节长度前缀
+        byte[] rawHello = {(byte) 0x80, 5, (byte) 0x80, 5, 'h', 'e', 'l', 'l', 'o', 0};
+        assertTrue(indexOf(output, rawHello) > 0, "未修改的字符串应按原始字节写出");
+
+        ResStringPool reparsed = parse(output, null);
+        assertEquals(List.of("com.renamed.B", "hello"), reparsed.getStrings());
+        assertEquals(1, reparsed.getStyleCount());
+        assertArrayEquals(STYLE_DATA,
+                          Arrays.copyOfRange(output, output.length - STYLE_DATA.length, output.length),
+                          "样式数据应原样保留");
+    }
+
+    @Test
+    @DisplayName("测试替换为相同值不算修改")
+    void testSetSameValue() {
+        ResStringPool pool = parse(utf8Pool(List.of("a", "b"), false), null);
+
+        pool.setString(1, "b");
+
+        assertEquals(0, pool.getModifiedCount());
+    }
+
+    @Test
+    @DisplayName("测试UTF-16字符串池原样写回")
+    void testUtf16RoundTrip() {
+        byte[] chunk = utf16Pool(List.of("中文字符串", "com.example.B"));
+        ResStringPool pool = parse(chunk, null);
+
+        assertArrayEquals(chunk, write(pool));
+
+        pool.setString(1, "com.renamed.LongerName");
+        ResStringPool reparsed = parse(write(pool), null);
+        assertEquals(List.of("中文字符串", "com.renamed.LongerName"), reparsed.getStrings());
+    }
+
+    @Test
+    @DisplayName("测试损坏字符串：EAGER解析时报错，LAZY访问时报错")
+    void testCorruptString() {
+        byte[] chunk = utf8Pool(List.of("ok", "bad"), false);
+        // 把第二个字符串的字节长度改为超出数据区
+        int stringsStart = ByteBuffer.wrap(chunk).order(ByteOrder.LITTLE_ENDIAN).getInt(20);
+        int secondOffset = ByteBuffer.wrap(chunk).order(ByteOrder.LITTLE_ENDIAN).getInt(32);
+        chunk[stringsStart + secondOffset + 1] = 0x7F;
+
+        ResStringPool eager = new ResStringPool();
+        eager.setDecodeMode(ResStringPool.DecodeMode.EAGER);
+        assertThrows(IllegalArgumentException.class,
+                     () -> eager.parse(ByteBuffer.wrap(chunk)));
+
+        ResStringPool lazy = parse(chunk, null);
+        assertEquals("ok", lazy.getString(0));
+        assertThrows(IllegalArgumentException.class, () -> lazy.getString(1));
+        assertFalse(lazy.validate());
+    }
+
+    private static ResStringPool parse(byte[] chunk, byte[] styles) {
+        ResStringPool pool = new ResStringPool();
+        pool.parse(ByteBuffer.wrap(styles != null ? withStyles(chunk, styles) : chunk));
+        return pool;
+    }
+
+    private static byte[] write(ResStringPool pool) {
+        ByteBuffer buffer = ByteBuffer.allocate(pool.calculateSize() + 64);
+        int written = pool.write(buffer);
+        return Arrays.copyOf(buffer.array(), written);
+    }
+
+    /**
+     * 构造UTF-8字符串池
+     *
+     * @param wideLengths true=长度前缀使用非规范的2字节编码
+     */
+    private static byte[] utf8Pool(List<String> strings, boolean wideLengths) {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int[] offsets = new int[strings.size()];
+        for (int i = 0; i < strings.size(); i++) {
+            offsets[i] = data.size();
+            byte[] bytes = strings.get(i).getBytes(StandardCharsets.UTF_8);
+            boolean wide = wideLengths && i > 0;
+            writeLength8(data, strings.get(i).length(), wide);
+            writeLength8(data, bytes.length, wide);
+            data.write(bytes, 0, bytes.length);
+            data.write(0);
+        }
+        return chunk(offsets, data, ResStringPool.UTF8_FLAG);
+    }
+
+    private static byte[] utf16Pool(List<String> strings) {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int[] offsets = new int[strings.size()];
+        for (int i = 0; i < strings.size(); i++) {
+            offsets[i] = data.size();
+            String value = strings.get(i);
+            writeChar(data, value.length());
+            for (int j = 0; j < value.length(); j++) {
+                writeChar(data, value.charAt(j));
+            }
+            writeChar(data, 0);
+        }
+        return chunk(offsets, data, 0);
+    }
+
+    private static byte[] chunk(int[] offsets, ByteArrayOutputStream data, int flags) {
+        while (data.size() % 4 != 0) {
+            data.write(0);
+        }
+        int stringsStart = 28 + offsets.length * 4;
+        int size = stringsStart + data.size();
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putShort((short) ResStringPool.RES_STRING_POOL_TYPE);
+        buffer.putShort((short) 28);
+        buffer.putInt(size);
+        buffer.putInt(offsets.length);
+        buffer.putInt(0);
+        buffer.putInt(flags);
+        buffer.putInt(stringsStart);
+        buffer.putInt(0);
+        for (int offset : offsets) {
+            buffer.putInt(offset);
+        }
+        buffer.put(data.toByteArray());
+        return buffer.array();
+    }
+
+    /**
+     * 为字符串池追加一个样式（样式偏移表 + 样式数据区）
+     */
+    private static byte[] withStyles(byte[] chunk, byte[] styles) {
+        ByteBuffer in = ByteBuffer.wrap(chunk).order(ByteOrder.LITTLE_ENDIAN);
+        int count = in.getInt(8);
+        int stringsStart = in.getInt(20);
+        int stringsSize = chunk.length - stringsStart;
+
+        int newStringsStart = stringsStart + 4;
+        int stylesStart = newStringsStart + stringsSize;
+        int size = stylesStart + styles.length;
+
+        ByteBuffer out = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        out.putShort((short) ResStringPool.RES_STRING_POOL_TYPE);
+        out.putShort((short) 28);
+        out.putInt(size);
+        out.putInt(count);
+        out.putInt(1);
+        out.putInt(in.getInt(16));
+        out.putInt(newStringsStart);
+        out.putInt(stylesStart);
+        out.put(chunk, 28, count * 4);
+        out.putInt(0);  // style[0]偏移
+        out.put(chunk, stringsStart, stringsSize);
+        out.put(styles);
+        return out.array();
+    }
+
+    private static void writeLength8(ByteArrayOutputStream out, int length, boolean wide) {
+        if (wide || length >= 0x80) {
+            out.write(0x80 | ((length >> 8) & 0x7F));
+        }
+        out.write(length & 0xFF);
+    }
+
+    private static void writeChar(ByteArrayOutputStream out, int value) {
+        out.write(value & 0xFF);
+        out.write((value >> 8) & 0xFF);
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern) {
+        outer:
+        for (int i = 0; i <= data.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,210 @@
+package com.resources.arsc;
+
+import com.resources.util.TypedValue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ResTableType延迟entry解码测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class ResTableTypeEntryTest {
+
+    private static final String PACKAGE_NAME = "com.example.app";
+
+    @Test
+    @DisplayName("测试entry按需解码")
+    void testLazyEntryDecode() {
+        ArscParser parser = parse(TestArscBuilder.arsc(TestArscBuilder.strings(20), PACKAGE_NAME));
+        ResTableType type = parser.getMainPackage().getTypes().get(0);
+
+        assertEquals(0, type.getDecodedEntryCount());
+        assertEquals(20, type.getEntryCount());
+        assertTrue(type.getConfig().isDefault());
+        assertFalse(type.isSparse());
+
+        ResTableEntry entry = type.getEntry(7);
+        assertEquals(1, type.getDecodedEntryCount());
+        assertEquals(7, entry.getKeyIndex());
+        assertFalse(entry.isComplex());
+        assertEquals(ResValue.string(7), entry.getValue());
+        assertNull(type.getEntry(20));
+
+        assertEquals(20, type.getEntries().size());
+        assertEquals(20, type.getDecodedEntryCount());
+    }
+
+    @Test
+    @DisplayName("测试查找引用全局字符串的entry")
+    void testStringReferences() {
+        ArscParser parser = parse(TestArscBuilder.arsc(TestArscBuilder.strings(10), PACKAGE_NAME));
+        ResTableType type = parser.getMainPackage().getTypes().get(0);
+
+        List<ResTableEntry> entries = type.findEntriesReferencingString(4);
+        assertEquals(1, entries.size());
+        assertEquals(4, entries.get(0).getEntryId());
+
+        BitSet references = parser.collectStringReferences();
+        assertEquals(10, references.cardinality());
+        assertEquals(10, references.nextClearBit(0));
+    }
+
+    @Test
+    @DisplayName("测试重映射字符串引用后只替换type chunk")
+    void testRemapStringReferences() {
+        byte[] original = TestArscBuilder.arsc(TestArscBuilder.strings(12), PACKAGE_NAME);
+        ArscParser parser = parse(original);
+        ResTablePackage pkg = parser.getMainPackage();
+
+        // 把所有奇数索引的引用指向前一个字符串
+        int changed = pkg.remapStringReferences(index -> index % 2 == 1 ? index - 1 : index);
+        assertEquals(6, changed);
+        assertTrue(pkg.isTypesModified());
+        assertFalse(pkg.isUnchanged());
+        assertFalse(pkg.needsRebuild());
+
+        byte[] output = new ArscWriter().toByteArray(parser);
+        assertEquals(original.length, output.length);
+
+        ResTableType reparsed = parse(output).getMainPackage().getTypes().get(0);
+        assertEquals(ResValue.string(2), reparsed.getEntry(3).getValue());
+        assertEquals(ResValue.string(4), reparsed.getEntry(4).getValue());
+
+        // library chunk保持原样
+        assertArrayEquals(Arrays.copyOfRange(original, original.length - 272, original.length),
+                          Arrays.copyOfRange(output, output.length - 272, output.length));
+    }
+
+    @Test
+    @DisplayName("测试修改值与修改键字符串池同时写回")
+    void testSetValueWithKeyPoolChange() {
+        ArscParser parser = parse(TestArscBuilder.arsc(TestArscBuilder.strings(8), PACKAGE_NAME));
+        ResTablePackage pkg = parser.getMainPackage();
+        ResTableType type = pkg.getTypes().get(0);
+
+        type.setValue(2, new ResValue(TypedValue.TYPE_INT_DEC, 42));
+        pkg.setKeyString(0, "renamed_key_with_longer_name");
+        assertEquals(new ResValue(TypedValue.TYPE_INT_DEC, 42), type.getEntry(2).getValue());
+
+        ArscParser reparsed = parse(new ArscWriter().toByteArray(parser));
+        ResTablePackage newPkg = reparsed.getMainPackage();
+        assertEquals("renamed_key_with_longer_name", newPkg.getKeyStrings().getString(0));
+        assertEquals(new ResValue(TypedValue.TYPE_INT_DEC, 42), newPkg.getTypes().get(0).getEntry(2).getValue());
+        assertEquals(ResValue.string(3), newPkg.getTypes().get(0).getEntry(3).getValue());
+        assertTrue(reparsed.validate());
+    }
+
+    @Test
+    @DisplayName("测试稀疏偏移表、complex和compact entry")
+    void testSparseComplexCompact() {
+        ResTableType type = new ResTableType();
+        type.parse(ByteBuffer.wrap(sparseType()));
+
+        assertTrue(type.isSparse());
+        assertEquals(2, type.getEntryCount());
+        assertEquals("de", type.getConfig().getLanguage());
+        assertEquals(480, type.getConfig().getDensity());
+        assertNull(type.getEntry(1));
+
+        ResTableEntry style = type.getEntry(3);
+        assertTrue(style.isComplex());
+        assertEquals(0x7f010000, style.getParent());
+        assertEquals(2, style.getMapEntries().size());
+        assertEquals(0x01010000, style.getMapEntries().get(1).getName());
+        assertTrue(style.referencesString(9));
+
+        ResTableEntry compact = type.getEntry(5);
+        assertTrue(compact.isCompact());
+        assertEquals(11, compact.getKeyIndex());
+        assertEquals(ResValue.string(6), compact.getValue());
+
+        BitSet references = new BitSet();
+        type.collectStringReferences(references);
+        assertEquals("{6, 9}", references.toString());
+
+        assertEquals(2, type.remapStringReferences(index -> index + 100));
+        assertEquals(ResValue.string(106), type.getEntry(5).getValue());
+        assertEquals(ResValue.string(109), type.getEntry(3).getMapEntries().get(1).getValue());
+        assertTrue(type.isModified());
+        assertArrayEquals(sparseType(), type.getOriginalData(), "原始数据不应被修改");
+    }
+
+    @Test
+    @DisplayName("测试损坏的偏移表在访问时报错")
+    void testCorruptOffsets() {
+        byte[] data = sparseType();
+        // 第二个稀疏项的偏移指向chunk之外
+        ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN).putShort(84 + 4 + 2, (short) 0x7FFF);
+
+        ResTableType type = new ResTableType();
+        type.parse(ByteBuffer.wrap(data));
+
+        assertNotNull(type.getEntry(3));
+        assertThrows(IllegalArgumentException.class, () -> type.getEntry(5));
+    }
+
+    /**
+     * 稀疏type chunk：entry 3为style（2个map项），entry 5为compact字符串
+     */
+    private static byte[] sparseType() {
+        int headerSize = 84;
+        int entriesStart = headerSize + 2 * 4;
+        int styleSize = 16 + 2 * 12;
+        int size = entriesStart + styleSize + 8;
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putShort((short) ResTableType.RES_TABLE_TYPE_TYPE);
+        buffer.putShort((short) headerSize);
+        buffer.putInt(size);
+        buffer.put((byte) 2);                                  // id
+        buffer.put((byte) ResTableType.FLAG_SPARSE);
+        buffer.putShort((short) 0);
+        buffer.putInt(2);                                      // entryCount
+        buffer.putInt(entriesStart);
+        buffer.putInt(64);                                     // config size
+        buffer.putInt(0);                                      // mcc/mnc
+        buffer.put((byte) 'd').put((byte) 'e');                // language
+        buffer.putShort((short) 0);                            // country
+        buffer.putShort((short) 0);                            // orientation/touchscreen
+        buffer.putShort((short) 480);                          // density
+        buffer.position(headerSize);
+
+        // 稀疏偏移表：(entryId, offset/4)
+        buffer.putShort((short) 3).putShort((short) 0);
+        buffer.putShort((short) 5).putShort((short) (styleSize / 4));
+
+        // style: ResTable_map_entry + 2 * ResTable_map
+        buffer.putShort((short) 16);
+        buffer.putShort((short) ResTableEntry.FLAG_COMPLEX);
+        buffer.putInt(10);                                     // key
+        buffer.putInt(0x7f010000);                             // parent
+        buffer.putInt(2);                                      // count
+        buffer.putInt(0x01010001);
+        buffer.putShort((short) 8).put((byte) 0).put((byte) TypedValue.TYPE_INT_DEC).putInt(1);
+        buffer.putInt(0x01010000);
+        buffer.putShort((short) 8).put((byte) 0).put((byte) TypedValue.TYPE_STRING).putInt(9);
+
+        // compact: key=11, dataType=TYPE_STRING, data=6
+        buffer.putShort((short) 11);
+        buffer.putShort((short) (ResTableEntry.FLAG_COMPACT | (TypedValue.TYPE_STRING << 8)));
+        buffer.putInt(6);
+
+        return buffer.array();
+    }
+
+    private static ArscParser parse(byte[] data) {
+        ArscParser parser = new ArscParser();
+        parser.parse(data);
+        return parser;
+    }
+}
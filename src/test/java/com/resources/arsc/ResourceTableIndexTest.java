@@ -0,0 +1,119 @@
+package com.resources.arsc;
+
+import com.resources.mapping.WhitelistFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ResourceTableIndex测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class ResourceTableIndexTest {
+
+    private static final String PACKAGE_NAME = "com.example.app";
+
+    @Test
+    @DisplayName("测试按资源ID查询配置和值")
+    void testResourceLookup() {
+        ArscParser parser = parse(TestArscBuilder.arsc(TestArscBuilder.strings(16), PACKAGE_NAME));
+        ResourceTableIndex index = ResourceTableIndex.build(parser);
+
+        assertEquals(16, index.getResourceCount());
+        assertTrue(index.contains(0x7f010003));
+        assertFalse(index.contains(0x7f010010));
+        assertFalse(index.contains(0x7f020000));
+        assertFalse(index.contains(0x01010000));
+
+        assertEquals(1, index.getConfigCount(0x7f010003));
+        assertTrue(index.getConfigs(0x7f010003).get(0).isDefault());
+        assertEquals(ResValue.string(3), index.getEntries(0x7f010003).get(0).getValue());
+        assertEquals("string/key_3", index.getResourceName(0x7f010003));
+        assertNull(index.getResourceName(0x7f010010));
+        assertEquals(0, index.getConfigCount(0x7f010010));
+
+        int[] ids = index.getResourceIds();
+        assertEquals(16, ids.length);
+        assertEquals(0x7f010000, ids[0]);
+        assertEquals(0x7f01000f, ids[15]);
+    }
+
+    @Test
+    @DisplayName("测试全局字符串反向引用")
+    void testStringReferences() {
+        ArscParser parser = parse(TestArscBuilder.arsc(TestArscBuilder.strings(10), PACKAGE_NAME));
+        // 奇数entry改为引用前一个字符串
+        parser.getMainPackage().remapStringReferences(i -> i % 2 == 1 ? i - 1 : i);
+
+        ResourceTableIndex index = ResourceTableIndex.build(parser);
+
+        assertEquals(10, index.getStringCount());
+        assertArrayEquals(new int[] {0x7f010002, 0x7f010003}, index.getReferencingResources(2));
+        assertFalse(index.isStringReferenced(3));
+        assertEquals(0, index.getReferencingResources(3).length);
+        assertEquals(0, index.getReferencingResources(-1).length);
+        assertEquals(0, index.getReferencingResources(99).length);
+
+        BitSet strings = new BitSet();
+        strings.set(2);
+        strings.set(4);
+        strings.set(5);
+        assertArrayEquals(new int[] {0x7f010002, 0x7f010003, 0x7f010004, 0x7f010005},
+                          index.getReferencingResources(strings));
+    }
+
+    @Test
+    @DisplayName("测试统计被替换字符串影响的资源")
+    void testChangedResources() {
+        ArscParser parser = parse(TestArscBuilder.arsc(TestArscBuilder.strings(10), PACKAGE_NAME));
+        ResourceTableIndex index = ResourceTableIndex.build(parser);
+        ResStringPool pool = parser.getGlobalStringPool();
+
+        assertEquals(0, index.getChangedResources(pool).length);
+
+        pool.setString(6, "com.renamed.app.View6");
+        pool.setString(8, "com.renamed.app.View8");
+
+        assertArrayEquals(new int[] {0x7f010006, 0x7f010008}, index.getChangedResources(pool));
+    }
+
+    @Test
+    @DisplayName("测试替换报告列出受影响的资源")
+    void testReplaceReport() {
+        ArscParser parser = parse(TestArscBuilder.arsc(TestArscBuilder.strings(10), PACKAGE_NAME));
+        ResourceTableIndex index = ResourceTableIndex.build(parser);
+        WhitelistFilter filter = new WhitelistFilter();
+        filter.addOwnPackage(PACKAGE_NAME);
+
+        String report = new ArscReplacer(filter).generateReplaceReport(
+            parser.getGlobalStringPool(), Map.of("com.example.app.View6", "com.renamed.View6"), index);
+
+        assertTrue(report.contains("[6] 'com.example.app.View6' -> 'com.renamed.View6'"), report);
+        assertTrue(report.contains("0x7F010006 string/key_6"), report);
+        assertTrue(report.contains("实际替换: 1"), report);
+    }
+
+    @Test
+    @DisplayName("测试空资源包列表")
+    void testEmpty() {
+        ResourceTableIndex index = ResourceTableIndex.build(List.of(), 0);
+
+        assertEquals(0, index.getResourceCount());
+        assertEquals(0, index.getResourceIds().length);
+        assertFalse(index.contains(0x7f010000));
+        assertFalse(index.isStringReferenced(0));
+    }
+
+    private static ArscParser parse(byte[] data) {
+        ArscParser parser = new ArscParser();
+        parser.parse(data);
+        return parser;
+    }
+}
@@ -0,0 +1,212 @@
+package com.resources.arsc;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 测试用resources.arsc构造器
+ *
+ * 结构：ResTable头 + 全局字符串池 + 一个或多个资源包
+ * （类型池、键池、typeSpec、默认配置的type，以及一个未识别的library chunk），
+ * 每个entry是引用一个全局字符串的TYPE_STRING值。
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+final class TestArscBuilder {
+
+    static final int RES_TABLE_LIBRARY_TYPE = 0x0203;
+
+    private static final int PACKAGE_HEADER_SIZE = 288;
+    private static final int TYPE_HEADER_SIZE = 84;
+    private static final int CONFIG_SIZE = 64;
+
+    private TestArscBuilder() {
+    }
+
+    /**
+     * 生成resources.arsc
+     *
+     * @param globalStrings 全局字符串（第i个entry引用第i个字符串）
+     * @param packageName 包名
+     * @return ARSC字节数据
+     */
+    static byte[] arsc(List<String> globalStrings, String packageName) {
+        return arsc(globalStrings, List.of(packageName));
+    }
+
+    /**
+     * 生成包含多个资源包的resources.arsc
+     *
+     * @param globalStrings 全局字符串（每个包的第i个entry都引用第i个字符串）
+     * @param packageNames 包名，packageId依次为0x7f、0x80……
+     * @return ARSC字节数据
+     */
+    static byte[] arsc(List<String> globalStrings, List<String> packageNames) {
+        byte[] globalPool = stringPool(globalStrings);
+        List<byte[]> packages = new ArrayList<>();
+        int size = 12 + globalPool.length;
+        for (int i = 0; i < packageNames.size(); i++) {
+            byte[] pkg = resourcePackage(0x7f + i, packageNames.get(i), globalStrings.size());
+            packages.add(pkg);
+            size += pkg.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putShort((short) ArscParser.RES_TABLE_TYPE);
+        buffer.putShort((short) 12);
+        buffer.putInt(size);
+        buffer.putInt(packages.size());  // packageCount
+        buffer.put(globalPool);
+        for (byte[] pkg : packages) {
+            buffer.put(pkg);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * 生成n个全局字符串
+     */
+    static List<String> strings(int count) {
+        List<String> strings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            strings.add(i % 2 == 0 ? "com.example.app.View" + i : "res/layout/layout_" + i + ".xml");
+        }
+        return strings;
+    }
+
+    /**
+     * 编码UTF-8字符串池chunk（仅ASCII字符串）
+     */
+    static byte[] stringPool(List<String> strings) {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int[] offsets = new int[strings.size()];
+        for (int i = 0; i < strings.size(); i++) {
+            offsets[i] = data.size();
+            byte[] bytes = strings.get(i).getBytes(StandardCharsets.UTF_8);
+            writeLength8(data, bytes.length);
+            writeLength8(data, bytes.length);
+            data.write(bytes, 0, bytes.length);
+            data.write(0);
+        }
+        while (data.size() % 4 != 0) {
+            data.write(0);
+        }
+
+        int stringsStart = 28 + strings.size() * 4;
+        int chunkSize = stringsStart + data.size();
+
+        ByteBuffer buffer = ByteBuffer.allocate(chunkSize).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putShort((short) ResStringPool.RES_STRING_POOL_TYPE);
+        buffer.putShort((short) 28);
+        buffer.putInt(chunkSize);
+        buffer.putInt(strings.size());
+        buffer.putInt(0);            // styleCount
+        buffer.putInt(ResStringPool.UTF8_FLAG);
+        buffer.putInt(stringsStart);
+        buffer.putInt(0);            // stylesStart
+        for (int offset : offsets) {
+            buffer.putInt(offset);
+        }
+        buffer.put(data.toByteArray());
+        return buffer.array();
+    }
+
+    private static byte[] resourcePackage(int id, String name, int entryCount) {
+        byte[] typeStrings = stringPool(List.of("string"));
+        List<String> keys = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            keys.add("key_" + i);
+        }
+        byte[] keyStrings = stringPool(keys);
+
+        // typeSpec
+        int specSize = 16 + entryCount * 4;
+        ByteBuffer spec = ByteBuffer.allocate(specSize).order(ByteOrder.LITTLE_ENDIAN);
+        spec.putShort((short) 0x0202);
+        spec.putShort((short) 16);
+        spec.putInt(specSize);
+        spec.put((byte) 1);          // id
+        spec.put((byte) 0);
+        spec.putShort((short) 0);
+        spec.putInt(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            spec.putInt(0);
+        }
+
+        // type：offsets + (ResTable_entry 8字节 + Res_value 8字节) * entryCount
+        int entriesStart = TYPE_HEADER_SIZE + entryCount * 4;
+        int typeSize = entriesStart + entryCount * 16;
+        ByteBuffer type = ByteBuffer.allocate(typeSize).order(ByteOrder.LITTLE_ENDIAN);
+        type.putShort((short) ResTableType.RES_TABLE_TYPE_TYPE);
+        type.putShort((short) TYPE_HEADER_SIZE);
+        type.putInt(typeSize);
+        type.put((byte) 1);          // id
+        type.put((byte) 0);          // flags
+        type.putShort((short) 0);
+        type.putInt(entryCount);
+        type.putInt(entriesStart);
+        type.putInt(CONFIG_SIZE);
+        type.put(new byte[CONFIG_SIZE - 4]);
+        for (int i = 0; i < entryCount; i++) {
+            type.putInt(i * 16);
+        }
+        for (int i = 0; i < entryCount; i++) {
+            type.putShort((short) 8);    // entry size
+            type.putShort((short) 0);    // entry flags
+            type.putInt(i);              // key index
+            type.putShort((short) 8);    // value size
+            type.put((byte) 0);
+            type.put((byte) 0x03);       // TYPE_STRING
+            type.putInt(i);              // global string index
+        }
+
+        // library chunk（解析器不识别，写回时必须原样保留）
+        int librarySize = 12 + 4 + 256;
+        ByteBuffer library = ByteBuffer.allocate(librarySize).order(ByteOrder.LITTLE_ENDIAN);
+        library.putShort((short) RES_TABLE_LIBRARY_TYPE);
+        library.putShort((short) 12);
+        library.putInt(librarySize);
+        library.putInt(1);           // count
+        library.putInt(0x02);        // packageId
+        String libName = "com.example.lib";
+        for (int i = 0; i < 128; i++) {
+            library.putChar(i < libName.length() ? libName.charAt(i) : '\0');
+        }
+
+        int typeStringsOffset = PACKAGE_HEADER_SIZE;
+        int keyStringsOffset = typeStringsOffset + typeStrings.length;
+        int size = keyStringsOffset + keyStrings.length + specSize + typeSize + librarySize;
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putShort((short) ResTablePackage.RES_TABLE_PACKAGE_TYPE);
+        buffer.putShort((short) PACKAGE_HEADER_SIZE);
+        buffer.putInt(size);
+        buffer.putInt(id);
+        for (int i = 0; i < 128; i++) {
+            buffer.putChar(i < name.length() ? name.charAt(i) : '\0');
+        }
+        buffer.putInt(typeStringsOffset);
+        buffer.putInt(1);            // lastPublicType
+        buffer.putInt(keyStringsOffset);
+        buffer.putInt(entryCount);   // lastPublicKey
+        buffer.putInt(0);            // typeIdOffset
+        buffer.put(typeStrings);
+        buffer.put(keyStrings);
+        buffer.put(spec.array());
+        buffer.put(type.array());
+        buffer.put(library.array());
+        return buffer.array();
+    }
+
+    private static void writeLength8(ByteArrayOutputStream out, int length) {
+        if (length >= 0x80) {
+            out.write(0x80 | ((length >> 8) & 0x7F));
+        }
+        out.write(length & 0xFF);
+    }
+}
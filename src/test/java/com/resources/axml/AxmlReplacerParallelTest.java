@@ -0,0 +1,102 @@
+package com.resources.axml;
+
+import com.resources.mapping.WhitelistFilter;
+import com.resources.model.BatchReplaceResult;
+import com.resources.model.ClassMapping;
+import com.resources.model.PackageMapping;
+import com.resources.validator.SemanticValidator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AxmlReplacer并行批量处理测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+class AxmlReplacerParallelTest {
+
+    private ExecutorService executor;
+    private SemanticValidator semanticValidator;
+    private ClassMapping classMapping;
+    private PackageMapping packageMapping;
+
+    @BeforeEach
+    void setUp() {
+        WhitelistFilter whitelistFilter = new WhitelistFilter();
+        whitelistFilter.addOwnPackage("com.test");
+        semanticValidator = new SemanticValidator(whitelistFilter);
+
+        classMapping = new ClassMapping();
+        packageMapping = new PackageMapping();
+        packageMapping.addPrefixMapping("com.test", "com.renamed");
+
+        executor = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("测试并行结果与串行完全一致")
+    void testParallelMatchesSerial() throws Exception {
+        Map<String, byte[]> files = createFiles(64);
+
+        AxmlReplacer serial = new AxmlReplacer(semanticValidator, classMapping, packageMapping, false);
+        AxmlReplacer parallel = new AxmlReplacer(semanticValidator, classMapping, packageMapping, false, executor);
+
+        BatchReplaceResult expected = serial.replaceAxmlBatch(files);
+        BatchReplaceResult actual = parallel.replaceAxmlBatch(files);
+
+        assertEquals(new ArrayList<>(files.keySet()), new ArrayList<>(actual.getResults().keySet()),
+                     "结果顺序应与输入一致");
+        for (String path : files.keySet()) {
+            assertArrayEquals(expected.getResults().get(path), actual.getResults().get(path), path);
+        }
+        assertEquals(expected.getSuccessCount(), actual.getSuccessCount());
+        assertEquals(expected.getSkippedCount(), actual.getSkippedCount());
+        assertEquals(expected.getErrorCount(), actual.getErrorCount());
+        assertTrue(actual.getSuccessCount() > 0, "应有文件被修改");
+    }
+
+    @Test
+    @DisplayName("测试并行处理按文件统计错误")
+    void testPerFileErrorAccounting() throws Exception {
+        Map<String, byte[]> files = createFiles(8);
+        byte[] corrupted = {0x03, 0x00, 0x08, 0x00, 0x10, 0x00, 0x00, 0x00,
+                            (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                            (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF};
+        files.put("res/layout/broken.xml", corrupted);
+
+        AxmlReplacer parallel = new AxmlReplacer(semanticValidator, classMapping, packageMapping, false, executor);
+        BatchReplaceResult result = parallel.replaceAxmlBatch(files);
+
+        assertEquals(files.size(), result.getTotalProcessed());
+        if (result.getErrorCount() > 0) {
+            assertEquals(List.of("res/layout/broken.xml"), result.getErrorFiles());
+            assertSame(corrupted, result.getResults().get("res/layout/broken.xml"), "失败时保留原始数据");
+        }
+    }
+
+    private Map<String, byte[]> createFiles(int count) throws IOException {
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            // 一半包含自有包名，一半只包含系统控件
+            String tag = i % 2 == 0 ? "com.test.widget.View" + i : "TextView";
+            files.put(String.format("res/layout/file_%03d.xml", i), TestAxmlBuilder.layout(tag));
+        }
+        return files;
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.resources.axml;
+
+import java.io.IOException;
+
+/**
+ * 测试用二进制XML构造器
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public final class TestAxmlBuilder {
+
+    private TestAxmlBuilder() {
+    }
+
+    /**
+     * 生成根节点为LinearLayout、只有一个子节点的布局
+     *
+     * @param childTag 子节点标签（自定义View时为完整类名）
+     * @return AXML字节数据
+     */
+    public static byte[] layout(String childTag) throws IOException {
+        AxmlWriter writer = new AxmlWriter();
+        NodeVisitor root = writer.child(null, "LinearLayout");
+        NodeVisitor child = root.child(null, childTag);
+        child.end();
+        root.end();
+        writer.end();
+        return writer.toByteArray();
+    }
+}
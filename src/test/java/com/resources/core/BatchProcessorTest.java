@@ -0,0 +1,250 @@
+package com.resources.core;
+
+import com.resources.model.ProcessingResult;
+import com.resources.util.DexClassCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BatchProcessor调度测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class BatchProcessorTest {
+
+    private static final int KB = 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("测试按内存预算放行任务且结果保持输入顺序")
+    void testMemoryBudget() throws Exception {
+        Path config = writeConfig("app.yaml");
+        int[] sizes = {60, 10, 60, 30, 30, 10, 45};
+        List<BatchProcessor.Job> jobs = new ArrayList<>();
+        for (int i = 0; i < sizes.length; i++) {
+            jobs.add(new BatchProcessor.Job(writeApk("app" + i + ".apk", sizes[i] * KB).toString(),
+                                            config.toString(), null));
+        }
+
+        AtomicLong reserved = new AtomicLong();
+        AtomicLong peak = new AtomicLong();
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        BatchProcessor processor = new BatchProcessor(4, 100 * KB, new DexClassCache(),
+            (job, compiled, workers) -> {
+                long footprint = BatchProcessor.estimateFootprint(job.getApkPath());
+                peak.accumulateAndGet(reserved.addAndGet(footprint), Math::max);
+                maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                Thread.sleep(30);
+                concurrent.decrementAndGet();
+                reserved.addAndGet(-footprint);
+                return success(job);
+            });
+
+        BatchProcessor.BatchResult result = processor.process(jobs);
+
+        assertTrue(result.isAllSuccess(), result.getSummary());
+        assertEquals(sizes.length, result.getSuccessCount());
+        for (int i = 0; i < sizes.length; i++) {
+            assertEquals(jobs.get(i), result.getResults().get(i).getJob());
+        }
+        assertTrue(peak.get() <= 100 * KB, "同时运行的APK超出预算: " + peak.get());
+        assertTrue(result.getPeakReserved() <= 100 * KB);
+        assertTrue(maxConcurrent.get() >= 2, "预算内的小任务应并行执行");
+        assertTrue(maxConcurrent.get() <= 4);
+    }
+
+    @Test
+    @DisplayName("测试超过预算的APK单独执行")
+    void testOversizedJob() throws Exception {
+        Path config = writeConfig("app.yaml");
+        List<BatchProcessor.Job> jobs = List.of(
+            new BatchProcessor.Job(writeApk("small.apk", 10 * KB).toString(), config.toString(), null),
+            new BatchProcessor.Job(writeApk("huge.apk", 300 * KB).toString(), config.toString(), null),
+            new BatchProcessor.Job(writeApk("small2.apk", 10 * KB).toString(), config.toString(), null));
+
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger concurrentWithHuge = new AtomicInteger();
+        BatchProcessor processor = new BatchProcessor(4, 100 * KB, new DexClassCache(),
+            (job, compiled, workers) -> {
+                int now = concurrent.incrementAndGet();
+                if (job.getApkPath().endsWith("huge.apk")) {
+                    concurrentWithHuge.set(now);
+                }
+                Thread.sleep(20);
+                concurrent.decrementAndGet();
+                return success(job);
+            });
+
+        BatchProcessor.BatchResult result = processor.process(jobs);
+
+        assertTrue(result.isAllSuccess(), result.getSummary());
+        assertEquals(1, concurrentWithHuge.get());
+        assertEquals(100 * KB, result.getResults().get(1).getFootprint());
+    }
+
+    @Test
+    @DisplayName("测试同一配置只编译一次，任务失败互不影响")
+    void testSharedConfigAndFailures() throws Exception {
+        Path config = writeConfig("app.yaml");
+        List<BatchProcessor.Job> jobs = List.of(
+            new BatchProcessor.Job(writeApk("a.apk", KB).toString(), config.toString(), null),
+            new BatchProcessor.Job(writeApk("b.apk", KB).toString(), config.toString(), null),
+            new BatchProcessor.Job(writeApk("c.apk", KB).toString(), tempDir.resolve("missing.yaml").toString(), null),
+            new BatchProcessor.Job(tempDir.resolve("missing.apk").toString(), config.toString(), null),
+            new BatchProcessor.Job(writeApk("fail.apk", KB).toString(), config.toString(), null));
+
+        Set<CompiledConfig> configs = ConcurrentHashMap.newKeySet();
+        BatchProcessor processor = new BatchProcessor(2, 0, new DexClassCache(),
+            (job, compiled, workers) -> {
+                configs.add(compiled);
+                assertNull(workers, "未开启parallel_processing时不应传入执行器");
+                if (job.getApkPath().endsWith("fail.apk")) {
+                    throw new IOException("模拟处理失败");
+                }
+                return success(job);
+            });
+
+        BatchProcessor.BatchResult result = processor.process(jobs);
+
+        assertEquals(2, result.getSuccessCount());
+        assertEquals(3, result.getFailureCount());
+        assertEquals(1, configs.size());
+        assertTrue(result.getResults().get(2).getError().contains("配置加载失败"));
+        assertTrue(result.getResults().get(3).getError().contains("无法读取APK"));
+        assertEquals("模拟处理失败", result.getResults().get(4).getError());
+        assertNull(result.getResults().get(4).getResult());
+    }
+
+    @Test
+    @DisplayName("测试加载任务清单和扫描目录")
+    void testManifestAndDirectory() throws Exception {
+        Path config = writeConfig("default.yaml");
+        writeConfig("configs/special.yaml");
+        writeApk("a.apk", KB);
+        writeApk("b.APK", KB);
+        Files.writeString(tempDir.resolve("notes.txt"), "x");
+
+        Path manifest = tempDir.resolve("batch.yaml");
+        Files.writeString(manifest, String.join("\n",
+            "jobs:",
+            "  - apk: a.apk",
+            "  - apk: b.APK",
+            "    config: configs/special.yaml",
+            "    output: out/b.apk"), StandardCharsets.UTF_8);
+
+        List<BatchProcessor.Job> jobs = BatchProcessor.loadManifest(manifest, config.toString());
+        assertEquals(2, jobs.size());
+        assertEquals(tempDir.resolve("a.apk").toString(), jobs.get(0).getApkPath());
+        assertEquals(config.toString(), jobs.get(0).getConfigPath());
+        assertNull(jobs.get(0).getOutputPath());
+        assertEquals(tempDir.resolve("configs/special.yaml").toString(), jobs.get(1).getConfigPath());
+        assertEquals(tempDir.resolve("out/b.apk").toString(), jobs.get(1).getOutputPath());
+
+        assertThrows(IOException.class, () -> BatchProcessor.loadManifest(manifest, null));
+
+        List<BatchProcessor.Job> scanned = BatchProcessor.scanDirectory(
+            tempDir, config.toString(), tempDir.resolve("out"));
+        assertEquals(2, scanned.size());
+        assertEquals(tempDir.resolve("out/a.apk").toString(), scanned.get(0).getOutputPath());
+    }
+
+    @Test
+    @DisplayName("测试拒绝写入同一APK的任务")
+    void testWorkingPathConflict() throws Exception {
+        Path config = writeConfig("default.yaml");
+        writeApk("a.apk", KB);
+        writeApk("b.apk", KB);
+
+        Path sameInput = tempDir.resolve("same-input.yaml");
+        Files.writeString(sameInput, String.join("\n",
+            "jobs:",
+            "  - apk: a.apk",
+            "  - apk: ./a.apk"), StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> BatchProcessor.loadManifest(sameInput, config.toString()));
+
+        Path sameOutput = tempDir.resolve("same-output.yaml");
+        Files.writeString(sameOutput, String.join("\n",
+            "jobs:",
+            "  - apk: a.apk",
+            "    output: out/app.apk",
+            "  - apk: b.apk",
+            "    output: out/../out/app.apk"), StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> BatchProcessor.loadManifest(sameOutput, config.toString()));
+
+        BatchProcessor processor = new BatchProcessor(2, 100 * KB, new DexClassCache(),
+            (job, compiled, workers) -> success(job));
+
+        // 两个任务原地处理同一APK（即使配置不同）
+        List<BatchProcessor.Job> sameApk = List.of(
+            new BatchProcessor.Job(tempDir.resolve("a.apk").toString(), config.toString(), null),
+            new BatchProcessor.Job(tempDir.resolve("a.apk").toString(),
+                                   tempDir.resolve("other.yaml").toString(), null));
+        assertThrows(IllegalArgumentException.class, () -> processor.process(sameApk));
+
+        // 另一任务的输出覆盖本任务的输入
+        List<BatchProcessor.Job> overlapping = List.of(
+            new BatchProcessor.Job(tempDir.resolve("a.apk").toString(), config.toString(), null),
+            new BatchProcessor.Job(tempDir.resolve("b.apk").toString(), config.toString(),
+                                   tempDir.resolve("a.apk").toString()));
+        assertThrows(IllegalArgumentException.class, () -> processor.process(overlapping));
+
+        // 输出等于输入的任务自身不算冲突
+        assertTrue(processor.process(List.of(
+            new BatchProcessor.Job(tempDir.resolve("a.apk").toString(), config.toString(),
+                                   tempDir.resolve("a.apk").toString()))).isAllSuccess());
+    }
+
+    private static ProcessingResult success(BatchProcessor.Job job) {
+        return new ProcessingResult.Builder()
+            .apkPath(job.getApkPath())
+            .success(true)
+            .build();
+    }
+
+    private Path writeConfig(String name) throws IOException {
+        Path path = tempDir.resolve(name);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, String.join("\n",
+            "version: \"1.0\"",
+            "own_package_prefixes:",
+            "  - com.example",
+            "package_mappings:",
+            "  com.example: com.renamed"), StandardCharsets.UTF_8);
+        return path;
+    }
+
+    /**
+     * 生成只含一个entry的APK（ZIP），解压后大小为uncompressedSize
+     */
+    private Path writeApk(String name, int uncompressedSize) throws IOException {
+        Path path = tempDir.resolve(name);
+        try (OutputStream out = Files.newOutputStream(path);
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("classes.dex"));
+            zip.write(new byte[uncompressedSize]);
+            zip.closeEntry();
+        }
+        return path;
+    }
+}
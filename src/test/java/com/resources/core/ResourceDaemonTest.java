@@ -0,0 +1,228 @@
+package com.resources.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ResourceDaemon测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class ResourceDaemonTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path tempDir;
+
+    private ResourceDaemon daemon;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        daemon = new ResourceDaemon(0, 2);
+        daemon.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        daemon.stop();
+    }
+
+    @Test
+    @DisplayName("测试健康检查和远程停止")
+    void testHealthAndShutdown() throws Exception {
+        HttpResponse<String> health = send("GET", "/health", null);
+        assertEquals(200, health.statusCode());
+        Map<String, Object> data = parse(health.body());
+        assertEquals("ok", data.get("status"));
+        assertEquals(0, data.get("jobsCompleted"));
+
+        HttpResponse<String> shutdown = send("POST", "/shutdown", "");
+        assertEquals(200, shutdown.statusCode());
+        assertEquals("stopping", parse(shutdown.body()).get("event"));
+
+        Thread waiter = new Thread(() -> {
+            try {
+                daemon.awaitShutdown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        waiter.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(waiter.isAlive(), "常驻进程应在shutdown请求后停止");
+    }
+
+    @Test
+    @DisplayName("测试非法请求返回错误状态码")
+    void testBadRequests() throws Exception {
+        assertEquals(405, send("GET", "/process", null).statusCode());
+
+        HttpResponse<String> invalidJson = send("POST", "/scan", "{not json");
+        assertEquals(400, invalidJson.statusCode());
+        assertEquals("error", parse(invalidJson.body()).get("event"));
+
+        HttpResponse<String> missingConfig = send("POST", "/process", "{\"apk\": \"a.apk\"}");
+        assertEquals(400, missingConfig.statusCode());
+        assertTrue(parse(missingConfig.body()).get("message").toString().contains("config"));
+    }
+
+    @Test
+    @DisplayName("测试拒绝未授权、浏览器发起和非JSON的请求")
+    void testAuthorization() throws Exception {
+        String body = "{\"apk\": \"a.apk\", \"config\": \"c.yaml\"}";
+
+        HttpResponse<String> noToken = client.send(HttpRequest.newBuilder(uri("/health")).GET().build(),
+            HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        assertEquals(401, noToken.statusCode());
+
+        HttpResponse<String> wrongToken = client.send(HttpRequest.newBuilder(uri("/shutdown"))
+                .header("Authorization", "Bearer " + "0".repeat(daemon.getToken().length()))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(),
+            HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        assertEquals(401, wrongToken.statusCode());
+
+        HttpResponse<String> browser = client.send(authorized("/scan")
+                .header("Content-Type", "application/json")
+                .header("Origin", "http://example.com")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+            HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        assertEquals(403, browser.statusCode());
+
+        HttpResponse<String> form = client.send(authorized("/scan")
+                .header("Content-Type", "text/plain")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+            HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        assertEquals(415, form.statusCode());
+
+        assertEquals("ok", parse(send("GET", "/health", null).body()).get("status"));
+    }
+
+    @Test
+    @DisplayName("测试令牌文件仅本人可读，停止后删除")
+    void testTokenFile() throws Exception {
+        Path tokenFile = tempDir.resolve("daemon.token");
+        Files.writeString(tokenFile, "stale");
+        daemon.writeTokenFile(tokenFile);
+        assertEquals(daemon.getToken(), Files.readString(tokenFile).trim());
+        if (tokenFile.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(tokenFile)));
+        }
+
+        daemon.stop();
+        assertFalse(Files.exists(tokenFile));
+    }
+
+    @Test
+    @DisplayName("测试任务以NDJSON流式返回结果")
+    void testScanJob() throws Exception {
+        Path config = writeConfig("com.example");
+        Path apk = tempDir.resolve("empty.apk");
+        try (OutputStream out = Files.newOutputStream(apk);
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("assets/readme.txt"));
+            zip.write("x".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        String body = MAPPER.writeValueAsString(Map.of("apk", apk.toString(), "config", config.toString()));
+        HttpResponse<String> response = send("POST", "/scan", body);
+        assertEquals(200, response.statusCode());
+
+        List<String> lines = response.body().lines().toList();
+        assertEquals(2, lines.size(), response.body());
+        assertEquals("accepted", parse(lines.get(0)).get("event"));
+        Map<String, Object> result = parse(lines.get(1));
+        assertEquals("result", result.get("event"), lines.get(1));
+        assertEquals(0, ((Map<?, ?>) result.get("result")).get("totalResults"));
+
+        // 不存在的APK：任务失败但常驻进程继续服务
+        String missing = MAPPER.writeValueAsString(
+            Map.of("apk", tempDir.resolve("missing.apk").toString(), "config", config.toString()));
+        List<String> failed = send("POST", "/scan", missing).body().lines().toList();
+        assertEquals("error", parse(failed.get(1)).get("event"));
+
+        Map<String, Object> health = parse(send("GET", "/health", null).body());
+        assertEquals(1, health.get("jobsCompleted"));
+        assertEquals(1, health.get("jobsFailed"));
+        assertEquals(1, health.get("configsCached"));
+    }
+
+    @Test
+    @DisplayName("测试配置缓存在文件修改后重新加载")
+    void testConfigCache() throws Exception {
+        Path config = writeConfig("com.example");
+
+        CompiledConfig first = daemon.getConfig(config.toString());
+        assertSame(first, daemon.getConfig(tempDir.resolve(".").resolve("app.yaml").toString()));
+
+        writeConfig("com.example.app");
+        Files.setLastModifiedTime(config, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        CompiledConfig reloaded = daemon.getConfig(config.toString());
+        assertNotSame(first, reloaded);
+        assertTrue(reloaded.getConfig().getOwnPackagePrefixes().contains("com.example.app"));
+
+        assertThrows(IOException.class, () -> daemon.getConfig(tempDir.resolve("missing.yaml").toString()));
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest.Builder request = authorized(path);
+        if (body == null) {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.header("Content-Type", "application/json");
+            request.method(method, HttpRequest.BodyPublishers.ofString(body));
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(uri(path)).header("Authorization", "Bearer " + daemon.getToken());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + daemon.getPort() + path);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> parse(String json) throws IOException {
+        return MAPPER.readValue(json, Map.class);
+    }
+
+    private Path writeConfig(String ownPrefix) throws IOException {
+        Path path = tempDir.resolve("app.yaml");
+        Files.writeString(path, String.join("\n",
+            "version: \"1.0\"",
+            "own_package_prefixes:",
+            "  - " + ownPrefix,
+            "package_mappings:",
+            "  " + ownPrefix + ": com.renamed"), StandardCharsets.UTF_8);
+        return path;
+    }
+}
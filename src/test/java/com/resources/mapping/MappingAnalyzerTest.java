@@ -0,0 +1,134 @@
+package com.resources.mapping;
+
+import com.resources.model.ClassMapping;
+import com.resources.model.PackageMapping;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MappingAnalyzer测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class MappingAnalyzerTest {
+
+    private final MappingAnalyzer analyzer = new MappingAnalyzer();
+
+    @Test
+    @DisplayName("测试循环映射检测")
+    void testCycles() {
+        ClassMapping mapping = new ClassMapping();
+        mapping.addMapping("a.A", "a.B");
+        mapping.addMapping("a.B", "a.C");
+        mapping.addMapping("a.C", "a.A");
+        mapping.addMapping("b.X", "b.Y");
+        mapping.addMapping("b.Y", "b.X");
+        mapping.addMapping("d.Self", "d.Self");  // 自身映射不算循环
+        mapping.addMapping("e.One", "e.Two");    // 普通链
+        mapping.addMapping("e.Two", "e.Three");
+
+        MappingAnalyzer.Report report = analyzer.analyze(mapping, null, null);
+        List<MappingAnalyzer.Finding> cycles = report.getFindings(MappingAnalyzer.FindingType.CYCLE);
+        assertEquals(2, cycles.size(), cycles.toString());
+        assertTrue(report.hasErrors());
+
+        MappingAnalyzer.Finding abc = cycles.stream()
+            .filter(f -> f.getClasses().size() == 3).findFirst().orElseThrow();
+        assertEquals(Set.of("a.A", "a.B", "a.C"), Set.copyOf(abc.getClasses()));
+        // 按映射顺序排列
+        List<String> classes = abc.getClasses();
+        for (int i = 0; i < classes.size(); i++) {
+            assertEquals(classes.get((i + 1) % classes.size()), mapping.getNewClass(classes.get(i)));
+        }
+        assertEquals(report.getFindings().size(), cycles.size());
+    }
+
+    @Test
+    @DisplayName("测试长映射链线性时间完成")
+    void testLongChain() {
+        ClassMapping mapping = new ClassMapping();
+        int size = 200_000;
+        for (int i = 0; i < size; i++) {
+            mapping.addMapping("com.chain.C" + i, "com.chain.C" + (i + 1));
+        }
+
+        MappingAnalyzer.Report report = analyzer.analyze(mapping, null, null);
+        assertTrue(report.getFindings().isEmpty(), report.toString());
+        assertEquals(size, report.getMappingCount());
+
+        // 闭合成一个大环
+        mapping.addMapping("com.chain.C" + size, "com.chain.C0");
+        report = analyzer.analyze(mapping, null, null);
+        List<MappingAnalyzer.Finding> cycles = report.getFindings(MappingAnalyzer.FindingType.CYCLE);
+        assertEquals(1, cycles.size());
+        assertEquals(size + 1, cycles.get(0).getClasses().size());
+    }
+
+    @Test
+    @DisplayName("测试与DEX相关的冲突")
+    void testDexConflicts() {
+        ClassMapping mapping = new ClassMapping();
+        mapping.addMapping("com.old.Main", "com.app.Main");
+        mapping.addMapping("com.old.Util", "com.app.util");      // 与DEX中的com.app.Util只差大小写
+        mapping.addMapping("com.old.View", "com.app.VIEW");
+        mapping.addMapping("com.old.Other", "com.app.view");     // 与上一条新类名只差大小写
+        mapping.addMapping("com.old.Kept", "com.app.Kept");      // 旧类仍在DEX中
+        mapping.addMapping("com.old.Shift", "com.old.Kept2");
+        Set<String> dex = Set.of("com.app.Main", "com.app.Util", "com.app.util", "com.app.VIEW",
+                                 "com.app.view", "com.app.Kept", "com.old.Kept", "com.old.Kept2");
+
+        MappingAnalyzer.Report report = analyzer.analyze(mapping, dex, null);
+
+        List<MappingAnalyzer.Finding> missing = report.getFindings(MappingAnalyzer.FindingType.MISSING_CLASS);
+        assertTrue(missing.isEmpty(), missing.toString());
+
+        List<MappingAnalyzer.Finding> collisions = report.getFindings(MappingAnalyzer.FindingType.CASE_COLLISION);
+        assertEquals(2, collisions.size(), collisions.toString());
+        assertTrue(collisions.stream().anyMatch(f ->
+            Set.copyOf(f.getClasses()).equals(Set.of("com.app.VIEW", "com.app.view"))));
+        assertTrue(collisions.stream().anyMatch(f ->
+            Set.copyOf(f.getClasses()).equals(Set.of("com.app.util", "com.app.Util"))));
+
+        List<MappingAnalyzer.Finding> stale = report.getFindings(MappingAnalyzer.FindingType.OLD_CLASS_IN_DEX);
+        assertEquals(1, stale.size(), stale.toString());
+        assertEquals(List.of("com.old.Kept", "com.app.Kept"), stale.get(0).getClasses());
+        assertFalse(report.hasErrors());
+
+        // 缺失类是错误
+        mapping.addMapping("com.old.Gone", "com.app.Gone");
+        report = analyzer.analyze(mapping, dex, null);
+        assertEquals(1, report.getFindings(MappingAnalyzer.FindingType.MISSING_CLASS).size());
+        assertTrue(report.hasErrors());
+    }
+
+    @Test
+    @DisplayName("测试类映射与包名映射不一致")
+    void testPackageMismatch() {
+        PackageMapping packages = new PackageMapping();
+        packages.addPrefixMapping("com.old", "com.app");
+        packages.addExactMapping("org.lib", "org.shaded");
+
+        ClassMapping mapping = new ClassMapping();
+        mapping.addMapping("com.old.ui.Main", "com.app.ui.Main");        // 一致
+        mapping.addMapping("com.old.ui.Detail", "com.other.ui.Detail");  // 不一致
+        mapping.addMapping("org.lib.Api", "org.shaded.Api");             // 一致（精确匹配）
+        mapping.addMapping("org.lib.sub.Impl", "x.Impl");                // 精确匹配不覆盖子包
+        mapping.addMapping("net.free.Tool", "y.Tool");                   // 没有包名映射
+        mapping.addMapping("Root", "z.Root");                            // 默认包
+
+        MappingAnalyzer.Report report = analyzer.analyze(mapping, null, packages);
+        List<MappingAnalyzer.Finding> mismatches =
+            report.getFindings(MappingAnalyzer.FindingType.PACKAGE_MISMATCH);
+        assertEquals(1, mismatches.size(), mismatches.toString());
+        assertEquals(List.of("com.old.ui.Detail", "com.other.ui.Detail"), mismatches.get(0).getClasses());
+        assertTrue(mismatches.get(0).getMessage().contains("com.app.ui"));
+        assertFalse(report.hasErrors());
+        assertEquals(1, (int) report.countByType().get(MappingAnalyzer.FindingType.PACKAGE_MISMATCH));
+    }
+}
@@ -121,5 +121,55 @@ public class WhitelistFilterTest {
         assertFalse(filter.isSystemPackage(null));
         assertFalse(filter.isSystemPackage(""));
     }
+    
+    @Test
+    @DisplayName("测试纯包名与段边界")
+    void testSegmentBoundary() {
+        filter.addOwnPackage("com.myapp");
+        filter.addExcludePrefix("com.myapp.vendor");
+        
+        assertTrue(filter.shouldReplace("com.myapp"));
+        assertTrue(filter.shouldReplace("com.myapp.vendor"), "排除前缀不匹配纯包名");
+        assertFalse(filter.shouldReplace("com.myapp.vendor.Lib"));
+        assertFalse(filter.shouldReplace("com.myapps.Main"));
+        assertFalse(filter.shouldReplace("android"));
+        assertFalse(filter.isOwnPackage("com.myapp"), "isOwnPackage只做前缀匹配");
+    }
+    
+    @Test
+    @DisplayName("测试决策缓存命中统计")
+    void testDecisionCache() {
+        filter.addOwnPackage("com.myapp");
+        
+        for (int i = 0; i < 10; i++) {
+            assertFalse(filter.shouldReplace("androidx.constraintlayout.widget.ConstraintLayout"));
+            assertTrue(filter.shouldReplace("com.myapp.ui.MainView"));
+        }
+        
+        assertEquals(2, filter.getCacheMisses());
+        assertEquals(18, filter.getCacheHits());
+        
+        // 前缀变化后缓存失效
+        filter.addExcludePrefix("com.myapp.ui");
+        assertFalse(filter.shouldReplace("com.myapp.ui.MainView"));
+        assertEquals(3, filter.getCacheMisses());
+        
+        filter.resetCacheStatistics();
+        assertEquals(0, filter.getCacheHits());
+        assertEquals(0, filter.getCacheMisses());
+    }
+    
+    @Test
+    @DisplayName("测试禁用决策缓存")
+    void testCacheDisabled() {
+        WhitelistFilter uncached = new WhitelistFilter(0);
+        uncached.addOwnPackage("com.myapp");
+        
+        assertTrue(uncached.shouldReplace("com.myapp.A"));
+        assertTrue(uncached.shouldReplace("com.myapp.A"));
+        assertEquals(0, uncached.getDecisionCacheSize());
+        assertEquals(0, uncached.getCacheHits());
+        assertEquals(0, uncached.getCacheMisses());
+        assertThrows(IllegalArgumentException.class, () -> new WhitelistFilter(-1));
+    }
 }
-
@@ -0,0 +1,173 @@
+package com.resources.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MappingIndex测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class MappingIndexTest {
+
+    @Test
+    @DisplayName("测试最长前缀优先")
+    void testLongestPrefixWins() {
+        PackageMapping packageMapping = new PackageMapping();
+        packageMapping.addPrefixMapping("com.example", "com.newapp");
+        packageMapping.addPrefixMapping("com.example.ui", "com.newui");
+
+        MappingIndex index = MappingIndex.compile(new ClassMapping(), packageMapping);
+
+        assertEquals("com.newui.MainActivity", index.replace("com.example.ui.MainActivity"));
+        assertEquals("com.newapp.data.Repo", index.replace("com.example.data.Repo"));
+        assertEquals("com.newapp", index.replace("com.example"));
+    }
+
+    @Test
+    @DisplayName("测试前缀只匹配完整包名段")
+    void testSegmentBoundary() {
+        PackageMapping packageMapping = new PackageMapping();
+        packageMapping.addPrefixMapping("com.example", "com.newapp");
+
+        MappingIndex index = MappingIndex.compile(new ClassMapping(), packageMapping);
+
+        assertEquals("com.examples.Foo", index.replace("com.examples.Foo"));
+        assertNull(index.findPackageReplacement("com.examples.Foo"));
+        assertNull(index.findPackageReplacement("com"));
+    }
+
+    @Test
+    @DisplayName("测试精确模式不做前缀替换")
+    void testExactMode() {
+        PackageMapping packageMapping = new PackageMapping();
+        packageMapping.addExactMapping("com.example", "com.exact");
+        packageMapping.addPrefixMapping("com", "org");
+
+        MappingIndex index = MappingIndex.compile(new ClassMapping(), packageMapping);
+
+        assertEquals("com.exact", index.replace("com.example"));
+        assertEquals("org.example.Foo", index.replace("com.example.Foo"), "精确映射不应作为前缀，回退到更短的前缀");
+    }
+
+    @Test
+    @DisplayName("测试同一节点下大量子段（哈希表扩容）")
+    void testWideNode() {
+        PackageMapping packageMapping = new PackageMapping();
+        for (int i = 0; i < 1000; i++) {
+            packageMapping.addPrefixMapping("com.p" + i, "org.q" + i);
+        }
+
+        MappingIndex index = MappingIndex.compile(new ClassMapping(), packageMapping);
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("org.q" + i + ".Foo", index.replace("com.p" + i + ".Foo"));
+        }
+        assertNull(index.findPackageReplacement("com.p1000.Foo"));
+        assertNull(index.findPackageReplacement("com.p"));
+    }
+
+    @Test
+    @DisplayName("测试类名映射优先于包名映射")
+    void testClassMappingPriority() {
+        ClassMapping classMapping = new ClassMapping();
+        classMapping.addMapping("com.example.MainActivity", "com.other.Entry");
+        PackageMapping packageMapping = new PackageMapping();
+        packageMapping.addPrefixMapping("com.example", "com.newapp");
+
+        MappingIndex index = MappingIndex.compile(classMapping, packageMapping);
+
+        assertEquals("com.other.Entry", index.replace("com.example.MainActivity"));
+        assertEquals("com.newapp.Other", index.replace("com.example.Other"));
+        assertEquals(1, index.getClassMappingCount());
+        assertEquals(1, index.getPackageMappingCount());
+    }
+
+    @Test
+    @DisplayName("测试替换表中的键同时支持精确和前缀匹配")
+    void testFromReplacements() {
+        Map<String, String> replacements = new HashMap<>();
+        replacements.put("com.example", "com.newapp");
+        replacements.put("com.example.Main", "com.newapp.Entry");
+
+        MappingIndex index = MappingIndex.fromReplacements(replacements);
+
+        assertEquals("com.newapp.Entry", index.getNewClass("com.example.Main"));
+        assertEquals("com.newapp.Entry.Inner", index.findPackageReplacement("com.example.Main.Inner"));
+        assertEquals("com.newapp.ui.View", index.replace("com.example.ui.View"));
+    }
+
+    @Test
+    @DisplayName("测试与逐项排序匹配的结果一致")
+    void testEquivalentToLinearScan() {
+        PackageMapping packageMapping = new PackageMapping();
+        packageMapping.addPrefixMapping("a", "x");
+        packageMapping.addPrefixMapping("a.b", "y");
+        packageMapping.addExactMapping("a.b.c", "z");
+        packageMapping.addPrefixMapping("a.b.c.d", "w");
+        packageMapping.addPrefixMapping("ab", "v");
+
+        String[] inputs = {"a", "a.b", "a.b.c", "a.b.c.D", "a.b.c.d", "a.b.c.d.E",
+                           "ab.C", "abc.D", "a.bc", "b.a", "", "a..b", "a.b."};
+        for (String input : inputs) {
+            assertEquals(linearReplace(packageMapping, input), packageMapping.replace(input), input);
+        }
+    }
+
+    @Test
+    @DisplayName("测试PackageMapping修改后索引失效")
+    void testIndexInvalidation() {
+        PackageMapping packageMapping = new PackageMapping();
+        packageMapping.addPrefixMapping("com.example", "com.newapp");
+        assertEquals("com.newapp.ui.A", packageMapping.replace("com.example.ui.A"));
+
+        packageMapping.addPrefixMapping("com.example.ui", "com.newui");
+        assertEquals("com.newui.A", packageMapping.replace("com.example.ui.A"));
+
+        packageMapping.clear();
+        assertEquals("com.example.ui.A", packageMapping.replace("com.example.ui.A"));
+    }
+
+    @Test
+    @DisplayName("测试空索引")
+    void testEmpty() {
+        MappingIndex index = MappingIndex.empty();
+
+        assertTrue(index.isEmpty());
+        assertEquals("com.example.A", index.replace("com.example.A"));
+        assertNull(index.replace(null));
+        assertThrows(IllegalStateException.class, () -> {
+            MappingIndex.Builder builder = new MappingIndex.Builder();
+            builder.build();
+            builder.addClassMapping("a.B", "c.D");
+        });
+    }
+
+    /**
+     * 原实现：按键长度倒序逐项匹配
+     */
+    private static String linearReplace(PackageMapping mapping, String name) {
+        if (name == null || name.isEmpty()) {
+            return name;
+        }
+        List<PackageMapping.MappingEntry> entries = new ArrayList<>(mapping.getAllMappings());
+        entries.sort((a, b) -> Integer.compare(b.getOldPackage().length(), a.getOldPackage().length()));
+        for (PackageMapping.MappingEntry entry : entries) {
+            String old = entry.getOldPackage();
+            if (entry.getMode() == PackageMapping.ReplaceMode.EXACT_MATCH) {
+                if (name.equals(old)) {
+                    return entry.getNewPackage();
+                }
+            } else if (name.startsWith(old)
+                       && (name.length() == old.length() || name.charAt(old.length()) == '.')) {
+                return entry.getNewPackage() + name.substring(old.length());
+            }
+        }
+        return name;
+    }
+}
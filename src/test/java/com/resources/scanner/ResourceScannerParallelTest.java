@@ -0,0 +1,117 @@
+package com.resources.scanner;
+
+import com.resources.axml.TestAxmlBuilder;
+import com.resources.mapping.WhitelistFilter;
+import com.resources.model.ScanResult;
+import com.resources.util.ApkSession;
+import com.resources.validator.SemanticValidator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 并行XML扫描测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+class ResourceScannerParallelTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ExecutorService executor;
+    private WhitelistFilter whitelistFilter;
+    private SemanticValidator semanticValidator;
+
+    @BeforeEach
+    void setUp() {
+        whitelistFilter = new WhitelistFilter();
+        whitelistFilter.addOwnPackage("com.test");
+        semanticValidator = new SemanticValidator(whitelistFilter);
+        executor = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("测试并行扫描报告与串行一致")
+    void testParallelReportMatchesSerial() throws Exception {
+        Path apk = createApk();
+
+        ResourceScanner serial = new ResourceScanner(
+            semanticValidator, whitelistFilter, Set.of("com.test"));
+        ResourceScanner parallel = new ResourceScanner(
+            semanticValidator, whitelistFilter, Set.of("com.test"), executor);
+
+        ResourceScanner.ScanReport expected = serial.scanApk(ApkSession.open(apk.toString()));
+        ResourceScanner.ScanReport actual = parallel.scanApk(ApkSession.open(apk.toString()));
+
+        assertEquals(describe(expected.getLayoutResults()), describe(actual.getLayoutResults()));
+        assertEquals(describe(expected.getMenuResults()), describe(actual.getMenuResults()));
+        assertEquals(describe(expected.getXmlResults()), describe(actual.getXmlResults()));
+        assertEquals(expected.getTotalResults(), actual.getTotalResults());
+        assertFalse(actual.getLayoutResults().isEmpty(), "应扫描到自定义View");
+    }
+
+    @Test
+    @DisplayName("测试scanFiles保持输入顺序")
+    void testScanFilesOrder() throws Exception {
+        AxmlScanner scanner = new AxmlScanner(semanticValidator, Set.of("com.test"), executor);
+
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        for (int i = 20; i > 0; i--) {
+            files.put("res/layout/f" + i + ".xml", TestAxmlBuilder.layout("com.test.View" + i));
+        }
+        files.put("res/layout/broken.xml", new byte[]{1, 2, 3});
+
+        Map<String, List<ScanResult>> results = scanner.scanFiles(files);
+
+        assertEquals(new ArrayList<>(files.keySet()), new ArrayList<>(results.keySet()));
+        assertTrue(results.get("res/layout/broken.xml").isEmpty());
+        assertEquals(scanner.scanBatch(files).size(),
+                     results.values().stream().mapToInt(List::size).sum());
+    }
+
+    private static List<String> describe(List<ScanResult> results) {
+        List<String> out = new ArrayList<>();
+        for (ScanResult r : results) {
+            out.add(r.getFilePath() + "|" + r.getOriginalValue());
+        }
+        return out;
+    }
+
+    private Path createApk() throws IOException {
+        Path apk = tempDir.resolve("scan.apk");
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(apk.toFile()))) {
+            for (int i = 0; i < 30; i++) {
+                put(zos, "res/layout/layout_" + i + ".xml", TestAxmlBuilder.layout("com.test.ui.Widget" + i));
+            }
+            put(zos, "res/menu/main.xml", TestAxmlBuilder.layout("menu"));
+            put(zos, "res/xml/config.xml", TestAxmlBuilder.layout("com.test.Config"));
+        }
+        return apk;
+    }
+
+    private static void put(ZipOutputStream zos, String name, byte[] data) throws IOException {
+        zos.putNextEntry(new ZipEntry(name));
+        zos.write(data);
+        zos.closeEntry();
+    }
+}
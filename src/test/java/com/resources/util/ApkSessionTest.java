@@ -0,0 +1,135 @@
+package com.resources.util;
+
+import com.resources.arsc.ArscParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ApkSession测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class ApkSessionTest {
+
+    private static final byte[] SAMPLE_AXML = {
+        0x03, 0x00, 0x08, 0x00,
+        0x00, 0x00, 0x00, 0x00
+    };
+
+    private static final byte[] SAMPLE_ARSC = {
+        0x02, 0x00, 0x0C, 0x00, // RES_TABLE_TYPE
+        0x0C, 0x00, 0x00, 0x00, // size
+        0x00, 0x00, 0x00, 0x00  // packageCount
+    };
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("测试ARSC在会话内只解析一次")
+    void testArscParsedOnce() throws Exception {
+        Path apk = createApk(true);
+
+        ApkSession session = ApkSession.open(apk.toString());
+
+        assertTrue(session.hasResourcesArsc());
+        ArscParser first = session.getArscParser();
+        assertNotNull(first);
+        assertSame(first, session.getArscParser(), "同一会话应复用解析结果");
+    }
+
+    @Test
+    @DisplayName("测试无resources.arsc时返回null")
+    void testNoArsc() throws Exception {
+        Path apk = createApk(false);
+
+        ApkSession session = ApkSession.open(apk.toString());
+
+        assertFalse(session.hasResourcesArsc());
+        assertNull(session.getArscParser());
+    }
+
+    @Test
+    @DisplayName("测试按模式获取文件的缓存与失效")
+    void testPatternCacheInvalidation() throws Exception {
+        Path apk = createApk(true);
+        ApkSession session = ApkSession.open(apk.toString());
+
+        Map<String, byte[]> layouts = session.getFilesByPattern("res/layout/**/*.xml");
+        assertEquals(2, layouts.size());
+        assertSame(layouts, session.getFilesByPattern("res/layout/**/*.xml"));
+        assertThrows(UnsupportedOperationException.class, () -> layouts.put("x.xml", new byte[0]));
+
+        Map<String, byte[]> updates = new LinkedHashMap<>();
+        updates.put("res/layout/a.xml", new byte[]{1, 2, 3});
+        session.updateFiles(updates);
+
+        Map<String, byte[]> reloaded = session.getFilesByPattern("res/layout/**/*.xml");
+        assertNotSame(layouts, reloaded, "写回后缓存应失效");
+        assertArrayEquals(new byte[]{1, 2, 3}, reloaded.get("res/layout/a.xml"));
+        assertTrue(session.getVfs().getModifiedFiles().contains("res/layout/a.xml"));
+    }
+
+    @Test
+    @DisplayName("测试基于已加载VFS创建会话")
+    void testOfExistingVfs() throws Exception {
+        Path apk = createApk(true);
+        VirtualFileSystem vfs = new VirtualFileSystem();
+        vfs.loadFromApk(apk.toString());
+
+        ApkSession session = ApkSession.of(apk.toString(), vfs);
+
+        assertSame(vfs, session.getVfs());
+        assertEquals(apk.toString(), session.getApkPath());
+        assertEquals(1, session.getFilesByPattern("res/menu/**/*.xml").size());
+    }
+
+    @Test
+    @DisplayName("测试提交ARSC后导出时流式写出")
+    void testCommitArscStreamed() throws Exception {
+        Path apk = createApk(true);
+        Path output = tempDir.resolve("out.apk");
+        ApkSession session = ApkSession.open(apk.toString());
+
+        session.commitArsc(session.getArscParser());
+        assertTrue(session.getVfs().getModifiedFiles().contains("resources.arsc"));
+        session.saveToApk(output.toString());
+
+        try (ZipFile zip = new ZipFile(output.toFile())) {
+            assertArrayEquals(SAMPLE_ARSC,
+                zip.getInputStream(zip.getEntry("resources.arsc")).readAllBytes());
+        }
+    }
+
+    private Path createApk(boolean withArsc) throws IOException {
+        Path apk = tempDir.resolve(withArsc ? "with-arsc.apk" : "no-arsc.apk");
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(apk.toFile()))) {
+            if (withArsc) {
+                putEntry(zos, "resources.arsc", SAMPLE_ARSC);
+            }
+            putEntry(zos, "res/layout/a.xml", SAMPLE_AXML);
+            putEntry(zos, "res/layout/b.xml", SAMPLE_AXML);
+            putEntry(zos, "res/menu/main.xml", SAMPLE_AXML);
+        }
+        return apk;
+    }
+
+    private void putEntry(ZipOutputStream zos, String name, byte[] data) throws IOException {
+        zos.putNextEntry(new ZipEntry(name));
+        zos.write(data);
+        zos.closeEntry();
+    }
+}
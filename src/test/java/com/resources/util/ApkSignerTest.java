@@ -0,0 +1,236 @@
+package com.resources.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 进程内APK签名测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+class ApkSignerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static ApkSigner testSigner() throws IOException {
+        return new ApkSigner.Builder()
+            .keyStore(Paths.get(ApkSignerUtil.TEST_KEYSTORE), ApkSignerUtil.TEST_PASSWORD,
+                      null, ApkSignerUtil.TEST_PASSWORD)
+            .build();
+    }
+
+    @Test
+    @DisplayName("测试签名后v2/v3验证通过且ZIP内容不变")
+    void testSignAndVerify() throws Exception {
+        Path apk = createApk("app.apk");
+        long unsignedSize = Files.size(apk);
+
+        testSigner().sign(apk);
+
+        ApkSigner.VerificationResult result = ApkSigner.verify(apk);
+        assertTrue(result.isVerified(), result.toString());
+        assertTrue(result.isV2Verified());
+        assertTrue(result.isV3Verified());
+
+        try (ZipFile zip = new ZipFile(apk.toFile())) {
+            assertEquals(4, zip.size());
+            assertEquals("manifest", new String(
+                zip.getInputStream(zip.getEntry("AndroidManifest.xml")).readAllBytes(),
+                StandardCharsets.UTF_8));
+        }
+        assertTrue(Files.size(apk) > unsignedSize);
+    }
+
+    @Test
+    @DisplayName("测试修改entry数据后验证失败")
+    void testTamperDetected() throws Exception {
+        Path apk = createApk("tampered.apk");
+        testSigner().sign(apk);
+
+        try (RandomAccessFile file = new RandomAccessFile(apk.toFile(), "rw")) {
+            file.seek(100);
+            int b = file.read();
+            file.seek(100);
+            file.write(b ^ 0xFF);
+        }
+
+        ApkSigner.VerificationResult result = ApkSigner.verify(apk);
+        assertFalse(result.isVerified());
+        assertFalse(result.getErrors().isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试重复签名替换原签名块")
+    void testResign() throws Exception {
+        Path apk = createApk("resign.apk");
+        ApkSigner signer = testSigner();
+
+        signer.sign(apk);
+        long signedSize = Files.size(apk);
+        signer.sign(apk);
+
+        assertEquals(signedSize, Files.size(apk), "签名块应被替换而不是叠加");
+        assertTrue(ApkSigner.verify(apk).isVerified());
+    }
+
+    @Test
+    @DisplayName("测试并行与单线程摘要结果一致")
+    void testParallelDigestDeterministic() throws Exception {
+        Path a = createApk("a.apk");
+        Path b = tempDir.resolve("b.apk");
+        Files.copy(a, b);
+
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            ApkSigner.Builder builder = new ApkSigner.Builder()
+                .keyStore(Paths.get(ApkSignerUtil.TEST_KEYSTORE), ApkSignerUtil.TEST_PASSWORD,
+                          null, ApkSignerUtil.TEST_PASSWORD);
+            builder.executor(single).build().sign(a);
+            builder.executor(pool).build().sign(b);
+        } finally {
+            single.shutdownNow();
+            pool.shutdownNow();
+        }
+
+        assertArrayEquals(Files.readAllBytes(a), Files.readAllBytes(b));
+    }
+
+    @Test
+    @DisplayName("测试VFS导出时同时对齐和签名")
+    void testVfsExportSigned() throws Exception {
+        Path source = createApk("source.apk");
+        Path output = tempDir.resolve("exported.apk");
+
+        VirtualFileSystem vfs = new VirtualFileSystem();
+        vfs.loadFromApk(source.toString());
+        vfs.writeFile("AndroidManifest.xml", "changed".getBytes(StandardCharsets.UTF_8));
+        vfs.saveToApk(output.toString(), testSigner());
+
+        assertTrue(ApkSigner.verify(output).isVerified());
+        assertTrue(ZipAlignUtil.isAligned(output.toString(), 4));
+        try (ZipFile zip = new ZipFile(output.toFile())) {
+            assertEquals("changed", new String(
+                zip.getInputStream(zip.getEntry("AndroidManifest.xml")).readAllBytes(),
+                StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @DisplayName("测试minSdkVersion < 24时附加v1签名")
+    void testV1SignatureForOldPlatforms() throws Exception {
+        Path source = createApk("legacy.apk");
+        Path output = tempDir.resolve("legacy-signed.apk");
+
+        ApkSigner signer = new ApkSigner.Builder()
+            .keyStore(Paths.get(ApkSignerUtil.TEST_KEYSTORE), ApkSignerUtil.TEST_PASSWORD,
+                      null, ApkSignerUtil.TEST_PASSWORD)
+            .minSdkVersion(21)
+            .build();
+        assertTrue(signer.isV1Enabled());
+        assertFalse(testSigner().isV1Enabled());
+
+        VirtualFileSystem vfs = new VirtualFileSystem();
+        vfs.loadFromApkLazy(source.toString());
+        vfs.saveToApk(output.toString(), signer);
+
+        assertTrue(ApkSigner.verify(output).isVerified());
+        try (JarFile jar = new JarFile(output.toFile(), true)) {
+            String signatureFile = new String(
+                jar.getInputStream(jar.getEntry("META-INF/CERT.SF")).readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(signatureFile.contains("X-Android-APK-Signed: 2, 3"));
+            assertNotNull(jar.getEntry("META-INF/CERT.RSA"));
+
+            for (JarEntry entry : Collections.list(jar.entries())) {
+                if (entry.getName().startsWith("META-INF/")) {
+                    continue;
+                }
+                jar.getInputStream(entry).readAllBytes();
+                assertNotNull(entry.getCodeSigners(), "entry应有v1签名: " + entry.getName());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("测试未签名APK验证失败")
+    void testVerifyUnsigned() throws Exception {
+        Path apk = createApk("unsigned.apk");
+
+        ApkSigner.VerificationResult result = ApkSigner.verify(apk);
+        assertFalse(result.isVerified());
+        assertFalse(ApkSignerUtil.verify(apk.toString()));
+    }
+
+    @Test
+    @DisplayName("测试未设置密钥或关闭所有方案时无法构建")
+    void testBuilderValidation() throws Exception {
+        assertThrows(IllegalStateException.class, () -> new ApkSigner.Builder().build());
+        assertThrows(IllegalStateException.class, () -> new ApkSigner.Builder()
+            .keyStore(Paths.get(ApkSignerUtil.TEST_KEYSTORE), ApkSignerUtil.TEST_PASSWORD,
+                      null, ApkSignerUtil.TEST_PASSWORD)
+            .v2Enabled(false)
+            .v3Enabled(false)
+            .build());
+        assertThrows(IOException.class, () -> new ApkSigner.Builder()
+            .keyStore(Paths.get(ApkSignerUtil.TEST_KEYSTORE), "wrong", null, "wrong"));
+    }
+
+    /**
+     * 创建跨越多个1MB分块的APK（含STORED和DEFLATED entry）
+     */
+    private Path createApk(String name) throws IOException {
+        Path apk = tempDir.resolve(name);
+        Random random = new Random(1);
+        byte[] stored = new byte[ApkSigner.CHUNK_SIZE * 2 + 123];
+        random.nextBytes(stored);
+        byte[] deflated = new byte[ApkSigner.CHUNK_SIZE + 7];
+        random.nextBytes(deflated);
+
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(apk.toFile()))) {
+            zos.putNextEntry(new ZipEntry("AndroidManifest.xml"));
+            zos.write("manifest".getBytes(StandardCharsets.UTF_8));
+            zos.closeEntry();
+
+            CRC32 crc = new CRC32();
+            crc.update(stored);
+            ZipEntry storedEntry = new ZipEntry("assets/stored.bin");
+            storedEntry.setMethod(ZipEntry.STORED);
+            storedEntry.setSize(stored.length);
+            storedEntry.setCrc(crc.getValue());
+            zos.putNextEntry(storedEntry);
+            zos.write(stored);
+            zos.closeEntry();
+
+            zos.putNextEntry(new ZipEntry("assets/deflated.bin"));
+            zos.write(deflated);
+            zos.closeEntry();
+
+            zos.putNextEntry(new ZipEntry("res/raw/empty.txt"));
+            zos.closeEntry();
+        }
+        return apk;
+    }
+}
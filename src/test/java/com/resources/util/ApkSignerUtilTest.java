@@ -1,8 +1,6 @@
 package com.resources.util;
 
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.condition.EnabledOnOs;
-import org.junit.jupiter.api.condition.OS;
 
 import java.io.File;
 
@@ -15,11 +13,8 @@ class ApkSignerUtilTest {
     
     @Test
     void testIsAvailable() {
-        // 测试apksigner工具是否存在
-        boolean available = ApkSignerUtil.isAvailable();
-        
-        File apksignerFile = new File("bin/win/apksigner.bat");
-        assertEquals(apksignerFile.exists(), available);
+        // 进程内签名，不依赖外部工具
+        assertTrue(ApkSignerUtil.isAvailable());
     }
     
     @Test
@@ -53,7 +48,6 @@ class ApkSignerUtilTest {
     }
     
     @Test
-    @EnabledOnOs(OS.WINDOWS)
     void testSign_nonexistentApk() {
         assertThrows(Exception.class,
                     () -> ApkSignerUtil.signWithTestKey("nonexistent.apk"),
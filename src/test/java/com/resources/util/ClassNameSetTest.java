@@ -0,0 +1,142 @@
+package com.resources.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClassNameSet测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class ClassNameSetTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("测试查找、去重与不可变性")
+    void testLookup() {
+        List<String> classes = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            classes.add("com.example.pkg" + (i % 13) + ".Generated" + i);
+        }
+        classes.add("com.例子.视图");
+        classes.add("a.B");
+        classes.add("a.B");
+
+        ClassNameSet set = ClassNameSet.of(classes);
+        Set<String> expected = new HashSet<>(classes);
+        assertEquals(expected.size(), set.size());
+        assertEquals(expected, set);
+        assertEquals(set, expected);
+        assertEquals(expected.hashCode(), set.hashCode());
+        for (String className : classes) {
+            assertTrue(set.contains(className), className);
+        }
+        for (int i = 0; i < 5000; i++) {
+            assertFalse(set.contains("com.example.pkg" + (i % 13) + ".Missing" + i));
+        }
+        assertFalse(set.contains("a.b"));
+        assertFalse(set.contains(""));
+        assertFalse(set.contains(null));
+        assertFalse(set.contains(42));
+
+        // 按UTF-8字节序迭代
+        assertEquals("a.B", set.get(0));
+        assertEquals("com.例子.视图", set.get(set.size() - 1));
+        assertThrows(UnsupportedOperationException.class, () -> set.add("x.Y"));
+        assertThrows(UnsupportedOperationException.class, () -> set.remove("a.B"));
+        assertThrows(UnsupportedOperationException.class, set::clear);
+
+        assertSame(set, ClassNameSet.of(set));
+        assertTrue(ClassNameSet.of(List.of()).isEmpty());
+        assertFalse(ClassNameSet.empty().contains("a.B"));
+    }
+
+    @Test
+    @DisplayName("测试多路归并合并")
+    void testUnion() {
+        ClassNameSet first = ClassNameSet.of(List.of("a.A", "c.C", "e.E"));
+        ClassNameSet second = ClassNameSet.of(List.of("b.B", "c.C", "f.F"));
+        Set<String> third = Set.of("a.A", "d.D");
+
+        ClassNameSet union = ClassNameSet.union(List.of(first, second, third));
+        assertEquals(List.of("a.A", "b.B", "c.C", "d.D", "e.E", "f.F"), new ArrayList<>(union));
+        assertTrue(union.contains("d.D"));
+        assertFalse(union.contains("g.G"));
+
+        assertSame(first, ClassNameSet.union(List.of(first, ClassNameSet.empty())));
+        assertTrue(ClassNameSet.union(List.of()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试打包数据校验")
+    void testFromPacked() {
+        ClassNameSet set = ClassNameSet.of(List.of("a.A", "b.B"));
+        assertEquals(set, ClassNameSet.fromPacked(set.packedData(), set.packedOffsets()));
+
+        // 未排序
+        byte[] reversed = "b.Ba.A".getBytes();
+        assertThrows(IllegalArgumentException.class,
+                     () -> ClassNameSet.fromPacked(reversed, new int[] {0, 3, 6}));
+        // 偏移越界
+        assertThrows(IllegalArgumentException.class,
+                     () -> ClassNameSet.fromPacked(set.packedData(), new int[] {0, 3, 9}));
+    }
+
+    @Test
+    @DisplayName("测试DexClassCache并发访问与LRU驱逐")
+    void testCacheConcurrency() throws Exception {
+        List<Path> dexFiles = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Path dex = tempDir.resolve("classes" + i + ".dex");
+            Files.writeString(dex, "dex" + i);
+            dexFiles.add(dex);
+        }
+        AtomicInteger loads = new AtomicInteger();
+        DexClassCache cache = new DexClassCache(2, null, path -> {
+            loads.incrementAndGet();
+            return Set.of(path + ".Main");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ClassNameSet>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String path = dexFiles.get(i % 2).toString();
+                futures.add(executor.submit(() -> cache.getDexClasses(path)));
+            }
+            for (Future<ClassNameSet> future : futures) {
+                assertEquals(1, future.get().size());
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+        assertEquals(200, cache.getHits() + cache.getMisses());
+        assertEquals(loads.get(), cache.getMisses());
+
+        // 访问classes0使其成为最近使用，加入classes2后驱逐classes1
+        cache.getDexClasses(dexFiles.get(0).toString());
+        cache.getDexClasses(dexFiles.get(2).toString());
+        assertEquals(2, cache.size());
+        int before = loads.get();
+        cache.getDexClasses(dexFiles.get(0).toString());
+        assertEquals(before, loads.get());
+        cache.getDexClasses(dexFiles.get(1).toString());
+        assertEquals(before + 1, loads.get());
+    }
+}
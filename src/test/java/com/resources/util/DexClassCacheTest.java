@@ -83,14 +83,14 @@ class DexClassCacheTest {
         Set<String> classes1 = cache.getDexClasses(dexPath);
         int originalSize = classes1.size();
         
-        // 修改返回的集合
-        classes1.clear();
-        assertEquals(0, classes1.size());
+        // 返回的集合不可修改
+        assertThrows(UnsupportedOperationException.class, classes1::clear);
         
-        // 第二次获取（应该不受影响）
+        // 第二次获取（共享同一个不可变集合，不受影响）
         Set<String> classes2 = cache.getDexClasses(dexPath);
         assertEquals(originalSize, classes2.size(), 
-                    "缓存应该返回防御性副本，不受外部修改影响");
+                    "缓存应该返回不可变集合，不受外部修改影响");
+        assertSame(classes1, classes2);
     }
     
     @Test
@@ -0,0 +1,127 @@
+package com.resources.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DexClassIndex测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class DexClassIndexTest {
+
+    private static final Set<String> CLASSES = Set.of(
+        "com.example.MainActivity", "com.example.Outer$Inner", "a.b", "com.例子.视图");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("测试按内容哈希跨实例复用类列表")
+    void testContentAddressed() throws Exception {
+        Path dex = writeDex("classes.dex", "dex\n035 content-1");
+        Path indexDir = tempDir.resolve("index");
+        AtomicInteger loads = new AtomicInteger();
+        DexClassIndex.Loader loader = path -> {
+            loads.incrementAndGet();
+            return CLASSES;
+        };
+
+        assertEquals(CLASSES, new DexClassIndex(indexDir).getOrLoad(dex.toString(), loader));
+        assertEquals(1, loads.get());
+
+        // 新实例（模拟下一次运行）直接读取索引
+        DexClassIndex index = new DexClassIndex(indexDir);
+        assertEquals(CLASSES, index.getOrLoad(dex.toString(), loader));
+        assertEquals(1, loads.get());
+        assertEquals(1, index.getHits());
+
+        // 路径和修改时间不同但内容相同，仍然命中
+        Path copy = writeDex("other/classes2.dex", "dex\n035 content-1");
+        assertEquals(CLASSES, index.getOrLoad(copy.toString(), loader));
+        assertEquals(1, loads.get());
+
+        // 内容变化后重新加载
+        Files.writeString(dex, "dex\n035 content-2");
+        index.getOrLoad(dex.toString(), loader);
+        assertEquals(2, loads.get());
+        assertEquals(1, index.getMisses());
+    }
+
+    @Test
+    @DisplayName("测试索引文件读写与排序")
+    void testReadWrite() throws IOException {
+        Path file = tempDir.resolve("test.idx");
+        DexClassIndex.write(file, CLASSES);
+
+        ClassNameSet classes = DexClassIndex.read(file);
+        assertEquals(List.of("a.b", "com.example.MainActivity", "com.example.Outer$Inner", "com.例子.视图"),
+                     new ArrayList<>(classes));
+        assertEquals(CLASSES, classes);
+
+        DexClassIndex.write(file, Set.of());
+        assertTrue(DexClassIndex.read(file).isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试损坏的索引文件被重新生成")
+    void testCorruptIndex() throws Exception {
+        Path dex = writeDex("classes.dex", "dex\n035 corrupt");
+        Path indexDir = tempDir.resolve("index");
+        DexClassIndex index = new DexClassIndex(indexDir);
+        Path indexFile = indexDir.resolve(DexClassIndex.contentHash(dex) + ".idx");
+
+        Files.write(indexFile, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        assertThrows(IOException.class, () -> DexClassIndex.read(indexFile));
+
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals(CLASSES, index.getOrLoad(dex.toString(), path -> {
+            loads.incrementAndGet();
+            return CLASSES;
+        }));
+        assertEquals(1, loads.get());
+        assertEquals(CLASSES.size(), DexClassIndex.read(indexFile).size());
+    }
+
+    @Test
+    @DisplayName("测试DexClassCache使用持久化索引作为二级缓存")
+    void testCacheWithIndex() throws Exception {
+        Path dex = writeDex("classes.dex", "dex\n035 cache");
+        Path indexDir = tempDir.resolve("index");
+        AtomicInteger loads = new AtomicInteger();
+        DexClassIndex.Loader loader = path -> {
+            loads.incrementAndGet();
+            return CLASSES;
+        };
+
+        DexClassCache first = new DexClassCache(4, new DexClassIndex(indexDir), loader);
+        first.getDexClasses(dex.toString());
+        first.getDexClasses(dex.toString());
+        assertEquals(1, loads.get());
+
+        DexClassCache second = new DexClassCache(4, new DexClassIndex(indexDir), loader);
+        assertEquals(CLASSES, second.getDexClasses(dex.toString()));
+        assertEquals(1, loads.get());
+        assertTrue(second.getStatistics().contains("持久化索引: hits=1"), second.getStatistics());
+    }
+
+    private Path writeDex(String name, String content) throws IOException {
+        Path path = tempDir.resolve(name);
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+}
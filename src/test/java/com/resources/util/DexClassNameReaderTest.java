@@ -0,0 +1,89 @@
+package com.resources.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DexClassNameReader测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class DexClassNameReaderTest {
+
+    private static final List<String> CLASSES = List.of(
+        "com.example.MainActivity", "com.example.Outer$Inner", "com.例子.视图", "a.B");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("测试从byte[]、ByteBuffer和文件读取类名")
+    void testRead() throws IOException {
+        byte[] dex = TestDexBuilder.dex(CLASSES);
+
+        assertEquals(CLASSES, DexClassNameReader.read(dex));
+
+        // 位于更大buffer中间的DEX（如VFS中的数据切片）
+        ByteBuffer buffer = ByteBuffer.allocate(dex.length + 16).order(ByteOrder.BIG_ENDIAN);
+        buffer.position(8);
+        buffer.put(dex);
+        buffer.position(8);
+        assertEquals(CLASSES, DexClassNameReader.read(buffer));
+        assertEquals(8, buffer.position());
+        assertEquals(ByteOrder.BIG_ENDIAN, buffer.order());
+
+        Path file = tempDir.resolve("classes.dex");
+        Files.write(file, dex);
+        assertEquals(CLASSES, DexClassNameReader.read(file));
+        assertEquals(Set.copyOf(CLASSES), DexUtils.loadDexClasses(file.toString()));
+    }
+
+    @Test
+    @DisplayName("测试大量类名与空DEX")
+    void testManyClasses() throws IOException {
+        List<String> classes = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            classes.add("com.example.generated.package" + (i % 37) + ".VeryLongGeneratedClassName" + i);
+        }
+        assertEquals(classes, DexClassNameReader.read(TestDexBuilder.dex(classes)));
+        assertTrue(DexClassNameReader.read(TestDexBuilder.dex(List.of())).isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试损坏的DEX报错")
+    void testCorrupt() {
+        byte[] dex = TestDexBuilder.dex(CLASSES);
+        assertTrue(DexClassNameReader.isDex(dex));
+
+        byte[] badMagic = dex.clone();
+        badMagic[0] = 'P';
+        assertFalse(DexClassNameReader.isDex(badMagic));
+        assertThrows(IOException.class, () -> DexClassNameReader.read(badMagic));
+
+        // class_defs区越界
+        byte[] badSection = dex.clone();
+        ByteBuffer.wrap(badSection).order(ByteOrder.LITTLE_ENDIAN).putInt(96, 100000);
+        assertThrows(IOException.class, () -> DexClassNameReader.read(badSection));
+
+        // 类型索引越界
+        byte[] badType = dex.clone();
+        ByteBuffer view = ByteBuffer.wrap(badType).order(ByteOrder.LITTLE_ENDIAN);
+        view.putInt(view.getInt(100), 9999);
+        assertThrows(IOException.class, () -> DexClassNameReader.read(badType));
+
+        assertThrows(IOException.class, () -> DexClassNameReader.read(new byte[16]));
+    }
+}
@@ -0,0 +1,70 @@
+package com.resources.util;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 测试用APK构造器
+ *
+ * 生成同时包含DEFLATED和STORED entry的最小APK，供VFS加载、导出相关测试共用。
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public final class TestApkBuilder {
+
+    public static final String DEX_ENTRY = "classes.dex";
+    public static final String SO_ENTRY = "lib/arm64-v8a/libx.so";
+    public static final String LAYOUT_ENTRY = "res/layout/main.xml";
+
+    private TestApkBuilder() {
+    }
+
+    /**
+     * 写入包含classes.dex（DEFLATED）、lib/arm64-v8a/libx.so（STORED）
+     * 和res/layout/main.xml（DEFLATED）的APK
+     *
+     * @param apk 输出路径
+     * @param dex classes.dex内容
+     * @param so libx.so内容
+     * @param layout main.xml内容
+     * @return 输出路径
+     */
+    public static Path nativeLibApk(Path apk, byte[] dex, byte[] so, byte[] layout) throws IOException {
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(apk.toFile()))) {
+            putDeflated(zos, DEX_ENTRY, dex);
+            putStored(zos, SO_ENTRY, so);
+            putDeflated(zos, LAYOUT_ENTRY, layout);
+        }
+        return apk;
+    }
+
+    /**
+     * 写入DEFLATED entry
+     */
+    public static void putDeflated(ZipOutputStream zos, String name, byte[] data) throws IOException {
+        zos.putNextEntry(new ZipEntry(name));
+        zos.write(data);
+        zos.closeEntry();
+    }
+
+    /**
+     * 写入STORED entry（预先计算大小和CRC）
+     */
+    public static void putStored(ZipOutputStream zos, String name, byte[] data) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(data.length);
+        entry.setCompressedSize(data.length);
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        entry.setCrc(crc.getValue());
+        zos.putNextEntry(entry);
+        zos.write(data);
+        zos.closeEntry();
+    }
+}
@@ -0,0 +1,120 @@
+package com.resources.util;
+
+import com.resources.arsc.ModifiedUTF8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * 测试用DEX构造器
+ *
+ * 只生成类名读取需要的部分：header、string_ids、type_ids、class_defs和string_data。
+ * 除类描述符外还会加入若干非类字符串和类型（如方法名、基本类型），
+ * 以验证读取器只取class_defs引用的类型。
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public final class TestDexBuilder {
+
+    private static final int HEADER_SIZE = 0x70;
+    private static final int CLASS_DEF_SIZE = 32;
+
+    private TestDexBuilder() {
+    }
+
+    /**
+     * 生成定义了指定类的DEX
+     *
+     * @param classNames Java格式类名
+     * @return DEX字节数据
+     */
+    public static byte[] dex(List<String> classNames) {
+        // 字符串按描述符排序（与真实DEX一致），额外加入非类字符串
+        TreeSet<String> sorted = new TreeSet<>();
+        List<String> descriptors = new ArrayList<>();
+        for (String className : classNames) {
+            String descriptor = "L" + className.replace('.', '/') + ";";
+            descriptors.add(descriptor);
+            sorted.add(descriptor);
+        }
+        sorted.add("I");
+        sorted.add("Ljava/lang/Object;");
+        sorted.add("onCreate");
+        List<String> strings = new ArrayList<>(sorted);
+
+        // 类型：所有以L或基本类型开头的描述符
+        List<Integer> types = new ArrayList<>();
+        for (int i = 0; i < strings.size(); i++) {
+            if (!strings.get(i).equals("onCreate")) {
+                types.add(i);
+            }
+        }
+
+        int stringIdsOff = HEADER_SIZE;
+        int typeIdsOff = stringIdsOff + strings.size() * 4;
+        int classDefsOff = typeIdsOff + types.size() * 4;
+        int dataOff = classDefsOff + descriptors.size() * CLASS_DEF_SIZE;
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int[] stringOffsets = new int[strings.size()];
+        for (int i = 0; i < strings.size(); i++) {
+            stringOffsets[i] = dataOff + data.size();
+            String value = strings.get(i);
+            writeUleb128(data, value.length());
+            byte[] encoded;
+            try {
+                encoded = ModifiedUTF8.encode(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            data.write(encoded, 0, encoded.length);
+            data.write(0);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(dataOff + data.size()).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(new byte[] {'d', 'e', 'x', '\n', '0', '3', '5', 0});
+        buffer.putInt(32, buffer.capacity());                    // file_size
+        buffer.putInt(36, HEADER_SIZE);                          // header_size
+        buffer.putInt(40, 0x12345678);                           // endian_tag
+        buffer.putInt(56, strings.size());
+        buffer.putInt(60, stringIdsOff);
+        buffer.putInt(64, types.size());
+        buffer.putInt(68, typeIdsOff);
+        buffer.putInt(96, descriptors.size());
+        buffer.putInt(100, classDefsOff);
+        buffer.putInt(104, data.size());
+        buffer.putInt(108, dataOff);
+
+        for (int i = 0; i < strings.size(); i++) {
+            buffer.putInt(stringIdsOff + i * 4, stringOffsets[i]);
+        }
+        for (int i = 0; i < types.size(); i++) {
+            buffer.putInt(typeIdsOff + i * 4, types.get(i));
+        }
+        for (int i = 0; i < descriptors.size(); i++) {
+            int typeIdx = types.indexOf(strings.indexOf(descriptors.get(i)));
+            int base = classDefsOff + i * CLASS_DEF_SIZE;
+            buffer.putInt(base, typeIdx);                        // class_idx
+            buffer.putInt(base + 8, types.indexOf(strings.indexOf("Ljava/lang/Object;")));  // superclass_idx
+            buffer.putInt(base + 16, -1);                        // source_file_idx = NO_INDEX
+        }
+        buffer.position(dataOff);
+        buffer.put(data.toByteArray());
+        return buffer.array();
+    }
+
+    private static void writeUleb128(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
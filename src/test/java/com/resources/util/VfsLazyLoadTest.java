@@ -0,0 +1,179 @@
+package com.resources.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * VFS延迟加载测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class VfsLazyLoadTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("测试延迟加载只在访问时解压")
+    void testDecompressOnFirstAccess() throws Exception {
+        Path apk = createApk();
+
+        VirtualFileSystem vfs = new VirtualFileSystem();
+        assertEquals(3, vfs.loadFromApkLazy(apk.toString()));
+        assertTrue(vfs.isLoaded());
+
+        assertEquals(2L * bigContent().length + "<layout/>".length(), vfs.getTotalSize(), "未解压时按中央目录大小统计");
+        assertTrue(vfs.getStatistics().contains("已驻留=0"));
+
+        assertArrayEquals("<layout/>".getBytes(), vfs.readFile("res/layout/main.xml"));
+        assertArrayEquals(bigContent(), vfs.readFile("lib/arm64-v8a/libx.so"));
+        assertTrue(vfs.getStatistics().contains("已驻留=2"));
+    }
+
+    @Test
+    @DisplayName("测试延迟加载不受总大小限制")
+    void testNotBoundByMaxTotalSize() throws Exception {
+        Path apk = createApk();
+
+        VirtualFileSystem vfs = new VirtualFileSystem();
+        vfs.setMaxTotalSize(1024);
+        assertEquals(3, vfs.loadFromApkLazy(apk.toString()));
+
+        VirtualFileSystem eager = new VirtualFileSystem();
+        eager.setMaxTotalSize(1024);
+        assertThrows(IOException.class, () -> eager.loadFromApk(apk.toString()));
+    }
+
+    @Test
+    @DisplayName("测试延迟加载后导出未访问文件保持原样")
+    void testExportWithoutMaterializing() throws Exception {
+        Path apk = createApk();
+        Path output = tempDir.resolve("out.apk");
+
+        VirtualFileSystem vfs = new VirtualFileSystem();
+        vfs.loadFromApkLazy(apk.toString());
+        vfs.writeFile("res/layout/main.xml", "<changed/>".getBytes());
+        vfs.saveToApk(output.toString());
+
+        assertTrue(vfs.getStatistics().contains("已驻留=1"), "导出不应解压未修改的文件");
+
+        try (ZipFile zip = new ZipFile(output.toFile())) {
+            assertArrayEquals("<changed/>".getBytes(), read(zip, "res/layout/main.xml"));
+            assertArrayEquals(bigContent(), read(zip, "lib/arm64-v8a/libx.so"));
+            assertArrayEquals(bigContent(), read(zip, "classes.dex"));
+        }
+    }
+
+    @Test
+    @DisplayName("测试STORED文件的只读视图直接映射源APK")
+    void testStoredFileView() throws Exception {
+        Path apk = createApk();
+
+        VirtualFileSystem vfs = new VirtualFileSystem();
+        vfs.loadFromApkLazy(apk.toString());
+
+        ByteBuffer view = vfs.readFileView("lib/arm64-v8a/libx.so");
+        assertTrue(view.isReadOnly());
+        assertTrue(view.isDirect(), "STORED文件应返回映射区域");
+        assertTrue(vfs.getStatistics().contains("已驻留=0"));
+        byte[] content = new byte[view.remaining()];
+        view.get(content);
+        assertArrayEquals(bigContent(), content);
+
+        // DEFLATED文件解压后包装
+        ByteBuffer dex = vfs.readFileView("classes.dex");
+        assertFalse(dex.isDirect());
+        assertEquals(bigContent().length, dex.remaining());
+        assertTrue(vfs.getStatistics().contains("已驻留=1"));
+    }
+
+    @Test
+    @DisplayName("测试关闭后释放源APK映射")
+    void testCloseReleasesSource() throws Exception {
+        Path apk = createApk();
+
+        VirtualFileSystem vfs = new VirtualFileSystem();
+        vfs.loadFromApkLazy(apk.toString());
+        byte[] layout = vfs.readFile("res/layout/main.xml");
+        vfs.close();
+        vfs.close();
+
+        // 源APK可被替换，已读取的文件仍可访问
+        Files.write(apk, new byte[0]);
+        assertArrayEquals(layout, vfs.readFile("res/layout/main.xml"));
+        assertThrows(IllegalStateException.class, () -> vfs.readFile("classes.dex"));
+    }
+
+    @Test
+    @DisplayName("测试导出到源APK时先物化依赖映射的延迟内容")
+    void testExportToSourceWithDeferredContent() throws Exception {
+        Path apk = createApk();
+
+        VirtualFileSystem vfs = new VirtualFileSystem();
+        vfs.loadFromApkLazy(apk.toString());
+        ByteBuffer mapped = vfs.readFileView("lib/arm64-v8a/libx.so");
+        vfs.writeFile("assets/copy.bin", mapped.remaining(), channel -> channel.write(mapped.duplicate()));
+        vfs.saveToApk(apk.toString());
+
+        assertArrayEquals(bigContent(), vfs.readFile("assets/copy.bin"));
+        try (ZipFile zip = new ZipFile(apk.toFile())) {
+            assertArrayEquals(bigContent(), read(zip, "assets/copy.bin"));
+            assertArrayEquals(bigContent(), read(zip, "classes.dex"));
+        }
+    }
+
+    @Test
+    @DisplayName("测试关闭后延迟内容失效")
+    void testCloseDetachesDeferredContent() throws Exception {
+        Path apk = createApk();
+
+        VirtualFileSystem vfs = new VirtualFileSystem();
+        vfs.loadFromApkLazy(apk.toString());
+        ByteBuffer mapped = vfs.readFileView("lib/arm64-v8a/libx.so");
+        vfs.writeFile("assets/copy.bin", mapped.remaining(), channel -> channel.write(mapped.duplicate()));
+        vfs.close();
+
+        assertThrows(IllegalStateException.class, () -> vfs.readFile("assets/copy.bin"));
+    }
+
+    @Test
+    @DisplayName("测试延迟加载跳过超大文件")
+    void testMaxFileSize() throws Exception {
+        Path apk = createApk();
+
+        VirtualFileSystem vfs = new VirtualFileSystem();
+        vfs.setMaxFileSize(1024);
+        assertEquals(1, vfs.loadFromApkLazy(apk.toString()));
+        assertFalse(vfs.exists("classes.dex"));
+    }
+
+    private Path createApk() throws IOException {
+        return TestApkBuilder.nativeLibApk(tempDir.resolve("lazy.apk"), bigContent(), bigContent(),
+                                           "<layout/>".getBytes());
+    }
+
+    private static byte[] bigContent() {
+        byte[] data = new byte[32 * 1024 - 5];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        return data;
+    }
+
+    private static byte[] read(ZipFile zip, String name) throws IOException {
+        try (InputStream is = zip.getInputStream(zip.getEntry(name))) {
+            return is.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.resources.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * VFS原样拷贝导出测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class VfsPassthroughExportTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("测试未修改entry原样拷贝压缩数据")
+    void testUnmodifiedEntriesCopiedRaw() throws Exception {
+        Path source = createApk("source.apk");
+        Path output = tempDir.resolve("out.apk");
+
+        VirtualFileSystem vfs = new VirtualFileSystem();
+        vfs.loadFromApk(source.toString());
+        vfs.writeFile("res/layout/main.xml", "<modified/>".getBytes());
+        vfs.saveToApk(output.toString());
+
+        // 未修改entry的压缩字节与源APK完全一致
+        ZipArchiveIndex srcIndex = ZipArchiveIndex.read(source);
+        ZipArchiveIndex outIndex = ZipArchiveIndex.read(output);
+        assertArrayEquals(rawBytes(source, srcIndex.getEntry("classes.dex")),
+                          rawBytes(output, outIndex.getEntry("classes.dex")));
+        assertArrayEquals(rawBytes(source, srcIndex.getEntry("lib/arm64-v8a/libx.so")),
+                          rawBytes(output, outIndex.getEntry("lib/arm64-v8a/libx.so")));
+        assertEquals(ZipEntry.STORED, outIndex.getEntry("lib/arm64-v8a/libx.so").getMethod());
+
+        // 输出可被标准ZipFile正确读取
+        try (ZipFile zip = new ZipFile(output.toFile())) {
+            assertEquals(3, zip.size());
+            assertArrayEquals("<modified/>".getBytes(), read(zip, "res/layout/main.xml"));
+            assertArrayEquals(dexContent(), read(zip, "classes.dex"));
+            assertArrayEquals(soContent(), read(zip, "lib/arm64-v8a/libx.so"));
+        }
+    }
+
+    @Test
+    @DisplayName("测试新建文件被压缩写入")
+    void testNewFileWritten() throws Exception {
+        Path source = createApk("source.apk");
+        Path output = tempDir.resolve("out.apk");
+
+        VirtualFileSystem vfs = new VirtualFileSystem();
+        vfs.loadFromApk(source.toString());
+        vfs.writeFile("assets/new.txt", "hello".getBytes());
+        assertEquals(4, vfs.saveToApk(output.toString()));
+
+        try (ZipFile zip = new ZipFile(output.toFile())) {
+            assertArrayEquals("hello".getBytes(), read(zip, "assets/new.txt"));
+        }
+    }
+
+    @Test
+    @DisplayName("测试导出到源APK自身")
+    void testSaveOverSource() throws Exception {
+        Path source = createApk("source.apk");
+
+        VirtualFileSystem vfs = new VirtualFileSystem();
+        vfs.loadFromApk(source.toString());
+        vfs.writeFile("res/layout/main.xml", "<x/>".getBytes());
+        vfs.saveToApk(source.toString());
+
+        try (ZipFile zip = new ZipFile(source.toFile())) {
+            assertArrayEquals("<x/>".getBytes(), read(zip, "res/layout/main.xml"));
+            assertArrayEquals(dexContent(), read(zip, "classes.dex"));
+        }
+        assertFalse(tempDir.resolve("source.apk.vfs.tmp").toFile().exists());
+    }
+
+    @Test
+    @DisplayName("测试重新压缩模式")
+    void testRecompressMode() throws Exception {
+        Path source = createApk("source.apk");
+        Path output = tempDir.resolve("out.apk");
+
+        VirtualFileSystem vfs = new VirtualFileSystem();
+        vfs.setExportMode(VirtualFileSystem.ExportMode.RECOMPRESS);
+        vfs.loadFromApk(source.toString());
+        assertEquals(3, vfs.saveToApk(output.toString()));
+
+        try (ZipFile zip = new ZipFile(output.toFile())) {
+            assertArrayEquals(dexContent(), read(zip, "classes.dex"));
+        }
+    }
+
+    @Test
+    @DisplayName("测试延迟生成的内容在导出时流式写入（STORED和DEFLATED）")
+    void testDeferredContentStreamed() throws Exception {
+        Path source = createApk("source.apk");
+        Path output = tempDir.resolve("out.apk");
+        byte[] so = new byte[100_000];
+        Arrays.fill(so, (byte) 0x11);
+        byte[] dex = dexContent();
+
+        VirtualFileSystem vfs = new VirtualFileSystem();
+        vfs.loadFromApk(source.toString());
+        vfs.writeFile("lib/arm64-v8a/libx.so", so.length, channel -> {
+            // 分多次写入
+            channel.write(ByteBuffer.wrap(so, 0, 1000));
+            channel.write(ByteBuffer.wrap(so, 1000, so.length - 1000));
+        });
+        vfs.writeFile("classes.dex", dex.length, channel -> channel.write(ByteBuffer.wrap(dex)));
+        assertEquals(so.length, vfs.getTotalSize() - dex.length - "<original/>".length());
+        vfs.saveToApk(output.toString());
+
+        try (ZipFile zip = new ZipFile(output.toFile())) {
+            assertArrayEquals(so, read(zip, "lib/arm64-v8a/libx.so"));
+            assertArrayEquals(dex, read(zip, "classes.dex"));
+        }
+        ZipArchiveIndex outIndex = ZipArchiveIndex.read(output);
+        assertEquals(ZipEntry.STORED, outIndex.getEntry("lib/arm64-v8a/libx.so").getMethod());
+        assertEquals(ZipEntry.DEFLATED, outIndex.getEntry("classes.dex").getMethod());
+        assertTrue(ZipAlignUtil.isAligned(output.toString(), 4));
+
+        // 导出前读取会物化一次
+        assertArrayEquals(dex, vfs.readFile("classes.dex"));
+    }
+
+    @Test
+    @DisplayName("测试延迟内容大小与声明不一致时导出失败")
+    void testDeferredContentSizeMismatch() throws Exception {
+        Path source = createApk("source.apk");
+        Path output = tempDir.resolve("out.apk");
+
+        VirtualFileSystem vfs = new VirtualFileSystem();
+        vfs.loadFromApk(source.toString());
+        vfs.writeFile("assets/new.bin", 10, channel -> channel.write(ByteBuffer.wrap(new byte[5])));
+
+        assertThrows(IOException.class, () -> vfs.saveToApk(output.toString()));
+        assertThrows(IllegalStateException.class, () -> vfs.readFile("assets/new.bin"));
+    }
+
+    private Path createApk(String name) throws IOException {
+        return TestApkBuilder.nativeLibApk(tempDir.resolve(name), dexContent(), soContent(),
+                                           "<original/>".getBytes());
+    }
+
+    private static byte[] dexContent() {
+        byte[] data = new byte[32 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 97);
+        }
+        return data;
+    }
+
+    private static byte[] soContent() {
+        byte[] data = new byte[4096];
+        Arrays.fill(data, (byte) 0x7F);
+        return data;
+    }
+
+    private static byte[] read(ZipFile zip, String name) throws IOException {
+        try (InputStream is = zip.getInputStream(zip.getEntry(name))) {
+            return is.readAllBytes();
+        }
+    }
+
+    private static byte[] rawBytes(Path archive, ZipArchiveIndex.Entry entry) throws IOException {
+        try (FileChannel ch = FileChannel.open(archive, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate((int) entry.getCompressedSize());
+            ch.read(buf, entry.dataOffset(ch));
+            return buf.array();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.resources.validator;
+
+import com.resources.mapping.MappingValidator;
+import com.resources.model.ClassMapping;
+import com.resources.model.Transaction;
+import com.resources.model.ValidationResult;
+import com.resources.transaction.TransactionManager;
+import com.resources.util.DexClassCache;
+import com.resources.util.TestDexBuilder;
+import com.resources.util.VirtualFileSystem;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DexClassCollector测试
+ *
+ * @author Resources Processor Team
+ * @version 1.0.0
+ */
+public class DexClassCollectorTest {
+
+    private static final List<String> DEX1 = List.of("com.example.MainActivity", "com.example.Outer$Inner");
+    private static final List<String> DEX2 = List.of("com.example.feature.FeatureView", "a.B");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("测试串行与并行读取APK内的多个DEX")
+    void testCollectFromApk() throws IOException {
+        VirtualFileSystem vfs = loadApk(Map.of(
+            "classes.dex", TestDexBuilder.dex(DEX1),
+            "classes2.dex", TestDexBuilder.dex(DEX2),
+            "assets/other.dex", TestDexBuilder.dex(List.of("not.Collected"))));
+        DexClassCollector collector = new DexClassCollector(new DexClassCache());
+
+        DexClassCollector.Result serial = collector.collect(List.of(), vfs, null);
+        assertEquals(4, serial.getClasses().size());
+        assertTrue(serial.getClasses().containsAll(DEX1));
+        assertTrue(serial.getClasses().containsAll(DEX2));
+        assertEquals(Map.of("apk:classes.dex", 2, "apk:classes2.dex", 2), serial.getClassCounts());
+        assertTrue(serial.getFailures().isEmpty());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            DexClassCollector.Result parallel = collector.collect(List.of(), vfs, executor);
+            assertEquals(serial.getClasses(), parallel.getClasses());
+            assertEquals(serial.getClassCounts(), parallel.getClassCounts());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("测试单个DEX损坏不影响其他DEX")
+    void testCorruptDex() throws IOException {
+        byte[] corrupt = TestDexBuilder.dex(DEX2);
+        corrupt[0] = 'P';
+        VirtualFileSystem vfs = loadApk(Map.of(
+            "classes.dex", TestDexBuilder.dex(DEX1),
+            "classes2.dex", corrupt));
+        Path missing = tempDir.resolve("missing.dex");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            DexClassCollector.Result result = new DexClassCollector(new DexClassCache())
+                .collect(List.of(missing.toString()), vfs, executor);
+            assertEquals(Set.copyOf(DEX1), result.getClasses());
+            assertEquals(Set.of(missing.toString(), "apk:classes2.dex"), result.getFailures().keySet());
+            assertEquals(3, result.getDexCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("测试类名读取器无法读取的DEX回退到dexlib2")
+    void testFallbackToDexlib2() throws IOException {
+        // 包在ZIP容器里的DEX：类名读取器因magic不匹配而拒绝，dexlib2可以打开
+        ByteArrayOutputStream packed = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(packed)) {
+            zip.putNextEntry(new ZipEntry("classes.dex"));
+            zip.write(TestDexBuilder.dex(DEX2));
+            zip.closeEntry();
+        }
+        VirtualFileSystem vfs = loadApk(Map.of(
+            "classes.dex", TestDexBuilder.dex(DEX1),
+            "classes2.dex", packed.toByteArray()));
+
+        DexClassCollector.Result result = new DexClassCollector(new DexClassCache()).collect(List.of(), vfs, null);
+        assertTrue(result.getFailures().isEmpty(), result.getFailures().toString());
+        assertEquals(Map.of("apk:classes.dex", 2, "apk:classes2.dex", 2), result.getClassCounts());
+        assertTrue(result.getClasses().containsAll(DEX2));
+    }
+
+    @Test
+    @DisplayName("测试预检查只使用APK内的DEX")
+    void testValidateWithApkDex() throws IOException {
+        VirtualFileSystem vfs = loadApk(Map.of(
+            "classes.dex", TestDexBuilder.dex(DEX1),
+            "classes2.dex", TestDexBuilder.dex(DEX2)));
+        DexClassCache dexCache = new DexClassCache();
+        DexClassCollector.Result dexClasses = new DexClassCollector(dexCache).collect(List.of(), vfs, null);
+
+        ClassMapping valid = new ClassMapping();
+        valid.addMapping("com.old.MainActivity", "com.example.MainActivity");
+        ClassMapping invalid = new ClassMapping();
+        invalid.addMapping("com.old.Missing", "com.example.Missing");
+
+        assertTrue(new MappingValidator(dexCache).validateClasses(valid, dexClasses.getClasses()));
+        assertFalse(new MappingValidator(dexCache).validateClasses(invalid, dexClasses.getClasses()));
+        DexCrossValidator crossValidator = new DexCrossValidator(dexCache);
+        assertTrue(crossValidator.validateClasses(valid, dexClasses.getClasses()).isOverallSuccess());
+        assertFalse(crossValidator.validateClasses(invalid, dexClasses.getClasses()).isOverallSuccess());
+
+        TransactionManager manager = new TransactionManager(dexCache);
+        Transaction tx = new Transaction("tx-1", "app.apk", "snapshot");
+        ValidationResult result = manager.validate(tx, valid, null, List.of(), vfs, null);
+        assertTrue(result.isOverallSuccess());
+        assertEquals(Transaction.TransactionStatus.VALIDATED, tx.getStatus());
+
+        Transaction failed = new Transaction("tx-2", "app.apk", "snapshot");
+        assertFalse(manager.validate(failed, invalid, null, List.of(), vfs, null).isOverallSuccess());
+        assertEquals(Transaction.TransactionStatus.FAILED, failed.getStatus());
+    }
+
+    /**
+     * 以STORED方式写入APK并加载到VFS（DEX通过内存映射视图读取）
+     */
+    private VirtualFileSystem loadApk(Map<String, byte[]> entries) throws IOException {
+        Path apk = Files.createTempFile(tempDir, "app", ".apk");
+        try (OutputStream out = Files.newOutputStream(apk);
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                ZipEntry zipEntry = new ZipEntry(entry.getKey());
+                CRC32 crc = new CRC32();
+                crc.update(entry.getValue());
+                zipEntry.setMethod(ZipEntry.STORED);
+                zipEntry.setSize(entry.getValue().length);
+                zipEntry.setCompressedSize(entry.getValue().length);
+                zipEntry.setCrc(crc.getValue());
+                zip.putNextEntry(zipEntry);
+                zip.write(entry.getValue());
+                zip.closeEntry();
+            }
+        }
+        VirtualFileSystem vfs = new VirtualFileSystem(tempDir.resolve("vfs").toString());
+        vfs.loadFromApk(apk.toString());
+        return vfs;
+    }
+}